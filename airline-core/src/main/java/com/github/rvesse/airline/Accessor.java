@@ -16,10 +16,15 @@
 package com.github.rvesse.airline;
 
 import com.github.rvesse.airline.parser.ParserUtil;
+import com.github.rvesse.airline.parser.PrimitiveOptionValue;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -40,10 +45,19 @@ import org.apache.commons.collections4.ListUtils;
 
 public class Accessor
 {
+    /**
+     * Method handles are only used on JDK 8 and later, on JDK 7 the method
+     * handle implementation is slower than plain reflection so we keep using
+     * reflection there
+     */
+    private static final boolean USE_METHOD_HANDLES = !"1.7".equals(getSpecificationVersion());
+
     private final String name;
     private final Class<?> javaType;
     private final List<Field> path;
     private boolean multiValued;
+    private final boolean array;
+    private volatile FieldHandles handles;
 
     public Accessor(Field... path)
     {
@@ -74,8 +88,11 @@ public class Accessor
         this.name = nameBuilder.toString();
 
         Field field = this.path.get(this.path.size() - 1);
-        multiValued = Collection.class.isAssignableFrom(field.getType());
-        javaType = getItemType(name, field.getGenericType());
+        // Only arrays of the primitive types that the parser can hold unboxed
+        // are supported, other array types are rejected as before
+        array = field.getType().isArray() && PrimitiveOptionValue.isSupported(field.getType().getComponentType());
+        multiValued = array || Collection.class.isAssignableFrom(field.getType());
+        javaType = array ? field.getType().getComponentType() : getItemType(name, field.getGenericType());
     }
 
     public String getName()
@@ -93,7 +110,36 @@ public class Accessor
         return multiValued;
     }
 
+    public List<Field> getPath()
+    {
+        return path;
+    }
+
     public Object getValue(Object instance)
+    {
+        FieldHandles handles = getHandles();
+        if (handles == null) {
+            return getValueReflectively(instance);
+        }
+
+        for (int i = 0; i < path.size() - 1; i++) {
+            try {
+                Object nextInstance = handles.getters[i].invokeExact(instance);
+                if (nextInstance == null) {
+                    nextInstance = handles.constructors[i] != null ? handles.constructors[i].invokeExact()
+                            : ParserUtil.createInstance(path.get(i).getType());
+                    handles.setters[i].invokeExact(instance, nextInstance);
+                }
+                instance = nextInstance;
+            }
+            catch (Throwable e) {
+                throw new ParseException(asException(e), "Error getting value of %s", getPathName(i));
+            }
+        }
+        return instance;
+    }
+
+    private Object getValueReflectively(Object instance)
     {
         StringBuilder pathName = new StringBuilder();
         for (Field intermediateField : path.subList(0, path.size() - 1)) {
@@ -116,24 +162,107 @@ public class Accessor
         }
         return instance;
     }
+
+    private String getPathName(int index)
+    {
+        StringBuilder pathName = new StringBuilder();
+        for (Field intermediateField : path.subList(0, index + 1)) {
+            if (pathName.length() != 0) {
+                pathName.append(".");
+            }
+            pathName.append(intermediateField.getName());
+        }
+        return pathName.toString();
+    }
     
     public <T extends Annotation> T getAnnotation(Class<T> annotationCls) {
         Field lastField = path.get(path.size() - 1);
         return lastField.getAnnotation(annotationCls);
     }
 
+    @SuppressWarnings("unchecked")
     public void addValues(Object commandInstance, Iterable<?> values)
     {
         if (!values.iterator().hasNext()) {
             return;
         }
 
+        FieldHandles handles = getHandles();
+        if (handles == null) {
+            addValuesReflectively(commandInstance, values);
+            return;
+        }
+
         // get the actual instance
         Object instance = getValue(commandInstance);
 
+        int last = path.size() - 1;
+        Field field = path.get(last);
+        if (array) {
+            try {
+                Object value = handles.getters[last].invokeExact(instance);
+                handles.setters[last].invokeExact(instance, appendToArray(value, values));
+            }
+            catch (Throwable e) {
+                throw new ParseException(asException(e), "Error setting array field %s for argument %s", field.getName(), name);
+            }
+        }
+        else if (multiValued) {
+            Collection<Object> collection;
+            try {
+                Object value = handles.getters[last].invokeExact(instance);
+                collection = (Collection<Object>) value;
+            }
+            catch (Throwable e) {
+                throw new ParseException(asException(e), "Error getting collection field %s for argument %s", field.getName(), name);
+            }
+            if (collection == null) {
+                collection = newCollection(field.getType());
+                try {
+                    handles.setters[last].invokeExact(instance, (Object) collection);
+                }
+                catch (Throwable e) {
+                    throw new ParseException(asException(e), "Error setting collection field %s for argument %s", field.getName(), name);
+                }
+            }
+            CollectionUtils.addAll(collection, values);
+        }
+        else {
+            Object value = AirlineUtils.last(values);
+            try {
+                handles.setters[last].invokeExact(instance, value);
+            }
+            catch (ClassCastException e) {
+                // Values that need a widening conversion are left to reflection
+                try {
+                    field.set(instance, value);
+                }
+                catch (Exception ex) {
+                    throw new ParseException(ex, "Error setting %s for argument %s", field.getName(), name);
+                }
+            }
+            catch (Throwable e) {
+                throw new ParseException(asException(e), "Error setting %s for argument %s", field.getName(), name);
+            }
+        }
+    }
+
+    private void addValuesReflectively(Object commandInstance, Iterable<?> values)
+    {
+        // get the actual instance
+        Object instance = getValueReflectively(commandInstance);
+
         Field field = path.get(path.size() - 1);
         field.setAccessible(true);
-        if (Collection.class.isAssignableFrom(field.getType())) {
+        if (array) {
+            try {
+                field.set(instance, appendToArray(field.get(instance), values));
+            }
+            catch (Exception e) {
+                throw new ParseException(e, "Error setting array field %s for argument %s", field.getName(), name);
+            }
+        }
+        else if (Collection.class.isAssignableFrom(field.getType())) {
             Collection<Object> collection = getOrCreateCollectionField(name, instance, field);
             CollectionUtils.addAll(collection, values);
         }
@@ -148,13 +277,188 @@ public class Accessor
 
     }
 
+    /**
+     * Adds primitive values without boxing them
+     * <p>
+     * This is only possible when the values are of exactly the type of the
+     * field, or of the component type of an array field, otherwise
+     * {@link #addValues(Object, Iterable)} must be used instead.
+     * </p>
+     * 
+     * @param commandInstance
+     *            Command instance
+     * @param values
+     *            Values, all of the same type
+     * @return True if the values were added, false if they could not be added
+     *         without boxing
+     */
+    public boolean addPrimitiveValues(Object commandInstance, List<PrimitiveOptionValue> values)
+    {
+        if (values.isEmpty()) {
+            return true;
+        }
+        Class<?> type = values.get(0).getType();
+        if (type != javaType) {
+            return false;
+        }
+
+        FieldHandles handles = getHandles();
+        Object instance = handles != null ? getValue(commandInstance) : getValueReflectively(commandInstance);
+
+        int last = path.size() - 1;
+        Field field = path.get(last);
+        try {
+            if (array) {
+                if (handles != null) {
+                    Object value = handles.getters[last].invokeExact(instance);
+                    handles.setters[last].invokeExact(instance, appendToArray(value, values));
+                }
+                else {
+                    field.setAccessible(true);
+                    field.set(instance, appendToArray(field.get(instance), values));
+                }
+            }
+            else if (handles != null) {
+                setPrimitive(handles.primitiveSetter, instance, values.get(values.size() - 1));
+            }
+            else {
+                field.setAccessible(true);
+                setPrimitive(field, instance, values.get(values.size() - 1));
+            }
+        }
+        catch (Throwable e) {
+            throw new ParseException(asException(e), "Error setting %s for argument %s", field.getName(), name);
+        }
+        return true;
+    }
+
+    private static void setPrimitive(MethodHandle setter, Object instance, PrimitiveOptionValue value) throws Throwable
+    {
+        Class<?> type = value.getType();
+        if (type == int.class) {
+            setter.invokeExact(instance, value.getInt());
+        }
+        else if (type == long.class) {
+            setter.invokeExact(instance, value.getLong());
+        }
+        else if (type == double.class) {
+            setter.invokeExact(instance, value.getDouble());
+        }
+        else {
+            setter.invokeExact(instance, value.getBoolean());
+        }
+    }
+
+    private static void setPrimitive(Field field, Object instance, PrimitiveOptionValue value) throws IllegalAccessException
+    {
+        Class<?> type = value.getType();
+        if (type == int.class) {
+            field.setInt(instance, value.getInt());
+        }
+        else if (type == long.class) {
+            field.setLong(instance, value.getLong());
+        }
+        else if (type == double.class) {
+            field.setDouble(instance, value.getDouble());
+        }
+        else {
+            field.setBoolean(instance, value.getBoolean());
+        }
+    }
+
+    /**
+     * Creates a new array containing the elements of the existing array, if
+     * any, followed by the given primitive values
+     */
+    private Object appendToArray(Object existing, List<PrimitiveOptionValue> values)
+    {
+        int offset = existing != null ? Array.getLength(existing) : 0;
+        int size = offset + values.size();
+        if (javaType == int.class) {
+            int[] result = existing != null ? Arrays.copyOf((int[]) existing, size) : new int[size];
+            for (int i = 0; i < values.size(); i++) {
+                result[offset + i] = values.get(i).getInt();
+            }
+            return result;
+        }
+        else if (javaType == long.class) {
+            long[] result = existing != null ? Arrays.copyOf((long[]) existing, size) : new long[size];
+            for (int i = 0; i < values.size(); i++) {
+                result[offset + i] = values.get(i).getLong();
+            }
+            return result;
+        }
+        else if (javaType == double.class) {
+            double[] result = existing != null ? Arrays.copyOf((double[]) existing, size) : new double[size];
+            for (int i = 0; i < values.size(); i++) {
+                result[offset + i] = values.get(i).getDouble();
+            }
+            return result;
+        }
+        else {
+            boolean[] result = existing != null ? Arrays.copyOf((boolean[]) existing, size) : new boolean[size];
+            for (int i = 0; i < values.size(); i++) {
+                result[offset + i] = values.get(i).getBoolean();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Creates a new array containing the elements of the existing array, if
+     * any, followed by the given values
+     */
+    private Object appendToArray(Object existing, Iterable<?> values)
+    {
+        List<?> items = values instanceof List ? (List<?>) values : IteratorUtils.toList(values.iterator());
+        int offset = existing != null ? Array.getLength(existing) : 0;
+        Object result = Array.newInstance(javaType, offset + items.size());
+        if (existing != null) {
+            System.arraycopy(existing, 0, result, 0, offset);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Array.set(result, offset + i, items.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the method handles used to access the field path, these are built
+     * once on first use
+     * 
+     * @return Method handles or {@code null} if the reflective path must be
+     *         used
+     */
+    private FieldHandles getHandles()
+    {
+        if (!USE_METHOD_HANDLES) {
+            return null;
+        }
+        FieldHandles handles = this.handles;
+        if (handles == null) {
+            // Benign race, at worst the handles are built more than once
+            handles = FieldHandles.create(path);
+            this.handles = handles;
+        }
+        return handles != FieldHandles.UNAVAILABLE ? handles : null;
+    }
+
+    private static Exception asException(Throwable e)
+    {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return (Exception) e;
+    }
+
     @Override
     public boolean equals(Object o)
     {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        // Generated accessors subclass this class so compare on the path only
+        if (!(o instanceof Accessor)) {
             return false;
         }
 
@@ -183,6 +487,89 @@ public class Accessor
     // Private reflection helper methods
     //
 
+    private static String getSpecificationVersion()
+    {
+        try {
+            return System.getProperty("java.specification.version");
+        }
+        catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cached method handles for a field path
+     * <p>
+     * Getters are adapted to the {@code (Object)Object} type and setters to
+     * the {@code (Object,Object)void} type so they can be invoked exactly.
+     * Where the last field is of a primitive type there is also a setter
+     * adapted to the {@code (Object,primitive)void} type.
+     * Constructors are only present for intermediate fields whose type has an
+     * accessible no-argument constructor.
+     * </p>
+     */
+    private static final class FieldHandles
+    {
+        private static final FieldHandles UNAVAILABLE = new FieldHandles(null, null, null, null);
+
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+        private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+        private final MethodHandle[] getters, setters, constructors;
+        private final MethodHandle primitiveSetter;
+
+        private FieldHandles(MethodHandle[] getters, MethodHandle[] setters, MethodHandle[] constructors, MethodHandle primitiveSetter)
+        {
+            this.getters = getters;
+            this.setters = setters;
+            this.constructors = constructors;
+            this.primitiveSetter = primitiveSetter;
+        }
+
+        static FieldHandles create(List<Field> path)
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle[] getters = new MethodHandle[path.size()];
+            MethodHandle[] setters = new MethodHandle[path.size()];
+            MethodHandle[] constructors = new MethodHandle[path.size()];
+            MethodHandle primitiveSetter = null;
+            try {
+                for (int i = 0; i < path.size(); i++) {
+                    Field field = path.get(i);
+                    field.setAccessible(true);
+                    getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                    setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                    if (i < path.size() - 1) {
+                        constructors[i] = findConstructor(lookup, field.getType());
+                    }
+                    else if (field.getType().isPrimitive()) {
+                        primitiveSetter = lookup.unreflectSetter(field).asType(
+                                MethodType.methodType(void.class, Object.class, field.getType()));
+                    }
+                }
+            }
+            catch (IllegalAccessException | RuntimeException e) {
+                // Fall back to reflection e.g. for final fields or where a
+                // security manager or module boundary prevents access
+                return UNAVAILABLE;
+            }
+            return new FieldHandles(getters, setters, constructors, primitiveSetter);
+        }
+
+        private static MethodHandle findConstructor(MethodHandles.Lookup lookup, Class<?> type)
+        {
+            try {
+                return lookup.unreflectConstructor(type.getConstructor()).asType(CONSTRUCTOR_TYPE);
+            }
+            catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+                // Leave instance creation, and its error reporting, to
+                // ParserUtil
+                return null;
+            }
+        }
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private static Collection<Object> newCollection(Class<?> type)
     {
@@ -22,7 +22,9 @@ import org.apache.commons.collections4.ListUtils;
 import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParsePlan;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.command.CliParser;
 
@@ -51,6 +53,7 @@ public class Cli<C> {
     }
 
     private final GlobalMetadata<C> metadata;
+    private final ParsePlan<C> plan;
 
     /**
      * Creates a new CLI from a class annotated with the
@@ -63,6 +66,28 @@ public class Cli<C> {
         this(MetadataLoader.<C> loadGlobal(cliClass));
     }
 
+    /**
+     * Creates a new CLI from a meta-data snapshot, typically one created at
+     * build time by the {@code snapshot} goal of the
+     * {@code airline-maven-plugin}
+     * 
+     * @param snapshot
+     *            Meta-data snapshot
+     * @see MetadataSnapshot#load(Class)
+     * @see MetadataSnapshot#loadOrCreate(Class)
+     */
+    public Cli(MetadataSnapshot snapshot) {
+        this(requireSnapshot(snapshot).<C> loadGlobal());
+    }
+
+    private static MetadataSnapshot requireSnapshot(MetadataSnapshot snapshot) {
+        if (snapshot == null)
+            throw new NullPointerException(String.format(
+                    "snapshot cannot be null, MetadataSnapshot.load() returns null when no %s<class>%s resource is present on the class path, use MetadataSnapshot.loadOrCreate() to fall back to reflective loading",
+                    MetadataSnapshot.RESOURCE_PREFIX, MetadataSnapshot.RESOURCE_SUFFIX));
+        return snapshot;
+    }
+
     /**
      * Creates a new CLI from a class annotated with the
      * {@link com.github.rvesse.airline.annotations.Cli} annotation
@@ -86,9 +111,40 @@ public class Cli<C> {
      *            Metadata
      */
     public Cli(GlobalMetadata<C> metadata) {
+        this(metadata, null);
+    }
+
+    private Cli(GlobalMetadata<C> metadata, ParsePlan<C> plan) {
         if (metadata == null)
             throw new NullPointerException("metadata cannot be null");
         this.metadata = metadata;
+        this.plan = plan;
+    }
+
+    /**
+     * Compiles the CLI producing a CLI that uses a precomputed parse plan
+     * <p>
+     * The returned CLI precomputes per-context parsing decisions once rather
+     * than deriving them from the metadata during every parse, it is immutable
+     * and may be shared between threads. Compiling is worthwhile when the same
+     * CLI will be used to parse many command lines.
+     * </p>
+     * 
+     * @return Compiled CLI
+     */
+    public Cli<C> compile() {
+        if (this.plan != null)
+            return this;
+        return new Cli<C>(this.metadata, ParsePlan.compile(this.metadata));
+    }
+
+    /**
+     * Gets the parse plan in use
+     * 
+     * @return Parse plan, {@code null} if this CLI has not been compiled
+     */
+    public ParsePlan<C> getParsePlan() {
+        return plan;
     }
 
     /**
@@ -123,7 +179,7 @@ public class Cli<C> {
      * @return Command instance
      */
     private C parse(Iterable<String> args) {
-        CliParser<C> parser = new CliParser<C>();
+        CliParser<C> parser = new CliParser<C>(plan);
         return parser.parse(metadata, args);
     }
 
@@ -154,7 +210,7 @@ public class Cli<C> {
      * @return Parse result
      */
     public ParseResult<C> parseWithResult(Iterable<String> args) {
-        CliParser<C> parser = new CliParser<C>();
+        CliParser<C> parser = new CliParser<C>(plan);
         return parser.parseWithResult(metadata, args);
     }
 }
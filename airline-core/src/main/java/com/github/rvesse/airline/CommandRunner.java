@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * Parses and runs commands of a CLI reporting errors and producing exit codes
+ * <p>
+ * This is the common logic behind hosts that run many commands over the
+ * lifetime of a single JVM, such as {@link Shell} and the command server. The
+ * meta-data of the CLI is only loaded once and a single parse plan, compiled
+ * when the runner is created, is used for every command.
+ * </p>
+ * <p>
+ * Commands are expected to implement either {@link Runnable} or
+ * {@link Callable}, derived runners may override {@link #execute(Object)} to
+ * support other command types or exit code conventions.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class CommandRunner<C> {
+
+    /**
+     * Exit code used when the arguments could not be parsed
+     */
+    public static final int EXIT_PARSE_ERROR = 2;
+
+    /**
+     * Exit code used when a command fails with an error
+     */
+    public static final int EXIT_ERROR = 1;
+
+    private final Cli<C> cli;
+
+    /**
+     * Creates a new runner
+     * 
+     * @param cli
+     *            CLI
+     */
+    public CommandRunner(Cli<C> cli) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        this.cli = cli.compile();
+    }
+
+    /**
+     * Gets the CLI whose commands are run
+     * 
+     * @return Compiled CLI
+     */
+    public Cli<C> getCli() {
+        return this.cli;
+    }
+
+    /**
+     * Parses and runs a single command
+     * 
+     * @param args
+     *            Arguments
+     * @param err
+     *            Output to which errors are written
+     * @return Exit code
+     */
+    public int run(List<String> args, PrintStream err) {
+        C command;
+        try {
+            command = this.cli.parse(args.toArray(new String[args.size()]));
+        } catch (ParseException e) {
+            return parseError(e, err);
+        }
+
+        try {
+            return execute(command);
+        } catch (Throwable e) {
+            err.println("Command threw error: " + e.getMessage());
+            e.printStackTrace(err);
+            return EXIT_ERROR;
+        }
+    }
+
+    /**
+     * Reports an error parsing arguments
+     * 
+     * @param e
+     *            Error
+     * @param err
+     *            Output to which errors are written
+     * @return Exit code
+     */
+    public int parseError(ParseException e, PrintStream err) {
+        err.println("Parser error: " + e.getMessage());
+        return EXIT_PARSE_ERROR;
+    }
+
+    /**
+     * Runs a parsed command and determines its exit code
+     * <p>
+     * By default {@link Callable} commands are called and their result used
+     * as the exit code if it is a number, otherwise {@code 0}, and
+     * {@link Runnable} commands are run with an exit code of {@code 0}. Any
+     * error thrown produces an exit code of {@link #EXIT_ERROR}.
+     * </p>
+     * 
+     * @param command
+     *            Command
+     * @return Exit code
+     * @throws Exception
+     *             Thrown if the command fails
+     */
+    protected int execute(C command) throws Exception {
+        if (command instanceof Callable) {
+            Object result = ((Callable<?>) command).call();
+            return result instanceof Number ? ((Number) result).intValue() : 0;
+        } else if (command instanceof Runnable) {
+            ((Runnable) command).run();
+            return 0;
+        }
+        throw new UnsupportedOperationException(String.format("Command %s is neither Runnable nor Callable",
+                command != null ? command.getClass().getName() : null));
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.help.suggester.CompletionEngine;
+import com.github.rvesse.airline.parser.aliases.AliasArgumentsParser;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * An interactive shell that reads command lines and runs the commands of a
+ * CLI
+ * <p>
+ * Each line is split into arguments using the same rules as alias
+ * definitions, i.e. arguments are separated by white space, may be enclosed
+ * in double quotes and may escape white space and quotes with a backslash.
+ * The arguments are parsed and the resulting command run by a
+ * {@link CommandRunner} so the meta-data of the CLI is only loaded once and a
+ * single parse plan is used for every line. Blank lines and lines starting with
+ * {@code #} are ignored and the shell ends when its input is exhausted or the
+ * user enters {@code exit} or {@code quit}, unless the CLI defines commands
+ * with those names.
+ * </p>
+ * <p>
+ * Commands are expected to implement either {@link Runnable} or
+ * {@link java.util.concurrent.Callable}, supply a derived
+ * {@link CommandRunner} to support other command types. Errors are reported
+ * and the shell carries on reading commands. Shells that provide line editing may use
+ * {@link #complete(String)} to offer completions.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class Shell<C> {
+
+    private final CommandRunner<C> runner;
+    private final String prompt;
+
+    /**
+     * Creates a new shell whose prompt is the name of the CLI
+     * 
+     * @param cli
+     *            CLI
+     */
+    public Shell(Cli<C> cli) {
+        this(cli, cli.getMetadata().getName() + "> ");
+    }
+
+    /**
+     * Creates a new shell
+     * 
+     * @param cli
+     *            CLI
+     * @param prompt
+     *            Prompt shown before reading each line, may be {@code null}
+     *            or empty for no prompt
+     */
+    public Shell(Cli<C> cli, String prompt) {
+        this(new CommandRunner<C>(cli), prompt);
+    }
+
+    /**
+     * Creates a new shell
+     * 
+     * @param runner
+     *            Runner used to parse and run commands
+     * @param prompt
+     *            Prompt shown before reading each line, may be {@code null}
+     *            or empty for no prompt
+     */
+    public Shell(CommandRunner<C> runner, String prompt) {
+        if (runner == null)
+            throw new NullPointerException("runner cannot be null");
+        this.runner = runner;
+        this.prompt = prompt;
+    }
+
+    /**
+     * Gets the CLI whose commands the shell runs
+     * 
+     * @return CLI
+     */
+    public Cli<C> getCli() {
+        return this.runner.getCli();
+    }
+
+    /**
+     * Runs the shell using the standard streams
+     * 
+     * @return Exit code of the last command run
+     * @throws IOException
+     *             Thrown if reading the input fails
+     */
+    public int run() throws IOException {
+        return run(new InputStreamReader(System.in), System.out, System.err);
+    }
+
+    /**
+     * Runs the shell
+     * 
+     * @param input
+     *            Input to read command lines from
+     * @param out
+     *            Output to which the prompt is written
+     * @param err
+     *            Output to which errors are written
+     * @return Exit code of the last command run
+     * @throws IOException
+     *             Thrown if reading the input fails
+     */
+    public int run(Reader input, PrintStream out, PrintStream err) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input
+                : new BufferedReader(input);
+        int exitCode = 0;
+        while (true) {
+            if (this.prompt != null && !this.prompt.isEmpty()) {
+                out.print(this.prompt);
+                out.flush();
+            }
+            String line = reader.readLine();
+            if (line == null)
+                break;
+
+            List<String> args;
+            try {
+                args = tokenize(line);
+            } catch (ParseException e) {
+                exitCode = this.runner.parseError(e, err);
+                continue;
+            }
+            if (args.isEmpty())
+                continue;
+            if (isExit(args))
+                break;
+            exitCode = execute(args, err);
+        }
+        return exitCode;
+    }
+
+    /**
+     * Parses and runs a single command
+     * 
+     * @param args
+     *            Arguments
+     * @param err
+     *            Output to which errors are written
+     * @return Exit code
+     */
+    public int execute(List<String> args, PrintStream err) {
+        return this.runner.run(args, err);
+    }
+
+    /**
+     * Splits a line into arguments
+     * 
+     * @param line
+     *            Line
+     * @return Arguments, empty if the line is blank or a comment
+     * @throws ParseException
+     *             Thrown if the line contains mismatched quotes
+     */
+    protected List<String> tokenize(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#"))
+            return Collections.emptyList();
+        return AliasArgumentsParser.parse(trimmed);
+    }
+
+    /**
+     * Gets whether the arguments ask the shell to exit
+     * 
+     * @param args
+     *            Arguments
+     * @return True if the shell should exit
+     */
+    protected boolean isExit(List<String> args) {
+        if (args.size() != 1)
+            return false;
+        String arg = args.get(0);
+        if (!"exit".equals(arg) && !"quit".equals(arg))
+            return false;
+        // Commands and groups defined by the CLI take precedence
+        return !getCli().getMetadata().getDefaultGroupCommandIndex().containsKey(arg)
+                && !getCli().getMetadata().getCommandGroupIndex().containsKey(arg);
+    }
+
+    /**
+     * Gets the completions for a partially typed line
+     * <p>
+     * The final argument of the line is completed, if the line ends with
+     * white space a new argument is completed.
+     * </p>
+     * 
+     * @param line
+     *            Partial line
+     * @return Completions for the final argument
+     */
+    public List<String> complete(String line) {
+        List<String> args;
+        try {
+            args = AliasArgumentsParser.parse(line);
+        } catch (ParseException e) {
+            // Can't complete within an unterminated quoted argument
+            return Collections.emptyList();
+        }
+        String token = "";
+        if (!args.isEmpty() && !line.isEmpty() && !Character.isWhitespace(line.charAt(line.length() - 1))) {
+            token = args.get(args.size() - 1);
+            args = args.subList(0, args.size() - 1);
+        }
+        return CompletionEngine.forMetadata(getCli().getMetadata()).complete(args, token);
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.commons.collections4.IteratorUtils;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParsePlan;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.command.SingleCommandParser;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
@@ -68,6 +69,7 @@ public class SingleCommand<C> {
     private final ParserMetadata<C> parserConfig;
     private final CommandMetadata commandMetadata;
     private final List<GlobalRestriction> restrictions;
+    private final ParsePlan<C> plan;
 
     private SingleCommand(Class<C> command, Iterable<GlobalRestriction> restrictions, ParserMetadata<C> parserConfig) {
         if (command == null)
@@ -78,6 +80,14 @@ public class SingleCommand<C> {
         this.restrictions = createRestrictions(command, restrictions);
 
         commandMetadata = MetadataLoader.loadCommand(command);
+        this.plan = null;
+    }
+
+    private SingleCommand(SingleCommand<C> command, ParsePlan<C> plan) {
+        this.parserConfig = command.parserConfig;
+        this.restrictions = command.restrictions;
+        this.commandMetadata = command.commandMetadata;
+        this.plan = plan;
     }
     
     private List<GlobalRestriction> createRestrictions(Class<C> commandClass, Iterable<GlobalRestriction> restrictions) {
@@ -89,12 +99,9 @@ public class SingleCommand<C> {
         }
         
         // Look for annotation declared restrictions
-        for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                .getGlobalRestrictionAnnotationClasses()) {
-            Annotation annotation = commandClass.getAnnotation(annotationClass);
-            if (annotation == null)
-                continue;
-            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotationClass, annotation);
+        for (Annotation annotation : commandClass.getAnnotations()) {
+            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotation.annotationType(),
+                    annotation);
             if (restriction != null)
                 foundRestrictions.add(restriction);
         }
@@ -125,6 +132,32 @@ public class SingleCommand<C> {
         return parserConfig;
     }
 
+    /**
+     * Compiles the command producing a single command that uses a precomputed
+     * parse plan
+     * <p>
+     * The returned single command precomputes parsing decisions once rather
+     * than deriving them from the metadata during every parse, it is immutable
+     * and may be shared between threads.
+     * </p>
+     * 
+     * @return Compiled single command
+     */
+    public SingleCommand<C> compile() {
+        if (this.plan != null)
+            return this;
+        return new SingleCommand<C>(this, ParsePlan.compile(this.parserConfig, this.commandMetadata));
+    }
+
+    /**
+     * Gets the parse plan in use
+     * 
+     * @return Parse plan, {@code null} if this command has not been compiled
+     */
+    public ParsePlan<C> getParsePlan() {
+        return plan;
+    }
+
     /**
      * Parses the arguments to produce a command instance
      * 
@@ -144,7 +177,7 @@ public class SingleCommand<C> {
      * @return Command instance
      */
     public C parse(Iterable<String> args) {
-        SingleCommandParser<C> parser = new SingleCommandParser<C>();
+        SingleCommandParser<C> parser = new SingleCommandParser<C>(plan);
         return parser.parse(parserConfig, commandMetadata, restrictions, args);
     }
 
@@ -171,7 +204,7 @@ public class SingleCommand<C> {
      * @return Parse result
      */
     public ParseResult<C> parseWithResult(Iterable<String> args) {
-        SingleCommandParser<C> parser = new SingleCommandParser<C>();
+        SingleCommandParser<C> parser = new SingleCommandParser<C>(plan);
         return parser.parseWithResult(parserConfig, commandMetadata, restrictions, args);
     }
 }
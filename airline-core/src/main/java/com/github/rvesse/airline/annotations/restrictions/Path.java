@@ -63,4 +63,18 @@ public @interface Path {
      * @return Expected file kind
      */
     public PathKind kind() default PathKind.ANY;
+
+    /**
+     * Gets/Sets whether values are validated in parallel
+     * <p>
+     * When enabled validation is deferred until parsing has finished and all
+     * the values are then validated concurrently, this is useful for options
+     * and arguments that receive large numbers of paths on high latency file
+     * systems. Any violations are reported after parsing rather than as each
+     * value is parsed.
+     * </p>
+     * 
+     * @return True if values are validated in parallel, false otherwise
+     */
+    public boolean parallel() default false;
 }
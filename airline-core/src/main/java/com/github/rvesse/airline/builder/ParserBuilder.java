@@ -25,7 +25,9 @@ import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
+import com.github.rvesse.airline.parser.errors.handlers.ClassErrorHandlerFactory;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandlerFactory;
 import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
 import com.github.rvesse.airline.parser.options.LongGetOptParser;
 import com.github.rvesse.airline.parser.options.OptionParser;
@@ -53,6 +55,7 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
     protected String argsSeparator, flagNegationPrefix;
     protected UserAliasSourceBuilder<C> userAliasesBuilder = new UserAliasSourceBuilder<>(this);
     protected ParserErrorHandler errorHandler;
+    protected ParserErrorHandlerFactory errorHandlerFactory;
 
     /**
      * Gets the default configuration
@@ -425,9 +428,42 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
      */
     public ParserBuilder<C> withErrorHandler(ParserErrorHandler errorHandler) {
         this.errorHandler = errorHandler;
+        this.errorHandlerFactory = null;
         return this;
     }
 
+    /**
+     * Sets the error handler factory to use, the factory is used to create a
+     * new error handler for each parse
+     * <p>
+     * This should be preferred over {@link #withErrorHandler(ParserErrorHandler)}
+     * when using error handlers that collect errors (such as
+     * {@code CollectAll}) with a parser that will be used from multiple threads
+     * concurrently.
+     * </p>
+     * 
+     * @param errorHandlerFactory
+     *            Error handler factory
+     * @return Builder
+     */
+    public ParserBuilder<C> withErrorHandlerFactory(ParserErrorHandlerFactory errorHandlerFactory) {
+        this.errorHandlerFactory = errorHandlerFactory;
+        this.errorHandler = null;
+        return this;
+    }
+
+    /**
+     * Sets the error handler class to use, a new instance of the class is
+     * created for each parse
+     * 
+     * @param errorHandlerClass
+     *            Error handler class
+     * @return Builder
+     */
+    public ParserBuilder<C> withErrorHandlerClass(Class<? extends ParserErrorHandler> errorHandlerClass) {
+        return withErrorHandlerFactory(new ClassErrorHandlerFactory(errorHandlerClass));
+    }
+
     /**
      * Sets that the default error handler should be used
      * 
@@ -435,6 +471,7 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
      */
     public ParserBuilder<C> withDefaultErrorHandler() {
         this.errorHandler = null;
+        this.errorHandlerFactory = null;
         return this;
     }
 
@@ -590,7 +627,7 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         typeConverter.setNumericConverter(this.numericTypeConverter);
 
         return new ParserMetadata<C>(commandFactory, optionParsers, typeConverter, errorHandler,
-                allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases, aliasesOverrideBuiltIns,
-                aliasesMayChain, argsSeparator, flagNegationPrefix);
+                errorHandlerFactory, allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases,
+                aliasesOverrideBuiltIns, aliasesMayChain, argsSeparator, flagNegationPrefix);
     }
 }
\ No newline at end of file
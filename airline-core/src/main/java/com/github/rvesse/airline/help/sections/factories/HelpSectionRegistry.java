@@ -16,19 +16,25 @@
 package com.github.rvesse.airline.help.sections.factories;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
 import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.MetadataLoader;
 
 /**
  * Registry which maps annotations to help sections
+ * <p>
+ * The registry is copy on write so lookups never need to lock and may safely
+ * happen concurrently with registrations.
+ * </p>
  */
 public class HelpSectionRegistry {
 
-    private static final Map<Class<? extends Annotation>, HelpSectionFactory> FACTORIES = new HashMap<>();
+    private static volatile Map<Class<? extends Annotation>, HelpSectionFactory> FACTORIES = Collections.emptyMap();
     private static boolean init = false;
 
     static {
@@ -38,27 +44,40 @@ public class HelpSectionRegistry {
     static synchronized void init() {
         if (init)
             return;
+        load(FACTORIES);
+        init = true;
+    }
 
+    /**
+     * Loads the factories available via the {@link ServiceLoader} mechanism on
+     * top of the given registrations, the new registrations are only published
+     * once complete so concurrent lookups never see a partial registry
+     */
+    private static void load(Map<Class<? extends Annotation>, HelpSectionFactory> baseFactories) {
+        Map<Class<? extends Annotation>, HelpSectionFactory> factories = new HashMap<>(baseFactories);
         ServiceLoader<HelpSectionFactory> helpSectionFactories = ServiceLoader.load(HelpSectionFactory.class);
         for (HelpSectionFactory factory : helpSectionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedAnnotations()) {
-                FACTORIES.put(cls, factory);
+                factories.put(cls, factory);
             }
         }
-
-        init = true;
+        FACTORIES = Collections.unmodifiableMap(factories);
     }
 
     public static synchronized void reset() {
-        init = false;
-        FACTORIES.clear();
-        init();
+        Map<Class<? extends Annotation>, HelpSectionFactory> noFactories = Collections.emptyMap();
+        load(noFactories);
+        init = true;
+        MetadataLoader.clearCache();
     }
 
-    public static void addFactory(Class<? extends Annotation> cls, HelpSectionFactory factory) {
+    public static synchronized void addFactory(Class<? extends Annotation> cls, HelpSectionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        FACTORIES.put(cls, factory);
+        Map<Class<? extends Annotation>, HelpSectionFactory> factories = new HashMap<>(FACTORIES);
+        factories.put(cls, factory);
+        FACTORIES = Collections.unmodifiableMap(factories);
+        MetadataLoader.clearCache();
     }
 
     public static Set<Class<? extends Annotation>> getAnnotationClasses() {
@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.suggester.SuggestionParser;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.AbstractAllowedValuesRestriction;
+import com.github.rvesse.airline.utils.PrefixIndex;
+
+/**
+ * An engine for interactive completion of command lines
+ * <p>
+ * Given the arguments preceding the cursor and the partial token at the cursor
+ * the engine determines what is being completed, i.e. a group, command, option
+ * name or option value, and returns the candidates that start with the partial
+ * token. Candidates are looked up in prefix indexes that are built once, on
+ * first use, for each part of the CLI so the cost of finding candidates is
+ * proportional to the length of the partial token rather than to the size of
+ * the CLI. Option value candidates are taken from
+ * {@link com.github.rvesse.airline.annotations.restrictions.AllowedValues} and
+ * {@link com.github.rvesse.airline.annotations.restrictions.AllowedRawValues}
+ * restrictions.
+ * </p>
+ * <p>
+ * Hidden groups, commands and options are never offered as candidates.
+ * Engines are safe to share between threads, use
+ * {@link #forMetadata(GlobalMetadata)} to obtain a shared engine for a CLI.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class CompletionEngine<T> {
+
+    /**
+     * Shared engines, an engine references its meta-data so it is only softly
+     * reachable from here otherwise the meta-data could never be collected
+     */
+    private static final Map<GlobalMetadata<?>, SoftReference<CompletionEngine<?>>> ENGINES = new WeakHashMap<GlobalMetadata<?>, SoftReference<CompletionEngine<?>>>();
+
+    private final GlobalMetadata<T> metadata;
+    private final PrefixIndex global;
+    private final Map<Object, PrefixIndex> indexes = new IdentityHashMap<Object, PrefixIndex>();
+
+    /**
+     * Creates a new completion engine
+     * 
+     * @param metadata
+     *            Global meta-data
+     */
+    public CompletionEngine(GlobalMetadata<T> metadata) {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        this.metadata = metadata;
+
+        List<String> candidates = new ArrayList<String>();
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            if (!group.isHidden())
+                candidates.add(group.getName());
+        }
+        addCommands(metadata.getDefaultGroupCommands(), candidates);
+        addOptions(metadata.getOptions(), candidates);
+        this.global = new PrefixIndex(candidates);
+    }
+
+    /**
+     * Gets a shared completion engine for the given CLI
+     * 
+     * @param metadata
+     *            Global meta-data
+     * @return Completion engine
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletionEngine<T> forMetadata(GlobalMetadata<T> metadata) {
+        synchronized (ENGINES) {
+            SoftReference<CompletionEngine<?>> ref = ENGINES.get(metadata);
+            CompletionEngine<T> engine = ref != null ? (CompletionEngine<T>) ref.get() : null;
+            if (engine == null) {
+                engine = new CompletionEngine<T>(metadata);
+                ENGINES.put(metadata, new SoftReference<CompletionEngine<?>>(engine));
+            }
+            return engine;
+        }
+    }
+
+    private static void addCommands(List<CommandMetadata> commands, List<String> candidates) {
+        for (CommandMetadata command : commands) {
+            if (!command.isHidden())
+                candidates.add(command.getName());
+        }
+    }
+
+    private static void addOptions(List<OptionMetadata> options, List<String> candidates) {
+        for (OptionMetadata option : options) {
+            if (!option.isHidden())
+                candidates.addAll(option.getOptions());
+        }
+    }
+
+    /**
+     * Gets the candidates for completing a partial token
+     * 
+     * @param args
+     *            Arguments preceding the partial token
+     * @param token
+     *            Partial token, may be empty or {@code null} if nothing has
+     *            yet been typed
+     * @return Candidates in sorted order
+     */
+    public List<String> complete(Iterable<String> args, String token) {
+        SuggestionParser<T> parser = new SuggestionParser<T>();
+        ParseState<T> state = parser.parse(this.metadata, args, new CollectAll());
+        return complete(state, token);
+    }
+
+    /**
+     * Gets the candidates for completing a partial token following the
+     * arguments that produced the given parser state
+     * 
+     * @param state
+     *            Parser state
+     * @param token
+     *            Partial token, may be empty or {@code null} if nothing has
+     *            yet been typed
+     * @return Candidates in sorted order
+     */
+    public List<String> complete(ParseState<T> state, String token) {
+        switch (state.getLocation()) {
+        case GLOBAL:
+            return this.global.find(token);
+        case GROUP:
+            return index(state.getGroup()).find(token);
+        case COMMAND:
+            return index(state.getCommand()).find(token);
+        case OPTION:
+            OptionMetadata option = state.getCurrentOption();
+            if (token != null && isCaseInsensitive(option))
+                token = token.toLowerCase(Locale.ENGLISH);
+            return index(option).find(token);
+        default:
+            return Collections.emptyList();
+        }
+    }
+
+    private static boolean isCaseInsensitive(OptionMetadata option) {
+        if (option == null)
+            return false;
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            if (restriction instanceof AbstractAllowedValuesRestriction
+                    && ((AbstractAllowedValuesRestriction) restriction).isCaseInsensitive())
+                return true;
+        }
+        return false;
+    }
+
+    private PrefixIndex index(Object item) {
+        if (item == null)
+            return this.global;
+        synchronized (this.indexes) {
+            PrefixIndex index = this.indexes.get(item);
+            if (index == null) {
+                index = new PrefixIndex(candidates(item));
+                this.indexes.put(item, index);
+            }
+            return index;
+        }
+    }
+
+    private List<String> candidates(Object item) {
+        List<String> candidates = new ArrayList<String>();
+        if (item instanceof CommandGroupMetadata) {
+            CommandGroupMetadata group = (CommandGroupMetadata) item;
+            for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+                if (!subGroup.isHidden())
+                    candidates.add(subGroup.getName());
+            }
+            addCommands(group.getCommands(), candidates);
+            addOptions(group.getOptions(), candidates);
+        } else if (item instanceof CommandMetadata) {
+            CommandMetadata command = (CommandMetadata) item;
+            addOptions(command.getAllOptions(), candidates);
+            if (command.getArguments() != null)
+                candidates.add(this.metadata.getParserConfiguration().getArgumentsSeparator());
+        } else if (item instanceof OptionMetadata) {
+            for (OptionRestriction restriction : ((OptionMetadata) item).getRestrictions()) {
+                if (restriction instanceof AbstractAllowedValuesRestriction)
+                    candidates.addAll(((AbstractAllowedValuesRestriction) restriction).getAllowedValues());
+            }
+        }
+        return candidates;
+    }
+}
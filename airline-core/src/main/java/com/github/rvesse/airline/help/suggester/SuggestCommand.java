@@ -88,6 +88,23 @@ public class SuggestCommand<T> implements Runnable, Callable<Void> {
         return Collections.emptyList();
     }
 
+    /**
+     * Generates the candidates for completing a partially typed token that
+     * follows the arguments
+     * <p>
+     * Unlike {@link #generateSuggestions()} the candidates are filtered to
+     * those starting with the given token and are found via a
+     * {@link CompletionEngine} shared by all uses of the CLI.
+     * </p>
+     * 
+     * @param token
+     *            Partial token
+     * @return Candidates
+     */
+    public List<String> generateCompletions(String token) {
+        return CompletionEngine.forMetadata(metadata).complete(arguments, token);
+    }
+
     @Override
     public void run() {
         System.out.println(StringUtils.join(generateSuggestions(), '\n'));
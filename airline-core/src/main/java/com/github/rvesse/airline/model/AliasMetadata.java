@@ -31,6 +31,8 @@ public class AliasMetadata {
 
     private final String name;
     private final List<String> arguments;
+    private final int[] positions;
+    private final int lookahead;
 
     /**
      * Creates a new alias metadata
@@ -45,6 +47,28 @@ public class AliasMetadata {
             throw new IllegalArgumentException("Alias name cannot be null/empty/whitespace");
         this.name = name;
         this.arguments = AirlineUtils.unmodifiableListCopy(arguments);
+
+        // Pre-compute the positional parameter references
+        this.positions = new int[this.arguments.size()];
+        int lookahead = 0;
+        for (int i = 0; i < this.positions.length; i++) {
+            this.positions[i] = parsePosition(this.arguments.get(i));
+            lookahead = Math.max(lookahead, this.positions[i] + 1);
+        }
+        this.lookahead = lookahead;
+    }
+
+    private static int parsePosition(String arg) {
+        if (arg == null || arg.length() < 2 || arg.charAt(0) != '$')
+            return -1;
+        try {
+            int num = Integer.parseInt(arg.substring(1));
+            return num >= 1 ? num - 1 : -1;
+        } catch (NumberFormatException e) {
+            // Not a valid positional parameter so treated as an ordinary
+            // parameter
+            return -1;
+        }
     }
 
     /**
@@ -65,6 +89,29 @@ public class AliasMetadata {
         return this.arguments;
     }
 
+    /**
+     * Gets the positional parameter referenced by an argument
+     * 
+     * @param index
+     *            Index of the argument
+     * @return Zero based position of the referenced parameter, or {@code -1}
+     *         if the argument is not a positional parameter reference
+     */
+    public int getParameterPosition(int index) {
+        return this.positions[index];
+    }
+
+    /**
+     * Gets the number of parameters following the alias that must be examined
+     * to resolve the positional parameter references of this alias
+     * 
+     * @return Number of parameters, zero if the alias has no positional
+     *         parameter references
+     */
+    public int getParameterLookahead() {
+        return this.lookahead;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -17,6 +17,7 @@ package com.github.rvesse.airline.model;
 
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.ArgumentsValidator;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -40,6 +41,7 @@ public class ArgumentsMetadata {
     private final Set<Accessor> accessors;
     private final List<ArgumentsRestriction> restrictions;
     private final TypeConverterProvider provider;
+    private volatile ArgumentsValidator validator;
 
     //@formatter:off
     public ArgumentsMetadata(Iterable<String> titles, 
@@ -47,20 +49,36 @@ public class ArgumentsMetadata {
                              Iterable<ArgumentsRestriction> restrictions, 
                              TypeConverterProvider typeConverterProvider,
                              Iterable<Field> path) {
+    //@formatter:on
+        this(titles, description, restrictions, typeConverterProvider, toAccessor(path));
+    }
+
+    //@formatter:off
+    public ArgumentsMetadata(Iterable<String> titles, 
+                             String description, 
+                             Iterable<ArgumentsRestriction> restrictions, 
+                             TypeConverterProvider typeConverterProvider,
+                             Accessor accessor) {
     //@formatter:on
         if (titles == null)
             throw new NullPointerException("title cannot be null");
-        if (path == null)
-            throw new NullPointerException("path cannot be null");
-        if (!path.iterator().hasNext())
-            throw new IllegalArgumentException("path cannot be empty");
+        if (accessor == null)
+            throw new NullPointerException("accessor cannot be null");
 
         this.titles = ListUtils.unmodifiableList(IteratorUtils.toList(titles.iterator()));
         this.description = description;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<ArgumentsRestriction> emptyList();
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
-        this.accessors = SetUtils.unmodifiableSet(Collections.singleton(new Accessor(path)));
+        this.accessors = SetUtils.unmodifiableSet(Collections.singleton(accessor));
+    }
+
+    private static Accessor toAccessor(Iterable<Field> path) {
+        if (path == null)
+            throw new NullPointerException("path cannot be null");
+        if (!path.iterator().hasNext())
+            throw new IllegalArgumentException("path cannot be empty");
+        return new Accessor(path);
     }
 
     public ArgumentsMetadata(Iterable<ArgumentsMetadata> arguments) {
@@ -114,6 +132,24 @@ public class ArgumentsMetadata {
     public List<ArgumentsRestriction> getRestrictions() {
         return this.restrictions;
     }
+
+    /**
+     * Gets the restrictions of the arguments compiled into a validator
+     * <p>
+     * The validator is compiled on first use.
+     * </p>
+     * 
+     * @return Validator
+     */
+    public ArgumentsValidator getValidator() {
+        ArgumentsValidator validator = this.validator;
+        if (validator == null) {
+            // Benign race, at worst the validator is compiled more than once
+            validator = ArgumentsValidator.compile(this);
+            this.validator = validator;
+        }
+        return validator;
+    }
     
     public TypeConverterProvider getTypeConverterProvider() {
         return this.provider;
@@ -17,9 +17,12 @@ package com.github.rvesse.airline.model;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.github.rvesse.airline.utils.AbbreviationTrie;
+import com.github.rvesse.airline.utils.BkTree;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
@@ -34,6 +37,13 @@ public class CommandGroupMetadata {
     private final CommandMetadata defaultCommand;
     private final List<CommandMetadata> commands;
     private final List<CommandGroupMetadata> subGroups;
+    private final Map<String, OptionMetadata> optionIndex;
+    private final Map<String, CommandMetadata> commandIndex;
+    private final Map<String, CommandGroupMetadata> subGroupIndex;
+    private volatile AbbreviationTrie<OptionMetadata> optionAbbreviations;
+    private volatile AbbreviationTrie<CommandMetadata> commandAbbreviations;
+    private volatile AbbreviationTrie<CommandGroupMetadata> subGroupAbbreviations;
+    private volatile BkTree nameTree;
     private CommandGroupMetadata parentGroup;
 
     //@formatter:off
@@ -60,6 +70,10 @@ public class CommandGroupMetadata {
         if (this.defaultCommand != null && !this.commands.contains(this.defaultCommand)) {
             this.commands.add(this.defaultCommand);
         }
+
+        this.optionIndex = NameIndexes.options(this.options);
+        this.commandIndex = NameIndexes.commands(this.commands);
+        this.subGroupIndex = NameIndexes.groups(this.subGroups);
     }
 
     /**
@@ -98,6 +112,33 @@ public class CommandGroupMetadata {
         return options;
     }
 
+    /**
+     * Gets an index of the group options by name, every name of an option
+     * (including any negated names) is present in the index
+     * 
+     * @return Option index
+     */
+    public Map<String, OptionMetadata> getOptionIndex() {
+        return optionIndex;
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated group option names
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<OptionMetadata> getOptionAbbreviations() {
+        AbbreviationTrie<OptionMetadata> trie = this.optionAbbreviations;
+        if (trie == null) {
+            trie = NameIndexes.optionAbbreviations(this.optionIndex);
+            this.optionAbbreviations = trie;
+        }
+        return trie;
+    }
+
     /**
      * Gets the default command for the group
      * 
@@ -125,7 +166,36 @@ public class CommandGroupMetadata {
     public void addCommand(CommandMetadata command) {
         if (!commands.contains(command)) {
             commands.add(command);
+            NameIndexes.addCommand(commandIndex, command);
+            commandAbbreviations = null;
+            nameTree = null;
+        }
+    }
+
+    /**
+     * Gets an index of the commands for the group by name
+     * 
+     * @return Command index
+     */
+    public Map<String, CommandMetadata> getCommandIndex() {
+        return Collections.unmodifiableMap(commandIndex);
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated names of the commands for the group
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<CommandMetadata> getCommandAbbreviations() {
+        AbbreviationTrie<CommandMetadata> trie = this.commandAbbreviations;
+        if (trie == null) {
+            trie = new AbbreviationTrie<CommandMetadata>(this.commandIndex);
+            this.commandAbbreviations = trie;
         }
+        return trie;
     }
 
     /**
@@ -146,7 +216,56 @@ public class CommandGroupMetadata {
     public void addSubGroup(CommandGroupMetadata subGroup) {
         if (!subGroups.contains(subGroup)) {
             subGroups.add(subGroup);
+            NameIndexes.addGroup(subGroupIndex, subGroup);
+            subGroupAbbreviations = null;
+            nameTree = null;
+        }
+    }
+
+    /**
+     * Gets an index of the sub-groups of this group by name
+     * 
+     * @return Sub-group index
+     */
+    public Map<String, CommandGroupMetadata> getSubGroupIndex() {
+        return Collections.unmodifiableMap(subGroupIndex);
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated names of the sub-groups of this group
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<CommandGroupMetadata> getSubGroupAbbreviations() {
+        AbbreviationTrie<CommandGroupMetadata> trie = this.subGroupAbbreviations;
+        if (trie == null) {
+            trie = new AbbreviationTrie<CommandGroupMetadata>(this.subGroupIndex);
+            this.subGroupAbbreviations = trie;
+        }
+        return trie;
+    }
+
+    /**
+     * Gets a tree for finding the names within this group similar to a
+     * mistyped name, this covers the names of the sub-groups, commands and
+     * options of the group
+     * <p>
+     * The tree is built on first use.
+     * </p>
+     * 
+     * @return Name tree
+     */
+    public BkTree getNameTree() {
+        BkTree tree = this.nameTree;
+        if (tree == null) {
+            tree = NameIndexes.nameTree(this.subGroups, this.commands, this.options,
+                    Collections.<String> emptyList());
+            this.nameTree = tree;
         }
+        return tree;
     }
 
     /**
@@ -18,10 +18,14 @@ package com.github.rvesse.airline.model;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.Group;
 import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.utils.AbbreviationTrie;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.BkTree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -33,6 +37,9 @@ public class CommandMetadata {
     private final List<OptionMetadata> globalOptions;
     private final List<OptionMetadata> groupOptions;
     private final List<OptionMetadata> commandOptions;
+    private final Map<String, OptionMetadata> commandOptionIndex;
+    private volatile AbbreviationTrie<OptionMetadata> commandOptionAbbreviations;
+    private volatile BkTree optionNameTree;
     private final OptionMetadata defaultOption;
     private final ArgumentsMetadata arguments;
     private final List<Accessor> metadataInjections;
@@ -67,6 +74,7 @@ public class CommandMetadata {
         this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
         this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
         this.commandOptions = AirlineUtils.unmodifiableListCopy(commandOptions);
+        this.commandOptionIndex = NameIndexes.options(this.commandOptions);
         this.defaultOption = defaultOption;
         this.arguments = arguments;
 
@@ -123,6 +131,52 @@ public class CommandMetadata {
         return commandOptions;
     }
 
+    /**
+     * Gets an index of the command options by name, every name of an option
+     * (including any negated names) is present in the index
+     * 
+     * @return Command option index
+     */
+    public Map<String, OptionMetadata> getCommandOptionIndex() {
+        return commandOptionIndex;
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated command option names
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<OptionMetadata> getCommandOptionAbbreviations() {
+        AbbreviationTrie<OptionMetadata> trie = this.commandOptionAbbreviations;
+        if (trie == null) {
+            trie = NameIndexes.optionAbbreviations(this.commandOptionIndex);
+            this.commandOptionAbbreviations = trie;
+        }
+        return trie;
+    }
+
+    /**
+     * Gets a tree for finding the names of options, including global and group
+     * options, that are similar to a mistyped option name
+     * <p>
+     * The tree is built on first use.
+     * </p>
+     * 
+     * @return Option name tree
+     */
+    public BkTree getOptionNameTree() {
+        BkTree tree = this.optionNameTree;
+        if (tree == null) {
+            tree = NameIndexes.nameTree(Collections.<CommandGroupMetadata> emptyList(),
+                    Collections.<CommandMetadata> emptyList(), getAllOptions(), Collections.<String> emptyList());
+            this.optionNameTree = tree;
+        }
+        return tree;
+    }
+
     public OptionMetadata getDefaultOption() {
         return defaultOption;
     }
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.model.MetadataLoader.InjectionMetadata;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+
+/**
+ * Support class used by {@link GeneratedCommandMetadata} implementations to
+ * assemble command meta-data
+ * <p>
+ * Generated code already knows which fields of a command carry which
+ * annotations so it looks up only those fields and annotations rather than
+ * scanning the whole class hierarchy. The same validation and compaction is
+ * applied as when meta-data is loaded by {@link MetadataLoader} so the
+ * resulting meta-data is equivalent.
+ * </p>
+ * <p>
+ * This class is not intended to be used directly by user code.
+ * </p>
+ */
+public final class GeneratedCommandLoader {
+
+    /**
+     * Names of the classes with generated meta-data visible to each class
+     * loader, this is only consulted once per command class
+     */
+    private static final Map<ClassLoader, Set<String>> INDEXES = new WeakHashMap<ClassLoader, Set<String>>();
+
+    private final Class<?> commandType;
+    private final InjectionMetadata injectionMetadata = new InjectionMetadata();
+
+    /**
+     * Creates a new loader
+     * 
+     * @param commandType
+     *            Command class
+     */
+    public GeneratedCommandLoader(Class<?> commandType) {
+        if (commandType == null)
+            throw new NullPointerException("commandType cannot be null");
+        this.commandType = commandType;
+    }
+
+    /**
+     * Finds the generated meta-data for a command class
+     * 
+     * @param commandType
+     *            Command class
+     * @return Generated meta-data or {@code null} if none is available
+     */
+    static GeneratedCommandMetadata find(Class<?> commandType) {
+        ClassLoader loader = commandType.getClassLoader();
+        if (loader == null || !getIndex(loader).contains(commandType.getName()))
+            return null;
+        try {
+            Class<?> generated = Class.forName(commandType.getName() + GeneratedCommandMetadata.CLASS_SUFFIX, true,
+                    loader);
+            if (!GeneratedCommandMetadata.class.isAssignableFrom(generated))
+                return null;
+            return (GeneratedCommandMetadata) generated.getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            // No generated meta-data, will use reflection
+            return null;
+        } catch (Exception | LinkageError e) {
+            // Unusable generated meta-data, will use reflection
+            return null;
+        }
+    }
+
+    private static Set<String> getIndex(ClassLoader loader) {
+        synchronized (INDEXES) {
+            Set<String> index = INDEXES.get(loader);
+            if (index == null) {
+                index = readIndex(loader);
+                INDEXES.put(loader, index);
+            }
+            return index;
+        }
+    }
+
+    private static Set<String> readIndex(ClassLoader loader) {
+        Set<String> index = new HashSet<String>();
+        try {
+            Enumeration<URL> resources = loader.getResources(GeneratedCommandMetadata.INDEX_RESOURCE);
+            while (resources.hasMoreElements()) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8));
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#"))
+                            index.add(line);
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        } catch (IOException e) {
+            // Unreadable index, unlisted commands will use reflection
+        }
+        return index.isEmpty() ? Collections.<String> emptySet() : index;
+    }
+
+    /**
+     * Gets a declared field
+     * <p>
+     * The field is not made accessible, generated accessors assign accessible
+     * fields directly and any other access is left to {@link Accessor} which
+     * makes fields accessible only if it needs to.
+     * </p>
+     * 
+     * @param declaringClass
+     *            Declaring class
+     * @param name
+     *            Field name
+     * @return Field
+     */
+    public static Field field(Class<?> declaringClass, String name) {
+        try {
+            return declaringClass.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(String.format(
+                    "Generated meta-data refers to field %s which does not exist on %s, generated meta-data may be out of date",
+                    name, declaringClass.getName()), e);
+        }
+    }
+
+    /**
+     * Loads the option restrictions for a field
+     * 
+     * @param field
+     *            Field
+     * @param annotationClasses
+     *            Classes of annotations present on the field that may declare
+     *            restrictions
+     * @return Option restrictions
+     */
+    public List<OptionRestriction> optionRestrictions(Field field, Class<?>... annotationClasses) {
+        return MetadataLoader.loadOptionRestrictions(field, toAnnotationClasses(annotationClasses));
+    }
+
+    /**
+     * Loads the arguments restrictions for a field
+     * 
+     * @param field
+     *            Field
+     * @param annotationClasses
+     *            Classes of annotations present on the field that may declare
+     *            restrictions
+     * @return Arguments restrictions
+     */
+    public List<ArgumentsRestriction> argumentsRestrictions(Field field, Class<?>... annotationClasses) {
+        return MetadataLoader.loadArgumentsRestrictions(field, toAnnotationClasses(annotationClasses));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Class<? extends Annotation>> toAnnotationClasses(Class<?>[] classes) {
+        List<Class<? extends Annotation>> annotationClasses = new ArrayList<>(classes.length);
+        for (Class<?> cls : classes) {
+            if (Annotation.class.isAssignableFrom(cls))
+                annotationClasses.add((Class<? extends Annotation>) cls);
+        }
+        return annotationClasses;
+    }
+
+    /**
+     * Adds an option
+     * 
+     * @param field
+     *            Field the option is declared upon
+     * @param option
+     *            Option meta-data
+     * @param defaultOption
+     *            Whether the field is annotated with
+     *            {@link com.github.rvesse.airline.annotations.DefaultOption}
+     * @return Loader
+     */
+    public GeneratedCommandLoader addOption(Field field, OptionMetadata option, boolean defaultOption) {
+        MetadataLoader.addOption(this.commandType, field, option, defaultOption, this.injectionMetadata);
+        return this;
+    }
+
+    /**
+     * Adds arguments
+     * 
+     * @param field
+     *            Field the arguments are declared upon
+     * @param arguments
+     *            Arguments meta-data
+     * @return Loader
+     */
+    public GeneratedCommandLoader addArguments(Field field, ArgumentsMetadata arguments) {
+        MetadataLoader.checkArgumentsAllowed(field, this.injectionMetadata);
+        this.injectionMetadata.arguments.add(arguments);
+        return this;
+    }
+
+    /**
+     * Adds a meta-data injection
+     * 
+     * @param accessor
+     *            Accessor for the field that receives the meta-data
+     * @return Loader
+     */
+    public GeneratedCommandLoader addMetadataInjection(Accessor accessor) {
+        this.injectionMetadata.metadataInjections.add(accessor);
+        return this;
+    }
+
+    /**
+     * Builds the command meta-data
+     * 
+     * @return Command meta-data
+     */
+    public CommandMetadata build() {
+        this.injectionMetadata.compact();
+        return MetadataLoader.loadCommand(this.commandType, this.injectionMetadata);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+/**
+ * Interface for command meta-data generated ahead of time
+ * <p>
+ * Implementations are generated at compile time by the
+ * {@code airline-processor} annotation processor for classes annotated with
+ * {@link com.github.rvesse.airline.annotations.Command}. A generated
+ * implementation is named after the binary name of the command class with the
+ * {@link #CLASS_SUFFIX} appended and must have a public no-argument
+ * constructor. When present it is used by
+ * {@link MetadataLoader#loadCommand(Class)} instead of scanning the command
+ * class via reflection.
+ * </p>
+ * <p>
+ * The processor also lists the command classes it generated meta-data for in
+ * the {@link #INDEX_RESOURCE}, generated meta-data is only looked for for the
+ * classes listed so that commands compiled without the processor don't pay
+ * for a failed class lookup.
+ * </p>
+ * <p>
+ * Commands read from a {@link MetadataSnapshot} are also exposed via this
+ * interface.
+ * </p>
+ */
+public interface GeneratedCommandMetadata {
+
+    /**
+     * Suffix appended to the binary name of a command class to give the name
+     * of its generated meta-data class
+     */
+    public static final String CLASS_SUFFIX = "$$AirlineMetadata";
+
+    /**
+     * Resource listing the binary names of the command classes that have
+     * generated meta-data, one per line
+     */
+    public static final String INDEX_RESOURCE = "META-INF/airline/generated-metadata";
+
+    /**
+     * Loads the command meta-data
+     * 
+     * @return Command meta-data
+     */
+    public CommandMetadata loadCommand();
+}
@@ -15,13 +15,17 @@
  */
 package com.github.rvesse.airline.model;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.utils.AbbreviationTrie;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.BkTree;
 
 /**
  * Represents metadata about a CLI
@@ -36,6 +40,13 @@ public class GlobalMetadata<T> {
     private final List<CommandGroupMetadata> commandGroups;
     private final ParserMetadata<T> parserConfig;
     private final List<GlobalRestriction> restrictions;
+    private final Map<String, OptionMetadata> optionIndex;
+    private final Map<String, CommandMetadata> defaultGroupCommandIndex;
+    private final Map<String, CommandGroupMetadata> commandGroupIndex;
+    private volatile AbbreviationTrie<OptionMetadata> optionAbbreviations;
+    private volatile AbbreviationTrie<CommandMetadata> defaultGroupCommandAbbreviations;
+    private volatile AbbreviationTrie<CommandGroupMetadata> commandGroupAbbreviations;
+    private volatile BkTree nameTree;
 
     public GlobalMetadata(String name, String description, Iterable<OptionMetadata> options,
             CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
@@ -54,6 +65,10 @@ public class GlobalMetadata<T> {
         this.commandGroups = AirlineUtils.unmodifiableListCopy(commandGroups);
         this.restrictions = AirlineUtils.unmodifiableListCopy(restrictions);
         this.parserConfig = parserConfig != null ? parserConfig : ParserBuilder.<T>defaultConfiguration();
+
+        this.optionIndex = NameIndexes.options(this.options);
+        this.defaultGroupCommandIndex = Collections.unmodifiableMap(NameIndexes.commands(this.defaultGroupCommands));
+        this.commandGroupIndex = Collections.unmodifiableMap(NameIndexes.groups(this.commandGroups));
     }
 
     public String getName() {
@@ -68,6 +83,33 @@ public class GlobalMetadata<T> {
         return options;
     }
 
+    /**
+     * Gets an index of the global options by name, every name of an option
+     * (including any negated names) is present in the index
+     * 
+     * @return Option index
+     */
+    public Map<String, OptionMetadata> getOptionIndex() {
+        return optionIndex;
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated global option names
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<OptionMetadata> getOptionAbbreviations() {
+        AbbreviationTrie<OptionMetadata> trie = this.optionAbbreviations;
+        if (trie == null) {
+            trie = NameIndexes.optionAbbreviations(this.optionIndex);
+            this.optionAbbreviations = trie;
+        }
+        return trie;
+    }
+
     public CommandMetadata getDefaultCommand() {
         return defaultCommand;
     }
@@ -76,10 +118,82 @@ public class GlobalMetadata<T> {
         return defaultGroupCommands;
     }
 
+    /**
+     * Gets an index of the commands in the default group by name
+     * 
+     * @return Command index
+     */
+    public Map<String, CommandMetadata> getDefaultGroupCommandIndex() {
+        return defaultGroupCommandIndex;
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated names of commands in the default group
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<CommandMetadata> getDefaultGroupCommandAbbreviations() {
+        AbbreviationTrie<CommandMetadata> trie = this.defaultGroupCommandAbbreviations;
+        if (trie == null) {
+            trie = new AbbreviationTrie<CommandMetadata>(this.defaultGroupCommandIndex);
+            this.defaultGroupCommandAbbreviations = trie;
+        }
+        return trie;
+    }
+
     public List<CommandGroupMetadata> getCommandGroups() {
         return commandGroups;
     }
-    
+
+    /**
+     * Gets an index of the top level command groups by name
+     * 
+     * @return Group index
+     */
+    public Map<String, CommandGroupMetadata> getCommandGroupIndex() {
+        return commandGroupIndex;
+    }
+
+    /**
+     * Gets a trie for resolving abbreviated names of the top level command groups
+     * <p>
+     * The trie is built on first use.
+     * </p>
+     * 
+     * @return Abbreviation trie
+     */
+    public AbbreviationTrie<CommandGroupMetadata> getCommandGroupAbbreviations() {
+        AbbreviationTrie<CommandGroupMetadata> trie = this.commandGroupAbbreviations;
+        if (trie == null) {
+            trie = new AbbreviationTrie<CommandGroupMetadata>(this.commandGroupIndex);
+            this.commandGroupAbbreviations = trie;
+        }
+        return trie;
+    }
+
+    /**
+     * Gets a tree for finding the top level names similar to a mistyped name,
+     * this covers the names of the top level command groups, the commands in
+     * the default group, the global options and any aliases
+     * <p>
+     * The tree is built on first use.
+     * </p>
+     * 
+     * @return Name tree
+     */
+    public BkTree getNameTree() {
+        BkTree tree = this.nameTree;
+        if (tree == null) {
+            tree = NameIndexes.nameTree(this.commandGroups, this.defaultGroupCommands, this.options,
+                    this.parserConfig.getAliasIndex().keySet());
+            this.nameTree = tree;
+        }
+        return tree;
+    }
+
     public List<GlobalRestriction> getRestrictions() {
         return restrictions;
     }
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.MetadataLoader.InjectionMetadata;
+import com.github.rvesse.airline.utils.AbbreviationTrie;
+
+/**
+ * Command meta-data that is loaded on first use
+ * <p>
+ * Only the information needed to index a command and to build the global and
+ * group meta-data is loaded up front i.e. the name, description, groups and
+ * the global and group options. Everything else is loaded the first time it is
+ * requested.
+ * </p>
+ */
+class LazyCommandMetadata extends CommandMetadata {
+
+    private static final EnumSet<OptionType> EAGER_OPTION_TYPES = EnumSet.of(OptionType.GLOBAL, OptionType.GROUP);
+
+    private final GeneratedCommandMetadata generated;
+    private volatile CommandMetadata command;
+
+    /**
+     * Creates new lazily loaded command meta-data
+     * 
+     * @param type
+     *            Command class
+     * @param generated
+     *            Pre-computed meta-data to use when the command is loaded, if
+     *            {@code null} the command is loaded via
+     *            {@link MetadataLoader#loadCommand(Class)}
+     */
+    LazyCommandMetadata(Class<?> type, GeneratedCommandMetadata generated) {
+        this(type, new ArrayList<Group>(), generated);
+    }
+
+    private LazyCommandMetadata(Class<?> type, List<Group> groups, GeneratedCommandMetadata generated) {
+        this(type, MetadataLoader.loadCommandAnnotation(type, groups), groups,
+                MetadataLoader.loadInjectionMetadata(type, EAGER_OPTION_TYPES), generated);
+    }
+
+    //@formatter:off
+    private LazyCommandMetadata(Class<?> type, Command annotation, List<Group> groups, 
+                                InjectionMetadata options, GeneratedCommandMetadata generated) {
+        super(annotation.name(), 
+              annotation.description().isEmpty() ? null : annotation.description(), 
+              annotation.hidden(), 
+              options.globalOptions, 
+              options.groupOptions,
+              Collections.<OptionMetadata> emptyList(), 
+              null, 
+              null, 
+              Collections.<Accessor> emptyList(), 
+              type,
+              Arrays.asList(annotation.groupNames()), 
+              groups, 
+              Collections.<HelpSection> emptyList());
+        this.generated = generated;
+    }
+    //@formatter:on
+
+    /**
+     * Gets the fully loaded command meta-data, loading it if necessary
+     * 
+     * @return Command meta-data
+     */
+    CommandMetadata getCommand() {
+        CommandMetadata command = this.command;
+        if (command == null) {
+            synchronized (this) {
+                command = this.command;
+                if (command == null) {
+                    command = this.generated != null ? this.generated.loadCommand()
+                            : MetadataLoader.loadCommand(getType());
+                    this.command = command;
+                }
+            }
+        }
+        return command;
+    }
+
+    /**
+     * Gets whether the command has been fully loaded
+     * 
+     * @return True if loaded, false otherwise
+     */
+    boolean isLoaded() {
+        return this.command != null;
+    }
+
+    @Override
+    public List<OptionMetadata> getAllOptions() {
+        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
+        allOptions.addAll(getGlobalOptions());
+        allOptions.addAll(getGroupOptions());
+        allOptions.addAll(getCommandOptions());
+        return Collections.unmodifiableList(allOptions);
+    }
+
+    @Override
+    public List<HelpSection> getHelpSections() {
+        return getCommand().getHelpSections();
+    }
+
+    @Override
+    public List<OptionMetadata> getCommandOptions() {
+        return getCommand().getCommandOptions();
+    }
+
+    @Override
+    public Map<String, OptionMetadata> getCommandOptionIndex() {
+        return getCommand().getCommandOptionIndex();
+    }
+
+    @Override
+    public AbbreviationTrie<OptionMetadata> getCommandOptionAbbreviations() {
+        return getCommand().getCommandOptionAbbreviations();
+    }
+
+    @Override
+    public OptionMetadata getDefaultOption() {
+        return getCommand().getDefaultOption();
+    }
+
+    @Override
+    public ArgumentsMetadata getArguments() {
+        return getCommand().getArguments();
+    }
+
+    @Override
+    public List<Accessor> getMetadataInjections() {
+        return getCommand().getMetadataInjections();
+    }
+
+    @Override
+    public String toString() {
+        return getCommand().toString();
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache of meta-data loaded for classes
+ * <p>
+ * Values are held via a {@link ClassValue} so they are computed at most once
+ * per class (barring races where the value is discarded), may be read
+ * concurrently without locking and do not prevent classes from being
+ * unloaded. All caches may be invalidated via {@link #clearAll()} in which
+ * case values are recomputed when next requested.
+ * </p>
+ * 
+ * @param <T>
+ *            Value type
+ */
+abstract class MetadataCache<T> {
+
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+
+    private final ClassValue<Entry<T>> values = new ClassValue<Entry<T>>() {
+        @Override
+        protected Entry<T> computeValue(Class<?> type) {
+            int generation = GENERATION.get();
+            return new Entry<T>(generation, load(type));
+        }
+    };
+
+    /**
+     * Invalidates the values of all caches
+     */
+    static void clearAll() {
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Gets the value for a class, loading it if necessary
+     * 
+     * @param type
+     *            Class
+     * @return Value
+     */
+    T get(Class<?> type) {
+        Entry<T> entry = this.values.get(type);
+        while (entry.generation != GENERATION.get()) {
+            this.values.remove(type);
+            entry = this.values.get(type);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Loads the value for a class
+     * 
+     * @param type
+     *            Class
+     * @return Value
+     */
+    protected abstract T load(Class<?> type);
+
+    private static final class Entry<T> {
+        private final int generation;
+        private final T value;
+
+        private Entry(int generation, T value) {
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import com.github.rvesse.airline.builder.UserAliasSourceBuilder;
 import com.github.rvesse.airline.help.sections.HelpSection;
 import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
 import com.github.rvesse.airline.help.suggester.Suggester;
+import com.github.rvesse.airline.model.injection.InjectionAnnotationRegistry;
 import com.github.rvesse.airline.parser.ParserUtil;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.options.OptionParser;
@@ -68,6 +69,67 @@ import java.util.*;
  */
 public class MetadataLoader {
 
+    /**
+     * Compile time generated meta-data, if any, for each command class
+     */
+    private static final ClassValue<GeneratedCommandMetadata> GENERATED_METADATA = new ClassValue<GeneratedCommandMetadata>() {
+        @Override
+        protected GeneratedCommandMetadata computeValue(Class<?> type) {
+            return GeneratedCommandLoader.find(type);
+        }
+    };
+
+    /**
+     * Command meta-data for each command class
+     */
+    private static final MetadataCache<CommandMetadata> COMMAND_METADATA = new MetadataCache<CommandMetadata>() {
+        @Override
+        protected CommandMetadata load(Class<?> type) {
+            // Prefer metadata generated at compile time where available
+            GeneratedCommandMetadata generated = GENERATED_METADATA.get(type);
+            if (generated != null) {
+                return generated.loadCommand();
+            }
+            return loadCommandByReflection(type);
+        }
+    };
+
+    /**
+     * Meta-data for the fields declared directly on each class, this is shared
+     * by all sub-classes and all classes that inject the class
+     */
+    private static final MetadataCache<List<FieldMetadata>> DECLARED_FIELDS = new MetadataCache<List<FieldMetadata>>() {
+        @Override
+        protected List<FieldMetadata> load(Class<?> type) {
+            return loadDeclaredFields(type);
+        }
+    };
+
+    /**
+     * Suggester meta-data for each suggester class
+     */
+    private static final MetadataCache<SuggesterMetadata> SUGGESTER_METADATA = new MetadataCache<SuggesterMetadata>() {
+        @Override
+        protected SuggesterMetadata load(Class<?> type) {
+            InjectionMetadata injectionMetadata = loadInjectionMetadata(type);
+            return new SuggesterMetadata(type.asSubclass(Suggester.class), injectionMetadata.metadataInjections);
+        }
+    };
+
+    /**
+     * Clears all cached meta-data
+     * <p>
+     * Meta-data loaded for a class is cached and reused for the lifetime of
+     * the class. This must be called if the results of loading may have
+     * changed e.g. because new restriction or help section annotations have
+     * been registered, registering via {@link RestrictionRegistry} and
+     * {@link HelpSectionRegistry} does this automatically.
+     * </p>
+     */
+    public static void clearCache() {
+        MetadataCache.clearAll();
+    }
+
     public static <C> ParserMetadata<C> loadParser(Class<?> cliClass) {
         if (cliClass == null)
             return ParserBuilder.<C> defaultConfiguration();
@@ -100,7 +162,8 @@ public class MetadataLoader {
             builder = builder.withDefaultCommandFactory();
         }
         if (!parserConfig.errorHandler().equals(FailFast.class)) {
-            builder = builder.withErrorHandler(ParserUtil.createInstance(parserConfig.errorHandler()));
+            // Create a handler per parse as handlers may be stateful
+            builder = builder.withErrorHandlerClass(parserConfig.errorHandler());
         } else {
             builder = builder.withDefaultErrorHandler();
         }
@@ -187,6 +250,57 @@ public class MetadataLoader {
      * @return Global metadata
      */
     public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride) {
+        return loadGlobal(cliClass, parserConfigOverride, false);
+    }
+
+    /**
+     * Loads the metadata for a CLI optionally loading command meta-data lazily
+     * <p>
+     * When loading lazily only the command names, descriptions, groups and the
+     * global and group options are determined up front, everything else about
+     * a command (its command options, arguments, restrictions, help sections
+     * etc.) is loaded the first time it is accessed by the parser or the help
+     * system. This makes creating a CLI with many commands cheap since a
+     * typical invocation uses only one of the commands, however errors in the
+     * annotations of a command will not be detected until that command is
+     * used. Compiling a CLI via {@link com.github.rvesse.airline.Cli#compile()}
+     * loads all commands.
+     * </p>
+     * 
+     * @param cliClass
+     *            Class that has the
+     *            {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * @param parserConfigOverride
+     *            Optional parser configuration, see
+     *            {@link #loadGlobal(Class, ParserMetadata)}
+     * @param lazy
+     *            Whether to load command meta-data lazily
+     * @return Global metadata
+     */
+    public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride,
+            boolean lazy) {
+        return loadGlobal(cliClass, parserConfigOverride, Collections.<Class<?>, GeneratedCommandMetadata> emptyMap(),
+                lazy);
+    }
+
+    /**
+     * Loads the metadata for a CLI using the given pre-computed command
+     * meta-data where available
+     * 
+     * @param cliClass
+     *            Class that has the
+     *            {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * @param parserConfigOverride
+     *            Optional parser configuration
+     * @param commandMetadata
+     *            Pre-computed command meta-data keyed by command class,
+     *            commands not present are loaded as normal
+     * @param lazy
+     *            Whether to load command meta-data lazily
+     * @return Global metadata
+     */
+    static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride,
+            Map<Class<?>, GeneratedCommandMetadata> commandMetadata, boolean lazy) {
         Annotation annotation = cliClass.getAnnotation(com.github.rvesse.airline.annotations.Cli.class);
         if (annotation == null)
             throw new IllegalArgumentException(String.format("Class %s does not have the @Cli annotation", cliClass));
@@ -196,11 +310,11 @@ public class MetadataLoader {
         // Prepare commands
         CommandMetadata defaultCommand = null;
         if (!cliConfig.defaultCommand().equals(com.github.rvesse.airline.annotations.Cli.NO_DEFAULT.class)) {
-            defaultCommand = loadCommand(cliConfig.defaultCommand());
+            defaultCommand = loadCommand(cliConfig.defaultCommand(), commandMetadata, lazy);
         }
         List<CommandMetadata> defaultGroupCommands = new ArrayList<CommandMetadata>();
         for (Class<?> cls : cliConfig.commands()) {
-            defaultGroupCommands.add(loadCommand(cls));
+            defaultGroupCommands.add(loadCommand(cls, commandMetadata, lazy));
         }
 
         // Prepare parser configuration
@@ -216,12 +330,9 @@ public class MetadataLoader {
         // 3 - Standard restrictions if the includeDefaultRestrictions field of
         // the @Cli annotation is true
         List<GlobalRestriction> restrictions = new ArrayList<GlobalRestriction>();
-        for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                .getGlobalRestrictionAnnotationClasses()) {
-            annotation = cliClass.getAnnotation(annotationClass);
-            if (annotation == null)
-                continue;
-            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotationClass, annotation);
+        for (Annotation restrictionAnnotation : cliClass.getAnnotations()) {
+            GlobalRestriction restriction = RestrictionRegistry
+                    .getGlobalRestriction(restrictionAnnotation.annotationType(), restrictionAnnotation);
             if (restriction != null)
                 restrictions.add(restriction);
         }
@@ -256,7 +367,7 @@ public class MetadataLoader {
 
             List<CommandMetadata> groupCommands = new ArrayList<CommandMetadata>();
             for (Class<?> cls : groupAnno.commands()) {
-                groupCommands.add(loadCommand(cls));
+                groupCommands.add(loadCommand(cls, commandMetadata, lazy));
             }
 
             if (group == null) {
@@ -266,7 +377,7 @@ public class MetadataLoader {
                                          groupAnno.description(),
                                          groupAnno.hidden(),
                                          Collections.<CommandGroupMetadata>emptyList(),
-                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand()) : null, 
+                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), commandMetadata, lazy) : null, 
                                          groupCommands);
                 //@formatter:on
                 if (subGroupPath == null) {
@@ -308,7 +419,7 @@ public class MetadataLoader {
         }
 
         // Post-process to find possible further group assignments
-        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands);
+        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, commandMetadata, lazy);
 
         return loadGlobal(cliConfig.name(), cliConfig.description(), defaultCommand, defaultGroupCommands, groups,
                 restrictions, parserConfig);
@@ -417,6 +528,10 @@ public class MetadataLoader {
 
     /**
      * Loads command meta-data
+     * <p>
+     * Meta-data is loaded once per command class and then cached, the same
+     * instance is returned by subsequent calls.
+     * </p>
      * 
      * @param commandType
      *            Command class
@@ -426,32 +541,58 @@ public class MetadataLoader {
         if (commandType == null) {
             return null;
         }
-        Command command = null;
-        List<Group> groups = new ArrayList<>();
-        Map<String, HelpSection> helpSections = new HashMap<>();
 
-        for (Class<?> cls = commandType; command == null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            command = cls.getAnnotation(Command.class);
+        return COMMAND_METADATA.get(commandType);
+    }
 
-            if (cls.isAnnotationPresent(Groups.class)) {
-                groups.addAll(Arrays.asList(cls.getAnnotation(Groups.class).value()));
-            }
-            if (cls.isAnnotationPresent(Group.class)) {
-                groups.add(cls.getAnnotation(Group.class));
-            }
+    private static CommandMetadata loadCommand(Class<?> commandType,
+            Map<Class<?>, GeneratedCommandMetadata> commandMetadata, boolean lazy) {
+        if (lazy && commandType != null)
+            return new LazyCommandMetadata(commandType, commandMetadata.get(commandType));
+        return loadCommand(commandType, commandMetadata);
+    }
+
+    private static CommandMetadata loadCommand(Class<?> commandType,
+            Map<Class<?>, GeneratedCommandMetadata> commandMetadata) {
+        GeneratedCommandMetadata metadata = commandType != null ? commandMetadata.get(commandType) : null;
+        return metadata != null ? metadata.loadCommand() : loadCommand(commandType);
+    }
+
+    /**
+     * Loads command meta-data purely via reflection ignoring any meta-data
+     * generated at compile time
+     * 
+     * @param commandType
+     *            Command class
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadCommandByReflection(Class<?> commandType) {
+        if (commandType == null) {
+            return null;
         }
+        return loadCommand(commandType, (InjectionMetadata) null);
+    }
 
-        if (command == null)
-            throw new IllegalArgumentException(
-                    String.format("Command %s is not annotated with @Command", commandType.getName()));
+    /**
+     * Loads command meta-data using the given injection meta-data
+     * 
+     * @param commandType
+     *            Command class
+     * @param injectionMetadata
+     *            Injection meta-data for the command class, if {@code null}
+     *            this is loaded via reflection
+     * @return Command meta-data
+     */
+    static CommandMetadata loadCommand(Class<?> commandType, InjectionMetadata injectionMetadata) {
+        List<Group> groups = new ArrayList<>();
+        Map<String, HelpSection> helpSections = new HashMap<>();
+
+        Command command = loadCommandAnnotation(commandType, groups);
 
         // Find help sections
         for (Class<?> cls = commandType; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
-                Annotation annotation = cls.getAnnotation(helpAnnotationClass);
-                if (annotation == null)
-                    continue;
-                HelpSection section = HelpSectionRegistry.getHelpSection(helpAnnotationClass, annotation);
+            for (Annotation annotation : cls.getAnnotations()) {
+                HelpSection section = HelpSectionRegistry.getHelpSection(annotation.annotationType(), annotation);
                 if (section == null)
                     continue;
 
@@ -470,7 +611,9 @@ public class MetadataLoader {
         List<String> groupNames = Arrays.asList(command.groupNames());
         boolean hidden = command.hidden();
 
-        InjectionMetadata injectionMetadata = loadInjectionMetadata(commandType);
+        if (injectionMetadata == null) {
+            injectionMetadata = loadInjectionMetadata(commandType);
+        }
 
         //@formatter:off
         CommandMetadata commandMetadata = new CommandMetadata(name, 
@@ -491,6 +634,37 @@ public class MetadataLoader {
         return commandMetadata;
     }
 
+    /**
+     * Finds the {@link Command} annotation for a command class
+     * 
+     * @param commandType
+     *            Command class
+     * @param groups
+     *            List to which any {@link Group} annotations found while
+     *            searching the class hierarchy are added
+     * @return Command annotation
+     * @throws IllegalArgumentException
+     *             Thrown if the class is not annotated with {@link Command}
+     */
+    static Command loadCommandAnnotation(Class<?> commandType, List<Group> groups) {
+        Command command = null;
+        for (Class<?> cls = commandType; command == null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
+            command = cls.getAnnotation(Command.class);
+
+            if (cls.isAnnotationPresent(Groups.class)) {
+                groups.addAll(Arrays.asList(cls.getAnnotation(Groups.class).value()));
+            }
+            if (cls.isAnnotationPresent(Group.class)) {
+                groups.add(cls.getAnnotation(Group.class));
+            }
+        }
+
+        if (command == null)
+            throw new IllegalArgumentException(
+                    String.format("Command %s is not annotated with @Command", commandType.getName()));
+        return command;
+    }
+
     /**
      * Loads suggester meta-data
      * 
@@ -499,8 +673,7 @@ public class MetadataLoader {
      * @return Suggester meta-data
      */
     public static SuggesterMetadata loadSuggester(Class<? extends Suggester> suggesterClass) {
-        InjectionMetadata injectionMetadata = loadInjectionMetadata(suggesterClass);
-        return new SuggesterMetadata(suggesterClass, injectionMetadata.metadataInjections);
+        return SUGGESTER_METADATA.get(suggesterClass);
     }
 
     /**
@@ -511,8 +684,40 @@ public class MetadataLoader {
      * @return Injection meta-data
      */
     public static InjectionMetadata loadInjectionMetadata(Class<?> type) {
+        return loadInjectionMetadata(type, true);
+    }
+
+    /**
+     * Loads injection meta-data
+     * 
+     * @param type
+     *            Class
+     * @param compact
+     *            Whether to compact the meta-data, when {@code false} the
+     *            options and arguments are returned exactly as declared
+     *            without applying overrides
+     * @return Injection meta-data
+     */
+    static InjectionMetadata loadInjectionMetadata(Class<?> type, boolean compact) {
         InjectionMetadata injectionMetadata = new InjectionMetadata();
         loadInjectionMetadata(type, injectionMetadata, Collections.<Field> emptyList());
+        if (compact)
+            injectionMetadata.compact();
+        return injectionMetadata;
+    }
+
+    /**
+     * Loads only the options of the given types declared by a class
+     * 
+     * @param type
+     *            Class
+     * @param optionTypes
+     *            Option types to load
+     * @return Injection meta-data containing only options of the given types
+     */
+    static InjectionMetadata loadInjectionMetadata(Class<?> type, Set<OptionType> optionTypes) {
+        InjectionMetadata injectionMetadata = new InjectionMetadata();
+        loadInjectionMetadata(type, injectionMetadata, Collections.<Field> emptyList(), optionTypes);
         injectionMetadata.compact();
         return injectionMetadata;
     }
@@ -528,228 +733,380 @@ public class MetadataLoader {
      *            Fields
      */
     public static void loadInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata, List<Field> fields) {
+        loadInjectionMetadata(type, injectionMetadata, fields, null);
+    }
+
+    /**
+     * Loads injection meta-data
+     * 
+     * @param type
+     *            Class
+     * @param injectionMetadata
+     *            Injection meta-data
+     * @param fields
+     *            Fields
+     * @param optionTypes
+     *            Types of options to load, if {@code null} everything is
+     *            loaded, otherwise only options of the given types are loaded
+     *            and arguments and meta-data injections are ignored
+     */
+    private static void loadInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata, List<Field> fields,
+            Set<OptionType> optionTypes) {
         if (type.isInterface()) {
             return;
         }
         for (Class<?> cls = type; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Field field : cls.getDeclaredFields()) {
-                field.setAccessible(true);
+            for (FieldMetadata fieldMetadata : DECLARED_FIELDS.get(cls)) {
+                Field field = fieldMetadata.field;
                 List<Field> path = new ArrayList<>(fields);
                 path.add(field);
 
-                Inject injectAnnotation = field.getAnnotation(Inject.class);
-                if (injectAnnotation != null) {
-                    if (field.getType().equals(GlobalMetadata.class)
-                            || field.getType().equals(CommandGroupMetadata.class)
-                            || field.getType().equals(CommandMetadata.class)) {
-                        injectionMetadata.metadataInjections.add(new Accessor(path));
+                // A field may carry both the javax and the Guice @Inject
+                for (int i = 0; i < fieldMetadata.injections; i++) {
+                    if (fieldMetadata.metadataInjection) {
+                        if (optionTypes == null)
+                            injectionMetadata.metadataInjections.add(new Accessor(path));
                     } else {
-                        loadInjectionMetadata(field.getType(), injectionMetadata, path);
+                        loadInjectionMetadata(field.getType(), injectionMetadata, path, optionTypes);
                     }
                 }
 
-                try {
-                    @SuppressWarnings("unchecked")
-                    Annotation aGuiceInject = field
-                            .getAnnotation((Class<? extends Annotation>) Class.forName("com.google.inject.Inject"));
-                    if (aGuiceInject != null) {
-                        if (field.getType().equals(GlobalMetadata.class)
-                                || field.getType().equals(CommandGroupMetadata.class)
-                                || field.getType().equals(CommandMetadata.class)) {
-                            injectionMetadata.metadataInjections.add(new Accessor(path));
-                        } else {
-                            loadInjectionMetadata(field.getType(), injectionMetadata, path);
-                        }
+                OptionMetadata optionMetadata = fieldMetadata.option;
+                if (optionMetadata != null
+                        && (optionTypes == null || optionTypes.contains(optionMetadata.getOptionType()))) {
+                    if (!fields.isEmpty()) {
+                        //@formatter:off
+                        optionMetadata = new OptionMetadata(optionMetadata.getOptionType(), 
+                                                            optionMetadata.getOptions(),
+                                                            optionMetadata.getTitle(), 
+                                                            optionMetadata.getDescription(), 
+                                                            optionMetadata.getArity(),
+                                                            optionMetadata.isHidden(), 
+                                                            optionMetadata.isOverride(), 
+                                                            optionMetadata.isSealed(),
+                                                            optionMetadata.getRestrictions(),
+                                                            optionMetadata.getTypeConverterProvider(),
+                                                            new Accessor(path));
+                        //@formatter:on
                     }
-                } catch (ClassNotFoundException e) {
-                    // this is ok, means Guice is not on the class path, so
-                    // probably not being used
-                    // and thus, ok that this did not work.
-                } catch (ClassCastException e) {
-                    // ignore this too, we're doing some funky cross your
-                    // fingers type reflect stuff to play
-                    // nicely with Guice
+                    addOption(type, field, optionMetadata, fieldMetadata.defaultOption, injectionMetadata);
                 }
 
-                Option optionAnnotation = field.getAnnotation(Option.class);
-                DefaultOption defaultOptionAnnotation = field.getAnnotation(DefaultOption.class);
-                if (optionAnnotation != null) {
-                    OptionType optionType = optionAnnotation.type();
-                    String name;
-                    if (!optionAnnotation.title().isEmpty()) {
-                        name = optionAnnotation.title();
-                    } else {
-                        name = field.getName();
+                ArgumentsMetadata argumentsMetadata = fieldMetadata.arguments;
+                if (argumentsMetadata != null && optionTypes == null) {
+                    checkArgumentsAllowed(field, injectionMetadata);
+                    if (!fields.isEmpty()) {
+                        //@formatter:off
+                        argumentsMetadata = new ArgumentsMetadata(argumentsMetadata.getTitle(), 
+                                                                  argumentsMetadata.getDescription(),
+                                                                  argumentsMetadata.getRestrictions(),
+                                                                  argumentsMetadata.getTypeConverterProvider(),
+                                                                  new Accessor(path));
+                        //@formatter:on
                     }
+                    injectionMetadata.arguments.add(argumentsMetadata);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the meta-data for the fields declared directly on a class, the
+     * options and arguments returned have accessors relative to the class
+     * 
+     * @param cls
+     *            Class
+     * @return Field meta-data in declaration order, only fields that carry
+     *         relevant annotations are included
+     */
+    private static List<FieldMetadata> loadDeclaredFields(Class<?> cls) {
+        List<FieldMetadata> declared = new ArrayList<>();
+        for (Field field : cls.getDeclaredFields()) {
+            // Look at each annotation present exactly once, the vast majority
+            // of fields have none or only a couple
+            Annotation[] annotations = field.getAnnotations();
+            if (annotations.length == 0)
+                continue;
+
+            field.setAccessible(true);
+            FieldMetadata fieldMetadata = new FieldMetadata(field);
+            fieldMetadata.metadataInjection = field.getType().equals(GlobalMetadata.class)
+                    || field.getType().equals(CommandGroupMetadata.class)
+                    || field.getType().equals(CommandMetadata.class);
+
+            Option optionAnnotation = null;
+            DefaultOption defaultOptionAnnotation = null;
+            Arguments argumentsAnnotation = null;
+            for (Annotation annotation : annotations) {
+                Class<? extends Annotation> annotationType = annotation.annotationType();
+                if (annotationType == Option.class) {
+                    optionAnnotation = (Option) annotation;
+                } else if (annotationType == DefaultOption.class) {
+                    defaultOptionAnnotation = (DefaultOption) annotation;
+                } else if (annotationType == Arguments.class) {
+                    argumentsAnnotation = (Arguments) annotation;
+                } else if (annotationType == Inject.class) {
+                    fieldMetadata.injections++;
+                } else if (InjectionAnnotationRegistry.isInjectionAnnotation(annotationType)) {
+                    // Other injection markers are compared by name since they
+                    // may come from optional dependencies
+                    fieldMetadata.injections++;
+                }
+            }
 
-                    List<String> options = Arrays.asList(optionAnnotation.name());
-                    String description = optionAnnotation.description();
+            if (optionAnnotation != null) {
+                OptionType optionType = optionAnnotation.type();
+                String name;
+                if (!optionAnnotation.title().isEmpty()) {
+                    name = optionAnnotation.title();
+                } else {
+                    name = field.getName();
+                }
 
-                    int arity = optionAnnotation.arity();
-                    if (arity < 0 && arity != Integer.MIN_VALUE)
-                        throw new IllegalArgumentException(String.format("Invalid arity for option %s", name));
+                List<String> options = Arrays.asList(optionAnnotation.name());
+                String description = optionAnnotation.description();
 
-                    if (optionAnnotation.arity() >= 0) {
-                        arity = optionAnnotation.arity();
+                int arity = optionAnnotation.arity();
+                if (arity < 0 && arity != Integer.MIN_VALUE)
+                    throw new IllegalArgumentException(String.format("Invalid arity for option %s", name));
+
+                if (optionAnnotation.arity() >= 0) {
+                    arity = optionAnnotation.arity();
+                } else {
+                    Class<?> fieldType = field.getType();
+                    if (Boolean.class.isAssignableFrom(fieldType) || boolean.class.isAssignableFrom(fieldType)) {
+                        arity = 0;
                     } else {
-                        Class<?> fieldType = field.getType();
-                        if (Boolean.class.isAssignableFrom(fieldType) || boolean.class.isAssignableFrom(fieldType)) {
-                            arity = 0;
-                        } else {
-                            arity = 1;
-                        }
+                        arity = 1;
                     }
+                }
 
-                    boolean hidden = optionAnnotation.hidden();
-                    boolean override = optionAnnotation.override();
-                    boolean sealed = optionAnnotation.sealed();
-
-                    // Find and create restrictions
-                    Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
-                    List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getOptionRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
-                        OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass,
-                                annotation);
-                        if (restriction != null) {
-                            // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass))
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
-
-                            restrictions.add(restriction);
-                        }
-                    }
+                boolean hidden = optionAnnotation.hidden();
+                boolean override = optionAnnotation.override();
+                boolean sealed = optionAnnotation.sealed();
 
-                    // Type Converter provider
-                    TypeConverterProvider provider = ParserUtil
-                            .createInstance(optionAnnotation.typeConverterProvider());
-
-                    //@formatter:off
-                    OptionMetadata optionMetadata = new OptionMetadata(optionType, 
-                                                                       options,
-                                                                       name, 
-                                                                       description, 
-                                                                       arity,
-                                                                       hidden, 
-                                                                       override, 
-                                                                       sealed,
-                                                                       restrictions,
-                                                                       provider,
-                                                                       path);
-                    //@formatter:on
-                    switch (optionType) {
-                    case GLOBAL:
-                        if (defaultOptionAnnotation != null)
-                            throw new IllegalArgumentException(String.format(
-                                    "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
-                                    field));
-                        injectionMetadata.globalOptions.add(optionMetadata);
-                        break;
-                    case GROUP:
-                        if (defaultOptionAnnotation != null)
-                            throw new IllegalArgumentException(String.format(
-                                    "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
-                                    field));
-                        injectionMetadata.groupOptions.add(optionMetadata);
-                        break;
-                    case COMMAND:
-                        // Do we also have a @DefaultOption annotation
-
-                        if (defaultOptionAnnotation != null) {
-                            // Can't have both @DefaultOption and @Arguments
-                            if (injectionMetadata.arguments.size() > 0)
-                                throw new IllegalArgumentException(String.format(
-                                        "Field %s cannot be annotated with @DefaultOption because there are fields with @Arguments annotations present",
-                                        field));
-                            // Can't have more than one @DefaultOption
-                            if (injectionMetadata.defaultOption != null)
-                                throw new IllegalArgumentException(String.format(
-                                        "Command type %s has more than one field with @DefaultOption declared upon it",
-                                        type));
-                            // Arity of associated @Option must be 1
-                            if (optionMetadata.getArity() != 1)
-                                throw new IllegalArgumentException(String.format(
-                                        "Field %s annotated with @DefaultOption must also have an @Option annotation with an arity of 1",
-                                        field));
-                            injectionMetadata.defaultOption = optionMetadata;
-                        }
-                        injectionMetadata.commandOptions.add(optionMetadata);
-                        break;
-                    }
+                // Find and create restrictions
+                List<OptionRestriction> restrictions = loadOptionRestrictions(annotations, null);
+
+                // Type Converter provider
+                TypeConverterProvider provider = ParserUtil.createInstance(optionAnnotation.typeConverterProvider());
+
+                //@formatter:off
+                fieldMetadata.option = new OptionMetadata(optionType, 
+                                                          options,
+                                                          name, 
+                                                          description, 
+                                                          arity,
+                                                          hidden, 
+                                                          override, 
+                                                          sealed,
+                                                          restrictions,
+                                                          provider,
+                                                          new Accessor(field));
+                //@formatter:on
+                fieldMetadata.defaultOption = defaultOptionAnnotation != null;
+            }
+
+            if (optionAnnotation == null && defaultOptionAnnotation != null) {
+                // Can't have @DefaultOption on a field without also @Option
+                throw new IllegalArgumentException(String.format(
+                        "Field %s annotated with @DefaultOption must also have an @Option annotation", field));
+            }
+
+            if (argumentsAnnotation != null) {
+                List<String> titles = new ArrayList<>();
+
+                if (!(argumentsAnnotation.title().length == 1 && argumentsAnnotation.title()[0].equals(""))) {
+                    titles.addAll(Arrays.asList(argumentsAnnotation.title()));
+                } else {
+                    titles.add(field.getName());
                 }
 
-                if (optionAnnotation == null && defaultOptionAnnotation != null) {
-                    // Can't have @DefaultOption on a field without also @Option
+                String description = argumentsAnnotation.description();
+                TypeConverterProvider provider = ParserUtil
+                        .createInstance(argumentsAnnotation.typeConverterProvider());
+
+                List<ArgumentsRestriction> restrictions = loadArgumentsRestrictions(annotations, null);
+
+                //@formatter:off
+                fieldMetadata.arguments = new ArgumentsMetadata(titles, 
+                                                                description,
+                                                                restrictions,
+                                                                provider,
+                                                                new Accessor(field));
+                //@formatter:on
+            }
+
+            if (fieldMetadata.injections > 0 || fieldMetadata.option != null || fieldMetadata.arguments != null)
+                declared.add(fieldMetadata);
+        }
+        return Collections.unmodifiableList(declared);
+    }
+
+    /**
+     * Checks that a field may declare arguments
+     * 
+     * @param field
+     *            Field
+     * @param injectionMetadata
+     *            Injection meta-data
+     */
+    static void checkArgumentsAllowed(Field field, InjectionMetadata injectionMetadata) {
+        // Can't have both @DefaultOption and @Arguments
+        if (injectionMetadata.defaultOption != null)
+            throw new IllegalArgumentException(String.format(
+                    "Field %s cannot be annotated with @Arguments because there is a field with @DefaultOption present",
+                    field));
+    }
+
+    /**
+     * Adds an option to the injection meta-data
+     * 
+     * @param type
+     *            Class being loaded
+     * @param field
+     *            Field the option is declared upon
+     * @param optionMetadata
+     *            Option meta-data
+     * @param defaultOption
+     *            Whether the field is also annotated with {@link DefaultOption}
+     * @param injectionMetadata
+     *            Injection meta-data
+     */
+    static void addOption(Class<?> type, Field field, OptionMetadata optionMetadata, boolean defaultOption,
+            InjectionMetadata injectionMetadata) {
+        switch (optionMetadata.getOptionType()) {
+        case GLOBAL:
+            if (defaultOption)
+                throw new IllegalArgumentException(String.format(
+                        "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
+                        field));
+            injectionMetadata.globalOptions.add(optionMetadata);
+            break;
+        case GROUP:
+            if (defaultOption)
+                throw new IllegalArgumentException(String.format(
+                        "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
+                        field));
+            injectionMetadata.groupOptions.add(optionMetadata);
+            break;
+        case COMMAND:
+            // Do we also have a @DefaultOption annotation
+
+            if (defaultOption) {
+                // Can't have both @DefaultOption and @Arguments
+                if (injectionMetadata.arguments.size() > 0)
                     throw new IllegalArgumentException(String.format(
-                            "Field %s annotated with @DefaultOption must also have an @Option annotation", field));
-                }
+                            "Field %s cannot be annotated with @DefaultOption because there are fields with @Arguments annotations present",
+                            field));
+                // Can't have more than one @DefaultOption
+                if (injectionMetadata.defaultOption != null)
+                    throw new IllegalArgumentException(String.format(
+                            "Command type %s has more than one field with @DefaultOption declared upon it", type));
+                // Arity of associated @Option must be 1
+                if (optionMetadata.getArity() != 1)
+                    throw new IllegalArgumentException(String.format(
+                            "Field %s annotated with @DefaultOption must also have an @Option annotation with an arity of 1",
+                            field));
+                injectionMetadata.defaultOption = optionMetadata;
+            }
+            injectionMetadata.commandOptions.add(optionMetadata);
+            break;
+        }
+    }
 
-                Arguments argumentsAnnotation = field.getAnnotation(Arguments.class);
-                if (field.isAnnotationPresent(Arguments.class)) {
-                    // Can't have both @DefaultOption and @Arguments
-                    if (injectionMetadata.defaultOption != null)
-                        throw new IllegalArgumentException(String.format(
-                                "Field %s cannot be annotated with @Arguments because there is a field with @DefaultOption present",
-                                field));
+    /**
+     * Loads the option restrictions declared upon a field
+     * 
+     * @param field
+     *            Field
+     * @param candidates
+     *            Annotation classes known to be present on the field, if
+     *            {@code null} all annotations present on the field are
+     *            considered
+     * @return Option restrictions
+     */
+    static List<OptionRestriction> loadOptionRestrictions(Field field,
+            Collection<Class<? extends Annotation>> candidates) {
+        if (candidates != null && candidates.isEmpty())
+            return new ArrayList<OptionRestriction>();
+        return loadOptionRestrictions(field.getAnnotations(), candidates);
+    }
 
-                    List<String> titles = new ArrayList<>();
+    private static List<OptionRestriction> loadOptionRestrictions(Annotation[] annotations,
+            Collection<Class<? extends Annotation>> candidates) {
+        Map<Class<? extends Annotation>, Set<Integer>> partials = null;
+        List<OptionRestriction> restrictions = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> annotationClass = annotation.annotationType();
+            if (candidates != null && !candidates.contains(annotationClass))
+                continue;
+            OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass, annotation);
+            if (restriction != null) {
+                // Adjust for partial if necessary
+                if (partials == null)
+                    partials = loadPartials(annotations);
+                if (partials.containsKey(annotationClass))
+                    restriction = new PartialRestriction(partials.get(annotationClass), restriction);
 
-                    if (!(argumentsAnnotation.title().length == 1 && argumentsAnnotation.title()[0].equals(""))) {
-                        titles.addAll(Arrays.asList(argumentsAnnotation.title()));
-                    } else {
-                        titles.add(field.getName());
-                    }
+                restrictions.add(restriction);
+            }
+        }
+        return restrictions;
+    }
 
-                    String description = argumentsAnnotation.description();
-                    TypeConverterProvider provider = ParserUtil
-                            .createInstance(argumentsAnnotation.typeConverterProvider());
-
-                    Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
-                    List<ArgumentsRestriction> restrictions = new ArrayList<>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getArgumentsRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
-                        ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
-                                annotation);
-                        if (restriction != null) {
-                            // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass))
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
-
-                            restrictions.add(restriction);
-                        }
-                    }
+    /**
+     * Loads the arguments restrictions declared upon a field
+     * 
+     * @param field
+     *            Field
+     * @param candidates
+     *            Annotation classes known to be present on the field, if
+     *            {@code null} all annotations present on the field are
+     *            considered
+     * @return Arguments restrictions
+     */
+    static List<ArgumentsRestriction> loadArgumentsRestrictions(Field field,
+            Collection<Class<? extends Annotation>> candidates) {
+        if (candidates != null && candidates.isEmpty())
+            return new ArrayList<ArgumentsRestriction>();
+        return loadArgumentsRestrictions(field.getAnnotations(), candidates);
+    }
 
-                    //@formatter:off
-                    injectionMetadata.arguments.add(new ArgumentsMetadata(titles, 
-                                                                          description,
-                                                                          restrictions,
-                                                                          provider,
-                                                                          path));
-                    //@formatter:on
-                }
+    private static List<ArgumentsRestriction> loadArgumentsRestrictions(Annotation[] annotations,
+            Collection<Class<? extends Annotation>> candidates) {
+        Map<Class<? extends Annotation>, Set<Integer>> partials = null;
+        List<ArgumentsRestriction> restrictions = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> annotationClass = annotation.annotationType();
+            if (candidates != null && !candidates.contains(annotationClass))
+                continue;
+            ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass, annotation);
+            if (restriction != null) {
+                // Adjust for partial if necessary
+                if (partials == null)
+                    partials = loadPartials(annotations);
+                if (partials.containsKey(annotationClass))
+                    restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+
+                restrictions.add(restriction);
             }
         }
+        return restrictions;
     }
 
-    private static Map<Class<? extends Annotation>, Set<Integer>> loadPartials(Field field) {
+    private static Map<Class<? extends Annotation>, Set<Integer>> loadPartials(Annotation[] annotations) {
         Map<Class<? extends Annotation>, Set<Integer>> partials = new HashMap<>();
 
-        Annotation partialsAnnotation = field.getAnnotation(Partials.class);
-        if (partialsAnnotation != null) {
-            for (Partial partial : ((Partials) partialsAnnotation).value()) {
-                collectPartial(partials, partial);
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Partials) {
+                for (Partial partial : ((Partials) annotation).value()) {
+                    collectPartial(partials, partial);
+                }
+            } else if (annotation instanceof Partial) {
+                collectPartial(partials, (Partial) annotation);
             }
         }
-        Annotation partialAnnotation = field.getAnnotation(Partial.class);
-        if (partialAnnotation != null) {
-            collectPartial(partials, (Partial) partialAnnotation);
-        }
 
         return partials;
     }
@@ -862,10 +1219,18 @@ public class MetadataLoader {
 
     public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
             List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup) {
+        loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup,
+                Collections.<Class<?>, GeneratedCommandMetadata> emptyMap(), false);
+    }
+
+    private static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
+            List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup,
+            Map<Class<?>, GeneratedCommandMetadata> commandMetadata, boolean lazy) {
         List<CommandMetadata> newCommands = new ArrayList<CommandMetadata>();
 
         // first, create any groups explicitly annotated
-        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup);
+        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, commandMetadata,
+                lazy);
 
         for (CommandMetadata command : allCommands) {
             boolean addedToGroup = false;
@@ -934,7 +1299,8 @@ public class MetadataLoader {
     @SuppressWarnings("rawtypes")
     private static void createGroupsFromAnnotations(List<CommandMetadata> allCommands,
             List<CommandMetadata> newCommands, List<CommandGroupMetadata> commandGroups,
-            List<CommandMetadata> defaultCommandGroup) {
+            List<CommandMetadata> defaultCommandGroup, Map<Class<?>, GeneratedCommandMetadata> commandMetadata,
+            boolean lazy) {
 
         // We sort sub-groups by name length then lexically
         // This means that when we build the groups hierarchy we'll ensure we
@@ -954,7 +1320,7 @@ public class MetadataLoader {
                     defaultCommandClass = groupAnno.defaultCommand();
                     defaultCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(defaultCommandClass));
                     if (null == defaultCommand) {
-                        defaultCommand = loadCommand(defaultCommandClass);
+                        defaultCommand = loadCommand(defaultCommandClass, commandMetadata, lazy);
                         newCommands.add(defaultCommand);
                     }
                 }
@@ -965,7 +1331,7 @@ public class MetadataLoader {
                 for (Class commandClass : groupAnno.commands()) {
                     groupCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(commandClass));
                     if (null == groupCommand) {
-                        groupCommand = loadCommand(commandClass);
+                        groupCommand = loadCommand(commandClass, commandMetadata, lazy);
                         newCommands.add(groupCommand);
                         groupCommands.add(groupCommand);
                     }
@@ -1057,15 +1423,31 @@ public class MetadataLoader {
         }
     }
 
-    private static class InjectionMetadata {
-        private List<OptionMetadata> globalOptions = new ArrayList<>();
-        private List<OptionMetadata> groupOptions = new ArrayList<>();
-        private List<OptionMetadata> commandOptions = new ArrayList<>();
-        private OptionMetadata defaultOption = null;
-        private List<ArgumentsMetadata> arguments = new ArrayList<>();
-        private List<Accessor> metadataInjections = new ArrayList<>();
+    /**
+     * Meta-data about a single field declared on a class
+     */
+    private static final class FieldMetadata {
+        private final Field field;
+        private int injections;
+        private boolean metadataInjection;
+        private OptionMetadata option;
+        private boolean defaultOption;
+        private ArgumentsMetadata arguments;
+
+        private FieldMetadata(Field field) {
+            this.field = field;
+        }
+    }
+
+    static class InjectionMetadata {
+        List<OptionMetadata> globalOptions = new ArrayList<>();
+        List<OptionMetadata> groupOptions = new ArrayList<>();
+        List<OptionMetadata> commandOptions = new ArrayList<>();
+        OptionMetadata defaultOption = null;
+        List<ArgumentsMetadata> arguments = new ArrayList<>();
+        List<Accessor> metadataInjections = new ArrayList<>();
 
-        private void compact() {
+        void compact() {
             globalOptions = overrideOptionSet(globalOptions);
             groupOptions = overrideOptionSet(groupOptions);
             commandOptions = overrideOptionSet(commandOptions);
@@ -0,0 +1,585 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.model.MetadataLoader.InjectionMetadata;
+import com.github.rvesse.airline.parser.ParserUtil;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+import com.github.rvesse.airline.types.TypeConverterProvider;
+
+/**
+ * A binary snapshot of the command meta-data for a CLI
+ * <p>
+ * A snapshot records, for every command of a CLI class annotated with
+ * {@link com.github.rvesse.airline.annotations.Cli}, which fields declare
+ * options, arguments and meta-data injections along with the values of those
+ * annotations. Snapshots are typically created at build time by the
+ * {@code snapshot} goal of the {@code airline-maven-plugin} and stored as a
+ * resource alongside the CLI class, see {@link #getResourceName(Class)}.
+ * </p>
+ * <p>
+ * When a CLI is created from a snapshot the command classes do not need to be
+ * scanned via reflection, only the recorded fields and annotations are looked
+ * up. Restrictions, type converter providers and parser configuration are
+ * still created from the annotations at runtime since these may be arbitrary
+ * user defined objects.
+ * </p>
+ */
+public final class MetadataSnapshot {
+
+    /**
+     * Prefix for snapshot resource names
+     */
+    public static final String RESOURCE_PREFIX = "META-INF/airline/snapshots/";
+    /**
+     * Suffix for snapshot resource names
+     */
+    public static final String RESOURCE_SUFFIX = ".metadata";
+
+    private static final int MAGIC = 0x4149524c;
+    private static final int VERSION = 1;
+
+    private final Class<?> cliClass;
+    private final Map<Class<?>, CommandSnapshot> commands;
+
+    private MetadataSnapshot(Class<?> cliClass, Map<Class<?>, CommandSnapshot> commands) {
+        this.cliClass = cliClass;
+        this.commands = commands;
+    }
+
+    /**
+     * Gets the name of the resource used to store the snapshot for a CLI class
+     * 
+     * @param cliClass
+     *            CLI class
+     * @return Resource name
+     */
+    public static String getResourceName(Class<?> cliClass) {
+        return RESOURCE_PREFIX + cliClass.getName() + RESOURCE_SUFFIX;
+    }
+
+    /**
+     * Creates a snapshot for a CLI class by loading its meta-data via
+     * reflection
+     * 
+     * @param cliClass
+     *            CLI class
+     * @return Snapshot
+     */
+    public static MetadataSnapshot create(Class<?> cliClass) {
+        GlobalMetadata<Object> metadata = MetadataLoader.loadGlobal(cliClass);
+
+        Set<Class<?>> commandTypes = new LinkedHashSet<>();
+        if (metadata.getDefaultCommand() != null)
+            commandTypes.add(metadata.getDefaultCommand().getType());
+        for (CommandMetadata command : metadata.getDefaultGroupCommands()) {
+            commandTypes.add(command.getType());
+        }
+        collectCommandTypes(metadata.getCommandGroups(), commandTypes);
+
+        Map<Class<?>, CommandSnapshot> commands = new LinkedHashMap<>();
+        for (Class<?> type : commandTypes) {
+            commands.put(type, CommandSnapshot.create(type));
+        }
+        return new MetadataSnapshot(cliClass, commands);
+    }
+
+    private static void collectCommandTypes(List<CommandGroupMetadata> groups, Set<Class<?>> commandTypes) {
+        for (CommandGroupMetadata group : groups) {
+            if (group.getDefaultCommand() != null)
+                commandTypes.add(group.getDefaultCommand().getType());
+            for (CommandMetadata command : group.getCommands()) {
+                commandTypes.add(command.getType());
+            }
+            collectCommandTypes(group.getSubGroups(), commandTypes);
+        }
+    }
+
+    /**
+     * Loads the snapshot for a CLI class from the class path
+     * 
+     * @param cliClass
+     *            CLI class
+     * @return Snapshot or {@code null} if no snapshot resource is present
+     * @throws IOException
+     *             Thrown if the snapshot resource cannot be read
+     */
+    public static MetadataSnapshot load(Class<?> cliClass) throws IOException {
+        ClassLoader loader = cliClass.getClassLoader();
+        if (loader == null)
+            loader = ClassLoader.getSystemClassLoader();
+        try (InputStream input = loader.getResourceAsStream(getResourceName(cliClass))) {
+            if (input == null)
+                return null;
+            MetadataSnapshot snapshot = read(input, loader);
+            if (!snapshot.getCliClass().equals(cliClass))
+                throw new IOException(String.format("Snapshot resource for CLI class %s describes CLI class %s",
+                        cliClass.getName(), snapshot.getCliClass().getName()));
+            return snapshot;
+        }
+    }
+
+    /**
+     * Loads the snapshot for a CLI class from the class path, falling back to
+     * creating it via reflection if no snapshot resource is present
+     * 
+     * @param cliClass
+     *            CLI class
+     * @return Snapshot
+     * @throws IOException
+     *             Thrown if the snapshot resource cannot be read
+     */
+    public static MetadataSnapshot loadOrCreate(Class<?> cliClass) throws IOException {
+        MetadataSnapshot snapshot = load(cliClass);
+        return snapshot != null ? snapshot : create(cliClass);
+    }
+
+    /**
+     * Reads a snapshot
+     * 
+     * @param input
+     *            Input stream
+     * @param loader
+     *            Class loader used to resolve the classes referenced by the
+     *            snapshot
+     * @return Snapshot
+     * @throws IOException
+     *             Thrown if the snapshot cannot be read or refers to classes
+     *             that cannot be loaded
+     */
+    public static MetadataSnapshot read(InputStream input, ClassLoader loader) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not an Airline meta-data snapshot");
+        int version = data.readInt();
+        if (version != VERSION)
+            throw new IOException(String.format("Unsupported meta-data snapshot version %d", version));
+
+        Class<?> cliClass = readClass(data, loader);
+        int count = data.readInt();
+        Map<Class<?>, CommandSnapshot> commands = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            CommandSnapshot command = CommandSnapshot.read(data, loader);
+            commands.put(command.type, command);
+        }
+        return new MetadataSnapshot(cliClass, commands);
+    }
+
+    /**
+     * Writes the snapshot
+     * 
+     * @param output
+     *            Output stream
+     * @throws IOException
+     *             Thrown if the snapshot cannot be written
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeString(data, this.cliClass.getName());
+        data.writeInt(this.commands.size());
+        for (CommandSnapshot command : this.commands.values()) {
+            command.write(data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Gets the CLI class the snapshot describes
+     * 
+     * @return CLI class
+     */
+    public Class<?> getCliClass() {
+        return this.cliClass;
+    }
+
+    /**
+     * Gets the command classes included in the snapshot
+     * 
+     * @return Command classes
+     */
+    public Set<Class<?>> getCommandTypes() {
+        return Collections.unmodifiableSet(this.commands.keySet());
+    }
+
+    /**
+     * Loads the global meta-data for the CLI using this snapshot
+     * 
+     * @param <C>
+     *            Command type
+     * @return Global meta-data
+     */
+    public <C> GlobalMetadata<C> loadGlobal() {
+        return loadGlobal(null);
+    }
+
+    /**
+     * Loads the global meta-data for the CLI using this snapshot
+     * 
+     * @param parserConfig
+     *            Parser configuration, this will override any configuration
+     *            specified by the CLI annotation
+     * @param <C>
+     *            Command type
+     * @return Global meta-data
+     */
+    public <C> GlobalMetadata<C> loadGlobal(ParserMetadata<C> parserConfig) {
+        return MetadataLoader.loadGlobal(this.cliClass, parserConfig,
+                Collections.<Class<?>, GeneratedCommandMetadata> unmodifiableMap(this.commands), false);
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream data, Iterable<String> values) throws IOException {
+        List<String> list = new ArrayList<>();
+        for (String value : values) {
+            list.add(value);
+        }
+        data.writeInt(list.size());
+        for (String value : list) {
+            writeString(data, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(data));
+        }
+        return values;
+    }
+
+    private static Class<?> readClass(DataInputStream data, ClassLoader loader) throws IOException {
+        String name = readString(data);
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IOException(String.format("Meta-data snapshot refers to class %s which cannot be loaded", name),
+                    e);
+        }
+    }
+
+    private static void writePath(DataOutputStream data, List<Field> path) throws IOException {
+        data.writeInt(path.size());
+        for (Field field : path) {
+            writeString(data, field.getDeclaringClass().getName());
+            writeString(data, field.getName());
+        }
+    }
+
+    private static List<Field> readPath(DataInputStream data, ClassLoader loader) throws IOException {
+        int count = data.readInt();
+        List<Field> path = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Class<?> declaringClass = readClass(data, loader);
+            path.add(GeneratedCommandLoader.field(declaringClass, readString(data)));
+        }
+        return path;
+    }
+
+    private static Class<?>[] restrictionAnnotations(Field field, Set<Class<? extends Annotation>> registered) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (Annotation annotation : field.getAnnotations()) {
+            if (registered.contains(annotation.annotationType()))
+                classes.add(annotation.annotationType());
+        }
+        return classes.toArray(new Class<?>[classes.size()]);
+    }
+
+    private static void writeAnnotationClasses(DataOutputStream data, Class<?>[] classes) throws IOException {
+        List<String> names = new ArrayList<>(classes.length);
+        for (Class<?> cls : classes) {
+            names.add(cls.getName());
+        }
+        writeStrings(data, names);
+    }
+
+    private static Class<?>[] readAnnotationClasses(DataInputStream data, ClassLoader loader) throws IOException {
+        List<String> names = readStrings(data);
+        Class<?>[] classes = new Class<?>[names.size()];
+        for (int i = 0; i < classes.length; i++) {
+            try {
+                classes[i] = Class.forName(names.get(i), false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new IOException(String.format(
+                        "Meta-data snapshot refers to annotation %s which cannot be loaded", names.get(i)), e);
+            }
+        }
+        return classes;
+    }
+
+    private static Field lastField(List<Field> path) {
+        return path.get(path.size() - 1);
+    }
+
+    /**
+     * Snapshot of a single command
+     */
+    private static final class CommandSnapshot implements GeneratedCommandMetadata {
+        private final Class<?> type;
+        private final List<OptionSnapshot> options;
+        private final List<ArgumentsSnapshot> arguments;
+        private final List<List<Field>> metadataInjections;
+
+        private CommandSnapshot(Class<?> type, List<OptionSnapshot> options, List<ArgumentsSnapshot> arguments,
+                List<List<Field>> metadataInjections) {
+            this.type = type;
+            this.options = options;
+            this.arguments = arguments;
+            this.metadataInjections = metadataInjections;
+        }
+
+        static CommandSnapshot create(Class<?> type) {
+            // Capture the options exactly as declared, overrides are applied
+            // again when the snapshot is loaded
+            InjectionMetadata raw = MetadataLoader.loadInjectionMetadata(type, false);
+
+            List<OptionSnapshot> options = new ArrayList<>();
+            for (List<OptionMetadata> optionSet : Arrays.asList(raw.globalOptions, raw.groupOptions,
+                    raw.commandOptions)) {
+                for (OptionMetadata option : optionSet) {
+                    options.add(new OptionSnapshot(option, option == raw.defaultOption));
+                }
+            }
+            List<ArgumentsSnapshot> arguments = new ArrayList<>();
+            for (ArgumentsMetadata args : raw.arguments) {
+                arguments.add(new ArgumentsSnapshot(args));
+            }
+            List<List<Field>> metadataInjections = new ArrayList<>();
+            for (Accessor accessor : raw.metadataInjections) {
+                metadataInjections.add(accessor.getPath());
+            }
+            return new CommandSnapshot(type, options, arguments, metadataInjections);
+        }
+
+        static CommandSnapshot read(DataInputStream data, ClassLoader loader) throws IOException {
+            Class<?> type = readClass(data, loader);
+            int count = data.readInt();
+            List<OptionSnapshot> options = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                options.add(OptionSnapshot.read(data, loader));
+            }
+            count = data.readInt();
+            List<ArgumentsSnapshot> arguments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                arguments.add(ArgumentsSnapshot.read(data, loader));
+            }
+            count = data.readInt();
+            List<List<Field>> metadataInjections = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                metadataInjections.add(readPath(data, loader));
+            }
+            return new CommandSnapshot(type, options, arguments, metadataInjections);
+        }
+
+        void write(DataOutputStream data) throws IOException {
+            writeString(data, this.type.getName());
+            data.writeInt(this.options.size());
+            for (OptionSnapshot option : this.options) {
+                option.write(data);
+            }
+            data.writeInt(this.arguments.size());
+            for (ArgumentsSnapshot args : this.arguments) {
+                args.write(data);
+            }
+            data.writeInt(this.metadataInjections.size());
+            for (List<Field> path : this.metadataInjections) {
+                writePath(data, path);
+            }
+        }
+
+        @Override
+        public CommandMetadata loadCommand() {
+            GeneratedCommandLoader loader = new GeneratedCommandLoader(this.type);
+            for (OptionSnapshot option : this.options) {
+                Field field = lastField(option.path);
+                //@formatter:off
+                OptionMetadata metadata = new OptionMetadata(option.optionType,
+                                                             option.names,
+                                                             option.title,
+                                                             option.description,
+                                                             option.arity,
+                                                             option.hidden,
+                                                             option.override,
+                                                             option.sealed,
+                                                             loader.optionRestrictions(field, option.restrictions),
+                                                             ParserUtil.createInstance(option.provider),
+                                                             new Accessor(option.path));
+                //@formatter:on
+                loader.addOption(field, metadata, option.defaultOption);
+            }
+            for (ArgumentsSnapshot args : this.arguments) {
+                Field field = lastField(args.path);
+                //@formatter:off
+                loader.addArguments(field, new ArgumentsMetadata(args.titles,
+                                                                 args.description,
+                                                                 loader.argumentsRestrictions(field, args.restrictions),
+                                                                 ParserUtil.createInstance(args.provider),
+                                                                 new Accessor(args.path)));
+                //@formatter:on
+            }
+            for (List<Field> path : this.metadataInjections) {
+                loader.addMetadataInjection(new Accessor(path));
+            }
+            return loader.build();
+        }
+    }
+
+    /**
+     * Snapshot of a single option declaration
+     */
+    private static final class OptionSnapshot {
+        private List<Field> path;
+        private OptionType optionType;
+        private List<String> names;
+        private String title, description;
+        private int arity;
+        private boolean hidden, override, sealed, defaultOption;
+        private Class<? extends TypeConverterProvider> provider;
+        private Class<?>[] restrictions;
+
+        private OptionSnapshot() {
+        }
+
+        OptionSnapshot(OptionMetadata option, boolean defaultOption) {
+            this.path = option.getAccessors().iterator().next().getPath();
+            this.optionType = option.getOptionType();
+            this.names = new ArrayList<>(option.getOptions());
+            this.title = option.getTitle();
+            this.description = option.getDescription();
+            this.arity = option.getArity();
+            this.hidden = option.isHidden();
+            this.override = option.isOverride();
+            this.sealed = option.isSealed();
+            this.defaultOption = defaultOption;
+            this.provider = option.getTypeConverterProvider().getClass();
+            this.restrictions = restrictionAnnotations(lastField(this.path),
+                    RestrictionRegistry.getOptionRestrictionAnnotationClasses());
+        }
+
+        static OptionSnapshot read(DataInputStream data, ClassLoader loader) throws IOException {
+            OptionSnapshot option = new OptionSnapshot();
+            option.path = readPath(data, loader);
+            option.optionType = OptionType.values()[data.readInt()];
+            option.names = readStrings(data);
+            option.title = readString(data);
+            option.description = readString(data);
+            option.arity = data.readInt();
+            option.hidden = data.readBoolean();
+            option.override = data.readBoolean();
+            option.sealed = data.readBoolean();
+            option.defaultOption = data.readBoolean();
+            option.provider = readClass(data, loader).asSubclass(TypeConverterProvider.class);
+            option.restrictions = readAnnotationClasses(data, loader);
+            return option;
+        }
+
+        void write(DataOutputStream data) throws IOException {
+            writePath(data, this.path);
+            data.writeInt(this.optionType.ordinal());
+            writeStrings(data, this.names);
+            writeString(data, this.title);
+            writeString(data, this.description);
+            data.writeInt(this.arity);
+            data.writeBoolean(this.hidden);
+            data.writeBoolean(this.override);
+            data.writeBoolean(this.sealed);
+            data.writeBoolean(this.defaultOption);
+            writeString(data, this.provider.getName());
+            writeAnnotationClasses(data, this.restrictions);
+        }
+    }
+
+    /**
+     * Snapshot of a single arguments declaration
+     */
+    private static final class ArgumentsSnapshot {
+        private List<Field> path;
+        private List<String> titles;
+        private String description;
+        private Class<? extends TypeConverterProvider> provider;
+        private Class<?>[] restrictions;
+
+        private ArgumentsSnapshot() {
+        }
+
+        ArgumentsSnapshot(ArgumentsMetadata arguments) {
+            this.path = arguments.getAccessors().iterator().next().getPath();
+            this.titles = new ArrayList<>(arguments.getTitle());
+            this.description = arguments.getDescription();
+            this.provider = arguments.getTypeConverterProvider().getClass();
+            this.restrictions = restrictionAnnotations(lastField(this.path),
+                    RestrictionRegistry.getArgumentsRestrictionAnnotationClasses());
+        }
+
+        static ArgumentsSnapshot read(DataInputStream data, ClassLoader loader) throws IOException {
+            ArgumentsSnapshot arguments = new ArgumentsSnapshot();
+            arguments.path = readPath(data, loader);
+            arguments.titles = readStrings(data);
+            arguments.description = readString(data);
+            arguments.provider = readClass(data, loader).asSubclass(TypeConverterProvider.class);
+            arguments.restrictions = readAnnotationClasses(data, loader);
+            return arguments;
+        }
+
+        void write(DataOutputStream data) throws IOException {
+            writePath(data, this.path);
+            writeStrings(data, this.titles);
+            writeString(data, this.description);
+            writeString(data, this.provider.getName());
+            writeAnnotationClasses(data, this.restrictions);
+        }
+    }
+}
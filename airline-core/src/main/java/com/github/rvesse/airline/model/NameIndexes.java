@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.github.rvesse.airline.utils.AbbreviationTrie;
+import com.github.rvesse.airline.utils.BkTree;
+
+/**
+ * Helpers for building the name indexes that metadata objects precompute so
+ * the parser can look up options, commands and groups by name in constant time
+ * <p>
+ * Where multiple items share a name the first item wins, this matches the
+ * behaviour of the linear searches the indexes replace.
+ * </p>
+ */
+final class NameIndexes {
+
+    private NameIndexes() {
+    }
+
+    /**
+     * Builds an index of options by all their names
+     * 
+     * @param options
+     *            Options
+     * @return Unmodifiable index
+     */
+    static Map<String, OptionMetadata> options(Iterable<OptionMetadata> options) {
+        Map<String, OptionMetadata> index = new LinkedHashMap<String, OptionMetadata>();
+        if (options != null) {
+            for (OptionMetadata option : options) {
+                if (option == null)
+                    continue;
+                for (String name : option.getOptions()) {
+                    if (!index.containsKey(name))
+                        index.put(name, option);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Builds a modifiable index of commands by name
+     * 
+     * @param commands
+     *            Commands
+     * @return Modifiable index
+     */
+    static Map<String, CommandMetadata> commands(Iterable<CommandMetadata> commands) {
+        Map<String, CommandMetadata> index = new LinkedHashMap<String, CommandMetadata>();
+        if (commands != null) {
+            for (CommandMetadata command : commands) {
+                addCommand(index, command);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds a command to an index unless a command with that name is already
+     * present
+     * 
+     * @param index
+     *            Index
+     * @param command
+     *            Command
+     */
+    static void addCommand(Map<String, CommandMetadata> index, CommandMetadata command) {
+        if (command != null && !index.containsKey(command.getName()))
+            index.put(command.getName(), command);
+    }
+
+    /**
+     * Builds a modifiable index of groups by name
+     * 
+     * @param groups
+     *            Groups
+     * @return Modifiable index
+     */
+    static Map<String, CommandGroupMetadata> groups(Iterable<CommandGroupMetadata> groups) {
+        Map<String, CommandGroupMetadata> index = new LinkedHashMap<String, CommandGroupMetadata>();
+        if (groups != null) {
+            for (CommandGroupMetadata group : groups) {
+                addGroup(index, group);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds a group to an index unless a group with that name is already present
+     * 
+     * @param index
+     *            Index
+     * @param group
+     *            Group
+     */
+    static void addGroup(Map<String, CommandGroupMetadata> index, CommandGroupMetadata group) {
+        if (group != null && !index.containsKey(group.getName()))
+            index.put(group.getName(), group);
+    }
+
+    /**
+     * Builds an index of aliases by name
+     * 
+     * @param aliases
+     *            Aliases
+     * @return Unmodifiable index
+     */
+    static Map<String, AliasMetadata> aliases(Iterable<AliasMetadata> aliases) {
+        Map<String, AliasMetadata> index = new HashMap<String, AliasMetadata>();
+        if (aliases != null) {
+            for (AliasMetadata alias : aliases) {
+                if (alias != null && !index.containsKey(alias.getName()))
+                    index.put(alias.getName(), alias);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Builds an abbreviation trie for options from an option index
+     * <p>
+     * Only names longer than two characters may be abbreviated, this matches
+     * the existing abbreviation rules for options which never consider short
+     * names such as {@code -a} as abbreviation candidates.
+     * </p>
+     * 
+     * @param index
+     *            Option index
+     * @return Abbreviation trie
+     */
+    static AbbreviationTrie<OptionMetadata> optionAbbreviations(Map<String, OptionMetadata> index) {
+        Map<String, OptionMetadata> names = new LinkedHashMap<String, OptionMetadata>();
+        for (Entry<String, OptionMetadata> entry : index.entrySet()) {
+            if (entry.getKey().length() <= 2)
+                continue;
+            names.put(entry.getKey(), entry.getValue());
+        }
+        return new AbbreviationTrie<OptionMetadata>(names);
+    }
+
+    /**
+     * Builds a tree for finding names similar to a mistyped name
+     * <p>
+     * Hidden groups, commands and options are excluded so they are never
+     * suggested to users.
+     * </p>
+     * 
+     * @param groups
+     *            Groups
+     * @param commands
+     *            Commands
+     * @param options
+     *            Options
+     * @param otherNames
+     *            Other names e.g. aliases
+     * @return Tree
+     */
+    static BkTree nameTree(Iterable<CommandGroupMetadata> groups, Iterable<CommandMetadata> commands,
+            Iterable<OptionMetadata> options, Collection<String> otherNames) {
+        List<String> names = new ArrayList<String>();
+        for (CommandGroupMetadata group : groups) {
+            if (!group.isHidden())
+                names.add(group.getName());
+        }
+        for (CommandMetadata command : commands) {
+            if (!command.isHidden())
+                names.add(command.getName());
+        }
+        for (OptionMetadata option : options) {
+            if (!option.isHidden())
+                names.addAll(option.getOptions());
+        }
+        names.addAll(otherNames);
+        return new BkTree(names);
+    }
+}
@@ -18,6 +18,7 @@ package com.github.rvesse.airline.model;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.OptionType;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.OptionValidator;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -41,6 +42,7 @@ public class OptionMetadata {
     private final List<OptionRestriction> restrictions;
     private final TypeConverterProvider provider;
     private Set<Accessor> accessors;
+    private volatile OptionValidator validator;
 
     //@formatter:off
     public OptionMetadata(OptionType optionType, 
@@ -54,6 +56,23 @@ public class OptionMetadata {
                           Iterable<OptionRestriction> restrictions,
                           TypeConverterProvider typeConverterProvider,
                           Iterable<Field> path) {
+    //@formatter:on
+        this(optionType, options, title, description, arity, hidden, overrides, sealed, restrictions,
+                typeConverterProvider, path != null ? new Accessor(path) : null);
+    }
+
+    //@formatter:off
+    public OptionMetadata(OptionType optionType, 
+                          Iterable<String> options, 
+                          String title, 
+                          String description, 
+                          int arity,
+                          boolean hidden, 
+                          boolean overrides, 
+                          boolean sealed,
+                          Iterable<OptionRestriction> restrictions,
+                          TypeConverterProvider typeConverterProvider,
+                          Accessor accessor) {
     //@formatter:on
         if (optionType == null)
             throw new NullPointerException("optionType cannot be null");
@@ -75,8 +94,8 @@ public class OptionMetadata {
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions) : Collections.<OptionRestriction>emptyList();
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
 
-        if (path != null) {
-            this.accessors = SetUtils.unmodifiableSet(Collections.singleton(new Accessor(path)));
+        if (accessor != null) {
+            this.accessors = SetUtils.unmodifiableSet(Collections.singleton(accessor));
         }
     }
 
@@ -164,6 +183,24 @@ public class OptionMetadata {
     public List<OptionRestriction> getRestrictions() {
         return this.restrictions;
     }
+
+    /**
+     * Gets the restrictions of this option compiled into a validator
+     * <p>
+     * The validator is compiled on first use.
+     * </p>
+     * 
+     * @return Validator
+     */
+    public OptionValidator getValidator() {
+        OptionValidator validator = this.validator;
+        if (validator == null) {
+            // Benign race, at worst the validator is compiled more than once
+            validator = OptionValidator.compile(this);
+            this.validator = validator;
+        }
+        return validator;
+    }
     
     public TypeConverterProvider getTypeConverterProvider() {
         return this.provider;
@@ -321,7 +358,7 @@ public class OptionMetadata {
                                     child.sealed,
                                     child.restrictions.size() > 0 ? child.restrictions : parent.restrictions,
                                     child.provider,
-                                    null);
+                                    (Accessor) null);
         //@formatter:on
 
         // Combine both child and parent accessors - this is necessary so the
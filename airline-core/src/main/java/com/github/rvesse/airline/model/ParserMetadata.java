@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.model;
 
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -24,6 +25,7 @@ import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandlerFactory;
 import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
@@ -42,24 +44,46 @@ public class ParserMetadata<T> {
     private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
     private final List<OptionParser<T>> optionParsers;
     private final List<AliasMetadata> aliases;
+    private final Map<String, AliasMetadata> aliasIndex;
     private final UserAliasesSource<T> userAliases;
     private final TypeConverter typeConverter;
     private final CommandFactory<T> commandFactory;
     private final String argsSeparator, flagNegationPrefix;
     private final ParserErrorHandler errorHandler;
+    private final ParserErrorHandlerFactory errorHandlerFactory;
 
     public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
             TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
             boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
             boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
             String flagNegationPrefix) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, null, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler,
+            ParserErrorHandlerFactory errorHandlerFactory, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix) {
         if (optionParsers == null)
             throw new NullPointerException("optionParsers cannot be null");
         if (aliases == null)
             throw new NullPointerException("aliases cannot be null");
 
         // Error handling
-        this.errorHandler = errorHandler != null ? errorHandler : new FailFast();
+        // If a factory is given it takes precedence, the shared handler is then
+        // only used by code that asks the configuration directly for a handler
+        this.errorHandlerFactory = errorHandlerFactory;
+        if (errorHandler != null) {
+            this.errorHandler = errorHandler;
+        } else if (errorHandlerFactory != null) {
+            this.errorHandler = errorHandlerFactory.createHandler();
+        } else {
+            this.errorHandler = new FailFast();
+        }
 
         // Command parsing
         this.commandFactory = commandFactory != null ? commandFactory : new DefaultCommandFactory<T>();
@@ -72,6 +96,7 @@ public class ParserMetadata<T> {
 
         // Aliases
         this.aliases = AirlineUtils.unmodifiableListCopy(aliases);
+        this.aliasIndex = NameIndexes.aliases(this.aliases);
         this.userAliases = userAliases;
         this.aliasesOverrideBuiltIns = aliasesOverrideBuiltIns;
         this.aliasesMayChain = aliasesMayChain;
@@ -109,6 +134,13 @@ public class ParserMetadata<T> {
 
     /**
      * Gets the error handler to use
+     * <p>
+     * This is the handler shared by all parses using this configuration. When
+     * an error handler factory is configured the parsers instead create a new
+     * handler for each parse so code that has access to the current
+     * {@link com.github.rvesse.airline.parser.ParseState} should prefer
+     * {@link com.github.rvesse.airline.parser.ParseState#getErrorHandler()}.
+     * </p>
      * 
      * @return Error handler
      */
@@ -116,6 +148,28 @@ public class ParserMetadata<T> {
         return errorHandler;
     }
 
+    /**
+     * Gets the error handler factory (if any)
+     * 
+     * @return Error handler factory, {@code null} if none configured
+     */
+    public ParserErrorHandlerFactory getErrorHandlerFactory() {
+        return errorHandlerFactory;
+    }
+
+    /**
+     * Gets the error handler to use for a new parse
+     * <p>
+     * If an error handler factory is configured this is a new handler from that
+     * factory, otherwise it is the shared error handler.
+     * </p>
+     * 
+     * @return Error handler
+     */
+    public ParserErrorHandler createErrorHandler() {
+        return errorHandlerFactory != null ? errorHandlerFactory.createHandler() : errorHandler;
+    }
+
     /**
      * Gets the defined command aliases
      * 
@@ -125,6 +179,18 @@ public class ParserMetadata<T> {
         return aliases;
     }
 
+    /**
+     * Gets an index of the defined command aliases by name
+     * <p>
+     * Where several aliases share a name the first defined wins.
+     * </p>
+     * 
+     * @return Alias index
+     */
+    public Map<String, AliasMetadata> getAliasIndex() {
+        return aliasIndex;
+    }
+
     /**
      * Gets the user aliases source (if any)
      * 
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model.injection;
+
+import java.util.Collection;
+
+/**
+ * Interface for service providers that declare additional annotations which
+ * mark fields whose values Airline should inject
+ * <p>
+ * Providers are discovered via the {@link java.util.ServiceLoader} mechanism,
+ * once per class loader, by the {@link InjectionAnnotationRegistry}.
+ * Annotations are declared by their fully qualified class names so that
+ * providers may declare annotations from optional dependencies without
+ * requiring them to be present on the class path.
+ * </p>
+ */
+public interface InjectionAnnotationProvider {
+
+    /**
+     * Gets the fully qualified class names of the injection marker
+     * annotations
+     * 
+     * @return Annotation class names
+     */
+    public Collection<String> getInjectionAnnotations();
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model.injection;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.github.rvesse.airline.model.MetadataLoader;
+
+/**
+ * Central registry of the annotations that mark fields whose values Airline
+ * should inject, e.g. {@link javax.inject.Inject}
+ * <p>
+ * In addition to the built-in annotations further annotations may be
+ * registered programmatically or via {@link InjectionAnnotationProvider}
+ * services. Providers are discovered once per class loader and the resulting
+ * set of annotation names is cached, the answer for each annotation type is
+ * then cached against the type itself so checking whether an annotation marks
+ * an injection takes no locks. Annotations are matched by name so optional
+ * dependencies such as Guice never need to be loaded.
+ * </p>
+ * <p>
+ * Note that annotations registered programmatically are not visible to the
+ * {@code airline-processor} annotation processor, annotations declared via
+ * providers on the processor path are.
+ * </p>
+ */
+public class InjectionAnnotationRegistry {
+
+    private static final Set<String> BUILT_IN = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("javax.inject.Inject", "com.google.inject.Inject")));
+
+    private static volatile Set<String> REGISTERED = Collections.emptySet();
+
+    private static final Map<ClassLoader, Set<String>> RESOLVED = new WeakHashMap<ClassLoader, Set<String>>();
+
+    private static volatile ClassValue<Boolean> INJECTION = createInjectionCache();
+
+    /**
+     * Gets the names of the injection marker annotations for classes loaded by
+     * the given class loader
+     * 
+     * @param loader
+     *            Class loader, if {@code null} the class loader of Airline is
+     *            used
+     * @return Unmodifiable set of annotation class names
+     */
+    private static Set<String> getInjectionAnnotations(ClassLoader loader) {
+        if (loader == null)
+            loader = InjectionAnnotationRegistry.class.getClassLoader();
+
+        synchronized (RESOLVED) {
+            Set<String> names = RESOLVED.get(loader);
+            if (names == null) {
+                names = resolve(loader);
+                RESOLVED.put(loader, names);
+            }
+            return names;
+        }
+    }
+
+    private static Set<String> resolve(ClassLoader loader) {
+        Set<String> names = new HashSet<String>(BUILT_IN);
+        names.addAll(REGISTERED);
+        for (InjectionAnnotationProvider provider : ServiceLoader.load(InjectionAnnotationProvider.class, loader)) {
+            names.addAll(provider.getInjectionAnnotations());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Gets whether the given annotation type marks a field for injection
+     * 
+     * @param annotationType
+     *            Annotation type
+     * @return True if an injection marker, false otherwise
+     */
+    public static boolean isInjectionAnnotation(Class<? extends Annotation> annotationType) {
+        return INJECTION.get(annotationType);
+    }
+
+    /**
+     * Gets whether the named annotation marks a field for injection
+     * <p>
+     * This is intended for tooling that only knows annotations by name, such
+     * as the annotation processor, and is not cached per annotation type.
+     * Where the annotation type is available use
+     * {@link #isInjectionAnnotation(Class)} instead.
+     * </p>
+     * 
+     * @param annotationName
+     *            Fully qualified annotation class name
+     * @param loader
+     *            Class loader whose providers are consulted, if {@code null}
+     *            the class loader of Airline is used
+     * @return True if an injection marker, false otherwise
+     */
+    public static boolean isInjectionAnnotation(String annotationName, ClassLoader loader) {
+        return getInjectionAnnotations(loader).contains(annotationName);
+    }
+
+    private static ClassValue<Boolean> createInjectionCache() {
+        return new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return getInjectionAnnotations(type.getClassLoader()).contains(type.getName());
+            }
+        };
+    }
+
+    /**
+     * Registers an additional injection marker annotation
+     * 
+     * @param annotationType
+     *            Annotation type
+     */
+    public static void addInjectionAnnotation(Class<? extends Annotation> annotationType) {
+        addInjectionAnnotation(annotationType.getName());
+    }
+
+    /**
+     * Registers an additional injection marker annotation by name
+     * 
+     * @param annotationName
+     *            Fully qualified annotation class name
+     */
+    public static synchronized void addInjectionAnnotation(String annotationName) {
+        if (annotationName == null)
+            throw new NullPointerException("annotationName cannot be null");
+
+        Set<String> registered = new HashSet<String>(REGISTERED);
+        registered.add(annotationName);
+        REGISTERED = Collections.unmodifiableSet(registered);
+        invalidate();
+    }
+
+    /**
+     * Resets the registry to its default state
+     */
+    public static synchronized void reset() {
+        REGISTERED = Collections.emptySet();
+        invalidate();
+    }
+
+    private static void invalidate() {
+        synchronized (RESOLVED) {
+            RESOLVED.clear();
+        }
+        // Values can't be removed from a ClassValue for every class so start
+        // afresh with a new one
+        INJECTION = createInjectionCache();
+        MetadataLoader.clearCache();
+    }
+}
@@ -23,17 +23,16 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.AliasResolver;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.errors.handlers.StacklessErrorHandler;
 import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
+import com.github.rvesse.airline.utils.AbbreviationTrie;
 
 import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.Predicate;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
 /**
@@ -45,6 +44,39 @@ import org.apache.commons.collections4.iterators.PeekingIterator;
  */
 public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
+    private final ParsePlan<T> plan;
+
+    /**
+     * Creates a new parser
+     */
+    protected AbstractCommandParser() {
+        this(null);
+    }
+
+    /**
+     * Creates a new parser that uses a precomputed parse plan
+     * 
+     * @param plan
+     *            Parse plan, may be {@code null} in which case no plan is used
+     */
+    protected AbstractCommandParser(ParsePlan<T> plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Sets whether stack traces are captured for parse errors on the current
+     * thread based upon the error handler that will be used
+     * 
+     * @param errorHandler
+     *            Error handler
+     * @return Previous setting which must be restored via
+     *         {@link ParseException#suppressStackTraces(boolean)} once parsing
+     *         has finished
+     */
+    protected static boolean useErrorHandler(ParserErrorHandler errorHandler) {
+        return ParseException.suppressStackTraces(errorHandler instanceof StacklessErrorHandler);
+    }
+
     /**
      * Tries to parse the arguments
      * 
@@ -68,12 +100,29 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(GlobalMetadata<T> metadata, Iterable<String> args) {
+        return tryParse(metadata, args, metadata.getParserConfiguration().createErrorHandler());
+    }
+
+    /**
+     * Tries to parse the arguments
+     * 
+     * @param metadata
+     *            Global Metadata
+     * @param args
+     *            Arguments
+     * @param errorHandler
+     *            Error handler to use
+     * @return Parser State
+     */
+    protected ParseState<T> tryParse(GlobalMetadata<T> metadata, Iterable<String> args,
+            ParserErrorHandler errorHandler) {
         PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
 
         //@formatter:off
         ParseState<T> state = ParseState.<T> newInstance()
                                         .pushContext(Context.GLOBAL)
-                                        .withGlobal(metadata);
+                                        .withGlobal(metadata)
+                                        .withErrorHandler(errorHandler);
         //@formatter:on
 
         // Parse global options
@@ -108,11 +157,30 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(ParserMetadata<T> parserConfig, CommandMetadata command, Iterable<String> args) {
+        return tryParse(parserConfig, command, args, parserConfig.createErrorHandler());
+    }
+
+    /**
+     * Tries to parse the arguments
+     * 
+     * @param parserConfig
+     *            Parser Configuration
+     * @param command
+     *            Command meta-data
+     * @param args
+     *            Arguments
+     * @param errorHandler
+     *            Error handler to use
+     * @return Parser State
+     */
+    protected ParseState<T> tryParse(ParserMetadata<T> parserConfig, CommandMetadata command, Iterable<String> args,
+            ParserErrorHandler errorHandler) {
         PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
         //@formatter:off
         ParseState<T> state = ParseState.<T> newInstance()
                                         .pushContext(Context.GLOBAL)
                                         .withConfiguration(parserConfig)
+                                        .withErrorHandler(errorHandler)
                                         .withCommand(command)
                                         .pushContext(Context.COMMAND);
         //@formatter:off
@@ -122,20 +190,24 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
     }
 
     protected ParseState<T> parseCommand(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandMetadata> findCommandPredicate;
-        List<CommandMetadata> expectedCommands = state.getGlobal().getDefaultGroupCommands();
+        Map<String, CommandMetadata> commandIndex = state.getGlobal().getDefaultGroupCommandIndex();
         if (state.getGroup() != null) {
-            expectedCommands = state.getGroup().getCommands();
+            commandIndex = state.getGroup().getCommandIndex();
         }
 
         if (tokens.hasNext()) {
-            //@formatter:off
-            findCommandPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                   ? new AbbreviatedCommandFinder(tokens.peek(), expectedCommands)
-                                   : new CommandFinder(tokens.peek());
-            //@formatter:on
-            CommandMetadata command = AirlineUtils.find(expectedCommands, findCommandPredicate,
-                    state.getGroup() != null ? state.getGroup().getDefaultCommand() : null);
+            // An exact match always takes precedence, only need to consider
+            // abbreviations when there isn't one
+            CommandMetadata command = commandIndex.get(tokens.peek());
+            if (command == null && state.getParserConfiguration().allowsAbbreviatedCommands()) {
+                AbbreviationTrie<CommandMetadata> abbreviations = state.getGroup() != null
+                        ? state.getGroup().getCommandAbbreviations()
+                        : state.getGlobal().getDefaultGroupCommandAbbreviations();
+                command = abbreviations.find(tokens.peek());
+            }
+            if (command == null && state.getGroup() != null) {
+                command = state.getGroup().getDefaultCommand();
+            }
 
             boolean usingDefault = false;
             if (command == null && state.getGroup() == null && state.getGlobal().getDefaultCommand() != null) {
@@ -172,14 +244,9 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
     }
 
     protected ParseState<T> parseGroup(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandGroupMetadata> findGroupPredicate;
         if (tokens.hasNext()) {
-            //@formatter:off
-            findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                 ? new AbbreviatedGroupFinder(tokens.peek(), state.getGlobal().getCommandGroups()) 
-                                 : new GroupFinder(tokens.peek());
-            //@formatter:on
-            CommandGroupMetadata group = CollectionUtils.find(state.getGlobal().getCommandGroups(), findGroupPredicate);
+            CommandGroupMetadata group = findGroup(state, tokens.peek(), state.getGlobal().getCommandGroupIndex(),
+                    state.getGlobal().getCommandGroupAbbreviations());
             if (group != null) {
                 tokens.next();
                 state = state.withGroup(group).pushContext(Context.GROUP);
@@ -187,12 +254,8 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
                 // Possibly may have sub-groups specified
                 while (tokens.hasNext() && state.getGroup().getSubGroups().size() > 0) {
-                    //@formatter:off
-                    findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                         ? new AbbreviatedGroupFinder(tokens.peek(), state.getGroup().getSubGroups()) 
-                                         : new GroupFinder(tokens.peek());
-                    //@formatter:on
-                    group = CollectionUtils.find(state.getGroup().getSubGroups(), findGroupPredicate);
+                    group = findGroup(state, tokens.peek(), state.getGroup().getSubGroupIndex(),
+                            state.getGroup().getSubGroupAbbreviations());
                     if (group != null) {
                         tokens.next();
                         state = state.withGroup(group).pushContext(Context.GROUP);
@@ -211,11 +274,22 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         return state;
     }
 
+    private CommandGroupMetadata findGroup(ParseState<T> state, String name,
+            Map<String, CommandGroupMetadata> groupIndex, AbbreviationTrie<CommandGroupMetadata> abbreviations) {
+        // An exact match always takes precedence, only need to consider
+        // abbreviations when there isn't one
+        CommandGroupMetadata group = groupIndex.get(name);
+        if (group == null && state.getParserConfiguration().allowsAbbreviatedCommands()) {
+            group = abbreviations.find(name);
+        }
+        return group;
+    }
+
     private ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
 
         // Get the option parsers in use
-        List<OptionParser<T>> optionParsers = state.getParserConfiguration().getOptionParsers();
+        List<OptionParser<T>> optionParsers = getOptionParsers(state, allowedOptions);
 
         while (tokens.hasNext()) {
             // Try to parse next option(s) using different styles. If code
@@ -247,6 +321,27 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         return state;
     }
 
+    /**
+     * Gets the option parsers to try for the given allowed options
+     * <p>
+     * If a parse plan is in use this is only those option parsers that may
+     * apply to the allowed options, otherwise it is all the option parsers
+     * from the parser configuration.
+     * </p>
+     * 
+     * @param state
+     *            Current parser state
+     * @param allowedOptions
+     *            Allowed options
+     * @return Option parsers
+     */
+    protected List<OptionParser<T>> getOptionParsers(ParseState<T> state, List<OptionMetadata> allowedOptions) {
+        if (this.plan != null && this.plan.getParserConfiguration() == state.getParserConfiguration()) {
+            return this.plan.getOptionParsers(allowedOptions);
+        }
+        return state.getParserConfiguration().getOptionParsers();
+    }
+
     private ParseState<T> parseArgs(ParseState<T> state, PeekingIterator<String> tokens, ArgumentsMetadata arguments,
             OptionMetadata defaultOption) {
         String sep = state.getParserConfiguration().getArgumentsSeparator();
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list view over an append-only buffer that may be shared between
+ * successive parser states
+ * <p>
+ * Parsing proceeds by producing a new {@link ParseState} for every transition,
+ * copying the lists held by the state on each transition makes parsing
+ * quadratic in the number of tokens. Instead each list is a view over the first
+ * {@code size} elements of a shared buffer, appending to the most recent view
+ * simply adds to the buffer and returns a new view with one more element.
+ * Appending to an older view (e.g. when a parser discards a speculative state)
+ * copies the visible portion of the buffer first so previously handed out views
+ * are never affected.
+ * </p>
+ *
+ * @param <E>
+ *            Element type
+ */
+final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> buffer;
+    private final int size;
+
+    private AppendOnlyList(List<E> buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new empty list
+     * 
+     * @return Empty list
+     */
+    static <E> AppendOnlyList<E> empty() {
+        return new AppendOnlyList<E>(new ArrayList<E>(), 0);
+    }
+
+    /**
+     * Returns a list with the given element appended
+     * 
+     * @param e
+     *            Element
+     * @return New list
+     */
+    AppendOnlyList<E> append(E e) {
+        if (this.buffer.size() == this.size) {
+            // We are the most recent view so can append in place
+            this.buffer.add(e);
+            return new AppendOnlyList<E>(this.buffer, this.size + 1);
+        }
+
+        // Someone else has already appended to the buffer so need to copy the
+        // portion visible to us
+        List<E> copy = new ArrayList<E>(Math.max(16, this.size * 2));
+        copy.addAll(this.buffer.subList(0, this.size));
+        copy.add(e);
+        return new AppendOnlyList<E>(copy, this.size + 1);
+    }
+
+    /**
+     * Returns a list with the last element removed
+     * 
+     * @return New list
+     */
+    AppendOnlyList<E> removeLast() {
+        if (this.size == 0)
+            throw new IllegalStateException("Cannot remove from an empty list");
+        return new AppendOnlyList<E>(this.buffer, this.size - 1);
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return this.buffer.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
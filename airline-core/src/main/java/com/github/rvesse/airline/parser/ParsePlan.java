@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
+import com.github.rvesse.airline.parser.options.ListValueOptionParser;
+import com.github.rvesse.airline.parser.options.LongGetOptParser;
+import com.github.rvesse.airline.parser.options.MaybePairValueOptionParser;
+import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.parser.options.StandardOptionParser;
+
+/**
+ * A precomputed parse plan for a CLI or single command
+ * <p>
+ * A plan is built once from the metadata and records for each parsing context
+ * (global, each group and each command) which of the configured option parsers
+ * can possibly apply to the options allowed in that context. For example the
+ * {@link MaybePairValueOptionParser} only applies to arity 2 options so is
+ * never consulted in contexts that have none. Building a plan also eagerly
+ * builds any abbreviation tries that the parser configuration requires so that
+ * no lazy initialisation happens while parsing.
+ * </p>
+ * <p>
+ * Plans are immutable and may be freely shared between threads.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public final class ParsePlan<T> {
+
+    private final ParserMetadata<T> parserConfig;
+    private final Map<List<OptionMetadata>, List<OptionParser<T>>> optionParsers;
+
+    private ParsePlan(ParserMetadata<T> parserConfig) {
+        this.parserConfig = parserConfig;
+        this.optionParsers = new IdentityHashMap<List<OptionMetadata>, List<OptionParser<T>>>();
+    }
+
+    /**
+     * Compiles a parse plan for a CLI
+     * 
+     * @param metadata
+     *            Global metadata
+     * @return Parse plan
+     */
+    public static <T> ParsePlan<T> compile(GlobalMetadata<T> metadata) {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        ParsePlan<T> plan = new ParsePlan<T>(metadata.getParserConfiguration());
+
+        plan.addContext(metadata.getOptions());
+        if (plan.parserConfig.allowsAbbreviatedOptions())
+            metadata.getOptionAbbreviations();
+        if (plan.parserConfig.allowsAbbreviatedCommands()) {
+            metadata.getCommandGroupAbbreviations();
+            metadata.getDefaultGroupCommandAbbreviations();
+        }
+
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            plan.addGroup(group);
+        }
+        for (CommandMetadata command : metadata.getDefaultGroupCommands()) {
+            plan.addCommand(command);
+        }
+        if (metadata.getDefaultCommand() != null)
+            plan.addCommand(metadata.getDefaultCommand());
+        return plan;
+    }
+
+    /**
+     * Compiles a parse plan for a single command
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     * @param command
+     *            Command metadata
+     * @return Parse plan
+     */
+    public static <T> ParsePlan<T> compile(ParserMetadata<T> parserConfig, CommandMetadata command) {
+        if (parserConfig == null)
+            throw new NullPointerException("parserConfig cannot be null");
+        if (command == null)
+            throw new NullPointerException("command cannot be null");
+        ParsePlan<T> plan = new ParsePlan<T>(parserConfig);
+        plan.addCommand(command);
+        return plan;
+    }
+
+    private void addGroup(CommandGroupMetadata group) {
+        addContext(group.getOptions());
+        if (this.parserConfig.allowsAbbreviatedOptions())
+            group.getOptionAbbreviations();
+        if (this.parserConfig.allowsAbbreviatedCommands()) {
+            group.getCommandAbbreviations();
+            group.getSubGroupAbbreviations();
+        }
+
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            addGroup(subGroup);
+        }
+        for (CommandMetadata command : group.getCommands()) {
+            addCommand(command);
+        }
+    }
+
+    private void addCommand(CommandMetadata command) {
+        addContext(command.getCommandOptions());
+        if (this.parserConfig.allowsAbbreviatedOptions())
+            command.getCommandOptionAbbreviations();
+    }
+
+    private void addContext(List<OptionMetadata> allowedOptions) {
+        if (this.optionParsers.containsKey(allowedOptions))
+            return;
+
+        List<OptionParser<T>> applicable = new ArrayList<OptionParser<T>>();
+        for (OptionParser<T> optionParser : this.parserConfig.getOptionParsers()) {
+            if (isApplicable(optionParser, allowedOptions))
+                applicable.add(optionParser);
+        }
+        this.optionParsers.put(allowedOptions, Collections.unmodifiableList(applicable));
+    }
+
+    /**
+     * Determines whether an option parser can possibly parse any of the allowed
+     * options
+     * <p>
+     * Only the built-in option parsers are considered, any other option parser
+     * (including sub-classes of the built-in parsers) is always assumed to be
+     * applicable since its behaviour is unknown.
+     * </p>
+     * 
+     * @param optionParser
+     *            Option parser
+     * @param allowedOptions
+     *            Allowed options
+     * @return True if the parser is applicable, false otherwise
+     */
+    private boolean isApplicable(OptionParser<T> optionParser, List<OptionMetadata> allowedOptions) {
+        Class<?> cls = optionParser.getClass();
+        if (cls == StandardOptionParser.class || cls == ListValueOptionParser.class) {
+            return !allowedOptions.isEmpty();
+        } else if (cls == ClassicGetOptParser.class) {
+            if (this.parserConfig.allowsAbbreviatedOptions())
+                return !allowedOptions.isEmpty();
+            for (OptionMetadata option : allowedOptions) {
+                for (String name : option.getOptions()) {
+                    if (name.length() == 2 && name.charAt(0) == '-' && name.charAt(1) != '-')
+                        return true;
+                }
+            }
+            return false;
+        } else if (cls == LongGetOptParser.class) {
+            return hasArity(allowedOptions, 1);
+        } else if (cls == MaybePairValueOptionParser.class) {
+            return hasArity(allowedOptions, 2);
+        }
+        return true;
+    }
+
+    private static boolean hasArity(List<OptionMetadata> options, int arity) {
+        for (OptionMetadata option : options) {
+            if (option.getArity() == arity)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the parser configuration the plan was compiled for
+     * 
+     * @return Parser configuration
+     */
+    public ParserMetadata<T> getParserConfiguration() {
+        return this.parserConfig;
+    }
+
+    /**
+     * Gets the option parsers that may apply to the given allowed options
+     * 
+     * @param allowedOptions
+     *            Allowed options
+     * @return Option parsers, if the allowed options are not known to the plan
+     *         this is all the configured option parsers
+     */
+    public List<OptionParser<T>> getOptionParsers(List<OptionMetadata> allowedOptions) {
+        List<OptionParser<T>> optionParsers = this.optionParsers.get(allowedOptions);
+        return optionParsers != null ? optionParsers : this.parserConfig.getOptionParsers();
+    }
+}
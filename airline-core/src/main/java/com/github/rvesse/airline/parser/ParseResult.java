@@ -18,15 +18,21 @@ package com.github.rvesse.airline.parser;
 
 import static com.github.rvesse.airline.parser.ParserUtil.createInstance;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
+import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
@@ -78,6 +84,25 @@ public class ParseResult<T> {
         return this.errors;
     }
 
+    /**
+     * Gets the names the user may have meant where errors were caused by
+     * unrecognized commands or unexpected parameters e.g. mistyped option
+     * names
+     * 
+     * @return Suggestions, closest first, may be empty
+     */
+    public List<String> getSuggestions() {
+        Set<String> suggestions = new LinkedHashSet<String>();
+        for (ParseException e : this.errors) {
+            if (e instanceof ParseCommandUnrecognizedException) {
+                suggestions.addAll(((ParseCommandUnrecognizedException) e).getSuggestions());
+            } else if (e instanceof ParseArgumentsUnexpectedException) {
+                suggestions.addAll(((ParseArgumentsUnexpectedException) e).getSuggestions());
+            }
+        }
+        return new ArrayList<String>(suggestions);
+    }
+
     /**
      * Gets the command if one was successfully parsed
      * <p>
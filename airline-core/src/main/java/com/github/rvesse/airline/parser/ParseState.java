@@ -24,10 +24,11 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.restrictions.ArgumentsValidator;
+import com.github.rvesse.airline.restrictions.OptionValidator;
+import com.github.rvesse.airline.types.PrimitiveTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
-import com.github.rvesse.airline.utils.AirlineUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -35,20 +36,38 @@ import java.util.List;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+/**
+ * Represents the state of the parser
+ * <p>
+ * States are immutable from the perspective of callers, every transition
+ * produces a new state. Internally the lists of parsed values are views over
+ * append-only buffers shared between successive states so that parsing costs
+ * are linear in the number of tokens.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
 public class ParseState<T> {
-    private final List<Context> locationStack;
+    private final AppendOnlyList<Context> locationStack;
     private final GlobalMetadata<T> global;
     private final ParserMetadata<T> parserConfig;
     private final CommandGroupMetadata group;
     private final CommandMetadata command;
-    private final List<Pair<OptionMetadata, Object>> parsedOptions;
-    private final List<Object> parsedArguments;
+    private final AppendOnlyList<Pair<OptionMetadata, Object>> parsedOptions;
+    private final AppendOnlyList<Object> parsedArguments;
     private final OptionMetadata currentOption;
-    private final List<String> unparsedInput;
+    private final AppendOnlyList<String> unparsedInput;
+    private final ParserErrorHandler errorHandler;
+    private final PathStatCache pathStats;
+    private final AppendOnlyList<Pair<Object, String>> deferred;
+    private volatile ParsedOptionIndex parsedOptionIndex;
 
     ParseState(GlobalMetadata<T> global, ParserMetadata<T> parserConfig, CommandGroupMetadata group,
-            CommandMetadata command, List<Pair<OptionMetadata, Object>> parsedOptions, List<Context> locationStack,
-            List<Object> parsedArguments, OptionMetadata currentOption, List<String> unparsedInput) {
+            CommandMetadata command, AppendOnlyList<Pair<OptionMetadata, Object>> parsedOptions,
+            AppendOnlyList<Context> locationStack, AppendOnlyList<Object> parsedArguments,
+            OptionMetadata currentOption, AppendOnlyList<String> unparsedInput, ParserErrorHandler errorHandler,
+            PathStatCache pathStats, AppendOnlyList<Pair<Object, String>> deferred) {
         this.global = global;
         if (global != null) {
             this.parserConfig = global.getParserConfiguration();
@@ -64,102 +83,118 @@ public class ParseState<T> {
         this.parsedArguments = parsedArguments;
         this.currentOption = currentOption;
         this.unparsedInput = unparsedInput;
+        this.errorHandler = errorHandler;
+        this.pathStats = pathStats;
+        this.deferred = deferred;
     }
 
     public static <T> ParseState<T> newInstance() {
-        return new ParseState<T>(null, null, null, null, new ArrayList<Pair<OptionMetadata, Object>>(),
-                Collections.<Context> emptyList(), Collections.<Object> emptyList(), null,
-                Collections.<String> emptyList());
+        return new ParseState<T>(null, null, null, null, AppendOnlyList.<Pair<OptionMetadata, Object>> empty(),
+                AppendOnlyList.<Context> empty(), AppendOnlyList.<Object> empty(), null,
+                AppendOnlyList.<String> empty(), null, new PathStatCache(),
+                AppendOnlyList.<Pair<Object, String>> empty());
     }
 
     public ParseState<T> pushContext(Context location) {
-        List<Context> locations = AirlineUtils.listCopy(this.locationStack);
-        locations.add(location);
+        AppendOnlyList<Context> locations = this.locationStack.append(location);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locations, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> popContext() {
-        List<Context> locationStack = AirlineUtils
-                .unmodifiableListCopy(this.locationStack.subList(0, this.locationStack.size() - 1));
+        AppendOnlyList<Context> locationStack = this.locationStack.removeLast();
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> withOptionValue(OptionMetadata option, String rawValue) {
-        // Pre-validate
-        for (OptionRestriction restriction : option.getRestrictions()) {
-            try {
-                restriction.preValidate(this, option, rawValue);
-            } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
-            }
+        // Pre-validate, any validation deferred by this only applies if the
+        // value is kept
+        OptionValidator validator = option.getValidator();
+        List<Pair<Object, String>> deferrals;
+        try {
+            validator.preValidate(this, rawValue);
+        } finally {
+            deferrals = pathStats.takeDeferred();
         }
 
         try {
-            // Convert value
+            // Convert value, primitive values are kept unboxed where possible
             TypeConverter converter = option.getTypeConverterProvider().getTypeConverter(option, this);
-            Object value = converter.convert(option.getTitle(), option.getJavaType(), rawValue);
+            Pair<OptionMetadata, Object> parsedOption;
+            if (converter instanceof PrimitiveTypeConverter && PrimitiveOptionValue.isSupported(option.getJavaType())
+                    && ((PrimitiveTypeConverter) converter).canConvertPrimitive(option.getJavaType())) {
+                parsedOption = PrimitiveOptionValue.convert(option, (PrimitiveTypeConverter) converter, rawValue);
+            } else {
+                Object value = converter.convert(option.getTitle(), option.getJavaType(), rawValue);
+                parsedOption = Pair.<OptionMetadata, Object> of(option, value);
+            }
 
             // Post-validate
-            for (OptionRestriction restriction : option.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, option, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
+            if (validator.hasPostValidation())
+                validator.postValidate(this, parsedOption.getRight());
 
-            List<Pair<OptionMetadata, Object>> newOptions = AirlineUtils.listCopy(parsedOptions);
-            newOptions.add(Pair.of(option, value));
+            AppendOnlyList<Pair<OptionMetadata, Object>> newOptions = parsedOptions.append(parsedOption);
 
             return new ParseState<T>(global, parserConfig, group, command, newOptions, locationStack, parsedArguments,
-                    currentOption, unparsedInput);
+                    currentOption, unparsedInput, errorHandler, pathStats, withDeferred(deferrals));
         } catch (ParseException e) {
-            this.parserConfig.getErrorHandler().handleError(e);
+            getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            AppendOnlyList<String> newUnparsed = unparsedInput.append(rawValue);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, currentOption, newUnparsed, errorHandler, pathStats, deferred);
         }
     }
 
     public ParseState<T> withGlobal(GlobalMetadata<T> global) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> withConfiguration(ParserMetadata<T> parserConfig) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
+    }
+
+    /**
+     * Sets the error handler to use for the remainder of this parse
+     * 
+     * @param errorHandler
+     *            Error handler
+     * @return New state
+     */
+    public ParseState<T> withErrorHandler(ParserErrorHandler errorHandler) {
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> withGroup(CommandGroupMetadata group) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> withCommand(CommandMetadata command) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> withOption(OptionMetadata option) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                option, unparsedInput);
+                option, unparsedInput, errorHandler, pathStats, deferred);
     }
 
     public ParseState<T> withArgument(ArgumentsMetadata arguments, String rawValue) {
-        // Pre-validate
-        for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-            try {
-                restriction.preValidate(this, arguments, rawValue);
-            } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
-            }
+        // Pre-validate, any validation deferred by this only applies if the
+        // value is kept
+        ArgumentsValidator validator = arguments.getValidator();
+        List<Pair<Object, String>> deferrals;
+        try {
+            validator.preValidate(this, rawValue);
+        } finally {
+            deferrals = pathStats.takeDeferred();
         }
 
         // Convert value
@@ -168,36 +203,35 @@ public class ParseState<T> {
             Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
 
             // Post-validate
-            for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, arguments, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
+            validator.postValidate(this, value);
 
-            List<Object> newArguments = AirlineUtils.listCopy(parsedArguments);
-            newArguments.add(value);
+            AppendOnlyList<Object> newArguments = parsedArguments.append(value);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, newArguments,
-                    currentOption, unparsedInput);
+                    currentOption, unparsedInput, errorHandler, pathStats, withDeferred(deferrals));
         } catch (ParseException e) {
-            this.parserConfig.getErrorHandler().handleError(e);
+            getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            AppendOnlyList<String> newUnparsed = unparsedInput.append(rawValue);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, currentOption, newUnparsed, errorHandler, pathStats, deferred);
         }
     }
 
+    private AppendOnlyList<Pair<Object, String>> withDeferred(List<Pair<Object, String>> deferrals) {
+        AppendOnlyList<Pair<Object, String>> newDeferred = this.deferred;
+        for (Pair<Object, String> deferral : deferrals) {
+            newDeferred = newDeferred.append(deferral);
+        }
+        return newDeferred;
+    }
+
     public ParseState<T> withUnparsedInput(String input) {
-        List<String> newUnparsedInput = AirlineUtils.listCopy(unparsedInput);
-        newUnparsedInput.add(input);
+        AppendOnlyList<String> newUnparsedInput = unparsedInput.append(input);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, newUnparsedInput);
+                currentOption, newUnparsedInput, errorHandler, pathStats, deferred);
     }
 
     @Override
@@ -219,6 +253,19 @@ public class ParseState<T> {
         return this.global != null ? this.global.getParserConfiguration() : this.parserConfig;
     }
 
+    /**
+     * Gets the error handler for this parse
+     * <p>
+     * This is the handler set via {@link #withErrorHandler(ParserErrorHandler)}
+     * if any, otherwise the handler from the parser configuration.
+     * </p>
+     * 
+     * @return Error handler
+     */
+    public ParserErrorHandler getErrorHandler() {
+        return this.errorHandler != null ? this.errorHandler : getParserConfiguration().getErrorHandler();
+    }
+
     public CommandGroupMetadata getGroup() {
         return group;
     }
@@ -235,6 +282,70 @@ public class ParseState<T> {
         return parsedOptions;
     }
 
+    /**
+     * Gets an index over the parsed options
+     * <p>
+     * The index is built on first use, restrictions that inspect the final
+     * state should prefer this to scanning {@link #getParsedOptions()}.
+     * </p>
+     * 
+     * @return Parsed option index
+     */
+    public ParsedOptionIndex getParsedOptionIndex() {
+        ParsedOptionIndex index = this.parsedOptionIndex;
+        if (index == null) {
+            // Benign race, at worst the index is built more than once
+            index = new ParsedOptionIndex(this.parsedOptions);
+            this.parsedOptionIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the cache of file system status information for this parse
+     * 
+     * @return Path status cache
+     */
+    public PathStatCache getPathStatCache() {
+        return pathStats;
+    }
+
+    /**
+     * Gets the values whose validation the given owner deferred, only values
+     * that are part of this state are included
+     * 
+     * @param owner
+     *            Owner of the deferred validation, typically a restriction
+     * @return Deferred values in the order they were given
+     */
+    public List<String> getDeferredValues(Object owner) {
+        List<String> values = null;
+        for (Pair<Object, String> deferral : this.deferred) {
+            if (deferral.getLeft() != owner)
+                continue;
+            if (values == null)
+                values = new ArrayList<String>();
+            values.add(deferral.getRight());
+        }
+        return values != null ? values : Collections.<String> emptyList();
+    }
+
+    /**
+     * Gets whether the given owner deferred validation of any values that are
+     * part of this state
+     * 
+     * @param owner
+     *            Owner of the deferred validation
+     * @return True if there are deferred values, false otherwise
+     */
+    public boolean hasDeferredValues(Object owner) {
+        for (Pair<Object, String> deferral : this.deferred) {
+            if (deferral.getLeft() == owner)
+                return true;
+        }
+        return false;
+    }
+
     public List<Object> getParsedArguments() {
         return parsedArguments;
     }
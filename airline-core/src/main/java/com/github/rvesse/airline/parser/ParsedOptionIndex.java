@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.TaggedOptionRestriction;
+
+/**
+ * An index over the parsed options of a parser state
+ * <p>
+ * Restrictions that inspect the final parser state would otherwise have to
+ * scan all the parsed options for every option they validate, this index
+ * allows them to look up the parsed values for an option, the options parsed
+ * for a name and the number of parsed values with a given restriction tag
+ * directly. Options are matched by {@link OptionMetadata#equals(Object)} as
+ * {@link com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder}
+ * does, but without computing hash codes where the option instance that was
+ * parsed is the one asked about.
+ * </p>
+ * <p>
+ * The index is built once per parser state on first use, see
+ * {@link ParseState#getParsedOptionIndex()}.
+ * </p>
+ */
+public final class ParsedOptionIndex {
+
+    private final Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> byInstance = new IdentityHashMap<>();
+    private final Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> byOption = new HashMap<>();
+    private final Map<String, List<OptionMetadata>> byName = new HashMap<>();
+    private final Map<Class<?>, Map<String, Integer>> tagCounts = new HashMap<>();
+
+    ParsedOptionIndex(List<Pair<OptionMetadata, Object>> parsedOptions) {
+        // Group by instance first since the parsers record the instance they
+        // matched, then merge any equal instances
+        Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> identities = new IdentityHashMap<>();
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            OptionMetadata option = parsedOption.getLeft();
+            if (option == null)
+                continue;
+            List<Pair<OptionMetadata, Object>> values = identities.get(option);
+            if (values == null) {
+                values = byOption.get(option);
+                if (values == null) {
+                    values = new ArrayList<>();
+                    byOption.put(option, values);
+                }
+                identities.put(option, values);
+
+                for (String name : option.getOptions()) {
+                    List<OptionMetadata> named = byName.get(name);
+                    if (named == null) {
+                        named = new ArrayList<>();
+                        byName.put(name, named);
+                    }
+                    named.add(option);
+                }
+            }
+            values.add(parsedOption);
+        }
+        for (Map.Entry<OptionMetadata, List<Pair<OptionMetadata, Object>>> e : identities.entrySet()) {
+            this.byInstance.put(e.getKey(), Collections.unmodifiableList(e.getValue()));
+        }
+    }
+
+    /**
+     * Gets the parsed values for an option
+     * 
+     * @param option
+     *            Option
+     * @return Parsed values, empty if the option was not parsed
+     */
+    public List<Pair<OptionMetadata, Object>> getParsedOptions(OptionMetadata option) {
+        if (option == null)
+            return Collections.emptyList();
+        List<Pair<OptionMetadata, Object>> values = this.byInstance.get(option);
+        if (values == null) {
+            values = this.byOption.get(option);
+            if (values == null)
+                return Collections.emptyList();
+            values = Collections.unmodifiableList(values);
+        }
+        return values;
+    }
+
+    /**
+     * Gets how many values were parsed for an option
+     * 
+     * @param option
+     *            Option
+     * @return Number of parsed values
+     */
+    public int count(OptionMetadata option) {
+        return getParsedOptions(option).size();
+    }
+
+    /**
+     * Gets whether any values were parsed for an option
+     * 
+     * @param option
+     *            Option
+     * @return True if parsed, false otherwise
+     */
+    public boolean contains(OptionMetadata option) {
+        return count(option) > 0;
+    }
+
+    /**
+     * Gets the distinct options that were parsed and have the given name
+     * 
+     * @param name
+     *            Option name
+     * @return Parsed options with the name, empty if none
+     */
+    public List<OptionMetadata> getOptionsNamed(String name) {
+        List<OptionMetadata> options = this.byName.get(name);
+        return options != null ? Collections.unmodifiableList(options) : Collections.<OptionMetadata> emptyList();
+    }
+
+    /**
+     * Gets how many values were parsed for options that have a restriction of
+     * the given type with the given tag
+     * <p>
+     * The counts for a restriction type are computed on first request from
+     * the distinct parsed options, subsequent requests are simple lookups.
+     * </p>
+     * 
+     * @param restrictionType
+     *            Restriction type, restrictions that are instances of this type
+     *            are considered
+     * @param tag
+     *            Tag, {@code null} matches any tag
+     * @return Number of parsed values
+     */
+    public synchronized int countTagged(Class<? extends TaggedOptionRestriction> restrictionType, String tag) {
+        Map<String, Integer> counts = this.tagCounts.get(restrictionType);
+        if (counts == null) {
+            // The null key holds the count for any tag, consistent with the
+            // tag finders where a null tag matches any tag
+            counts = new HashMap<>();
+            for (Map.Entry<OptionMetadata, List<Pair<OptionMetadata, Object>>> e : this.byOption.entrySet()) {
+                // Each tag counts once per option regardless of how many
+                // restrictions carry it
+                List<String> seen = new ArrayList<>();
+                boolean matched = false;
+                for (OptionRestriction restriction : e.getKey().getRestrictions()) {
+                    if (!restrictionType.isInstance(restriction))
+                        continue;
+                    String restrictionTag = ((TaggedOptionRestriction) restriction).getTag();
+                    if (!matched) {
+                        increment(counts, null, e.getValue().size());
+                        matched = true;
+                    }
+                    if (restrictionTag == null || seen.contains(restrictionTag))
+                        continue;
+                    seen.add(restrictionTag);
+                    increment(counts, restrictionTag, e.getValue().size());
+                }
+            }
+            this.tagCounts.put(restrictionType, counts);
+        }
+        Integer count = counts.get(tag);
+        return count != null ? count : 0;
+    }
+
+    private static void increment(Map<String, Integer> counts, String tag, int amount) {
+        Integer count = counts.get(tag);
+        counts.put(tag, (count != null ? count : 0) + amount);
+    }
+}
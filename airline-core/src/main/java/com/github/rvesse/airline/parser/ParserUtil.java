@@ -25,6 +25,7 @@ import com.github.rvesse.airline.parser.resources.ResourceLocator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -55,16 +56,23 @@ public class ParserUtil {
             List<Pair<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings) {
         // inject options
+        Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> optionValues = groupParsedOptions(options,
+                parsedOptions);
         for (OptionMetadata option : options) {
-            List<Object> values = new ArrayList<>();
-            for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
-                if (option.equals(parsedOption.getLeft()))
-                    values.add(parsedOption.getRight());
-            }
-            if (values != null && !values.isEmpty()) {
-                for (Accessor accessor : option.getAccessors()) {
-                    accessor.addValues(commandInstance, values);
-                }
+            List<Pair<OptionMetadata, Object>> parsed = optionValues.get(option);
+            if (parsed == null || parsed.isEmpty())
+                continue;
+
+            // Primitive values are injected without boxing where the
+            // accessor permits
+            List<PrimitiveOptionValue> primitives = PrimitiveOptionValue.asPrimitives(parsed);
+            List<Object> values = null;
+            for (Accessor accessor : option.getAccessors()) {
+                if (primitives != null && accessor.addPrimitiveValues(commandInstance, primitives))
+                    continue;
+                if (values == null)
+                    values = values(parsed);
+                accessor.addValues(commandInstance, values);
             }
         }
 
@@ -86,6 +94,67 @@ public class ParserUtil {
         return commandInstance;
     }
 
+    /**
+     * Groups the parsed options by the option they were parsed for
+     * <p>
+     * Values are bucketed by option identity in a single pass over the parsed
+     * options since the parsers always record the metadata instance they
+     * matched. Only if some parsed option is not present by identity in the
+     * given options do we fall back to matching values using the much more
+     * expensive {@link OptionMetadata#equals(Object)}.
+     * </p>
+     * 
+     * @param options
+     *            Options
+     * @param parsedOptions
+     *            Parsed options
+     * @return Map from options to their parsed options
+     */
+    static Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> groupParsedOptions(
+            Iterable<OptionMetadata> options, List<Pair<OptionMetadata, Object>> parsedOptions) {
+        Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> buckets = new IdentityHashMap<>();
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            List<Pair<OptionMetadata, Object>> values = buckets.get(parsedOption.getLeft());
+            if (values == null) {
+                values = new ArrayList<>();
+                buckets.put(parsedOption.getLeft(), values);
+            }
+            values.add(parsedOption);
+        }
+        if (buckets.isEmpty())
+            return buckets;
+
+        // Check whether every parsed option is known by identity
+        Map<OptionMetadata, Boolean> known = new IdentityHashMap<>();
+        for (OptionMetadata option : options) {
+            known.put(option, Boolean.TRUE);
+        }
+        if (known.keySet().containsAll(buckets.keySet()))
+            return buckets;
+
+        // Otherwise fall back to equality for the options we have values for
+        Map<OptionMetadata, List<Pair<OptionMetadata, Object>>> grouped = new IdentityHashMap<>();
+        for (OptionMetadata option : options) {
+            if (grouped.containsKey(option))
+                continue;
+            List<Pair<OptionMetadata, Object>> values = new ArrayList<>();
+            for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+                if (option.equals(parsedOption.getLeft()))
+                    values.add(parsedOption);
+            }
+            grouped.put(option, values);
+        }
+        return grouped;
+    }
+
+    private static List<Object> values(List<Pair<OptionMetadata, Object>> parsedOptions) {
+        List<Object> values = new ArrayList<>(parsedOptions.size());
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            values.add(parsedOption.getRight());
+        }
+        return values;
+    }
+
     public static <T> T createInstance(Class<?> type, Iterable<OptionMetadata> options,
             List<Pair<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings,
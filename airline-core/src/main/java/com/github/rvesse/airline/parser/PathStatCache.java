@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A cache of file system status information that lives for the duration of a
+ * single parse
+ * <p>
+ * Restrictions that inspect the file system, such as path restrictions, can use
+ * this cache to avoid repeatedly querying the file system about the same path,
+ * or about common parent directories, when many values are validated. The
+ * existence and kind of a path are read in a single call, permissions are only
+ * checked when first requested. The cache is safe for concurrent use.
+ * </p>
+ */
+public final class PathStatCache {
+
+    private final ConcurrentMap<String, PathStat> stats = new ConcurrentHashMap<String, PathStat>();
+    private List<Pair<Object, String>> deferred = null;
+
+    /**
+     * Gets the status of a path
+     * 
+     * @param path
+     *            Path
+     * @return Path status
+     */
+    public PathStat stat(String path) {
+        PathStat stat = this.stats.get(path);
+        if (stat == null) {
+            // Benign race, at worst the path is queried more than once
+            stat = new PathStat(path);
+            PathStat existing = this.stats.putIfAbsent(path, stat);
+            if (existing != null)
+                stat = existing;
+        }
+        return stat;
+    }
+
+    /**
+     * Records a path whose validation has been deferred until the end of the
+     * parse
+     * <p>
+     * Deferrals are only held here while the value they belong to is being
+     * validated, the parser then moves them into the {@link ParseState} that
+     * keeps the value, see {@link ParseState#getDeferredValues(Object)}, so
+     * values that end up discarded are never validated.
+     * </p>
+     * 
+     * @param owner
+     *            Owner of the deferred validation, typically the restriction
+     * @param path
+     *            Path
+     */
+    public synchronized void defer(Object owner, String path) {
+        if (this.deferred == null)
+            this.deferred = new ArrayList<Pair<Object, String>>();
+        this.deferred.add(Pair.of(owner, path));
+    }
+
+    /**
+     * Removes and returns the deferrals recorded since this was last called
+     * 
+     * @return Deferred owners and paths in the order they were deferred
+     */
+    synchronized List<Pair<Object, String>> takeDeferred() {
+        List<Pair<Object, String>> deferred = this.deferred;
+        this.deferred = null;
+        return deferred != null ? deferred : Collections.<Pair<Object, String>> emptyList();
+    }
+
+    /**
+     * Gets the number of paths whose status has been cached
+     * 
+     * @return Number of cached paths
+     */
+    public int size() {
+        return this.stats.size();
+    }
+
+    /**
+     * The status of a path
+     */
+    public static final class PathStat {
+
+        private final Path path;
+        private final boolean exists, file, directory;
+        private volatile Boolean readable, writable, executable;
+
+        PathStat(String path) {
+            Path p = null;
+            BasicFileAttributes attributes = null;
+            try {
+                p = Paths.get(path);
+                attributes = Files.readAttributes(p, BasicFileAttributes.class);
+            } catch (InvalidPathException e) {
+                // Can't exist
+            } catch (IOException e) {
+                // Doesn't exist or can't be accessed
+            }
+            this.path = p;
+            this.exists = attributes != null;
+            this.file = attributes != null && attributes.isRegularFile();
+            this.directory = attributes != null && attributes.isDirectory();
+        }
+
+        public boolean exists() {
+            return this.exists;
+        }
+
+        public boolean isFile() {
+            return this.file;
+        }
+
+        public boolean isDirectory() {
+            return this.directory;
+        }
+
+        public boolean isReadable() {
+            Boolean readable = this.readable;
+            if (readable == null) {
+                readable = this.exists && Files.isReadable(this.path);
+                this.readable = readable;
+            }
+            return readable;
+        }
+
+        public boolean isWritable() {
+            Boolean writable = this.writable;
+            if (writable == null) {
+                writable = this.exists && Files.isWritable(this.path);
+                this.writable = writable;
+            }
+            return writable;
+        }
+
+        public boolean isExecutable() {
+            Boolean executable = this.executable;
+            if (executable == null) {
+                executable = this.exists && Files.isExecutable(this.path);
+                this.executable = executable;
+            }
+            return executable;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.types.PrimitiveTypeConverter;
+
+/**
+ * A parsed option value of a primitive type
+ * <p>
+ * The value is held unboxed, {@link #getRight()} only boxes it on demand so
+ * options whose values are never inspected by restrictions can be injected
+ * into {@code int}, {@code long}, {@code double} and {@code boolean} fields,
+ * and arrays thereof, without allocating wrappers.
+ * </p>
+ */
+public final class PrimitiveOptionValue extends Pair<OptionMetadata, Object> {
+
+    private static final long serialVersionUID = 4620498150395462546L;
+
+    private final OptionMetadata option;
+    private final Class<?> type;
+    private final long bits;
+
+    private PrimitiveOptionValue(OptionMetadata option, Class<?> type, long bits) {
+        this.option = option;
+        this.type = type;
+        this.bits = bits;
+    }
+
+    /**
+     * Gets whether values of the given type can be held by this class
+     * 
+     * @param type
+     *            Type
+     * @return True if supported, false otherwise
+     */
+    public static boolean isSupported(Class<?> type) {
+        return type == int.class || type == long.class || type == double.class || type == boolean.class;
+    }
+
+    /**
+     * Converts a raw value using the primitive conversion for the options type
+     * 
+     * @param option
+     *            Option, its type must be {@link #isSupported(Class)}
+     * @param converter
+     *            Converter
+     * @param rawValue
+     *            Raw value
+     * @return Parsed value
+     */
+    public static PrimitiveOptionValue convert(OptionMetadata option, PrimitiveTypeConverter converter,
+            String rawValue) {
+        Class<?> type = option.getJavaType();
+        String name = option.getTitle();
+        if (type == int.class)
+            return new PrimitiveOptionValue(option, type, converter.convertInt(name, rawValue));
+        if (type == long.class)
+            return new PrimitiveOptionValue(option, type, converter.convertLong(name, rawValue));
+        if (type == double.class)
+            return new PrimitiveOptionValue(option, type,
+                    Double.doubleToRawLongBits(converter.convertDouble(name, rawValue)));
+        if (type == boolean.class)
+            return new PrimitiveOptionValue(option, type, converter.convertBoolean(name, rawValue) ? 1 : 0);
+        throw new IllegalArgumentException(String.format("Type %s is not a supported primitive type", type));
+    }
+
+    /**
+     * Gets the given parsed values as primitive values if they all are
+     * primitive values
+     * 
+     * @param parsedOptions
+     *            Parsed option values
+     * @return Primitive values, or {@code null} if any value is not a
+     *         primitive value
+     */
+    @SuppressWarnings("unchecked")
+    public static List<PrimitiveOptionValue> asPrimitives(List<? extends Pair<OptionMetadata, Object>> parsedOptions) {
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            if (!(parsedOption instanceof PrimitiveOptionValue))
+                return null;
+        }
+        return (List<PrimitiveOptionValue>) parsedOptions;
+    }
+
+    /**
+     * Gets the primitive type of the value
+     * 
+     * @return Primitive type
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    public int getInt() {
+        return (int) bits;
+    }
+
+    public long getLong() {
+        return bits;
+    }
+
+    public double getDouble() {
+        return Double.longBitsToDouble(bits);
+    }
+
+    public boolean getBoolean() {
+        return bits != 0;
+    }
+
+    @Override
+    public OptionMetadata getLeft() {
+        return option;
+    }
+
+    /**
+     * Gets the value boxed
+     */
+    @Override
+    public Object getRight() {
+        if (type == int.class)
+            return getInt();
+        if (type == long.class)
+            return getLong();
+        if (type == double.class)
+            return getDouble();
+        return getBoolean();
+    }
+
+    @Override
+    public Object setValue(Object value) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.utils.BkTree;
+
+/**
+ * Finds the names similar to a name the parser did not recognise so that
+ * errors can suggest what the user may have meant
+ * <p>
+ * Names are looked up in the {@link BkTree} for the context the parser had
+ * reached, i.e. the options of the command if one was found, otherwise the
+ * contents of the current group, otherwise the top level names. The trees are
+ * built once per CLI on first use so finding suggestions does not require
+ * comparing the name with every name the CLI defines.
+ * </p>
+ */
+public final class SimilarNames {
+
+    /**
+     * Maximum number of suggestions returned
+     */
+    public static final int MAX_SUGGESTIONS = 5;
+
+    private SimilarNames() {
+    }
+
+    /**
+     * Finds the names similar to the given unrecognised name
+     * 
+     * @param state
+     *            Parser state at the point the name was encountered
+     * @param name
+     *            Unrecognised name
+     * @return Similar names, closest first, may be empty
+     */
+    public static <T> List<String> find(ParseState<T> state, String name) {
+        if (state == null || name == null || name.isEmpty())
+            return Collections.emptyList();
+
+        BkTree tree;
+        CommandMetadata command = state.getCommand();
+        if (command != null) {
+            tree = command.getOptionNameTree();
+        } else if (state.getGroup() != null) {
+            tree = state.getGroup().getNameTree();
+        } else if (state.getGlobal() != null) {
+            tree = state.getGlobal().getNameTree();
+        } else {
+            return Collections.emptyList();
+        }
+
+        List<String> similar = tree.find(name, maxDistance(name));
+        return similar.size() > MAX_SUGGESTIONS ? similar.subList(0, MAX_SUGGESTIONS) : similar;
+    }
+
+    /**
+     * Gets the maximum edit distance at which a name is considered similar,
+     * this grows with the length of the name so that short names don't
+     * match almost everything
+     * 
+     * @param name
+     *            Name
+     * @return Maximum edit distance
+     */
+    static int maxDistance(String name) {
+        int length = name.length();
+        if (length <= 3)
+            return 1;
+        return length <= 6 ? 2 : 3;
+    }
+}
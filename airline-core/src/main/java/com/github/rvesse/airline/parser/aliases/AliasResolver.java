@@ -17,26 +17,26 @@ package com.github.rvesse.airline.parser.aliases;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.Predicate;
+import org.apache.commons.collections4.iterators.IteratorChain;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
 import com.github.rvesse.airline.model.AliasMetadata;
-import com.github.rvesse.airline.model.CommandGroupMetadata;
-import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
-import com.github.rvesse.airline.utils.predicates.parser.AliasFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 /**
  * Resolves aliases
+ * <p>
+ * Aliases are looked up via the alias index of the parser configuration and
+ * expansions are spliced in front of the remaining tokens, only those tokens
+ * needed to resolve positional parameter references are read ahead.
+ * </p>
  *
  * @param <T>
  *            Command type
@@ -44,23 +44,20 @@ import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 public class AliasResolver<T> extends AbstractParser<T> {
 
     public PeekingIterator<String> resolveAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<? super CommandGroupMetadata> findGroupPredicate;
-        Predicate<? super CommandMetadata> findCommandPredicate;
-
         // Nothing to do if no further tokens
         if (!tokens.hasNext())
             return tokens;
 
         // Nothing to do if no aliases defined
-        if (state.getParserConfiguration().getAliases().size() == 0)
+        Map<String, AliasMetadata> aliases = state.getParserConfiguration().getAliasIndex();
+        if (aliases.isEmpty())
             return tokens;
 
         Set<String> aliasesSeen = new TreeSet<String>();
 
         do {
             // Try to find an alias
-            AliasMetadata alias = CollectionUtils.find(state.getParserConfiguration().getAliases(),
-                    new AliasFinder(tokens.peek()));
+            AliasMetadata alias = aliases.get(tokens.peek());
 
             // Nothing further to do if no aliases found
             if (alias == null)
@@ -69,7 +66,7 @@ public class AliasResolver<T> extends AbstractParser<T> {
             // Check for circular references
             if (!aliasesSeen.add(alias.getName())) {
                 // Handle the error and exit alias resolution
-                state.getParserConfiguration().getErrorHandler()
+                state.getErrorHandler()
                         .handleError(new ParseAliasCircularReferenceException(alias.getName(), aliasesSeen));
                 return tokens;
             }
@@ -81,10 +78,8 @@ public class AliasResolver<T> extends AbstractParser<T> {
                 // would take precedence
                 if (state.getGlobal() != null) {
                     GlobalMetadata<T> metadata = state.getGlobal();
-                    findGroupPredicate = new GroupFinder(tokens.peek());
-                    findCommandPredicate = new CommandFinder(tokens.peek());
-                    if (CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
-                            || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null)
+                    if (metadata.getCommandGroupIndex().containsKey(alias.getName())
+                            || metadata.getDefaultGroupCommandIndex().containsKey(alias.getName()))
                         return tokens;
                 }
             }
@@ -92,52 +87,40 @@ public class AliasResolver<T> extends AbstractParser<T> {
             // Discard the alias token
             tokens.next();
 
-            // Apply the alias
-            List<String> newParams = new ArrayList<String>();
-            List<String> remainingParams = new ArrayList<String>();
-            while (tokens.hasNext()) {
-                remainingParams.add(tokens.next());
+            // Read ahead only as many parameters as positional parameter
+            // references may require, the lookahead comes from the alias
+            // definition and may far exceed the tokens available so isn't
+            // used to size the list
+            int lookahead = alias.getParameterLookahead();
+            List<String> positionalParams = new ArrayList<String>();
+            while (positionalParams.size() < lookahead && tokens.hasNext()) {
+                positionalParams.add(tokens.next());
             }
 
             // Process alias arguments
-            Set<Integer> used = new TreeSet<Integer>();
-            for (String arg : alias.getArguments()) {
-                if (arg.startsWith("$")) {
-                    // May be a positional parameter
-                    try {
-                        int num = Integer.parseInt(arg.substring(1));
-                        num--;
-
-                        if (num >= 0 && num < remainingParams.size()) {
-                            // Valid positional parameter
-                            newParams.add(remainingParams.get(num));
-                            used.add(num);
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Ignore - the number was invalid so we'll
-                        // treat it as an ordinary parameter
-                    }
+            List<String> arguments = alias.getArguments();
+            List<String> newParams = new ArrayList<String>(arguments.size() + positionalParams.size());
+            boolean[] used = new boolean[positionalParams.size()];
+            for (int i = 0; i < arguments.size(); i++) {
+                int pos = alias.getParameterPosition(i);
+                if (pos >= 0 && pos < positionalParams.size()) {
+                    // Valid positional parameter
+                    newParams.add(positionalParams.get(pos));
+                    used[pos] = true;
+                } else {
+                    // Some other parameter
+                    newParams.add(arguments.get(i));
                 }
-
-                // Some other parameter
-                newParams.add(arg);
-            }
-
-            // Remove used positional parameters
-            int removed = 0;
-            for (int pos : used) {
-                remainingParams.remove(pos - removed);
-                removed++;
             }
 
-            // Pass through any remaining parameters
-            for (String arg : remainingParams) {
-                newParams.add(arg);
+            // Pass through any parameters read ahead that were not used
+            for (int i = 0; i < used.length; i++) {
+                if (!used[i])
+                    newParams.add(positionalParams.get(i));
             }
 
-            // Prepare a new tokens iterator
-            tokens = new PeekingIterator<String>(newParams.iterator());
+            // Splice the expansion in front of the remaining tokens
+            tokens = new PeekingIterator<String>(new IteratorChain<String>(newParams.iterator(), tokens));
         } while (state.getParserConfiguration().aliasesMayChain());
 
         return tokens;
@@ -15,38 +15,58 @@
  */
 package com.github.rvesse.airline.parser.command;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
+import com.github.rvesse.airline.parser.ParsePlan;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 public class CliParser<T> extends AbstractCommandParser<T> {
 
+    public CliParser() {
+        super();
+    }
+
+    public CliParser(ParsePlan<T> plan) {
+        super(plan);
+    }
+
     public ParseResult<T> parseWithResult(GlobalMetadata<T> metadata, Iterable<String> args) {
         if (args == null)
             throw new NullPointerException("args cannot be null");
 
-        ParseState<T> state = tryParse(metadata, args);
+        ParserErrorHandler errorHandler = metadata.getParserConfiguration().createErrorHandler();
+        boolean suppressed = useErrorHandler(errorHandler);
+        try {
+            ParseState<T> state = tryParse(metadata, args, errorHandler);
 
-        // If we did not find a command choose the appropriate default command
-        // (if any)
-        if (state.getCommand() == null) {
-            if (state.getGroup() != null) {
-                state = state.withCommand(state.getGroup().getDefaultCommand());
-            } else {
-                state = state.withCommand(metadata.getDefaultCommand());
+            // If we did not find a command choose the appropriate default
+            // command (if any)
+            if (state.getCommand() == null) {
+                if (state.getGroup() != null) {
+                    state = state.withCommand(state.getGroup().getDefaultCommand());
+                } else {
+                    state = state.withCommand(metadata.getDefaultCommand());
+                }
             }
-        }
 
-        validate(state);
-        return metadata.getParserConfiguration().getErrorHandler().finished(state);
+            validate(state);
+            return state.getErrorHandler().finished(state);
+        } finally {
+            ParseException.suppressStackTraces(suppressed);
+        }
     }
 
     public T parse(GlobalMetadata<T> metadata, Iterable<String> args) {
@@ -72,7 +92,7 @@ public class CliParser<T> extends AbstractCommandParser<T> {
             try {
                 restriction.validate(state);
             } catch (ParseException e) {
-                state.getParserConfiguration().getErrorHandler().handleError(e);
+                state.getErrorHandler().handleError(e);
             }
         }
         CommandMetadata command = state.getCommand();
@@ -81,28 +101,30 @@ public class CliParser<T> extends AbstractCommandParser<T> {
             // Argument restrictions
             ArgumentsMetadata arguments = command.getArguments();
             if (arguments != null) {
-                for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, arguments);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                arguments.getValidator().finalValidate(state);
             }
 
             // Option restrictions
             for (OptionMetadata option : command.getAllOptions()) {
                 if (option == null)
                     continue;
+                option.getValidator().finalValidate(state);
+            }
+        } else {
+            // Without a command only the validation that options given
+            // deferred until the end of the parse happens
+            Set<OptionMetadata> parsed = new LinkedHashSet<OptionMetadata>();
+            for (Pair<OptionMetadata, Object> parsedOption : state.getParsedOptions()) {
+                parsed.add(parsedOption.getLeft());
+            }
+            for (OptionMetadata option : parsed) {
                 for (OptionRestriction restriction : option.getRestrictions()) {
-                    if (restriction == null)
+                    if (!state.hasDeferredValues(restriction))
                         continue;
                     try {
                         restriction.finalValidate(state, option);
                     } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
+                        state.getErrorHandler().handleError(e);
                     }
                 }
             }
@@ -24,25 +24,38 @@ import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
+import com.github.rvesse.airline.parser.ParsePlan;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 public class SingleCommandParser<T> extends AbstractCommandParser<T> {
 
+    public SingleCommandParser() {
+        super();
+    }
+
+    public SingleCommandParser(ParsePlan<T> plan) {
+        super(plan);
+    }
+
     public ParseResult<T> parseWithResult(ParserMetadata<T> parserConfig, CommandMetadata commandMetadata,
             Iterable<GlobalRestriction> restrictions, Iterable<String> args) {
         if (args == null)
             throw new NullPointerException("args is null");
 
-        ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
-        validate(state, IteratorUtils.toList(restrictions.iterator()));
-
-        return state.getParserConfiguration().getErrorHandler().finished(state);
+        ParserErrorHandler errorHandler = parserConfig.createErrorHandler();
+        boolean suppressed = useErrorHandler(errorHandler);
+        try {
+            ParseState<T> state = tryParse(parserConfig, commandMetadata, args, errorHandler);
+            validate(state, IteratorUtils.toList(restrictions.iterator()));
 
+            return state.getErrorHandler().finished(state);
+        } finally {
+            ParseException.suppressStackTraces(suppressed);
+        }
     }
 
     public T parse(ParserMetadata<T> parserConfig, CommandMetadata commandMetadata,
@@ -69,7 +82,7 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
             try {
                 restriction.validate(state);
             } catch (ParseException e) {
-                state.getParserConfiguration().getErrorHandler().handleError(e);
+                state.getErrorHandler().handleError(e);
             }
         }
         CommandMetadata command = state.getCommand();
@@ -77,30 +90,14 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
             // Arguments restrictions
             ArgumentsMetadata arguments = command.getArguments();
             if (arguments != null) {
-                for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, arguments);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                arguments.getValidator().finalValidate(state);
             }
 
             // Option restrictions
             for (OptionMetadata option : command.getAllOptions()) {
                 if (option == null)
                     continue;
-                for (OptionRestriction restriction : option.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, option);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                option.getValidator().finalValidate(state);
             }
         }
     }
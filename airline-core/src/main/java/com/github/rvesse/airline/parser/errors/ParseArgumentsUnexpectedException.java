@@ -17,6 +17,7 @@ package com.github.rvesse.airline.parser.errors;
 
 import com.github.rvesse.airline.utils.AirlineUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -27,13 +28,39 @@ public class ParseArgumentsUnexpectedException extends ParseRestrictionViolatedE
     private static final long serialVersionUID = -3146629773738933406L;
     
     private final List<String> unparsedInput;
+    private final List<String> suggestions;
 
     public ParseArgumentsUnexpectedException(List<String> unparsedInput) {
-        super("Found unexpected parameters: %s", unparsedInput);
+        this(unparsedInput, Collections.<String> emptyList());
+    }
+
+    /**
+     * Creates a new exception
+     * 
+     * @param unparsedInput
+     *            Unparsed input
+     * @param suggestions
+     *            Names similar to the first unexpected parameter e.g. option
+     *            names when an option name was mistyped
+     */
+    public ParseArgumentsUnexpectedException(List<String> unparsedInput, List<String> suggestions) {
+        super(suggestions.isEmpty() ? "Found unexpected parameters: %s"
+                : "Found unexpected parameters: %s, did you mean %s?", unparsedInput, formatSuggestions(suggestions));
         this.unparsedInput = AirlineUtils.unmodifiableListCopy(unparsedInput);
+        this.suggestions = AirlineUtils.unmodifiableListCopy(suggestions);
     }
 
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
+
+    /**
+     * Gets the names similar to the first unexpected parameter that the user
+     * may have meant
+     * 
+     * @return Suggestions, may be empty
+     */
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
 }
@@ -17,6 +17,7 @@ package com.github.rvesse.airline.parser.errors;
 
 import com.github.rvesse.airline.utils.AirlineUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -28,15 +29,43 @@ public class ParseCommandUnrecognizedException extends ParseRestrictionViolatedE
     private static final long serialVersionUID = 7580940207857781141L;
     
     private final List<String> unparsedInput;
+    private final List<String> suggestions;
 
     public ParseCommandUnrecognizedException(List<String> unparsedInput)
     {
-        super("Command '%s' not recognized", unparsedInput.get(0));
+        this(unparsedInput, Collections.<String> emptyList());
+    }
+
+    /**
+     * Creates a new exception
+     * 
+     * @param unparsedInput
+     *            Unparsed input, the first item of which is the unrecognized
+     *            command
+     * @param suggestions
+     *            Names similar to the unrecognized command
+     */
+    public ParseCommandUnrecognizedException(List<String> unparsedInput, List<String> suggestions)
+    {
+        super(suggestions.isEmpty() ? "Command '%s' not recognized" : "Command '%s' not recognized, did you mean %s?",
+                unparsedInput.get(0), formatSuggestions(suggestions));
         this.unparsedInput = AirlineUtils.unmodifiableListCopy(unparsedInput);
+        this.suggestions = AirlineUtils.unmodifiableListCopy(suggestions);
     }
 
     public List<String> getUnparsedInput()
     {
         return unparsedInput;
     }
+
+    /**
+     * Gets the names similar to the unrecognized command that the user may
+     * have meant
+     * 
+     * @return Suggestions, may be empty
+     */
+    public List<String> getSuggestions()
+    {
+        return suggestions;
+    }
 }
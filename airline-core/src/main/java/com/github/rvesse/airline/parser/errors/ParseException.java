@@ -15,21 +15,143 @@
  */
 package com.github.rvesse.airline.parser.errors;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import com.github.rvesse.airline.parser.errors.handlers.StacklessErrorHandler;
+
 /**
  * Super class of all command line parsing exceptions
- *
+ * <p>
+ * Messages are formatted lazily when first requested, arguments passed to the
+ * constructors should therefore not be modified afterwards. Stack traces are
+ * not captured for exceptions created on a thread that is parsing with a
+ * {@link StacklessErrorHandler} since such handlers treat errors as values
+ * and never need a stack trace, see {@link #suppressStackTraces(boolean)}.
+ * </p>
+ * <p>
+ * The format arguments are not serialized since they may include meta-data
+ * which is not serializable, instead the message is formatted prior to
+ * serialization.
+ * </p>
  */
 public class ParseException extends RuntimeException
 {
-    private static final long serialVersionUID = 3772132549207742875L;
+    private static final long serialVersionUID = -2405381452417237284L;
+
+    private static final ThreadLocal<Boolean> STACKLESS = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue()
+        {
+            return Boolean.FALSE;
+        }
+    };
+
+    private final transient String format;
+    private final transient Object[] args;
+    private volatile String message;
 
     public ParseException(String string, Object... args)
     {
-        super(String.format(string, args));
+        super();
+        this.format = string;
+        this.args = args;
     }
 
     public ParseException(Exception cause, String string, Object... args)
     {
-        super(String.format(string, args), cause);
+        super(cause);
+        this.format = string;
+        this.args = args;
+    }
+
+    /**
+     * Sets whether stack traces are suppressed for parse exceptions created on
+     * the current thread
+     * <p>
+     * This is used by the parsers for the duration of a parse when the error
+     * handler in use is a {@link StacklessErrorHandler}, callers should restore
+     * the previous value once done.
+     * </p>
+     * 
+     * @param suppress
+     *            Whether to suppress stack traces
+     * @return Previous value
+     */
+    public static boolean suppressStackTraces(boolean suppress)
+    {
+        boolean previous = STACKLESS.get();
+        if (suppress) {
+            STACKLESS.set(Boolean.TRUE);
+        }
+        else {
+            STACKLESS.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Gets whether stack traces are suppressed for parse exceptions created on
+     * the current thread
+     * <p>
+     * Code that validates on other threads on behalf of a parse should apply
+     * this to those threads via {@link #suppressStackTraces(boolean)}.
+     * </p>
+     * 
+     * @return True if suppressed, false otherwise
+     */
+    public static boolean areStackTracesSuppressed()
+    {
+        return STACKLESS.get();
+    }
+
+    /**
+     * Formats suggestions for inclusion in an error message e.g.
+     * {@code 'a'} or {@code one of 'a', 'b'}
+     * 
+     * @param suggestions
+     *            Suggestions
+     * @return Formatted suggestions
+     */
+    protected static String formatSuggestions(List<String> suggestions)
+    {
+        StringBuilder builder = new StringBuilder();
+        if (suggestions.size() > 1)
+            builder.append("one of ");
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('\'').append(suggestions.get(i)).append('\'');
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        if (STACKLESS.get()) {
+            return this;
+        }
+        return super.fillInStackTrace();
+    }
+
+    @Override
+    public String getMessage()
+    {
+        String message = this.message;
+        if (message == null && this.format != null) {
+            // Benign race, at worst the message is formatted more than once
+            message = String.format(this.format, this.args);
+            this.message = message;
+        }
+        return message;
+    }
+
+    private void writeObject(ObjectOutputStream output) throws IOException
+    {
+        // Materialise the message since the format and arguments are transient
+        getMessage();
+        output.defaultWriteObject();
     }
 }
@@ -28,8 +28,10 @@ public class ParseOptionConversionException extends ParseException {
     private final String typeName;
 
     public ParseOptionConversionException(String optionTitle, String value, String typeName) {
-        this(String.format("%s: can not convert \"%s\" to a %s", optionTitle, value, typeName), optionTitle, value,
-                typeName);
+        super("%s: can not convert \"%s\" to a %s", optionTitle, value, typeName);
+        this.optionTitle = optionTitle;
+        this.value = value;
+        this.typeName = typeName;
     }
 
     public ParseOptionConversionException(String message, String optionTitle, String value, String typeName) {
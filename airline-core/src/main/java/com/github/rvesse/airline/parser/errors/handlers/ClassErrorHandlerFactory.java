@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors.handlers;
+
+import com.github.rvesse.airline.parser.ParserUtil;
+
+/**
+ * An error handler factory that creates a new instance of a given error handler
+ * class for each parse
+ */
+public class ClassErrorHandlerFactory implements ParserErrorHandlerFactory {
+
+    private final Class<? extends ParserErrorHandler> handlerClass;
+
+    /**
+     * Creates a new factory
+     * 
+     * @param handlerClass
+     *            Error handler class, must have a public no-argument
+     *            constructor
+     */
+    public ClassErrorHandlerFactory(Class<? extends ParserErrorHandler> handlerClass) {
+        if (handlerClass == null)
+            throw new NullPointerException("handlerClass cannot be null");
+        this.handlerClass = handlerClass;
+    }
+
+    @Override
+    public ParserErrorHandler createHandler() {
+        return ParserUtil.createInstance(this.handlerClass);
+    }
+
+    /**
+     * Gets the error handler class this factory creates instances of
+     * 
+     * @return Error handler class
+     */
+    public Class<? extends ParserErrorHandler> getHandlerClass() {
+        return this.handlerClass;
+    }
+}
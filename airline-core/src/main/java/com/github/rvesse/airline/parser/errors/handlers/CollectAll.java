@@ -20,11 +20,14 @@ import com.github.rvesse.airline.parser.ParseState;
 
 /**
  * Error handler which collects all the errors for later inspection
+ * <p>
+ * Since errors are treated as values no stack traces are captured for them.
+ * </p>
  * 
  * @author rvesse
  *
  */
-public class CollectAll extends AbstractCollectingHandler {
+public class CollectAll extends AbstractCollectingHandler implements StacklessErrorHandler {
 
     @Override
     public <T> ParseResult<T> finished(ParseState<T> state) {
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors.handlers;
+
+/**
+ * Interface for factories that create an error handler for each parse
+ * <p>
+ * Error handlers such as {@link CollectAll} and {@link FailAll} keep the errors
+ * they have seen as instance state, so a single instance cannot safely be used
+ * by concurrent parses. Configuring a factory instead of an instance means each
+ * parse gets its own handler and so a single parser configuration may be used
+ * to parse concurrently.
+ * </p>
+ */
+public interface ParserErrorHandlerFactory {
+
+    /**
+     * Creates a new error handler to be used for a single parse
+     * 
+     * @return Error handler
+     */
+    public abstract ParserErrorHandler createHandler();
+}
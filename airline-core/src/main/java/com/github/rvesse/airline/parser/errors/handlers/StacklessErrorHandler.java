@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors.handlers;
+
+/**
+ * Marker interface for error handlers that treat errors as values
+ * <p>
+ * Such handlers only collect errors for later inspection and never need to
+ * know where in the parser an error arose, therefore while parsing with such
+ * a handler no stack traces are captured for
+ * {@link com.github.rvesse.airline.parser.errors.ParseException}s. This makes
+ * reporting large numbers of errors considerably cheaper.
+ * </p>
+ */
+public interface StacklessErrorHandler extends ParserErrorHandler {
+
+}
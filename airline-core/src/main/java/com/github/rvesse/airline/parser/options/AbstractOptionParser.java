@@ -16,13 +16,18 @@
 package com.github.rvesse.airline.parser.options;
 
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.commons.collections4.Predicate;
 
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.utils.AbbreviationTrie;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedOptionFinder;
 import com.github.rvesse.airline.utils.predicates.parser.OptionFinder;
@@ -65,6 +70,17 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      */
     protected final OptionMetadata findOption(ParseState<T> state, List<OptionMetadata> options, final String name,
             OptionMetadata defaultValue) {
+        Map<String, OptionMetadata> index = findOptionIndex(state, options);
+        if (index != null) {
+            // An exact match always takes precedence even when abbreviations
+            // are permitted
+            OptionMetadata option = index.get(name);
+            if (option == null && state.getParserConfiguration().allowsAbbreviatedOptions()) {
+                option = findOptionAbbreviations(state, options).find(name);
+            }
+            return option != null ? option : defaultValue;
+        }
+
         Predicate<OptionMetadata> findOptionPredicate;
         if (state.getParserConfiguration().allowsAbbreviatedOptions()) {
             findOptionPredicate = new AbbreviatedOptionFinder(name, options);
@@ -75,6 +91,59 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
         return AirlineUtils.find(options, findOptionPredicate, defaultValue);
     }
 
+    /**
+     * Tries to find the precomputed name index for the given options
+     * <p>
+     * The allowed options passed to option parsers are always one of the
+     * option lists held by the metadata in the current parser state so the
+     * corresponding index held by that metadata can be used. If the options
+     * given are some other list then {@code null} is returned and callers
+     * should fall back to searching the options directly.
+     * </p>
+     * 
+     * @param state
+     *            Current parser state
+     * @param options
+     *            Allowed options
+     * @return Option index, or {@code null} if no suitable index is available
+     */
+    protected final Map<String, OptionMetadata> findOptionIndex(ParseState<T> state, List<OptionMetadata> options) {
+        CommandMetadata command = state.getCommand();
+        if (command != null && command.getCommandOptions() == options)
+            return command.getCommandOptionIndex();
+        CommandGroupMetadata group = state.getGroup();
+        if (group != null && group.getOptions() == options)
+            return group.getOptionIndex();
+        GlobalMetadata<T> global = state.getGlobal();
+        if (global != null && global.getOptions() == options)
+            return global.getOptionIndex();
+        return null;
+    }
+
+    /**
+     * Tries to find the precomputed abbreviation trie for the given options
+     * 
+     * @param state
+     *            Current parser state
+     * @param options
+     *            Allowed options
+     * @return Abbreviation trie, or {@code null} if no suitable trie is
+     *         available
+     */
+    protected final AbbreviationTrie<OptionMetadata> findOptionAbbreviations(ParseState<T> state,
+            List<OptionMetadata> options) {
+        CommandMetadata command = state.getCommand();
+        if (command != null && command.getCommandOptions() == options)
+            return command.getCommandOptionAbbreviations();
+        CommandGroupMetadata group = state.getGroup();
+        if (group != null && group.getOptions() == options)
+            return group.getOptionAbbreviations();
+        GlobalMetadata<T> global = state.getGlobal();
+        if (global != null && global.getOptions() == options)
+            return global.getOptionAbbreviations();
+        return null;
+    }
+
     /**
      * Return true if the option has a short name prefix i.e. starts with a
      * single {@code -} character. This does not mean that it actually is a
@@ -100,7 +100,7 @@ public class ClassicGetOptParser<T> extends AbstractOptionParser<T> {
             // with an arity greater than one
             // Return the modified state anyway as we don't want to retry
             // processing this option in that case
-            state.getParserConfiguration().getErrorHandler().handleError(new ParseOptionUnexpectedException(
+            state.getErrorHandler().handleError(new ParseOptionUnexpectedException(
                     "Short options style can not be used with option %s as the arity was not 0 or 1", option));
             return nextState;
         }
@@ -122,7 +122,7 @@ public class ListValueOptionParser<T> extends AbstractOptionParser<T> {
             List<String> listValues = getValues(list);
             if (listValues.size() < option.getArity()) {
                 // Too few arguments
-                state.getParserConfiguration().getErrorHandler().handleError(new ParseOptionMissingValueException(
+                state.getErrorHandler().handleError(new ParseOptionMissingValueException(
                         "Too few option values received for option %s in list value '%s' (%d values expected but only found %d)",
                         option.getTitle(), option.getOptions().iterator().next(), list, option.getArity(),
                         listValues.size()));
@@ -130,7 +130,7 @@ public class ListValueOptionParser<T> extends AbstractOptionParser<T> {
             }
             if (listValues.size() > option.getArity() && listValues.size() % option.getArity() != 0) {
                 // Too many arguments
-                state.getParserConfiguration().getErrorHandler().handleError(new ParseOptionUnexpectedException(
+                state.getErrorHandler().handleError(new ParseOptionUnexpectedException(
                         "Too many option values received for option %s in list value '%s' (%d values expected but found %d)",
                         option.getOptions().iterator().next(), list, option.getArity(), listValues.size()));
                 return state;
@@ -74,7 +74,7 @@ public class StandardOptionParser<T> extends AbstractOptionParser<T> {
             }
 
             if (count != option.getArity()) {
-                state.getParserConfiguration().getErrorHandler()
+                state.getErrorHandler()
                         .handleError(new ParseOptionMissingValueException(
                                 "Too few option values received for option %s (%d values expected but only found %d)",
                                 option.getTitle(), option.getOptions().iterator().next(), option.getArity(), count));
@@ -18,10 +18,32 @@ package com.github.rvesse.airline.parser.suggester;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 
 public class SuggestionParser<T> extends AbstractCommandParser<T> {
 
     public ParseState<T> parse(GlobalMetadata<T> metadata, Iterable<String> args) {
         return tryParse(metadata, args);
     }
+
+    /**
+     * Parses the arguments using the given error handler
+     * 
+     * @param metadata
+     *            Global meta-data
+     * @param args
+     *            Arguments
+     * @param errorHandler
+     *            Error handler
+     * @return Parser state
+     */
+    public ParseState<T> parse(GlobalMetadata<T> metadata, Iterable<String> args, ParserErrorHandler errorHandler) {
+        boolean suppressed = useErrorHandler(errorHandler);
+        try {
+            return tryParse(metadata, args, errorHandler);
+        } finally {
+            ParseException.suppressStackTraces(suppressed);
+        }
+    }
 }
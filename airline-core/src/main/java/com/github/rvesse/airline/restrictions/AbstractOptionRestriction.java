@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * Abstract base for restrictions that only apply to options, does no
+ * validation in any phase unless derived classes override the relevant
+ * methods
+ */
+public abstract class AbstractOptionRestriction implements OptionRestriction {
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
+        // Does no validation
+    }
+
+    @Override
+    public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
+        // Does no validation
+    }
+
+    @Override
+    public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
+        // Does no validation
+    }
+}
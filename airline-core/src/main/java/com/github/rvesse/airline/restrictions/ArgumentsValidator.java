@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.List;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.common.AbstractStringRestriction;
+
+/**
+ * The restrictions of arguments compiled into a validator
+ * <p>
+ * Restrictions are separated by validation phase dropping any restrictions
+ * that do nothing in a phase, the per-value phases are ordered so cheap
+ * in-memory checks run before more expensive ones e.g. regular expressions
+ * and file system checks. Final validation preserves the declaration order.
+ * Validation errors are passed to the error handler of the parser state as
+ * they would be if the restrictions were invoked individually.
+ * </p>
+ */
+public final class ArgumentsValidator {
+
+    private final ArgumentsMetadata arguments;
+    private final ArgumentsRestriction[] pre, post, fin;
+
+    private ArgumentsValidator(ArgumentsMetadata arguments, List<ArgumentsRestriction> restrictions) {
+        this.arguments = arguments;
+        this.pre = toArray(RestrictionCompiler.selectOrdered(restrictions, RestrictionCompiler.ARGUMENTS_PRE));
+        this.post = toArray(RestrictionCompiler.selectOrdered(restrictions, RestrictionCompiler.ARGUMENTS_POST));
+        this.fin = toArray(RestrictionCompiler.select(restrictions, RestrictionCompiler.ARGUMENTS_FINAL));
+    }
+
+    /**
+     * Compiles the restrictions of arguments
+     * 
+     * @param arguments
+     *            Arguments
+     * @return Validator
+     */
+    public static ArgumentsValidator compile(ArgumentsMetadata arguments) {
+        return new ArgumentsValidator(arguments, arguments.getRestrictions());
+    }
+
+    private static ArgumentsRestriction[] toArray(List<ArgumentsRestriction> restrictions) {
+        return restrictions.toArray(new ArgumentsRestriction[restrictions.size()]);
+    }
+
+    /**
+     * Gets whether there is any validation of raw values
+     * 
+     * @return True if raw values are validated
+     */
+    public boolean hasPreValidation() {
+        return this.pre.length > 0;
+    }
+
+    /**
+     * Gets whether there is any validation of converted values
+     * 
+     * @return True if converted values are validated
+     */
+    public boolean hasPostValidation() {
+        return this.post.length > 0;
+    }
+
+    /**
+     * Gets whether there is any validation of the final parser state
+     * 
+     * @return True if the final state is validated
+     */
+    public boolean hasFinalValidation() {
+        return this.fin.length > 0;
+    }
+
+    /**
+     * Validates a raw value
+     * 
+     * @param state
+     *            Parser state
+     * @param value
+     *            Raw value
+     */
+    public <T> void preValidate(ParseState<T> state, String value) {
+        for (ArgumentsRestriction restriction : this.pre) {
+            if (restriction instanceof AbstractStringRestriction) {
+                ParseRestrictionViolatedException e = ((AbstractStringRestriction) restriction).check(state,
+                        this.arguments, value);
+                if (e != null)
+                    state.getErrorHandler().handleError(e);
+                continue;
+            }
+            try {
+                restriction.preValidate(state, this.arguments, value);
+            } catch (ParseException e) {
+                state.getErrorHandler().handleError(e);
+            }
+        }
+    }
+
+    /**
+     * Validates a converted value
+     * 
+     * @param state
+     *            Parser state
+     * @param value
+     *            Converted value
+     */
+    public <T> void postValidate(ParseState<T> state, Object value) {
+        for (ArgumentsRestriction restriction : this.post) {
+            try {
+                restriction.postValidate(state, this.arguments, value);
+            } catch (ParseException e) {
+                state.getErrorHandler().handleError(e);
+            }
+        }
+    }
+
+    /**
+     * Validates the final parser state
+     * 
+     * @param state
+     *            Parser state
+     */
+    public <T> void finalValidate(ParseState<T> state) {
+        for (ArgumentsRestriction restriction : this.fin) {
+            try {
+                restriction.finalValidate(state, this.arguments);
+            } catch (ParseException e) {
+                state.getErrorHandler().handleError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.restrictions.common.AbstractStringRestriction;
+import com.github.rvesse.airline.restrictions.common.AllowedRawValuesRestriction;
+import com.github.rvesse.airline.restrictions.common.AllowedValuesRestriction;
+import com.github.rvesse.airline.restrictions.common.PathRestriction;
+import com.github.rvesse.airline.restrictions.common.PatternRestriction;
+import com.github.rvesse.airline.restrictions.common.PortRestriction;
+import com.github.rvesse.airline.restrictions.common.RangeRestriction;
+
+/**
+ * Helper for compiling restrictions into validators
+ * <p>
+ * Determines which validation phases each restriction class actually
+ * implements, a phase is considered a no-op if the method for it is inherited
+ * unchanged from {@link AbstractCommonRestriction} or
+ * {@link AbstractOptionRestriction}. This is determined once per class.
+ * </p>
+ */
+final class RestrictionCompiler {
+
+    static final int OPTION_PRE = 1, OPTION_POST = 2, OPTION_FINAL = 4, ARGUMENTS_PRE = 8, ARGUMENTS_POST = 16,
+            ARGUMENTS_FINAL = 32;
+
+    /**
+     * Relative costs used to order per-value checks, restrictions of unknown
+     * types are assumed to be more expensive than the built in in-memory
+     * checks but cheaper than those that touch the file system
+     */
+    private static final int COST_TRIVIAL = 0, COST_LOOKUP = 1, COST_REGEX = 2, COST_UNKNOWN = 3, COST_IO = 4;
+
+    private static final ClassValue<Integer> PHASES = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int phases = 0;
+            if (OptionRestriction.class.isAssignableFrom(type)) {
+                phases |= phase(type, OPTION_PRE, "preValidate", OptionMetadata.class, String.class);
+                phases |= phase(type, OPTION_POST, "postValidate", OptionMetadata.class, Object.class);
+                phases |= phase(type, OPTION_FINAL, "finalValidate", OptionMetadata.class);
+            }
+            if (ArgumentsRestriction.class.isAssignableFrom(type)) {
+                phases |= phase(type, ARGUMENTS_PRE, "preValidate", ArgumentsMetadata.class, String.class);
+                phases |= phase(type, ARGUMENTS_POST, "postValidate", ArgumentsMetadata.class, Object.class);
+                phases |= phase(type, ARGUMENTS_FINAL, "finalValidate", ArgumentsMetadata.class);
+            }
+            return phases;
+        }
+    };
+
+    private RestrictionCompiler() {
+    }
+
+    private static int phase(Class<?> type, int phase, String methodName, Class<?>... parameterTypes) {
+        Class<?>[] types = new Class<?>[parameterTypes.length + 1];
+        types[0] = ParseState.class;
+        System.arraycopy(parameterTypes, 0, types, 1, parameterTypes.length);
+        try {
+            Method method = type.getMethod(methodName, types);
+            Class<?> declaringClass = method.getDeclaringClass();
+            if (declaringClass == AbstractCommonRestriction.class || declaringClass == AbstractOptionRestriction.class)
+                return 0;
+        } catch (NoSuchMethodException | SecurityException e) {
+            // Can't tell so assume it does something
+        }
+        return phase;
+    }
+
+    /**
+     * Gets whether a restriction implements the given phase
+     * 
+     * @param restriction
+     *            Restriction
+     * @param phase
+     *            Phase
+     * @return True if the phase is implemented, false if it is a no-op
+     */
+    static boolean hasPhase(Object restriction, int phase) {
+        return (PHASES.get(restriction.getClass()) & phase) != 0;
+    }
+
+    /**
+     * Selects the restrictions that implement the given phase preserving their
+     * order
+     */
+    static <R> List<R> select(List<R> restrictions, int phase) {
+        List<R> selected = new ArrayList<>();
+        for (R restriction : restrictions) {
+            if (restriction != null && hasPhase(restriction, phase))
+                selected.add(restriction);
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the restrictions that implement the given per-value phase and
+     * orders them so cheaper checks run first, the relative order of
+     * restrictions of equal cost is preserved
+     */
+    static <R> List<R> selectOrdered(List<R> restrictions, int phase) {
+        List<R> selected = select(restrictions, phase);
+        Collections.sort(selected, new Comparator<R>() {
+            @Override
+            public int compare(R a, R b) {
+                return Integer.compare(cost(a), cost(b));
+            }
+        });
+        return selected;
+    }
+
+    private static int cost(Object restriction) {
+        if (restriction instanceof AbstractStringRestriction || restriction instanceof RangeRestriction
+                || restriction instanceof PortRestriction)
+            return COST_TRIVIAL;
+        if (restriction instanceof AllowedRawValuesRestriction || restriction instanceof AllowedValuesRestriction)
+            return COST_LOOKUP;
+        if (restriction instanceof PatternRestriction)
+            return COST_REGEX;
+        if (restriction instanceof PathRestriction)
+            return COST_IO;
+        return COST_UNKNOWN;
+    }
+}
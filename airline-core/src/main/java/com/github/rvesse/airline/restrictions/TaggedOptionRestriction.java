@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+/**
+ * Represents option restrictions that relate options to each other via a
+ * shared tag
+ * <p>
+ * Implementing this interface allows the parser to index parsed options by the
+ * tags of their restrictions, see
+ * {@link com.github.rvesse.airline.parser.ParsedOptionIndex#countTagged(Class, String)}
+ * </p>
+ */
+public interface TaggedOptionRestriction extends OptionRestriction {
+
+    /**
+     * Gets the tag
+     * 
+     * @return Tag
+     */
+    public abstract String getTag();
+}
@@ -66,4 +66,14 @@ public abstract class AbstractAllowedValuesRestriction extends AbstractCommonRes
         return this.rawValues;
     }
 
+    /**
+     * Gets whether the values are matched case insensitively, if so the
+     * allowed values are held in lower case
+     * 
+     * @return True if case insensitive, false otherwise
+     */
+    public boolean isCaseInsensitive() {
+        return this.caseInsensitive;
+    }
+
 }
\ No newline at end of file
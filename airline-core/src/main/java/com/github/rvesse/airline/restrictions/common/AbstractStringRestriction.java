@@ -31,14 +31,52 @@ public abstract class AbstractStringRestriction extends AbstractCommonRestrictio
 
     @Override
     public final <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        if (!isValid(value))
-            throw violated(state, option, value);
+        ParseRestrictionViolatedException e = check(state, option, value);
+        if (e != null)
+            throw e;
     }
 
     @Override
     public final <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
-        if (!isValid(value))
-            throw violated(state, arguments, value);
+        ParseRestrictionViolatedException e = check(state, arguments, value);
+        if (e != null)
+            throw e;
+    }
+
+    /**
+     * Checks an option value returning the violation rather than throwing it,
+     * this allows callers that collect errors to avoid the cost of throwing
+     * and catching
+     * 
+     * @param state
+     *            Parser state
+     * @param option
+     *            Option metadata
+     * @param value
+     *            Value
+     * @return Violation, or {@code null} if the value is valid
+     */
+    public final <T> ParseRestrictionViolatedException check(ParseState<T> state, OptionMetadata option,
+            String value) {
+        return isValid(value) ? null : violated(state, option, value);
+    }
+
+    /**
+     * Checks an argument value returning the violation rather than throwing
+     * it, this allows callers that collect errors to avoid the cost of
+     * throwing and catching
+     * 
+     * @param state
+     *            Parser state
+     * @param arguments
+     *            Arguments metadata
+     * @param value
+     *            Value
+     * @return Violation, or {@code null} if the value is valid
+     */
+    public final <T> ParseRestrictionViolatedException check(ParseState<T> state, ArgumentsMetadata arguments,
+            String value) {
+        return isValid(value) ? null : violated(state, arguments, value);
     }
 
     /**
@@ -15,20 +15,33 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 
-import org.apache.commons.collections4.CollectionUtils;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsIllegalValueException;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
-import com.github.rvesse.airline.utils.predicates.LocaleSensitiveStringFinder;
 
+/**
+ * A restriction that requires raw values to be one of a set of allowed values
+ * <p>
+ * Values are compared using the collation rules of the configured locale. The
+ * allowed values are indexed on first use so checking a value is normally a
+ * single hash lookup and requires no locking, only values that do not exactly
+ * match an allowed value are compared by collation.
+ * </p>
+ */
 public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestriction {
 
     private final Locale locale;
+    private volatile Index index = null;
 
     public AllowedRawValuesRestriction(boolean ignoreCase, Locale locale, String... values) {
         super(ignoreCase);
@@ -49,8 +62,9 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
             return;
 
         // Check in list of values
-        if (!CollectionUtils.exists(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale)))
-            throw new ParseOptionIllegalValueException(option.getTitle(), value, asObjects(rawValues));
+        Index index = getIndex();
+        if (!index.contains(value))
+            throw new ParseOptionIllegalValueException(option.getTitle(), value, index.values);
     }
 
     @Override
@@ -60,8 +74,50 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
             return;
 
         // Check in list of values
-        if (!CollectionUtils.exists(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale))) {
-            throw new ParseArgumentsIllegalValueException(AbstractCommonRestriction.getArgumentTitle(state, arguments), value, asObjects(rawValues));
+        Index index = getIndex();
+        if (!index.contains(value)) {
+            throw new ParseArgumentsIllegalValueException(AbstractCommonRestriction.getArgumentTitle(state, arguments), value, index.values);
+        }
+    }
+
+    private Index getIndex() {
+        // Benign race, at worst several threads build the same index
+        Index index = this.index;
+        if (index == null) {
+            index = new Index();
+            this.index = index;
+        }
+        return index;
+    }
+
+    /**
+     * Immutable index of the allowed values
+     */
+    private final class Index {
+        private final Set<String> exact;
+        private final Set<CollationKey> collated = new HashSet<CollationKey>();
+        private final Set<Object> values;
+
+        private Index() {
+            this.exact = new HashSet<String>(rawValues);
+            this.values = Collections.unmodifiableSet(asObjects(rawValues));
+            Collator collator = Collator.getInstance(locale);
+            for (String rawValue : rawValues) {
+                this.collated.add(collator.getCollationKey(rawValue));
+            }
+        }
+
+        private boolean contains(String value) {
+            if (value == null)
+                return false;
+            if (isCaseInsensitive())
+                value = value.toLowerCase(locale);
+            if (this.exact.contains(value))
+                return true;
+
+            // Collation may consider strings that are not identical to be
+            // equal
+            return this.collated.contains(Collator.getInstance(locale).getCollationKey(value));
         }
     }
 }
@@ -16,6 +16,9 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -27,12 +30,21 @@ import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
-import com.github.rvesse.airline.utils.AirlineUtils;
 
+/**
+ * A restriction that requires converted values to be one of a set of allowed
+ * values
+ * <p>
+ * The raw values are converted once for each type and type converter they are
+ * used with and the converted values are then reused across parses, checking
+ * a value requires no locking.
+ * </p>
+ */
 public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
 
-    private Object currentState = null;
-    private Set<Object> allowedValues = null;
+    private static final TypeConverter DEFAULT_CONVERTER = new DefaultTypeConverter();
+
+    private volatile ConvertedValues converted = null;
 
     public AllowedValuesRestriction(String... rawValues) {
         super(false);
@@ -45,24 +57,46 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         if (this.rawValues.isEmpty())
             return;
 
-        Set<Object> allowedValues = createAllowedValues(state, option.getTitle(), option.getJavaType(),
+        ConvertedValues allowed = getConvertedValues(option.getTitle(), option.getJavaType(),
                 option.getTypeConverterProvider().getTypeConverter(option, state));
-        if (!allowedValues.contains(value)) {
-            throw new ParseOptionIllegalValueException(option.getTitle(), value, allowedValues);
+        if (!allowed.contains(value)) {
+            throw new ParseOptionIllegalValueException(option.getTitle(), value, allowed.values);
         }
     }
 
-    protected synchronized <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
+    /**
+     * Gets the allowed values converted to the given type
+     * 
+     * @param state
+     *            Parser state
+     * @param title
+     *            Title of the option/arguments the values apply to
+     * @param type
+     *            Type to convert to
+     * @param converter
+     *            Type converter, if {@code null} the default converter is used
+     * @return Unmodifiable set of converted values
+     */
+    protected <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
             TypeConverter converter) {
-        // Re-use cached values if possible
-        if (currentState == state) {
-            return allowedValues;
+        return getConvertedValues(title, type, converter).values;
+    }
+
+    private ConvertedValues getConvertedValues(String title, Class<?> type, TypeConverter converter) {
+        if (converter == null)
+            converter = DEFAULT_CONVERTER;
+
+        // Benign race, at worst several threads convert the same values
+        ConvertedValues allowed = this.converted;
+        if (allowed == null || allowed.type != type || allowed.converter != converter) {
+            allowed = new ConvertedValues(type, converter, convert(title, type, converter));
+            this.converted = allowed;
         }
+        return allowed;
+    }
 
-        // Convert values
+    private Set<Object> convert(String title, Class<?> type, TypeConverter converter) {
         Set<Object> actualValues = new LinkedHashSet<Object>();
-        if (converter == null)
-            converter = new DefaultTypeConverter();
         for (String rawValue : this.rawValues) {
             try {
                 actualValues.add(converter.convert(title, type, rawValue));
@@ -71,11 +105,6 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
                         "Unable to parse raw value '%s' in order to apply allowed values restriction", rawValue);
             }
         }
-
-        // Cache for re-use
-        currentState = state;
-        this.allowedValues = actualValues;
-
         return actualValues;
     }
 
@@ -86,11 +115,47 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
             return;
 
         String title = getArgumentTitle(state, arguments);
-        Set<Object> allowedValues = createAllowedValues(state, title, arguments.getJavaType(),
+        ConvertedValues allowed = getConvertedValues(title, arguments.getJavaType(),
                 arguments.getTypeConverterProvider().getTypeConverter(arguments, state));
-        if (!allowedValues.contains(value)) {
-            throw new ParseArgumentsIllegalValueException(title, value, allowedValues);
+        if (!allowed.contains(value)) {
+            throw new ParseArgumentsIllegalValueException(title, value, allowed.values);
         }
     }
 
+    /**
+     * Immutable set of allowed values converted with a specific type converter
+     */
+    private static final class ConvertedValues {
+        private final Class<?> type;
+        private final TypeConverter converter;
+        private final Set<Object> values;
+        private final Set<?> lookup;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private ConvertedValues(Class<?> type, TypeConverter converter, Set<Object> values) {
+            this.type = type;
+            this.converter = converter;
+            this.values = Collections.unmodifiableSet(values);
+
+            // Enum constants are looked up via a bit set
+            Set<?> lookup = null;
+            if (type != null && type.isEnum() && !values.isEmpty()) {
+                Class enumType = type;
+                EnumSet enums = EnumSet.noneOf(enumType);
+                for (Object value : values) {
+                    if (!enumType.isInstance(value)) {
+                        enums = null;
+                        break;
+                    }
+                    enums.add(value);
+                }
+                lookup = enums;
+            }
+            this.lookup = lookup != null ? lookup : new HashSet<Object>(values);
+        }
+
+        private boolean contains(Object value) {
+            return value != null ? this.lookup.contains(value) : this.values.contains(null);
+        }
+    }
 }
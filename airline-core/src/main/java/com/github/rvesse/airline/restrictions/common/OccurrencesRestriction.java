@@ -15,13 +15,9 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
-
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -31,7 +27,6 @@ import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.parser.errors.ParseTooManyArgumentsException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 public class OccurrencesRestriction extends AbstractCommonRestriction implements HelpHint {
 
@@ -48,17 +43,16 @@ public class OccurrencesRestriction extends AbstractCommonRestriction implements
         if (occurrences <= 0)
             return;
 
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        int parsed = state.getParsedOptionIndex().count(option);
 
-        if (maximum && parsedOptions.size() > this.occurrences) {
+        if (maximum && parsed > this.occurrences) {
             throw new ParseRestrictionViolatedException(
                     "Option '%s' may be specified a maximum of %d times but was found %d times", option.getTitle(),
-                    this.occurrences, parsedOptions.size());
-        } else if (!maximum && parsedOptions.size() < this.occurrences) {
+                    this.occurrences, parsed);
+        } else if (!maximum && parsed < this.occurrences) {
             throw new ParseRestrictionViolatedException(
                     "Option '%s' must be specified at least %d times but was only found %d times", option.getTitle(),
-                    occurrences, parsedOptions.size());
+                    occurrences, parsed);
         }
     }
 
@@ -16,25 +16,71 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import com.github.rvesse.airline.annotations.restrictions.PathKind;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.PathStatCache;
+import com.github.rvesse.airline.parser.PathStatCache.PathStat;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 
 /**
  * Implements restriction on options and arguments that expect to receive a path
  * to a file and/or directory
+ * <p>
+ * File system status is read via the {@link PathStatCache} of the current
+ * parse so each distinct path, including parent directories of paths that do
+ * not exist, is queried at most once per parse. When constructed as parallel
+ * the values are instead validated concurrently once parsing has finished,
+ * which can substantially reduce validation time for large numbers of values
+ * on high latency file systems.
+ * </p>
  * 
  * @author rvesse
  *
  */
 public class PathRestriction extends AbstractCommonRestriction implements HelpHint {
 
-    private final boolean mustExist, readable, writable, executable;
+    private static final int PARALLELISM = 2 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Holds the executor shared by all parallel path restrictions, it is only
+     * created when first needed and its daemon threads exit when idle
+     */
+    private static final class SharedExecutor {
+        private static final ExecutorService INSTANCE;
+
+        static {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "airline-path-validation");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            INSTANCE = executor;
+        }
+    }
+
+    private final boolean mustExist, readable, writable, executable, parallel;
     private final PathKind kind;
 
     /**
@@ -57,117 +103,231 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
      * @param kind
      */
     public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind) {
+        this(mustExist, readable, writable, executable, kind, false);
+    }
+
+    /**
+     * Creates a new path restriction
+     * 
+     * @param mustExist
+     *            Whether the path must exist
+     * @param readable
+     *            Whether the path must be readable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is readable
+     * @param writable
+     *            Whether the path must be writable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is writable
+     * @param executable
+     *            Whether the path must be executable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is executable
+     * @param kind
+     *            Expected kind of path
+     * @param parallel
+     *            Whether validation is deferred until parsing has finished so
+     *            that all the values can be validated in parallel
+     */
+    public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind,
+            boolean parallel) {
         this.mustExist = mustExist;
         this.readable = readable;
         this.writable = writable;
         this.executable = executable;
         this.kind = kind;
+        this.parallel = parallel;
     }
 
     protected void validate(String title, String path) {
-        if (path == null)
-            throw new ParseRestrictionViolatedException("%s must be given a non-null path", title, path);
+        ParseRestrictionViolatedException e = check(new PathStatCache(), title, path);
+        if (e != null)
+            throw e;
+    }
 
-        File f = new File(path);
+    /**
+     * Checks a path returning the violation, if any, rather than throwing it
+     * 
+     * @param stats
+     *            Path status cache
+     * @param title
+     *            Title used in error messages
+     * @param path
+     *            Path
+     * @return Violation or {@code null} if the path is valid
+     */
+    private ParseRestrictionViolatedException check(PathStatCache stats, String title, String path) {
+        if (path == null)
+            return new ParseRestrictionViolatedException("%s must be given a non-null path", title, path);
 
-        if (this.mustExist && !f.exists())
-            throw new ParseRestrictionViolatedException(
-                    "%s was given value '%s' which is not a path to an existing file/directory", title, path);
+        if (this.mustExist) {
+            PathStat stat = stats.stat(path);
+            if (!stat.exists())
+                return new ParseRestrictionViolatedException(
+                        "%s was given value '%s' which is not a path to an existing file/directory", title, path);
 
-        if (this.mustExist && f.exists()) {
             // Some things require the file to exist in order for direct
             // validation to be applied
             switch (kind) {
             case FILE:
-                if (!f.isFile())
-                    throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a path to a file",
-                            title, path);
+                if (!stat.isFile())
+                    return new ParseRestrictionViolatedException(
+                            "%s was given value '%s' which is not a path to a file", title, path);
                 break;
             case DIRECTORY:
-                if (!f.isDirectory())
-                    throw new ParseRestrictionViolatedException(
+                if (!stat.isDirectory())
+                    return new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a directory", title, path);
                 break;
             default:
-                if (!f.isFile() && !f.isDirectory())
-                    throw new ParseRestrictionViolatedException(
+                if (!stat.isFile() && !stat.isDirectory())
+                    return new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a file/directory", title, path);
                 break;
             }
 
             // Check permissions
-            if (this.readable && !f.canRead())
-                notReadable(title, path);
-
-            if (this.writable && !f.canWrite())
-                notWritable(title, path);
-
-            if (this.executable && !f.canExecute())
-                notExecutable(title, path);
+            return checkPermissions(stat, title, path);
         } else if (this.readable || this.writable || this.executable) {
+            File f = new File(path);
             if (!f.isAbsolute())
                 f = f.getAbsoluteFile();
 
-            // May be able to check the conditions directly if the file exists
-            if (f.exists()) {
-                if (this.readable && !f.canRead())
-                    notReadable(title, path);
-
-                if (this.writable && !f.canWrite())
-                    notWritable(title, path);
-
-                if (this.executable && !f.canExecute())
-                    notExecutable(title, path);
-            } else {
-                // Otherwise verify that the first portion of the path that
-                // exists has the desired properties
-                while (f.getParentFile() != null) {
-                    f = f.getParentFile();
-                    if (f.exists()) {
-                        // All conditions must be met by first part of the path
-                        // that exists
-                        if (this.readable && !f.canRead())
-                            notReadable(title, path);
-
-                        if (this.writable && !f.canWrite())
-                            notWritable(title, path);
-
-                        if (this.executable && !f.canExecute())
-                            notExecutable(title, path);
-
-                        // All conditions satisfied so no need to continue going
-                        // up the path
-                        break;
-                    }
-                }
+            // May be able to check the conditions directly if the file exists,
+            // otherwise verify that the first portion of the path that exists
+            // has the desired properties. Parent directories are commonly
+            // shared between values so their status is cached.
+            PathStat stat = stats.stat(f.getPath());
+            while (!stat.exists() && f.getParentFile() != null) {
+                f = f.getParentFile();
+                stat = stats.stat(f.getPath());
             }
+            if (stat.exists())
+                return checkPermissions(stat, title, path);
         }
+        return null;
     }
 
-    private void notExecutable(String title, String path) {
-        throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a executable path", title,
+    private ParseRestrictionViolatedException checkPermissions(PathStat stat, String title, String path) {
+        if (this.readable && !stat.isReadable())
+            return notReadable(title, path);
+
+        if (this.writable && !stat.isWritable())
+            return notWritable(title, path);
+
+        if (this.executable && !stat.isExecutable())
+            return notExecutable(title, path);
+
+        return null;
+    }
+
+    private ParseRestrictionViolatedException notExecutable(String title, String path) {
+        return new ParseRestrictionViolatedException("%s was given value '%s' which is not a executable path", title,
                 path);
     }
 
-    private void notWritable(String title, String path) {
-        throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a writeable path", title,
+    private ParseRestrictionViolatedException notWritable(String title, String path) {
+        return new ParseRestrictionViolatedException("%s was given value '%s' which is not a writeable path", title,
                 path);
     }
 
-    private void notReadable(String title, String path) {
-        throw new ParseRestrictionViolatedException("%s was given value '%s' which it not a readable path", title,
+    private ParseRestrictionViolatedException notReadable(String title, String path) {
+        return new ParseRestrictionViolatedException("%s was given value '%s' which it not a readable path", title,
                 path);
     }
 
+    /**
+     * Validates the deferred paths, querying the file system in parallel, and
+     * reports any violations to the error handler in the order the values were
+     * given
+     * 
+     * @param state
+     *            Parser state
+     * @param title
+     *            Title used in error messages
+     */
+    private <T> void validateDeferred(ParseState<T> state, final String title) {
+        final PathStatCache stats = state.getPathStatCache();
+        List<String> paths = state.getDeferredValues(this);
+        if (paths.isEmpty())
+            return;
+        // Errors created by the workers should match those of the parsing
+        // thread
+        final boolean stackless = ParseException.areStackTracesSuppressed();
+
+        List<ParseRestrictionViolatedException> errors = new ArrayList<ParseRestrictionViolatedException>();
+        if (paths.size() == 1) {
+            errors.add(check(stats, title, paths.get(0)));
+        } else {
+            try {
+                List<Callable<ParseRestrictionViolatedException>> checks = new ArrayList<Callable<ParseRestrictionViolatedException>>();
+                for (final String path : paths) {
+                    checks.add(new Callable<ParseRestrictionViolatedException>() {
+                        @Override
+                        public ParseRestrictionViolatedException call() {
+                            boolean previous = ParseException.suppressStackTraces(stackless);
+                            try {
+                                return check(stats, title, path);
+                            } finally {
+                                ParseException.suppressStackTraces(previous);
+                            }
+                        }
+                    });
+                }
+                for (Future<ParseRestrictionViolatedException> result : SharedExecutor.INSTANCE.invokeAll(checks)) {
+                    errors.add(result.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParseRestrictionViolatedException(e, "%s was interrupted while validating paths", title);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new ParseRestrictionViolatedException(e, "%s failed to validate paths", title);
+            }
+        }
+
+        for (ParseRestrictionViolatedException e : errors) {
+            if (e != null)
+                state.getErrorHandler().handleError(e);
+        }
+    }
+
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        this.validate(String.format("Option '%s'", option.getTitle()), value);
+        if (this.parallel) {
+            state.getPathStatCache().defer(this, value);
+            return;
+        }
+        ParseRestrictionViolatedException e = check(state.getPathStatCache(),
+                String.format("Option '%s'", option.getTitle()), value);
+        if (e != null)
+            throw e;
     }
 
     @Override
     public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
-        this.validate(String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)),
-                value);
+        if (this.parallel) {
+            state.getPathStatCache().defer(this, value);
+            return;
+        }
+        ParseRestrictionViolatedException e = check(state.getPathStatCache(),
+                String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)), value);
+        if (e != null)
+            throw e;
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
+        if (this.parallel)
+            validateDeferred(state, String.format("Option '%s'", option.getTitle()));
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, ArgumentsMetadata arguments) {
+        if (this.parallel)
+            validateDeferred(state,
+                    String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)));
     }
 
     @Override
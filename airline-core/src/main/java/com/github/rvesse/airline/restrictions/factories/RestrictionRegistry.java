@@ -16,23 +16,33 @@
 package com.github.rvesse.airline.restrictions.factories;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
+import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 /**
  * Central registry for restrictions
+ * <p>
+ * The registry is copy on write, registering a factory replaces the
+ * registrations wholesale so lookups never need to lock and may safely happen
+ * concurrently with registrations.
+ * </p>
  */
 public class RestrictionRegistry {
 
-    private static final Map<Class<? extends Annotation>, OptionRestrictionFactory> OPTION_RESTRICTION_FACTORIES = new HashMap<>();
-    private static final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> ARGUMENT_RESTRICTION_FACTORIES = new HashMap<>();
-    private static final Map<Class<? extends Annotation>, GlobalRestrictionFactory> GLOBAL_RESTRICTION_FACTORIES = new HashMap<>();
+    private static volatile Map<Class<? extends Annotation>, OptionRestrictionFactory> OPTION_RESTRICTION_FACTORIES = Collections
+            .emptyMap();
+    private static volatile Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> ARGUMENT_RESTRICTION_FACTORIES = Collections
+            .emptyMap();
+    private static volatile Map<Class<? extends Annotation>, GlobalRestrictionFactory> GLOBAL_RESTRICTION_FACTORIES = Collections
+            .emptyMap();
 
     private static volatile boolean init = false;
 
@@ -47,52 +57,84 @@ public class RestrictionRegistry {
     static synchronized void init() {
         if (init)
             return;
+        load(OPTION_RESTRICTION_FACTORIES, ARGUMENT_RESTRICTION_FACTORIES, GLOBAL_RESTRICTION_FACTORIES);
+        init = true;
+    }
 
+    /**
+     * Loads the restrictions available via the {@link ServiceLoader} mechanism
+     * on top of the given registrations
+     * <p>
+     * The new registrations are built up locally and only published once
+     * complete so concurrent lookups never see a partially populated registry
+     * </p>
+     */
+    private static void load(Map<Class<? extends Annotation>, OptionRestrictionFactory> baseOptionFactories,
+            Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> baseArgumentsFactories,
+            Map<Class<? extends Annotation>, GlobalRestrictionFactory> baseGlobalFactories) {
         // Use ServerLoader to obtain restrictions
+        Map<Class<? extends Annotation>, OptionRestrictionFactory> optionFactories = new HashMap<>(
+                baseOptionFactories);
         ServiceLoader<OptionRestrictionFactory> optionRestrictionFactories = ServiceLoader
                 .load(OptionRestrictionFactory.class);
         for (OptionRestrictionFactory factory : optionRestrictionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedOptionAnnotations()) {
-                OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+                optionFactories.put(cls, factory);
             }
         }
+        Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> argumentsFactories = new HashMap<>(
+                baseArgumentsFactories);
         ServiceLoader<ArgumentsRestrictionFactory> argumentsRestrictionFactories = ServiceLoader
                 .load(ArgumentsRestrictionFactory.class);
         for (ArgumentsRestrictionFactory factory : argumentsRestrictionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedArgumentsAnnotations()) {
-                ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+                argumentsFactories.put(cls, factory);
             }
         }
+        Map<Class<? extends Annotation>, GlobalRestrictionFactory> globalFactories = new HashMap<>(
+                baseGlobalFactories);
         ServiceLoader<GlobalRestrictionFactory> globalRestrictionFactories = ServiceLoader
                 .load(GlobalRestrictionFactory.class);
         for (GlobalRestrictionFactory factory : globalRestrictionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedGlobalAnnotations()) {
-                GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+                globalFactories.put(cls, factory);
             }
         }
 
-        init = true;
+        OPTION_RESTRICTION_FACTORIES = Collections.unmodifiableMap(optionFactories);
+        ARGUMENT_RESTRICTION_FACTORIES = Collections.unmodifiableMap(argumentsFactories);
+        GLOBAL_RESTRICTION_FACTORIES = Collections.unmodifiableMap(globalFactories);
     }
 
     /**
      * Resets the registry to its default state
      */
     public synchronized static void reset() {
-        init = false;
-        OPTION_RESTRICTION_FACTORIES.clear();
-        ARGUMENT_RESTRICTION_FACTORIES.clear();
-        GLOBAL_RESTRICTION_FACTORIES.clear();
-        init();
+        Map<Class<? extends Annotation>, OptionRestrictionFactory> noOptionFactories = Collections.emptyMap();
+        Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> noArgumentsFactories = Collections.emptyMap();
+        Map<Class<? extends Annotation>, GlobalRestrictionFactory> noGlobalFactories = Collections.emptyMap();
+        load(noOptionFactories, noArgumentsFactories, noGlobalFactories);
+        init = true;
+        MetadataLoader.clearCache();
+    }
+
+    private static <T> Map<Class<? extends Annotation>, T> copyAndPut(Map<Class<? extends Annotation>, T> factories,
+            Class<? extends Annotation> cls, T factory) {
+        Map<Class<? extends Annotation>, T> copy = new HashMap<>(factories);
+        copy.put(cls, factory);
+        return Collections.unmodifiableMap(copy);
     }
 
     public static Set<Class<? extends Annotation>> getOptionRestrictionAnnotationClasses() {
         return OPTION_RESTRICTION_FACTORIES.keySet();
     }
 
-    public static void addOptionRestriction(Class<? extends Annotation> cls, OptionRestrictionFactory factory) {
+    public static synchronized void addOptionRestriction(Class<? extends Annotation> cls,
+            OptionRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+        OPTION_RESTRICTION_FACTORIES = copyAndPut(OPTION_RESTRICTION_FACTORIES, cls, factory);
+        MetadataLoader.clearCache();
     }
 
     public static <T extends Annotation> OptionRestriction getOptionRestriction(Class<? extends Annotation> cls,
@@ -103,10 +145,12 @@ public class RestrictionRegistry {
         return null;
     }
 
-    public static void addArgumentsRestriction(Class<? extends Annotation> cls, ArgumentsRestrictionFactory factory) {
+    public static synchronized void addArgumentsRestriction(Class<? extends Annotation> cls,
+            ArgumentsRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+        ARGUMENT_RESTRICTION_FACTORIES = copyAndPut(ARGUMENT_RESTRICTION_FACTORIES, cls, factory);
+        MetadataLoader.clearCache();
     }
 
     public static Set<Class<? extends Annotation>> getArgumentsRestrictionAnnotationClasses() {
@@ -125,10 +169,12 @@ public class RestrictionRegistry {
         return GLOBAL_RESTRICTION_FACTORIES.keySet();
     }
 
-    public static void addGlobalRestriction(Class<? extends Annotation> cls, GlobalRestrictionFactory factory) {
+    public static synchronized void addGlobalRestriction(Class<? extends Annotation> cls,
+            GlobalRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+        GLOBAL_RESTRICTION_FACTORIES = copyAndPut(GLOBAL_RESTRICTION_FACTORIES, cls, factory);
+        MetadataLoader.clearCache();
     }
 
     public static <T extends Annotation> GlobalRestriction getGlobalRestriction(Class<? extends Annotation> cls,
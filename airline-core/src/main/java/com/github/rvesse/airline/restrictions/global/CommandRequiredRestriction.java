@@ -19,6 +19,7 @@ import java.util.List;
 
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.SimilarNames;
 import com.github.rvesse.airline.parser.errors.ParseCommandMissingException;
 import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
@@ -33,7 +34,8 @@ public class CommandRequiredRestriction implements GlobalRestriction {
             if (unparsedInput.isEmpty()) {
                 throw new ParseCommandMissingException();
             } else {
-                throw new ParseCommandUnrecognizedException(unparsedInput);
+                throw new ParseCommandUnrecognizedException(unparsedInput,
+                        SimilarNames.find(state, unparsedInput.get(0)));
             }
         }
     }
@@ -15,7 +15,10 @@
  */
 package com.github.rvesse.airline.restrictions.global;
 
+import java.util.List;
+
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.SimilarNames;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
@@ -24,7 +27,9 @@ public class NoUnexpectedArgumentsRestriction implements GlobalRestriction {
     @Override
     public <T> void validate(ParseState<T> state) {
         if (!state.getUnparsedInput().isEmpty()) {
-            throw new ParseArgumentsUnexpectedException(state.getUnparsedInput());
+            List<String> unparsedInput = state.getUnparsedInput();
+            throw new ParseArgumentsUnexpectedException(unparsedInput,
+                    SimilarNames.find(state, unparsedInput.get(0)));
         }
     }
 
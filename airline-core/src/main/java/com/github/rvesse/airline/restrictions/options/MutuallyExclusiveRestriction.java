@@ -21,20 +21,20 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParsedOptionIndex;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
+import com.github.rvesse.airline.restrictions.AbstractOptionRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
+import com.github.rvesse.airline.restrictions.TaggedOptionRestriction;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithTagParsedOptionFinder;
 
-public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint {
+public class MutuallyExclusiveRestriction extends AbstractOptionRestriction implements TaggedOptionRestriction, HelpHint {
 
     private final String tag;
 
@@ -44,8 +44,8 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        ParsedOptionIndex index = state.getParsedOptionIndex();
+        int parsed = index.count(option);
 
         Collection<OptionRestriction> restrictions = CollectionUtils.select(option.getRestrictions(),
                 new MutuallyExclusiveWithFinder(this.tag));
@@ -53,19 +53,18 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
         for (@SuppressWarnings("unused")
         OptionRestriction restriction : restrictions) {
             // Find other parsed options which have the same tag
-            Collection<Pair<OptionMetadata, Object>> otherParsedOptions = CollectionUtils
-                    .select(state.getParsedOptions(), new MutuallyExclusiveWithTagParsedOptionFinder(this.tag));
+            int otherParsed = index.countTagged(MutuallyExclusiveRestriction.class, this.tag);
 
             // There are some parsed options but ONLY for this option
-            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == parsedOptions.size())
+            if (otherParsed > 0 && otherParsed == parsed)
                 continue;
 
             // Otherwise may need to error
-            if (parsedOptions.size() > 0 && otherParsedOptions.size() > parsedOptions.size()) {
+            if (parsed > 0 && otherParsed > parsed) {
                 Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
                 throw new ParseOptionGroupException(
                         "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
-                        otherParsedOptions.size(), toOptionsList(taggedOptions));
+                        otherParsed, toOptionsList(taggedOptions));
             }
         }
     }
@@ -96,6 +95,7 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
         return CollectionUtils.select(options, new MutuallyExclusiveWithOptionFinder(this.tag));
     }
     
+    @Override
     public String getTag() {
         return tag;
     }
@@ -122,14 +122,4 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
         return new String[] { String.format(
                 "This option is part of the group '%s' from which only one option may be specified", this.tag) };
     }
-
-    @Override
-    public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        // No pre-validation
-    }
-
-    @Override
-    public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
-        // No post-validation
-    }
 }
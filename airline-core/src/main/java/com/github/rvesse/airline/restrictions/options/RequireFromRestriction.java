@@ -21,20 +21,20 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParsedOptionIndex;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
+import com.github.rvesse.airline.restrictions.AbstractOptionRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
+import com.github.rvesse.airline.restrictions.TaggedOptionRestriction;
 import com.github.rvesse.airline.utils.predicates.restrictions.RequiredFromFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagParsedOptionFinder;
 
-public class RequireFromRestriction implements OptionRestriction, HelpHint {
+public class RequireFromRestriction extends AbstractOptionRestriction implements TaggedOptionRestriction, HelpHint {
 
     private final String tag;
     private final boolean mutuallyExclusive;
@@ -46,8 +46,8 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        ParsedOptionIndex index = state.getParsedOptionIndex();
+        int parsed = index.count(option);
 
         Collection<OptionRestriction> restrictions = CollectionUtils.select(option.getRestrictions(),
                 new RequiredFromFinder(this.tag));
@@ -55,20 +55,19 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
         for (@SuppressWarnings("unused")
         OptionRestriction restriction : restrictions) {
             // Find other parsed options which have the same tag
-            Collection<Pair<OptionMetadata, Object>> otherParsedOptions = CollectionUtils
-                    .select(state.getParsedOptions(), new RequiredTagParsedOptionFinder(this.tag));
+            int otherParsed = index.countTagged(RequireFromRestriction.class, this.tag);
 
             // There are some parsed options but ONLY for this option
-            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == parsedOptions.size())
+            if (otherParsed > 0 && otherParsed == parsed)
                 continue;
 
             // Otherwise may need to error
-            if (mutuallyExclusive && parsedOptions.size() > 0 && otherParsedOptions.size() > parsedOptions.size()) {
+            if (mutuallyExclusive && parsed > 0 && otherParsed > parsed) {
                 Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
                 throw new ParseOptionGroupException(
                         "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
-                        otherParsedOptions.size(), toOptionsList(taggedOptions));
-            } else if (otherParsedOptions.size() == 0) {
+                        otherParsed, toOptionsList(taggedOptions));
+            } else if (otherParsed == 0) {
                 Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
                 throw new ParseOptionGroupException("%s of the following options must be specified: %s", tag,
                         taggedOptions, mutuallyExclusive ? "One" : "One/more", toOptionsList(taggedOptions));
@@ -102,6 +101,7 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
         return CollectionUtils.select(options, new RequiredTagOptionFinder(this.tag));
     }
 
+    @Override
     public String getTag() {
         return tag;
     }
@@ -134,14 +134,4 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
                     this.tag) };
         }
     }
-
-    @Override
-    public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        // No pre-validation
-    }
-
-    @Override
-    public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
-        // No post-validation
-    }
 }
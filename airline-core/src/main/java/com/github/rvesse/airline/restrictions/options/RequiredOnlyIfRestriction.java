@@ -16,24 +16,21 @@
 package com.github.rvesse.airline.restrictions.options;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParsedOptionIndex;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.AbstractOptionRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
-public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
+public class RequiredOnlyIfRestriction extends AbstractOptionRestriction implements HelpHint {
 
     private final Set<String> names = new LinkedHashSet<>();
 
@@ -46,33 +43,24 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
         if (this.names.isEmpty())
             return;
 
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        ParsedOptionIndex index = state.getParsedOptionIndex();
 
         // If this option was seen then the required criteria has been fulfilled
         // regardless of whether any of the triggering options was actually
         // present
-        if (parsedOptions.size() > 0)
+        if (index.contains(option))
             return;
 
         // Were any of the options that would trigger the required restriction
         // present?
-        for (Pair<OptionMetadata, Object> otherOption : state.getParsedOptions()) {
-            if (otherOption.getLeft().equals(option))
-                continue;
-
-            for (String name : this.names) {
-                if (otherOption.getLeft().getOptions().contains(name))
+        for (String name : this.names) {
+            for (OptionMetadata otherOption : index.getOptionsNamed(name)) {
+                if (!otherOption.equals(option))
                     throw new ParseOptionMissingException(option.getTitle());
             }
         }
     }
 
-    @Override
-    public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        // No pre-validation
-    }
-
     @Override
     public String getPreamble() {
         return null;
@@ -96,9 +84,4 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
                 StringUtils.join(this.names, ", ")) };
     }
 
-    @Override
-    public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
-        // No post-validation
-    }
-
 }
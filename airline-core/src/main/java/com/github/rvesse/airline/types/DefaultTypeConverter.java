@@ -19,8 +19,14 @@ import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.types.numerics.NumericTypeConverter;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The default type converter
@@ -30,8 +36,32 @@ import java.lang.reflect.Method;
  * {@code valueOf(String)} method. Finally it supports any class that defines a
  * constructor that takes a string.
  * </p>
+ * <p>
+ * Which of these conversion strategies a class supports is determined once per
+ * class and cached so converting many values to the same type does not
+ * repeatedly look up methods reflectively. Enum values are resolved via a
+ * lookup table rather than by invoking {@code valueOf(String)}.
+ * </p>
+ * <p>
+ * Values of the primitive types {@code int}, {@code long}, {@code double} and
+ * {@code boolean} may be converted without boxing via the
+ * {@link PrimitiveTypeConverter} methods, this is only done when neither this
+ * class nor its numeric converter have been customised.
+ * </p>
  */
-public class DefaultTypeConverter extends DefaultTypeConverterProvider implements TypeConverter  {
+public class DefaultTypeConverter extends DefaultTypeConverterProvider implements PrimitiveTypeConverter {
+
+    private static final MethodType STRING_CONVERSION = MethodType.methodType(Object.class, String.class);
+
+    /**
+     * Resolved conversion strategies for each type
+     */
+    private static final ClassValue<ConversionStrategies> STRATEGIES = new ClassValue<ConversionStrategies>() {
+        @Override
+        protected ConversionStrategies computeValue(Class<?> type) {
+            return new ConversionStrategies(type);
+        }
+    };
 
     private NumericTypeConverter numericConverter;
 
@@ -71,6 +101,63 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
         throw new ParseOptionConversionException(name, value, type.getSimpleName());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Derived classes may change how values are converted by overriding
+     * {@link #convert(String, Class, String)} so primitive conversion is only
+     * used by this class itself, or by derived classes that override this
+     * method. Numeric values are only converted this way if the default
+     * numeric converter is in use.
+     * </p>
+     */
+    @Override
+    public boolean canConvertPrimitive(Class<?> type) {
+        if (getClass() != DefaultTypeConverter.class)
+            return false;
+        if (type == boolean.class)
+            return true;
+        if (type == int.class || type == long.class || type == double.class)
+            return this.numericConverter != null && this.numericConverter.getClass() == DefaultNumericConverter.class;
+        return false;
+    }
+
+    @Override
+    public int convertInt(String name, String value) {
+        checkArguments(name, int.class, value);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ParseOptionConversionException(name, value, int.class.getSimpleName());
+        }
+    }
+
+    @Override
+    public long convertLong(String name, String value) {
+        checkArguments(name, long.class, value);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ParseOptionConversionException(name, value, long.class.getSimpleName());
+        }
+    }
+
+    @Override
+    public double convertDouble(String name, String value) {
+        checkArguments(name, double.class, value);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new ParseOptionConversionException(name, value, double.class.getSimpleName());
+        }
+    }
+
+    @Override
+    public boolean convertBoolean(String name, String value) {
+        checkArguments(name, boolean.class, value);
+        return Boolean.parseBoolean(value);
+    }
+
     /**
      * Checks that the arguments are all non-null
      * 
@@ -101,12 +188,7 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertStringConstructor(String name, Class<?> type, String value) {
-        try {
-            Constructor<?> constructor = type.getConstructor(String.class);
-            return new ConvertResult(constructor.newInstance(value));
-        } catch (Throwable ignored) {
-        }
-        return ConvertResult.FAILURE;
+        return invoke(STRATEGIES.get(type).constructor, value);
     }
 
     /**
@@ -120,7 +202,12 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertFromValueOf(String name, Class<?> type, String value) {
-        return tryConvertStringMethod(name, type, value, "valueOf");
+        ConversionStrategies strategies = STRATEGIES.get(type);
+        if (strategies.enumConstants != null) {
+            Object constant = strategies.enumConstants.get(value);
+            return constant != null ? new ConvertResult(constant) : ConvertResult.FAILURE;
+        }
+        return invoke(strategies.valueOf, value);
     }
 
     /**
@@ -134,8 +221,7 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertFromString(String name, Class<?> type, String value) {
-        return tryConvertStringMethod(name, type, value, "fromString");
-
+        return invoke(STRATEGIES.get(type).fromString, value);
     }
 
     /**
@@ -150,6 +236,11 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion Result
      */
     protected final ConvertResult tryConvertStringMethod(String name, Class<?> type, String value, String methodName) {
+        if ("fromString".equals(methodName))
+            return tryConvertFromString(name, type, value);
+        if ("valueOf".equals(methodName))
+            return tryConvertFromValueOf(name, type, value);
+
         try {
             Method method = type.getMethod(methodName, String.class);
             if (method.getReturnType().isAssignableFrom(type)) {
@@ -190,4 +281,62 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
             this.numericConverter = new DefaultNumericConverter();
         }
     }
+
+    private static ConvertResult invoke(MethodHandle handle, String value) {
+        if (handle == null)
+            return ConvertResult.FAILURE;
+        try {
+            return new ConvertResult((Object) handle.invokeExact(value));
+        } catch (Throwable ignored) {
+        }
+        return ConvertResult.FAILURE;
+    }
+
+    /**
+     * The conversion strategies supported by a type
+     */
+    private static final class ConversionStrategies {
+        private final MethodHandle fromString, valueOf, constructor;
+        private final Map<String, Object> enumConstants;
+
+        private ConversionStrategies(Class<?> type) {
+            this.fromString = findStringMethod(type, "fromString");
+            this.valueOf = findStringMethod(type, "valueOf");
+            this.constructor = findStringConstructor(type);
+
+            // Enums are resolved via a lookup table provided their valueOf()
+            // method is usable
+            if (type.isEnum() && this.valueOf != null) {
+                Map<String, Object> constants = new HashMap<>();
+                for (Object constant : type.getEnumConstants()) {
+                    constants.put(((Enum<?>) constant).name(), constant);
+                }
+                this.enumConstants = Collections.unmodifiableMap(constants);
+            } else {
+                this.enumConstants = null;
+            }
+        }
+
+        private static MethodHandle findStringMethod(Class<?> type, String methodName) {
+            try {
+                Method method = type.getMethod(methodName, String.class);
+                if (!method.getReturnType().isAssignableFrom(type))
+                    return null;
+                return MethodHandles.publicLookup().unreflect(method).asType(STRING_CONVERSION);
+            } catch (Throwable e) {
+                // Not supported or not accessible
+                return null;
+            }
+        }
+
+        private static MethodHandle findStringConstructor(Class<?> type) {
+            try {
+                Constructor<?> constructor = type.getConstructor(String.class);
+                return MethodHandles.publicLookup().unreflectConstructor(constructor).asType(STRING_CONVERSION);
+            } catch (Throwable e) {
+                // Not supported or not accessible
+                return null;
+            }
+        }
+    }
 }
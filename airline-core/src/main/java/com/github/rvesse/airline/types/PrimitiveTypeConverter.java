@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+/**
+ * Interface for type converters that can convert values for the common
+ * primitive types without boxing them
+ * <p>
+ * The parser only uses these methods for a type if
+ * {@link #canConvertPrimitive(Class)} returns {@code true} for it, otherwise
+ * conversion goes via {@link #convert(String, Class, String)} as usual.
+ * Implementations must produce the same values, and fail in the same way, as
+ * {@link #convert(String, Class, String)} would for the same type.
+ * </p>
+ */
+public interface PrimitiveTypeConverter extends TypeConverter {
+
+    /**
+     * Gets whether the given type can be converted via the primitive
+     * conversion methods of this converter
+     * 
+     * @param type
+     *            Target type, only {@code int}, {@code long}, {@code double}
+     *            and {@code boolean} are ever passed
+     * @return True if supported, false otherwise
+     */
+    public abstract boolean canConvertPrimitive(Class<?> type);
+
+    /**
+     * Converts a string value into an {@code int}
+     * 
+     * @param name
+     *            Option Name
+     * @param value
+     *            String Value
+     * @return Converted value
+     * @exception com.github.rvesse.airline.parser.errors.ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract int convertInt(String name, String value);
+
+    /**
+     * Converts a string value into a {@code long}
+     * 
+     * @param name
+     *            Option Name
+     * @param value
+     *            String Value
+     * @return Converted value
+     * @exception com.github.rvesse.airline.parser.errors.ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract long convertLong(String name, String value);
+
+    /**
+     * Converts a string value into a {@code double}
+     * 
+     * @param name
+     *            Option Name
+     * @param value
+     *            String Value
+     * @return Converted value
+     * @exception com.github.rvesse.airline.parser.errors.ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract double convertDouble(String name, String value);
+
+    /**
+     * Converts a string value into a {@code boolean}
+     * 
+     * @param name
+     *            Option Name
+     * @param value
+     *            String Value
+     * @return Converted value
+     * @exception com.github.rvesse.airline.parser.errors.ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract boolean convertBoolean(String name, String value);
+}
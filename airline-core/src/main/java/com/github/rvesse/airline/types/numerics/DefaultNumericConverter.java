@@ -25,14 +25,33 @@ import com.github.rvesse.airline.types.TypeConverterProvider;
 
 public class DefaultNumericConverter implements TypeConverterProvider, NumericTypeConverter {
 
+    private volatile TypeConverter typeConverter;
+
     @Override
     public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
-        return new DefaultTypeConverter(this);
+        return getTypeConverter();
     }
 
     @Override
     public <T> TypeConverter getTypeConverter(ArgumentsMetadata arguments, ParseState<T> state) {
-        return new DefaultTypeConverter(this);
+        return getTypeConverter();
+    }
+
+    /**
+     * Gets the type converter for this numeric converter, the same converter
+     * is returned on every call so anything cached against it, such as
+     * converted allowed values, can be reused
+     * 
+     * @return Type converter
+     */
+    private TypeConverter getTypeConverter() {
+        // Benign race, at worst several equivalent converters are created
+        TypeConverter converter = this.typeConverter;
+        if (converter == null) {
+            converter = new DefaultTypeConverter(this);
+            this.typeConverter = converter;
+        }
+        return converter;
     }
 
     @Override
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A prefix trie used to resolve abbreviated names to the item they identify
+ * <p>
+ * Each node of the trie records the single item that all names beneath it
+ * belong to, or that the prefix is ambiguous because names belonging to
+ * several different items share it. Resolving an abbreviation is therefore
+ * proportional to the length of the abbreviation regardless of how many names
+ * are present. Multiple names may identify the same item in which case a
+ * prefix shared only by those names is not considered ambiguous.
+ * </p>
+ * <p>
+ * Tries are immutable once constructed and so are safe to share between
+ * threads.
+ * </p>
+ *
+ * @param <T>
+ *            Item type
+ */
+public final class AbbreviationTrie<T> {
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private final Node<T> root = new Node<T>();
+
+    /**
+     * Creates a new trie
+     * 
+     * @param names
+     *            Map from names to the items they identify
+     */
+    public AbbreviationTrie(Map<String, ? extends T> names) {
+        if (names == null)
+            throw new NullPointerException("names cannot be null");
+        for (Entry<String, ? extends T> entry : names.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null)
+                continue;
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void add(String name, T item) {
+        Node<T> node = this.root;
+        node.record(item);
+        for (int i = 0; i < name.length(); i++) {
+            node = node.child(name.charAt(i), true);
+            node.record(item);
+        }
+    }
+
+    private Node<T> findNode(String prefix) {
+        if (prefix == null)
+            return null;
+        Node<T> node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i), false);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the item uniquely identified by the given abbreviation
+     * 
+     * @param prefix
+     *            Abbreviation
+     * @return Item, or {@code null} if no names start with the abbreviation or
+     *         the abbreviation is ambiguous
+     */
+    public T find(String prefix) {
+        Node<T> node = findNode(prefix);
+        if (node == null || node.ambiguous)
+            return null;
+        return node.item;
+    }
+
+    /**
+     * Gets whether the given abbreviation is ambiguous i.e. it is a prefix of
+     * the names of several different items
+     * 
+     * @param prefix
+     *            Abbreviation
+     * @return True if ambiguous, false otherwise
+     */
+    public boolean isAmbiguous(String prefix) {
+        Node<T> node = findNode(prefix);
+        return node != null && node.ambiguous;
+    }
+
+    private static final class Node<T> {
+        private char[] keys = NO_KEYS;
+        private Node<T>[] children;
+        private T item;
+        private boolean ambiguous;
+
+        private void record(T item) {
+            if (this.item == null) {
+                this.item = item;
+            } else if (!this.item.equals(item)) {
+                this.ambiguous = true;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<T> child(char c, boolean create) {
+            int index = Arrays.binarySearch(this.keys, c);
+            if (index >= 0)
+                return this.children[index];
+            if (!create)
+                return null;
+
+            // Insert a new child keeping the keys sorted
+            int insertAt = -(index + 1);
+            char[] keys = new char[this.keys.length + 1];
+            Node<T>[] children = new Node[keys.length];
+            System.arraycopy(this.keys, 0, keys, 0, insertAt);
+            System.arraycopy(this.keys, insertAt, keys, insertAt + 1, this.keys.length - insertAt);
+            if (this.children != null) {
+                System.arraycopy(this.children, 0, children, 0, insertAt);
+                System.arraycopy(this.children, insertAt, children, insertAt + 1, this.keys.length - insertAt);
+            }
+            Node<T> child = new Node<T>();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            this.keys = keys;
+            this.children = children;
+            return child;
+        }
+    }
+}
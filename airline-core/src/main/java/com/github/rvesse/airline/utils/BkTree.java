@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A BK-tree for finding the strings within a given edit distance of a query
+ * string
+ * <p>
+ * Each child of a node is keyed by its Levenshtein distance from that node, by
+ * the triangle inequality only children whose key is within the maximum
+ * distance of the query's distance from the node can contain matches. Finding
+ * close matches therefore only computes the distance to a small fraction of
+ * the strings present rather than to all of them.
+ * </p>
+ * <p>
+ * Trees are immutable once constructed and so are safe to share between
+ * threads.
+ * </p>
+ */
+public final class BkTree {
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * Creates a new tree
+     * 
+     * @param values
+     *            Values to index, {@code null} values and duplicates are
+     *            ignored
+     */
+    public BkTree(Collection<String> values) {
+        if (values == null)
+            throw new NullPointerException("values cannot be null");
+        Node root = null;
+        int size = 0;
+        for (String value : values) {
+            if (value == null)
+                continue;
+            if (root == null) {
+                root = new Node(value);
+                size++;
+            } else if (root.add(value)) {
+                size++;
+            }
+        }
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of values in the tree
+     * 
+     * @return Number of values
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the values within the given edit distance of the query
+     * 
+     * @param query
+     *            Query
+     * @param maxDistance
+     *            Maximum edit distance
+     * @return Matching values ordered by their distance from the query and then
+     *         by their natural order
+     */
+    public List<String> find(String query, int maxDistance) {
+        if (query == null || this.root == null || maxDistance < 0)
+            return Collections.emptyList();
+
+        final Map<String, Integer> matches = new HashMap<String, Integer>();
+        List<Node> pending = new ArrayList<Node>();
+        pending.add(this.root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distance(query, node.value);
+            if (distance <= maxDistance)
+                matches.put(node.value, distance);
+            if (node.children == null)
+                continue;
+            for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                Node child = node.children.get(d);
+                if (child != null)
+                    pending.add(child);
+            }
+        }
+
+        List<String> results = new ArrayList<String>(matches.keySet());
+        Collections.sort(results, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                int c = Integer.compare(matches.get(a), matches.get(b));
+                return c != 0 ? c : a.compareTo(b);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings i.e. the number
+     * of single character insertions, deletions and substitutions needed to
+     * turn one into the other
+     * 
+     * @param a
+     *            First string
+     * @param b
+     *            Second string
+     * @return Distance
+     */
+    public static int distance(CharSequence a, CharSequence b) {
+        if (a.length() < b.length()) {
+            CharSequence temp = a;
+            a = b;
+            b = temp;
+        }
+        // Only the previous row is needed, sized by the shorter string
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        private final String value;
+        private Map<Integer, Node> children;
+
+        private Node(String value) {
+            this.value = value;
+        }
+
+        private boolean add(String value) {
+            Node node = this;
+            while (true) {
+                int distance = distance(value, node.value);
+                if (distance == 0)
+                    return false;
+                if (node.children == null)
+                    node.children = new HashMap<Integer, Node>();
+                Node child = node.children.get(distance);
+                if (child == null) {
+                    node.children.put(distance, new Node(value));
+                    return true;
+                }
+                node = child;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An index of strings that finds all the strings starting with a given prefix
+ * <p>
+ * The strings are held in sorted order and each node of a prefix trie records
+ * the range of strings that start with the prefix the node represents. Finding
+ * the strings with a given prefix is therefore proportional to the length of
+ * the prefix regardless of how many strings are present, the results are a
+ * view over the sorted strings so no copying is required.
+ * </p>
+ * <p>
+ * Indexes are immutable once constructed and so are safe to share between
+ * threads.
+ * </p>
+ */
+public final class PrefixIndex {
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private final List<String> values;
+    private final Node root = new Node();
+
+    /**
+     * Creates a new index
+     * 
+     * @param values
+     *            Values to index, {@code null} values and duplicates are
+     *            ignored
+     */
+    public PrefixIndex(Collection<String> values) {
+        if (values == null)
+            throw new NullPointerException("values cannot be null");
+        TreeSet<String> sorted = new TreeSet<String>();
+        for (String value : values) {
+            if (value != null)
+                sorted.add(value);
+        }
+        this.values = Collections.unmodifiableList(Arrays.asList(sorted.toArray(new String[sorted.size()])));
+
+        for (int i = 0; i < this.values.size(); i++) {
+            add(this.values.get(i), i);
+        }
+    }
+
+    private void add(String value, int index) {
+        // Values are added in sorted order so the values beneath any node
+        // always form a contiguous range
+        Node node = this.root;
+        node.record(index);
+        for (int i = 0; i < value.length(); i++) {
+            node = node.child(value.charAt(i), true);
+            node.record(index);
+        }
+    }
+
+    /**
+     * Finds the values that start with the given prefix
+     * 
+     * @param prefix
+     *            Prefix, {@code null} or empty finds all values
+     * @return Matching values in sorted order
+     */
+    public List<String> find(String prefix) {
+        Node node = this.root;
+        if (prefix != null) {
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i), false);
+            }
+        }
+        if (node == null || node.end == 0)
+            return Collections.emptyList();
+        return this.values.subList(node.start, node.end);
+    }
+
+    /**
+     * Gets all the values in sorted order
+     * 
+     * @return Values
+     */
+    public List<String> getValues() {
+        return this.values;
+    }
+
+    /**
+     * Gets the number of values
+     * 
+     * @return Number of values
+     */
+    public int size() {
+        return this.values.size();
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children;
+        private int start, end;
+
+        private void record(int index) {
+            if (this.end == 0)
+                this.start = index;
+            this.end = index + 1;
+        }
+
+        private Node child(char c, boolean create) {
+            int index = Arrays.binarySearch(this.keys, c);
+            if (index >= 0)
+                return this.children[index];
+            if (!create)
+                return null;
+
+            // Insert a new child keeping the keys sorted
+            int insertAt = -(index + 1);
+            char[] keys = new char[this.keys.length + 1];
+            Node[] children = new Node[keys.length];
+            System.arraycopy(this.keys, 0, keys, 0, insertAt);
+            System.arraycopy(this.keys, insertAt, keys, insertAt + 1, this.keys.length - insertAt);
+            if (this.children != null) {
+                System.arraycopy(this.children, 0, children, 0, insertAt);
+                System.arraycopy(this.children, insertAt, children, insertAt + 1, this.keys.length - insertAt);
+            }
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            this.keys = keys;
+            this.children = children;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+public class TestAccessor {
+
+    public static class Inner {
+        private int number;
+        private long big;
+        private String text;
+        private List<String> list;
+        private Set<String> set;
+        private int[] numbers = { 1 };
+        private boolean[] flags;
+        private String[] texts;
+    }
+
+    public static class Outer {
+        private Inner inner;
+        private final String constant = "constant";
+    }
+
+    public static class NoDefaultConstructor {
+        private String text;
+
+        public NoDefaultConstructor(String text) {
+            this.text = text;
+        }
+    }
+
+    public static class BadOuter {
+        private NoDefaultConstructor inner;
+    }
+
+    private static Field field(Class<?> cls, String name) throws NoSuchFieldException {
+        return cls.getDeclaredField(name);
+    }
+
+    @Test
+    public void accessor_simple() throws Exception {
+        Inner inner = new Inner();
+        new Accessor(field(Inner.class, "text")).addValues(inner, Arrays.asList("a", "b"));
+        Assert.assertEquals(inner.text, "b");
+    }
+
+    @Test
+    public void accessor_primitive() throws Exception {
+        Inner inner = new Inner();
+        new Accessor(field(Inner.class, "number")).addValues(inner, Collections.singletonList(12));
+        Assert.assertEquals(inner.number, 12);
+    }
+
+    @Test
+    public void accessor_primitive_widening() throws Exception {
+        Inner inner = new Inner();
+        new Accessor(field(Inner.class, "big")).addValues(inner, Collections.singletonList(12));
+        Assert.assertEquals(inner.big, 12l);
+    }
+
+    @Test(expectedExceptions = ParseException.class)
+    public void accessor_wrong_type() throws Exception {
+        new Accessor(field(Inner.class, "number")).addValues(new Inner(), Collections.singletonList("foo"));
+    }
+
+    @Test
+    public void accessor_collections() throws Exception {
+        Inner inner = new Inner();
+        Accessor list = new Accessor(field(Inner.class, "list"));
+        Accessor set = new Accessor(field(Inner.class, "set"));
+        Assert.assertTrue(list.isMultiValued());
+        list.addValues(inner, Arrays.asList("a", "b"));
+        list.addValues(inner, Arrays.asList("a"));
+        set.addValues(inner, Arrays.asList("a", "b", "a"));
+        Assert.assertEquals(inner.list, Arrays.asList("a", "b", "a"));
+        Assert.assertEquals(inner.set.size(), 2);
+    }
+
+    @Test
+    public void accessor_arrays() throws Exception {
+        Inner inner = new Inner();
+        Accessor numbers = new Accessor(field(Inner.class, "numbers"));
+        Accessor flags = new Accessor(field(Inner.class, "flags"));
+        Assert.assertTrue(numbers.isMultiValued());
+        Assert.assertEquals(numbers.getJavaType(), int.class);
+        Assert.assertEquals(flags.getJavaType(), boolean.class);
+
+        numbers.addValues(inner, Arrays.asList(2, 3));
+        numbers.addValues(inner, Collections.singletonList(4));
+        flags.addValues(inner, Arrays.asList(true, false));
+        Assert.assertEquals(inner.numbers, new int[] { 1, 2, 3, 4 });
+        Assert.assertEquals(inner.flags, new boolean[] { true, false });
+
+        // Other array types are not treated as multi-valued
+        Accessor texts = new Accessor(field(Inner.class, "texts"));
+        Assert.assertFalse(texts.isMultiValued());
+        Assert.assertEquals(texts.getJavaType(), String[].class);
+    }
+
+    @Test
+    public void accessor_nested() throws Exception {
+        Outer outer = new Outer();
+        Accessor accessor = new Accessor(field(Outer.class, "inner"), field(Inner.class, "text"));
+        Assert.assertEquals(accessor.getName(), "Outer.inner.text");
+        accessor.addValues(outer, Collections.singletonList("nested"));
+        Assert.assertNotNull(outer.inner);
+        Assert.assertEquals(outer.inner.text, "nested");
+
+        // Existing intermediate instance is reused
+        Inner inner = outer.inner;
+        accessor.addValues(outer, Collections.singletonList("again"));
+        Assert.assertSame(outer.inner, inner);
+        Assert.assertEquals(inner.text, "again");
+        Assert.assertSame(accessor.getValue(outer), inner);
+    }
+
+    @Test(expectedExceptions = ParseException.class, expectedExceptionsMessageRegExp = "Error getting value of inner")
+    public void accessor_nested_no_constructor() throws Exception {
+        Accessor accessor = new Accessor(field(BadOuter.class, "inner"), field(NoDefaultConstructor.class, "text"));
+        accessor.addValues(new BadOuter(), Collections.singletonList("foo"));
+    }
+
+    @Test
+    public void accessor_empty_values() throws Exception {
+        Outer outer = new Outer();
+        new Accessor(field(Outer.class, "inner"), field(Inner.class, "text")).addValues(outer,
+                Collections.emptyList());
+        Assert.assertNull(outer.inner);
+    }
+
+    @Test
+    public void accessor_final_field() throws Exception {
+        Outer outer = new Outer();
+        Accessor accessor = new Accessor(field(Outer.class, "constant"));
+        // Final fields can't be set via method handles so fall back to
+        // reflection, this should not blow up
+        accessor.addValues(outer, Collections.singletonList("changed"));
+    }
+}
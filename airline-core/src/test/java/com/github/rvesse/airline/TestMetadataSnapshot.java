@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
+
+public class TestMetadataSnapshot {
+
+    @com.github.rvesse.airline.annotations.Cli(name = "snap", defaultCommand = Help.class, commands = { Help.class,
+            Restricted.class })
+    public static class SnapshotCli {
+    }
+
+    @Command(name = "restricted")
+    public static class Restricted extends Git.GitCommand {
+        @Option(name = "--name")
+        @Required
+        public String name;
+
+        @Arguments
+        public List<String> args;
+    }
+
+    private static MetadataSnapshot roundTrip(Class<?> cliClass) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MetadataSnapshot.create(cliClass).write(output);
+        return MetadataSnapshot.read(new ByteArrayInputStream(output.toByteArray()),
+                TestMetadataSnapshot.class.getClassLoader());
+    }
+
+    private static void assertEquivalent(CommandMetadata actual, CommandMetadata expected) {
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(actual.getAllOptions(), expected.getAllOptions());
+        for (int i = 0; i < expected.getAllOptions().size(); i++) {
+            OptionMetadata actualOption = actual.getAllOptions().get(i);
+            OptionMetadata expectedOption = expected.getAllOptions().get(i);
+            Assert.assertEquals(actualOption.toString(), expectedOption.toString());
+            Assert.assertEquals(actualOption.getAccessors(), expectedOption.getAccessors());
+            Assert.assertEquals(actualOption.getRestrictions().size(), expectedOption.getRestrictions().size());
+        }
+        Assert.assertEquals(String.valueOf(actual.getArguments()), String.valueOf(expected.getArguments()));
+        Assert.assertEquals(actual.getMetadataInjections(), expected.getMetadataInjections());
+    }
+
+    private static void assertEquivalent(List<CommandGroupMetadata> actual, List<CommandGroupMetadata> expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).getName(), expected.get(i).getName());
+            Assert.assertEquals(actual.get(i).getCommands().size(), expected.get(i).getCommands().size());
+            for (int j = 0; j < expected.get(i).getCommands().size(); j++) {
+                assertEquivalent(actual.get(i).getCommands().get(j), expected.get(i).getCommands().get(j));
+            }
+            assertEquivalent(actual.get(i).getSubGroups(), expected.get(i).getSubGroups());
+        }
+    }
+
+    @Test
+    public void snapshot_round_trip_git() throws IOException {
+        MetadataSnapshot snapshot = roundTrip(GitWithCliAnnotation.class);
+        Assert.assertEquals(snapshot.getCliClass(), GitWithCliAnnotation.class);
+        Assert.assertEquals(snapshot.getCommandTypes(),
+                new HashSet<Class<?>>(Arrays.<Class<?>> asList(Help.class, Add.class, RemoteShow.class,
+                        RemoteAdd.class)));
+
+        GlobalMetadata<Object> expected = MetadataLoader.loadGlobal(GitWithCliAnnotation.class);
+        GlobalMetadata<Object> actual = snapshot.loadGlobal();
+        Assert.assertEquals(actual.getName(), expected.getName());
+        Assert.assertEquals(actual.getOptions(), expected.getOptions());
+        assertEquivalent(actual.getDefaultCommand(), expected.getDefaultCommand());
+        Assert.assertEquals(actual.getDefaultGroupCommands().size(), expected.getDefaultGroupCommands().size());
+        for (int i = 0; i < expected.getDefaultGroupCommands().size(); i++) {
+            assertEquivalent(actual.getDefaultGroupCommands().get(i), expected.getDefaultGroupCommands().get(i));
+        }
+        assertEquivalent(actual.getCommandGroups(), expected.getCommandGroups());
+    }
+
+    @Test
+    public void snapshot_parsing() throws IOException {
+        Cli<Runnable> cli = new Cli<Runnable>(roundTrip(GitWithCliAnnotation.class));
+        Runnable cmd = cli.parse("-v", "remote", "add", "-t", "main", "origin", "url");
+        Assert.assertTrue(cmd instanceof RemoteAdd);
+        RemoteAdd remoteAdd = (RemoteAdd) cmd;
+        Assert.assertTrue(remoteAdd.verbose);
+        Assert.assertEquals(remoteAdd.branch, "main");
+        Assert.assertEquals(remoteAdd.remote, Arrays.asList("origin", "url"));
+
+        Help help = (Help) cli.parse();
+        Assert.assertNotNull(help.global);
+    }
+
+    @Test
+    public void snapshot_restrictions() throws IOException {
+        Cli<Runnable> cli = new Cli<Runnable>(roundTrip(SnapshotCli.class));
+        Restricted cmd = (Restricted) cli.parse("restricted", "--name", "test", "a", "b");
+        Assert.assertEquals(cmd.name, "test");
+        Assert.assertEquals(cmd.args, Arrays.asList("a", "b"));
+    }
+
+    @Test(expectedExceptions = ParseOptionMissingException.class)
+    public void snapshot_restrictions_violated() throws IOException {
+        Cli<Runnable> cli = new Cli<Runnable>(roundTrip(SnapshotCli.class));
+        cli.parse("restricted", "a");
+    }
+
+    @Test
+    public void snapshot_load_absent() throws IOException {
+        Assert.assertNull(MetadataSnapshot.load(GitWithCliAnnotation.class));
+    }
+
+    @Test
+    public void snapshot_load_absent_cli() throws IOException {
+        try {
+            new Cli<Runnable>(MetadataSnapshot.load(GitWithCliAnnotation.class));
+            Assert.fail("Expected a missing snapshot to be rejected");
+        } catch (NullPointerException e) {
+            Assert.assertTrue(e.getMessage().contains(MetadataSnapshot.RESOURCE_PREFIX), e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("loadOrCreate"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void snapshot_load_or_create_absent() throws IOException {
+        MetadataSnapshot snapshot = MetadataSnapshot.loadOrCreate(GitWithCliAnnotation.class);
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals(snapshot.getCliClass(), GitWithCliAnnotation.class);
+
+        Cli<Runnable> cli = new Cli<Runnable>(snapshot);
+        Assert.assertEquals(cli.getMetadata().getName(), "git");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void snapshot_read_bad() throws IOException {
+        MetadataSnapshot.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }),
+                TestMetadataSnapshot.class.getClassLoader());
+    }
+}
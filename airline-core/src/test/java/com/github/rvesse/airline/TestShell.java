@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+public class TestShell {
+
+    private static final List<List<String>> RECORDED = new ArrayList<List<String>>();
+
+    @Command(name = "record")
+    public static class Record implements Runnable {
+        @Option(name = "--loud")
+        public boolean loud;
+
+        @Arguments
+        public List<String> args = new ArrayList<String>();
+
+        @Override
+        public void run() {
+            RECORDED.add(loud ? Arrays.asList("LOUD") : args);
+        }
+    }
+
+    @Command(name = "exit-with")
+    public static class ExitWith implements Callable<Integer> {
+        @Arguments
+        public int code;
+
+        @Override
+        public Integer call() {
+            return code;
+        }
+    }
+
+    @Command(name = "fail")
+    public static class Fail implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    private final Cli<Object> cli = Cli.<Object> builder("test").withCommands(Record.class, ExitWith.class, Fail.class)
+            .build();
+
+    private ByteArrayOutputStream out, err;
+
+    @BeforeMethod
+    public void setup() {
+        RECORDED.clear();
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+    }
+
+    private int run(Shell<Object> shell, String... lines) throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (String line : lines) {
+            input.append(line).append('\n');
+        }
+        return shell.run(new StringReader(input.toString()), new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    private String err() throws UnsupportedEncodingException {
+        return err.toString("UTF-8");
+    }
+
+    @Test
+    public void shell_runs_lines() throws IOException {
+        Shell<Object> shell = new Shell<Object>(cli);
+        Assert.assertNotNull(shell.getCli().getParsePlan());
+        int exitCode = run(shell, "record a b", "", "# comment", "record \"c d\" e\\ f", "record --loud");
+        Assert.assertEquals(exitCode, 0);
+        Assert.assertEquals(RECORDED,
+                Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c d", "e f"), Arrays.asList("LOUD")));
+        Assert.assertEquals(out.toString("UTF-8"), "test> test> test> test> test> test> ");
+        Assert.assertEquals(err(), "");
+    }
+
+    @Test
+    public void shell_exit() throws IOException {
+        int exitCode = run(new Shell<Object>(cli, null), "exit-with 3", "exit", "record a");
+        Assert.assertEquals(exitCode, 3);
+        Assert.assertTrue(RECORDED.isEmpty());
+        Assert.assertEquals(out.size(), 0);
+    }
+
+    @Test
+    public void shell_errors_continue() throws IOException {
+        int exitCode = run(new Shell<Object>(cli, null), "nosuch", "record \"unterminated", "fail", "record a");
+        Assert.assertEquals(exitCode, 0);
+        Assert.assertEquals(RECORDED, Arrays.asList(Arrays.asList("a")));
+        String errors = err();
+        Assert.assertTrue(errors.contains("Parser error: Command 'nosuch' not recognized"), errors);
+        Assert.assertTrue(errors.contains("Parser error: Mismatched quotes"), errors);
+        Assert.assertTrue(errors.contains("Command threw error: failed"), errors);
+    }
+
+    @Test
+    public void shell_exit_code_of_last_command() throws IOException {
+        Assert.assertEquals(run(new Shell<Object>(cli, null), "fail"), CommandRunner.EXIT_ERROR);
+        Assert.assertEquals(run(new Shell<Object>(cli, null), "nosuch"), CommandRunner.EXIT_PARSE_ERROR);
+    }
+
+    @Test
+    public void shell_complete() {
+        Shell<Object> shell = new Shell<Object>(cli);
+        Assert.assertEquals(shell.complete("re"), Arrays.asList("record"));
+        Assert.assertEquals(shell.complete("record --"), Arrays.asList("--", "--loud"));
+        Assert.assertEquals(shell.complete("e"), Arrays.asList("exit-with"));
+        Assert.assertTrue(shell.complete("record \"a").isEmpty());
+    }
+}
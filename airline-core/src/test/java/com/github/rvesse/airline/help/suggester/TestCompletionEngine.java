@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.restrictions.Allowed;
+
+public class TestCompletionEngine {
+
+    private static final Cli<Object> CLI;
+
+    static {
+        //@formatter:off
+        CLI = Cli.<Object>builder("git")
+                 .withCommand(Add.class)
+                 .withCommand(Allowed.class)
+                 .withGroup("remote")
+                     .withCommand(RemoteShow.class)
+                     .withCommand(RemoteAdd.class)
+                     .parent()
+                 .build();
+        //@formatter:on
+    }
+
+    private static List<String> complete(String token, String... args) {
+        return CompletionEngine.forMetadata(CLI.getMetadata()).complete(Arrays.asList(args), token);
+    }
+
+    @Test
+    public void completion_global() {
+        Assert.assertEquals(complete(""), Arrays.asList("-v", "add", "allowed", "remote"));
+        Assert.assertEquals(complete("a"), Arrays.asList("add", "allowed"));
+        Assert.assertEquals(complete("r"), Arrays.asList("remote"));
+        Assert.assertEquals(complete("x"), Collections.emptyList());
+    }
+
+    @Test
+    public void completion_group() {
+        Assert.assertEquals(complete("", "remote"), Arrays.asList("add", "show"));
+        Assert.assertEquals(complete("s", "remote"), Arrays.asList("show"));
+    }
+
+    @Test
+    public void completion_command() {
+        Assert.assertEquals(complete("-", "remote", "add"), Arrays.asList("--", "-t", "-v"));
+        Assert.assertEquals(complete("--r", "allowed"), Arrays.asList("--raw", "--raw-ci"));
+    }
+
+    @Test
+    public void completion_option_values() {
+        Assert.assertEquals(complete("", "allowed", "--colour"), Arrays.asList("BLUE", "RED"));
+        Assert.assertEquals(complete("F", "allowed", "--raw-ci"), Arrays.asList("foo"));
+        Assert.assertEquals(complete("", "allowed", "--int"), Arrays.asList("1", "2", "3"));
+    }
+
+    @Test
+    public void completion_shared_engine() {
+        Assert.assertSame(CompletionEngine.forMetadata(CLI.getMetadata()),
+                CompletionEngine.forMetadata(CLI.getMetadata()));
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.GitWithCliAnnotation;
+import com.github.rvesse.airline.help.Help;
+
+public class TestLazyCommandMetadata {
+
+    private static List<CommandMetadata> allCommands(GlobalMetadata<?> metadata) {
+        List<CommandMetadata> commands = new ArrayList<>();
+        if (metadata.getDefaultCommand() != null)
+            commands.add(metadata.getDefaultCommand());
+        commands.addAll(metadata.getDefaultGroupCommands());
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            if (group.getDefaultCommand() != null)
+                commands.add(group.getDefaultCommand());
+            commands.addAll(group.getCommands());
+        }
+        return commands;
+    }
+
+    private static LazyCommandMetadata find(GlobalMetadata<?> metadata, Class<?> type) {
+        for (CommandMetadata command : allCommands(metadata)) {
+            if (command.getType().equals(type))
+                return (LazyCommandMetadata) command;
+        }
+        Assert.fail("No command " + type);
+        return null;
+    }
+
+    @Test
+    public void lazy_commands_not_loaded() {
+        GlobalMetadata<Runnable> metadata = MetadataLoader.loadGlobal(GitWithCliAnnotation.class, null, true);
+        List<CommandMetadata> commands = allCommands(metadata);
+        Assert.assertFalse(commands.isEmpty());
+        for (CommandMetadata command : commands) {
+            Assert.assertTrue(command instanceof LazyCommandMetadata);
+            Assert.assertFalse(((LazyCommandMetadata) command).isLoaded(), command.getName());
+        }
+
+        // Names, groups and global options are available without loading
+        Assert.assertEquals(metadata.getDefaultGroupCommandIndex().keySet(),
+                MetadataLoader.loadGlobal(GitWithCliAnnotation.class).getDefaultGroupCommandIndex().keySet());
+        Assert.assertEquals(metadata.getCommandGroupIndex().keySet(), Collections.singleton("remote"));
+        Assert.assertEquals(metadata.getOptions().size(), 1);
+        Assert.assertEquals(metadata.getOptions().get(0).getOptions(), Collections.singleton("-v"));
+        for (CommandMetadata command : commands) {
+            Assert.assertFalse(((LazyCommandMetadata) command).isLoaded(), command.getName());
+        }
+    }
+
+    @Test
+    public void lazy_commands_loaded_on_use() {
+        GlobalMetadata<Runnable> metadata = MetadataLoader.loadGlobal(GitWithCliAnnotation.class, null, true);
+        Cli<Runnable> cli = new Cli<>(metadata);
+
+        RemoteAdd cmd = (RemoteAdd) cli.parse("-v", "remote", "add", "-t", "main", "origin", "url");
+        Assert.assertTrue(cmd.verbose);
+        Assert.assertEquals(cmd.branch, "main");
+        Assert.assertEquals(cmd.remote, Arrays.asList("origin", "url"));
+
+        Assert.assertTrue(find(metadata, RemoteAdd.class).isLoaded());
+        Assert.assertFalse(find(metadata, Add.class).isLoaded());
+        Assert.assertFalse(find(metadata, Help.class).isLoaded());
+    }
+
+    @Test
+    public void lazy_commands_equivalent() {
+        GlobalMetadata<Runnable> lazy = MetadataLoader.loadGlobal(GitWithCliAnnotation.class, null, true);
+        GlobalMetadata<Runnable> eager = MetadataLoader.loadGlobal(GitWithCliAnnotation.class);
+
+        List<CommandMetadata> lazyCommands = allCommands(lazy);
+        List<CommandMetadata> eagerCommands = allCommands(eager);
+        Assert.assertEquals(lazyCommands, eagerCommands);
+        for (int i = 0; i < eagerCommands.size(); i++) {
+            CommandMetadata lazyCommand = lazyCommands.get(i);
+            CommandMetadata eagerCommand = eagerCommands.get(i);
+            Assert.assertEquals(lazyCommand.getDescription(), eagerCommand.getDescription());
+            Assert.assertEquals(lazyCommand.getGlobalOptions(), eagerCommand.getGlobalOptions());
+            Assert.assertEquals(lazyCommand.getGroupOptions(), eagerCommand.getGroupOptions());
+            Assert.assertEquals(lazyCommand.getCommandOptions(), eagerCommand.getCommandOptions());
+            Assert.assertEquals(lazyCommand.getAllOptions(), eagerCommand.getAllOptions());
+            Assert.assertEquals(String.valueOf(lazyCommand.getArguments()),
+                    String.valueOf(eagerCommand.getArguments()));
+            Assert.assertEquals(lazyCommand.getMetadataInjections(), eagerCommand.getMetadataInjections());
+            Assert.assertEquals(lazyCommand.toString(), eagerCommand.toString());
+        }
+    }
+
+    @Test
+    public void lazy_commands_help() throws IOException {
+        GlobalMetadata<Runnable> lazy = MetadataLoader.loadGlobal(GitWithCliAnnotation.class, null, true);
+        GlobalMetadata<Runnable> eager = MetadataLoader.loadGlobal(GitWithCliAnnotation.class);
+
+        for (List<String> commandNames : Arrays.asList(Collections.<String> emptyList(), Arrays.asList("add"),
+                Arrays.asList("remote", "add"))) {
+            ByteArrayOutputStream lazyOutput = new ByteArrayOutputStream();
+            Help.help(lazy, commandNames, lazyOutput);
+            ByteArrayOutputStream eagerOutput = new ByteArrayOutputStream();
+            Help.help(eager, commandNames, eagerOutput);
+            Assert.assertEquals(lazyOutput.toString(), eagerOutput.toString());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.command.CommandAdd;
+import com.github.rvesse.airline.command.CommandCommit;
+import com.github.rvesse.airline.command.CommandMain;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+import com.github.rvesse.airline.restrictions.None;
+
+public class TestMetadataCache {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public static @interface Custom {
+    }
+
+    @Command(name = "custom")
+    public static class CustomCommand {
+        @Option(name = "--value")
+        @Custom
+        public String value;
+    }
+
+    @Test
+    public void cache_command_metadata() {
+        CommandMetadata metadata = MetadataLoader.loadCommand(CommandAdd.class);
+        Assert.assertSame(MetadataLoader.loadCommand(CommandAdd.class), metadata);
+        Assert.assertNotSame(MetadataLoader.loadCommandByReflection(CommandAdd.class), metadata);
+
+        SingleCommand<CommandAdd> a = SingleCommand.singleCommand(CommandAdd.class);
+        SingleCommand<CommandAdd> b = SingleCommand.singleCommand(CommandAdd.class);
+        Assert.assertSame(a.getCommandMetadata(), b.getCommandMetadata());
+    }
+
+    @Test
+    public void cache_shared_injected_fields() {
+        // Both commands inject CommandMain so share its global option
+        // declaration, only the accessor path differs
+        OptionMetadata add = MetadataLoader.loadCommand(CommandAdd.class).getGlobalOptions().get(0);
+        OptionMetadata commit = MetadataLoader.loadCommand(CommandCommit.class).getGlobalOptions().get(0);
+        Assert.assertEquals(add, commit);
+        Assert.assertSame(add.getTypeConverterProvider(), commit.getTypeConverterProvider());
+
+        Accessor addAccessor = add.getAccessors().iterator().next();
+        Assert.assertEquals(addAccessor.getPath().size(), 2);
+        Assert.assertEquals(addAccessor.getPath().get(1).getDeclaringClass(), CommandMain.class);
+        Accessor commitAccessor = commit.getAccessors().iterator().next();
+        Assert.assertEquals(commitAccessor.getPath().get(0).getDeclaringClass(), CommandCommit.class);
+    }
+
+    @Test
+    public void cache_concurrent() throws Exception {
+        MetadataLoader.clearCache();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CommandMetadata>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(new Callable<CommandMetadata>() {
+                    @Override
+                    public CommandMetadata call() throws Exception {
+                        return MetadataLoader.loadCommand(CommandCommit.class);
+                    }
+                }));
+            }
+            CommandMetadata expected = MetadataLoader.loadCommand(CommandCommit.class);
+            for (Future<CommandMetadata> future : futures) {
+                Assert.assertEquals(future.get(), expected);
+                Assert.assertEquals(future.get().getAllOptions(), expected.getAllOptions());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cache_invalidated_by_registry() {
+        try {
+            CommandMetadata before = MetadataLoader.loadCommand(CustomCommand.class);
+            Assert.assertEquals(before.getCommandOptions().get(0).getRestrictions().size(), 0);
+
+            RestrictionRegistry.addOptionRestriction(Custom.class, new OptionRestrictionFactory() {
+                @Override
+                public OptionRestriction createOptionRestriction(Annotation annotation) {
+                    return new None();
+                }
+
+                @Override
+                public List<Class<? extends Annotation>> supportedOptionAnnotations() {
+                    List<Class<? extends Annotation>> supported = new ArrayList<>();
+                    supported.add(Custom.class);
+                    return supported;
+                }
+            });
+
+            CommandMetadata after = MetadataLoader.loadCommand(CustomCommand.class);
+            Assert.assertNotSame(after, before);
+            Assert.assertEquals(after.getCommandOptions().get(0).getRestrictions().size(), 1);
+        } finally {
+            RestrictionRegistry.reset();
+        }
+        Assert.assertEquals(
+                MetadataLoader.loadCommand(CustomCommand.class).getCommandOptions().get(0).getRestrictions().size(),
+                0);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model.injection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+public class TestInjectionAnnotationRegistry {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public static @interface Wire {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public static @interface Provided {
+    }
+
+    /**
+     * Provider registered via {@code META-INF/services} in the test resources
+     */
+    public static class Provider implements InjectionAnnotationProvider {
+        @Override
+        public Collection<String> getInjectionAnnotations() {
+            return Collections.singleton(Provided.class.getName());
+        }
+    }
+
+    public static class Module {
+        @Option(name = "--module")
+        public String value;
+    }
+
+    @Command(name = "wired")
+    public static class Wired {
+        @Wire
+        public Module wired = new Module();
+    }
+
+    @Command(name = "provided")
+    public static class ProvidedCommand {
+        @Provided
+        public Module provided = new Module();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        InjectionAnnotationRegistry.reset();
+    }
+
+    @Test
+    public void injection_annotations_built_in() {
+        Assert.assertTrue(InjectionAnnotationRegistry.isInjectionAnnotation("javax.inject.Inject", null));
+        Assert.assertTrue(InjectionAnnotationRegistry.isInjectionAnnotation("com.google.inject.Inject", null));
+        Assert.assertTrue(InjectionAnnotationRegistry.isInjectionAnnotation(javax.inject.Inject.class));
+        Assert.assertFalse(InjectionAnnotationRegistry.isInjectionAnnotation(Wire.class.getName(), null));
+    }
+
+    @Test
+    public void injection_annotations_provider() {
+        Assert.assertTrue(InjectionAnnotationRegistry.isInjectionAnnotation(Provided.class));
+
+        ProvidedCommand cmd = SingleCommand.singleCommand(ProvidedCommand.class).parse("--module", "foo");
+        Assert.assertEquals(cmd.provided.value, "foo");
+    }
+
+    @Test
+    public void injection_annotations_registered() {
+        Assert.assertFalse(InjectionAnnotationRegistry.isInjectionAnnotation(Wire.class));
+        CommandMetadata metadata = MetadataLoader.loadCommand(Wired.class);
+        Assert.assertTrue(metadata.getCommandOptions().isEmpty());
+
+        // Registering clears any cached meta-data
+        InjectionAnnotationRegistry.addInjectionAnnotation(Wire.class);
+        Assert.assertTrue(InjectionAnnotationRegistry.isInjectionAnnotation(Wire.class));
+        metadata = MetadataLoader.loadCommand(Wired.class);
+        Assert.assertEquals(metadata.getCommandOptions().size(), 1);
+
+        Wired cmd = SingleCommand.singleCommand(Wired.class).parse("--module", "bar");
+        Assert.assertEquals(cmd.wired.value, "bar");
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
+import com.github.rvesse.airline.parser.options.LongGetOptParser;
+import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.parser.options.StandardOptionParser;
+
+public class TestParsePlan {
+
+    private Cli<Runnable> createGit() {
+        //@formatter:off
+        return Cli.<Runnable>builder("git")
+                  .withDefaultCommand(Git.Add.class)
+                  .withCommand(Git.Add.class)
+                  .withGroup("remote")
+                      .withDefaultCommand(Git.RemoteShow.class)
+                      .withCommand(Git.RemoteShow.class)
+                      .withCommand(Git.RemoteAdd.class)
+                      .parent()
+                  .build();
+        //@formatter:on
+    }
+
+    @Test
+    public void parse_plan_compile_cli() {
+        Cli<Runnable> cli = createGit();
+        Assert.assertNull(cli.getParsePlan());
+
+        Cli<Runnable> compiled = cli.compile();
+        Assert.assertNotNull(compiled.getParsePlan());
+        Assert.assertSame(compiled.compile(), compiled);
+        Assert.assertSame(compiled.getMetadata(), cli.getMetadata());
+
+        Git.RemoteAdd add = (Git.RemoteAdd) compiled.parse("-v", "remote", "add", "-t", "master", "origin", "url");
+        Assert.assertTrue(add.verbose);
+        Assert.assertEquals(add.branch, "master");
+        Assert.assertEquals(add.remote.size(), 2);
+
+        Git.RemoteShow show = (Git.RemoteShow) compiled.parse("remote", "-n", "origin");
+        Assert.assertTrue(show.noQuery);
+        Assert.assertEquals(show.remote, "origin");
+    }
+
+    @Test
+    public void parse_plan_option_parser_applicability() {
+        Cli<Runnable> cli = createGit();
+        ParsePlan<Runnable> plan = cli.compile().getParsePlan();
+
+        // RemoteAdd has an arity 1 option with a short name so all the default
+        // parsers apply
+        CommandMetadata remoteAdd = cli.getMetadata().getCommandGroups().get(0).getCommandIndex().get("add");
+        List<OptionParser<Runnable>> parsers = plan.getOptionParsers(remoteAdd.getCommandOptions());
+        Assert.assertEquals(parsers.size(), 3);
+
+        // RemoteShow only has a flag so the name value style parser can't
+        // apply
+        CommandMetadata remoteShow = cli.getMetadata().getCommandGroups().get(0).getCommandIndex().get("show");
+        parsers = plan.getOptionParsers(remoteShow.getCommandOptions());
+        Assert.assertEquals(parsers.size(), 2);
+        Assert.assertTrue(parsers.get(0) instanceof StandardOptionParser);
+        Assert.assertTrue(parsers.get(1) instanceof ClassicGetOptParser);
+        for (OptionParser<Runnable> parser : parsers) {
+            Assert.assertFalse(parser instanceof LongGetOptParser);
+        }
+
+        // Group has no options so no parser applies
+        parsers = plan.getOptionParsers(cli.getMetadata().getCommandGroups().get(0).getOptions());
+        Assert.assertTrue(parsers.isEmpty());
+    }
+
+    @Test
+    public void parse_plan_compile_single_command() {
+        SingleCommand<Args1> cmd = SingleCommand.singleCommand(Args1.class).compile();
+        Assert.assertNotNull(cmd.getParsePlan());
+
+        Args1 args = cmd.parse("-debug", "-log", "2", "-groups", "unit", "a", "b");
+        Assert.assertTrue(args.debug);
+        Assert.assertEquals(args.verbose.intValue(), 2);
+        Assert.assertEquals(args.groups, "unit");
+        Assert.assertEquals(args.parameters.size(), 2);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.Args1;
+
+public class TestParseState {
+
+    @Test
+    public void parse_state_transitions_are_immutable() {
+        ParseState<Args1> state = ParseState.<Args1> newInstance().pushContext(Context.GLOBAL);
+        ParseState<Args1> a = state.withUnparsedInput("a");
+        ParseState<Args1> ab = a.withUnparsedInput("b");
+
+        // Extending an older state must not affect the newer state
+        ParseState<Args1> ac = a.withUnparsedInput("c");
+
+        Assert.assertTrue(state.getUnparsedInput().isEmpty());
+        Assert.assertEquals(a.getUnparsedInput().size(), 1);
+        Assert.assertEquals(ab.getUnparsedInput().size(), 2);
+        Assert.assertEquals(ab.getUnparsedInput().get(1), "b");
+        Assert.assertEquals(ac.getUnparsedInput().size(), 2);
+        Assert.assertEquals(ac.getUnparsedInput().get(1), "c");
+    }
+
+    @Test
+    public void parse_state_context_stack() {
+        ParseState<Args1> state = ParseState.<Args1> newInstance().pushContext(Context.GLOBAL)
+                .pushContext(Context.COMMAND);
+        ParseState<Args1> option = state.pushContext(Context.OPTION);
+        ParseState<Args1> popped = option.popContext();
+        ParseState<Args1> args = popped.pushContext(Context.ARGS);
+
+        Assert.assertEquals(state.getLocation(), Context.COMMAND);
+        Assert.assertEquals(option.getLocation(), Context.OPTION);
+        Assert.assertEquals(popped.getLocation(), Context.COMMAND);
+        Assert.assertEquals(args.getLocation(), Context.ARGS);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void parse_state_lists_unmodifiable() {
+        ParseState<Args1> state = ParseState.<Args1> newInstance().withUnparsedInput("a");
+        state.getUnparsedInput().add("b");
+    }
+
+    @Test(timeOut = 30000)
+    public void parse_many_arguments() {
+        List<String> args = new ArrayList<String>();
+        for (int i = 0; i < 50000; i++) {
+            args.add("file" + i);
+        }
+
+        Args1 cmd = SingleCommand.singleCommand(Args1.class).parse(args);
+        Assert.assertEquals(cmd.parameters.size(), args.size());
+        Assert.assertEquals(cmd.parameters, args);
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.RequireOnlyOne;
+import com.github.rvesse.airline.annotations.restrictions.RequiredOnlyIf;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
+import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+
+public class TestParsedOptionIndex {
+
+    @Command(name = "indexed")
+    public static class Indexed {
+        @Option(name = { "-a", "--alpha" })
+        @MutuallyExclusiveWith(tag = "ab")
+        private boolean alpha;
+
+        @Option(name = "-b")
+        @MutuallyExclusiveWith(tag = "ab")
+        private boolean beta;
+
+        @Option(name = "-c", arity = 1)
+        @RequireOnlyOne(tag = "cd")
+        @MaxOccurrences(occurrences = 2)
+        private List<String> charlie;
+
+        @Option(name = "-d", arity = 1)
+        @RequireOnlyOne(tag = "cd")
+        @RequiredOnlyIf(names = "-b")
+        private String delta;
+    }
+
+    private static OptionMetadata option(List<OptionMetadata> options, String name) {
+        for (OptionMetadata option : options) {
+            if (option.getOptions().contains(name))
+                return option;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @Test
+    public void index_lookups() {
+        List<OptionMetadata> options = MetadataLoader.loadCommand(Indexed.class).getCommandOptions();
+        OptionMetadata alpha = option(options, "-a");
+        OptionMetadata charlie = option(options, "-c");
+        OptionMetadata delta = option(options, "-d");
+
+        List<Pair<OptionMetadata, Object>> parsed = new ArrayList<>();
+        parsed.add(Pair.<OptionMetadata, Object> of(charlie, "x"));
+        parsed.add(Pair.<OptionMetadata, Object> of(alpha, true));
+        parsed.add(Pair.<OptionMetadata, Object> of(charlie, "y"));
+        ParsedOptionIndex index = new ParsedOptionIndex(parsed);
+
+        Assert.assertEquals(index.count(charlie), 2);
+        Assert.assertEquals(index.getParsedOptions(charlie).get(1).getRight(), "y");
+        Assert.assertTrue(index.contains(alpha));
+        Assert.assertFalse(index.contains(delta));
+        Assert.assertTrue(index.getParsedOptions(delta).isEmpty());
+        Assert.assertEquals(index.getOptionsNamed("--alpha"), Collections.singletonList(alpha));
+        Assert.assertTrue(index.getOptionsNamed("-d").isEmpty());
+
+        Assert.assertEquals(index.countTagged(MutuallyExclusiveRestriction.class, "ab"), 1);
+        Assert.assertEquals(index.countTagged(MutuallyExclusiveRestriction.class, "cd"), 0);
+        Assert.assertEquals(index.countTagged(RequireFromRestriction.class, "cd"), 2);
+        Assert.assertEquals(index.countTagged(RequireFromRestriction.class, null), 2);
+    }
+
+    @Test
+    public void index_by_equality() {
+        List<OptionMetadata> options = MetadataLoader.loadCommand(Indexed.class).getCommandOptions();
+        OptionMetadata alpha = option(options, "-a");
+        // An equal but not identical copy of the option
+        OptionMetadata copy = new OptionMetadata(Collections.singletonList(alpha));
+        Assert.assertNotSame(copy, alpha);
+
+        List<Pair<OptionMetadata, Object>> parsed = new ArrayList<>();
+        parsed.add(Pair.<OptionMetadata, Object> of(copy, true));
+        parsed.add(Pair.<OptionMetadata, Object> of(alpha, true));
+        ParsedOptionIndex index = new ParsedOptionIndex(parsed);
+
+        Assert.assertEquals(index.count(alpha), 2);
+        Assert.assertEquals(index.count(copy), 2);
+        Assert.assertEquals(index.count(new OptionMetadata(Collections.singletonList(alpha))), 2);
+        Assert.assertEquals(index.countTagged(MutuallyExclusiveRestriction.class, "ab"), 2);
+    }
+
+    @Test
+    public void index_cached_per_state() {
+        ParseResult<Indexed> result = SingleCommand.singleCommand(Indexed.class).parseWithResult("-a", "-c", "x");
+        ParseState<Indexed> state = result.getState();
+        Assert.assertSame(state.getParsedOptionIndex(), state.getParsedOptionIndex());
+        Assert.assertEquals(state.getParsedOptionIndex().count(option(state.getCommand().getAllOptions(), "-c")), 1);
+    }
+
+    @Test
+    public void index_restrictions_satisfied() {
+        Indexed cmd = SingleCommand.singleCommand(Indexed.class).parse("-b", "-d", "x");
+        Assert.assertTrue(cmd.beta);
+        Assert.assertEquals(cmd.delta, "x");
+    }
+
+    @Test(expectedExceptions = ParseOptionGroupException.class)
+    public void index_mutually_exclusive() {
+        SingleCommand.singleCommand(Indexed.class).parse("-a", "-b", "-c", "x");
+    }
+
+    @Test(expectedExceptions = ParseOptionGroupException.class)
+    public void index_require_only_one() {
+        SingleCommand.singleCommand(Indexed.class).parse("-c", "x", "-d", "y");
+    }
+
+    @Test(expectedExceptions = ParseOptionGroupException.class)
+    public void index_require_only_one_missing() {
+        SingleCommand.singleCommand(Indexed.class).parse("-a");
+    }
+
+    @Test(expectedExceptions = ParseOptionMissingException.class)
+    public void index_required_only_if() {
+        SingleCommand.singleCommand(Indexed.class).parse("-b", "-c", "x");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void index_occurrences() {
+        SingleCommand.singleCommand(Indexed.class).parse("-c", "x", "-c", "y", "-c", "z");
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.types.numerics.bases.Hexadecimal;
+
+public class TestParserUtil {
+
+    @Command(name = "OptionParsing1")
+    public static class OptionParsing {
+
+        @Option(name = { "-a", "--alpha" })
+        private boolean alpha;
+
+        @Option(name = { "-b", "--beta" }, arity = 1)
+        private String beta;
+
+        @Option(name = { "-c", "--charlie" }, arity = 2)
+        private List<String> charlie = new ArrayList<String>();
+    }
+
+    @Command(name = "Primitives")
+    public static class Primitives {
+        @Option(name = "-i", arity = 1)
+        private int i;
+
+        @Option(name = "-l", arity = 1)
+        private long l;
+
+        @Option(name = "-d", arity = 1)
+        private double d;
+
+        @Option(name = "-b", arity = 1)
+        private boolean b;
+
+        @Option(name = "--ints", arity = 1)
+        private int[] ints;
+
+        @Option(name = "--longs", arity = 2)
+        private long[] longs = { -1 };
+
+        @Option(name = "--hex", arity = 1, typeConverterProvider = Hexadecimal.class)
+        private int hex;
+
+        @Option(name = "--ranged", arity = 1)
+        @IntegerRange(min = 0, max = 10)
+        private int[] ranged;
+    }
+
+    private List<OptionMetadata> loadOptions() {
+        CommandMetadata command = MetadataLoader.loadCommand(OptionParsing.class);
+        return command.getCommandOptions();
+    }
+
+    private static Map<OptionMetadata, List<Object>> groupOptionValues(Iterable<OptionMetadata> options,
+            List<Pair<OptionMetadata, Object>> parsedOptions) {
+        Map<OptionMetadata, List<Object>> grouped = new IdentityHashMap<>();
+        for (Map.Entry<OptionMetadata, List<Pair<OptionMetadata, Object>>> e : ParserUtil
+                .groupParsedOptions(options, parsedOptions).entrySet()) {
+            List<Object> values = new ArrayList<>();
+            for (Pair<OptionMetadata, Object> value : e.getValue()) {
+                values.add(value.getRight());
+            }
+            grouped.put(e.getKey(), values);
+        }
+        return grouped;
+    }
+
+    @Test
+    public void group_option_values_by_identity() {
+        List<OptionMetadata> options = loadOptions();
+        OptionMetadata first = options.get(0);
+        OptionMetadata second = options.get(1);
+
+        List<Pair<OptionMetadata, Object>> parsed = new ArrayList<>();
+        parsed.add(Pair.<OptionMetadata, Object> of(first, "a"));
+        parsed.add(Pair.<OptionMetadata, Object> of(second, "b"));
+        parsed.add(Pair.<OptionMetadata, Object> of(first, "c"));
+
+        Map<OptionMetadata, List<Object>> grouped = groupOptionValues(options, parsed);
+        Assert.assertEquals(grouped.get(first), (List<Object>) Arrays.<Object> asList("a", "c"));
+        Assert.assertEquals(grouped.get(second), (List<Object>) Arrays.<Object> asList("b"));
+        Assert.assertNull(grouped.get(options.get(2)));
+    }
+
+    @Test
+    public void group_option_values_empty() {
+        List<Pair<OptionMetadata, Object>> parsed = Collections.emptyList();
+        Assert.assertTrue(groupOptionValues(loadOptions(), parsed).isEmpty());
+    }
+
+    @Test
+    public void group_option_values_by_equality() {
+        List<OptionMetadata> options = loadOptions();
+        OptionMetadata first = options.get(0);
+        // An equal but not identical copy of the option
+        OptionMetadata copy = new OptionMetadata(Collections.singletonList(first));
+        Assert.assertNotSame(copy, first);
+        Assert.assertEquals(copy, first);
+
+        List<Pair<OptionMetadata, Object>> parsed = new ArrayList<>();
+        parsed.add(Pair.<OptionMetadata, Object> of(copy, "a"));
+        parsed.add(Pair.<OptionMetadata, Object> of(first, "b"));
+
+        Map<OptionMetadata, List<Object>> grouped = groupOptionValues(options, parsed);
+        Assert.assertEquals(grouped.get(first), (List<Object>) Arrays.<Object> asList("a", "b"));
+    }
+
+    @Test
+    public void inject_many_repeated_values() {
+        int count = 10000;
+        List<String> args = new ArrayList<>();
+        args.add("OptionParsing1");
+        for (int i = 0; i < count; i++) {
+            args.add("-c");
+            args.add("k" + i);
+            args.add("v" + i);
+        }
+        Cli<OptionParsing> cli = Cli.<OptionParsing> builder("test").withCommand(OptionParsing.class).build();
+        OptionParsing cmd = cli.parse(args.toArray(new String[args.size()]));
+
+        Assert.assertEquals(cmd.charlie.size(), count * 2);
+        Assert.assertEquals(cmd.charlie.get(0), "k0");
+        Assert.assertEquals(cmd.charlie.get(count * 2 - 1), "v" + (count - 1));
+    }
+
+    @Test
+    public void inject_primitives() {
+        Primitives cmd = SingleCommand.singleCommand(Primitives.class).parse("-i", "1", "-i", "-2", "-l",
+                "12345678901", "-d", "1.5", "-b", "true", "--ints", "3", "--longs", "4", "5", "--ints", "6");
+        Assert.assertEquals(cmd.i, -2);
+        Assert.assertEquals(cmd.l, 12345678901l);
+        Assert.assertEquals(cmd.d, 1.5d);
+        Assert.assertTrue(cmd.b);
+        Assert.assertEquals(cmd.ints, new int[] { 3, 6 });
+        Assert.assertEquals(cmd.longs, new long[] { -1, 4, 5 });
+        Assert.assertNull(SingleCommand.singleCommand(Primitives.class).parse().ints);
+    }
+
+    @Test
+    public void inject_primitives_parsed_values() {
+        ParseResult<Primitives> result = SingleCommand.singleCommand(Primitives.class).parseWithResult("-i", "1",
+                "--ints", "2");
+        List<Pair<OptionMetadata, Object>> parsed = result.getState().getParsedOptions();
+        Assert.assertEquals(parsed.size(), 2);
+        Assert.assertTrue(parsed.get(0) instanceof PrimitiveOptionValue);
+        Assert.assertTrue(parsed.get(1) instanceof PrimitiveOptionValue);
+        // Values are boxed when inspected
+        Assert.assertEquals(parsed.get(0).getRight(), (Object) 1);
+        Assert.assertEquals(parsed.get(1).getRight(), (Object) 2);
+    }
+
+    @Test
+    public void inject_primitives_converters_and_restrictions() {
+        Primitives cmd = SingleCommand.singleCommand(Primitives.class).parse("--hex", "ff", "--ranged", "3",
+                "--ranged", "10");
+        Assert.assertEquals(cmd.hex, 255);
+        // Custom converters still produce boxed values
+        Assert.assertFalse(SingleCommand.singleCommand(Primitives.class).parseWithResult("--hex", "ff").getState()
+                .getParsedOptions().get(0) instanceof PrimitiveOptionValue);
+        Assert.assertEquals(cmd.ranged, new int[] { 3, 10 });
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void inject_primitives_restricted() {
+        SingleCommand.singleCommand(Primitives.class).parse("--ranged", "11");
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void inject_primitives_bad_value() {
+        SingleCommand.singleCommand(Primitives.class).parse("-l", "1.5");
+    }
+
+    @Test
+    public void inject_many_primitive_values() {
+        int count = 10000;
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            args.add("--longs");
+            args.add(Long.toString(i));
+            args.add(Long.toString(-i));
+        }
+        Primitives cmd = SingleCommand.singleCommand(Primitives.class).parse(args.toArray(new String[args.size()]));
+        Assert.assertEquals(cmd.longs.length, count * 2 + 1);
+        Assert.assertEquals(cmd.longs[count * 2 - 1], count - 1);
+        Assert.assertEquals(cmd.longs[count * 2], -(count - 1));
+    }
+
+    @Test
+    public void inject_single_command() {
+        OptionParsing cmd = SingleCommand.singleCommand(OptionParsing.class).parse("-a", "-b", "beta", "-c", "1",
+                "2", "-c", "3", "4");
+        Assert.assertTrue(cmd.alpha);
+        Assert.assertEquals(cmd.beta, "beta");
+        Assert.assertEquals(cmd.charlie, Arrays.asList("1", "2", "3", "4"));
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
+import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.restrictions.Allowed;
+
+public class TestSimilarNames {
+
+    private static CliBuilder<Object> builder() {
+        //@formatter:off
+        CliBuilder<Object> builder = Cli.<Object>builder("git")
+                                        .withCommand(Add.class)
+                                        .withCommand(Allowed.class)
+                                        .withCommand(RemoteShow.class);
+        builder.withGroup("remote")
+               .withCommand(RemoteShow.class)
+               .withCommand(RemoteAdd.class);
+        builder.withParser()
+               .withAlias("addall")
+               .withArgument("add");
+        //@formatter:on
+        return builder;
+    }
+
+    @Test
+    public void similar_command() {
+        Cli<Object> cli = builder().build();
+        try {
+            cli.parse("ad", "foo");
+            Assert.fail("Expected an error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("add"));
+            Assert.assertEquals(e.getMessage(), "Command 'ad' not recognized, did you mean 'add'?");
+        }
+    }
+
+    @Test
+    public void similar_command_multiple() {
+        Cli<Object> cli = builder().build();
+        try {
+            cli.parse("addal");
+            Assert.fail("Expected an error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("addall", "add"));
+            Assert.assertEquals(e.getMessage(),
+                    "Command 'addal' not recognized, did you mean one of 'addall', 'add'?");
+        }
+    }
+
+    @Test
+    public void similar_alias() {
+        Cli<Object> cli = builder().build();
+        try {
+            cli.parse("adall");
+            Assert.fail("Expected an error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("addall"));
+        }
+    }
+
+    @Test
+    public void similar_group_command() {
+        Cli<Object> cli = builder().build();
+        try {
+            cli.parse("remote", "ad", "foo");
+            Assert.fail("Expected an error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("add"));
+        }
+    }
+
+    @Test
+    public void similar_option() {
+        Cli<Object> cli = builder().build();
+        try {
+            cli.parse("allowed", "--rw", "foo");
+            Assert.fail("Expected an error");
+        } catch (ParseArgumentsUnexpectedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("--raw"));
+            Assert.assertEquals(e.getMessage(), "Found unexpected parameters: [--rw, foo], did you mean '--raw'?");
+        }
+    }
+
+    @Test
+    public void similar_none() {
+        Cli<Object> cli = builder().build();
+        try {
+            cli.parse("xyzzy");
+            Assert.fail("Expected an error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Collections.emptyList());
+            Assert.assertEquals(e.getMessage(), "Command 'xyzzy' not recognized");
+        }
+    }
+
+    @Test
+    public void similar_parse_result() {
+        CliBuilder<Object> builder = builder();
+        builder.withParser().withErrorHandler(new CollectAll());
+        ParseResult<Object> result = builder.build().parseWithResult("remote", "ad");
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getSuggestions(), Arrays.asList("add"));
+    }
+}
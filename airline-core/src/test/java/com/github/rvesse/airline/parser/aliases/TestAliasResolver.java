@@ -15,12 +15,21 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.collections4.iterators.PeekingIterator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.Cli;
 import com.github.rvesse.airline.args.Args1;
 import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
 
 public class TestAliasResolver {
@@ -147,4 +156,92 @@ public class TestAliasResolver {
         
         builder.build().parse("a");
     }
+
+    @Test
+    public void alias_resolution_many_01() {
+        //@formatter:off
+        CliBuilder<Args1> builder = prepareBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.withParser()
+                   .withAlias("a" + i)
+                   .withArguments("-verbose", Integer.toString(i));
+        }
+        //@formatter:on
+        Cli<Args1> cli = builder.build();
+        Assert.assertEquals(cli.getMetadata().getParserConfiguration().getAliasIndex().size(), 500);
+
+        Args1 cmd = cli.parse("a499");
+        Assert.assertEquals(cmd.verbose.intValue(), 499);
+        cmd = cli.parse("a0", "-debug");
+        Assert.assertEquals(cmd.verbose.intValue(), 0);
+        Assert.assertTrue(cmd.debug);
+    }
+
+    @Test
+    public void alias_positional_parameters_01() {
+        AliasMetadata alias = new AliasMetadata("a", Arrays.asList("$2", "$0", "$", "$x", "-foo", "$1"));
+        Assert.assertEquals(alias.getParameterPosition(0), 1);
+        Assert.assertEquals(alias.getParameterPosition(1), -1);
+        Assert.assertEquals(alias.getParameterPosition(2), -1);
+        Assert.assertEquals(alias.getParameterPosition(3), -1);
+        Assert.assertEquals(alias.getParameterPosition(4), -1);
+        Assert.assertEquals(alias.getParameterPosition(5), 0);
+        Assert.assertEquals(alias.getParameterLookahead(), 2);
+
+        alias = new AliasMetadata("b", Arrays.asList("-foo"));
+        Assert.assertEquals(alias.getParameterLookahead(), 0);
+    }
+
+    private static class CountingIterator implements Iterator<String> {
+        private final Iterator<String> iter;
+        private int consumed = 0;
+
+        CountingIterator(List<String> tokens) {
+            this.iter = tokens.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iter.hasNext();
+        }
+
+        @Override
+        public String next() {
+            consumed++;
+            return iter.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void alias_resolution_lazy_01() {
+        //@formatter:off
+        ParserBuilder<Args1> builder = new ParserBuilder<Args1>();
+        builder.withAlias("a")
+               .withArguments("-verbose", "$2", "-long", "$1");
+        //@formatter:on
+        ParseState<Args1> state = ParseState.<Args1> newInstance().withConfiguration(builder.build());
+
+        List<String> input = new ArrayList<String>(Arrays.asList("a", "3", "6"));
+        for (int i = 0; i < 1000; i++) {
+            input.add("p" + i);
+        }
+        CountingIterator counter = new CountingIterator(input);
+        PeekingIterator<String> tokens = new AliasResolver<Args1>()
+                .resolveAliases(new PeekingIterator<String>(counter), state);
+
+        // Only the alias and its positional parameters have been consumed
+        Assert.assertEquals(counter.consumed, 3);
+
+        List<String> resolved = new ArrayList<String>();
+        while (tokens.hasNext()) {
+            resolved.add(tokens.next());
+        }
+        Assert.assertEquals(resolved.subList(0, 5), Arrays.asList("-verbose", "6", "-long", "3", "p0"));
+        Assert.assertEquals(resolved.size(), 1004);
+    }
 }
@@ -715,6 +715,26 @@ public class TestAliases {
         }
     }
 
+    @Test
+    public void user_aliases_positional_05() throws IOException {
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                    .withCommand(Args1.class);
+        builder.withParser()
+               .withAlias("foo")
+               .withArguments("Args1", "-long", "$1", "$2000000000");
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        // A huge positional reference only reads the tokens available
+        Args1 cmd = cli.parse("foo", "345", "bar");
+        Assert.assertEquals(cmd.l, 345l);
+        List<String> args = cmd.parameters;
+        Assert.assertEquals(args.size(), 2);
+        Assert.assertEquals(args.get(0), "$2000000000");
+        Assert.assertEquals(args.get(1), "bar");
+    }
+
     @Test
     public void user_aliases_override_01() throws IOException {
         prepareConfig(f, "Args1=Args1 bar");
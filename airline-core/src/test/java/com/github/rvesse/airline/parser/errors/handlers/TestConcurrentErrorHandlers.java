@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.restrictions.Strings;
+
+/**
+ * Stress tests which verify that a single metadata instance can be shared by
+ * many threads when the configured error handler is stateful
+ */
+public class TestConcurrentErrorHandlers {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 500;
+
+    //@formatter:off
+    private static final String[][] INPUTS = new String[][] {
+        { "strings", "--not-empty", "foo", "--not-blank", "bar" },
+        { "strings", "--not-empty", "", "--not-blank", "bar" },
+        { "strings", "--not-empty", "foo", "--not-blank", "  " },
+        { "strings", "--not-empty", "", "--not-blank", "  " }
+    };
+    private static final int[] EXPECTED_ERRORS = new int[] { 0, 1, 1, 2 };
+    //@formatter:on
+
+    private static interface Parser {
+        ParseResult<Strings> parse(String... args);
+    }
+
+    private void stress(final Parser parser) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int parsed = 0;
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            int input = (i + offset) % INPUTS.length;
+                            ParseResult<Strings> result = parser.parse(INPUTS[input]);
+                            Assert.assertEquals(result.getErrors().size(), EXPECTED_ERRORS[input],
+                                    "Errors from another parse leaked into this result");
+                            Assert.assertEquals(result.wasSuccessful(), EXPECTED_ERRORS[input] == 0);
+                            Assert.assertNotNull(result.getCommand());
+                            parsed++;
+                        }
+                        return parsed;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(future.get(60, TimeUnit.SECONDS).intValue(), ITERATIONS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrent_cli_collect_all() throws Exception {
+        CliBuilder<Strings> builder = Cli.<Strings> builder("test").withCommand(Strings.class);
+        builder.withParser().withErrorHandlerClass(CollectAll.class);
+        final Cli<Strings> cli = builder.build();
+        stress(new Parser() {
+            @Override
+            public ParseResult<Strings> parse(String... args) {
+                return cli.parseWithResult(args);
+            }
+        });
+    }
+
+    @Test
+    public void concurrent_cli_collect_all_compiled() throws Exception {
+        CliBuilder<Strings> builder = Cli.<Strings> builder("test").withCommand(Strings.class);
+        builder.withParser().withErrorHandlerClass(CollectAll.class);
+        final Cli<Strings> cli = builder.build().compile();
+        stress(new Parser() {
+            @Override
+            public ParseResult<Strings> parse(String... args) {
+                return cli.parseWithResult(args);
+            }
+        });
+    }
+
+    @Test
+    public void concurrent_single_command_collect_all() throws Exception {
+        ParserMetadata<Strings> config = new ParserBuilder<Strings>().withErrorHandlerClass(CollectAll.class).build();
+        final SingleCommand<Strings> cmd = SingleCommand.singleCommand(Strings.class, config);
+        stress(new Parser() {
+            @Override
+            public ParseResult<Strings> parse(String... args) {
+                // Strip the command name since single commands don't expect it
+                String[] actual = new String[args.length - 1];
+                System.arraycopy(args, 1, actual, 0, actual.length);
+                return cmd.parseWithResult(actual);
+            }
+        });
+    }
+
+    @Test
+    public void concurrent_single_command_factory() throws Exception {
+        ParserMetadata<Strings> config = new ParserBuilder<Strings>()
+                .withErrorHandlerFactory(new ParserErrorHandlerFactory() {
+                    @Override
+                    public ParserErrorHandler createHandler() {
+                        return new CollectAll();
+                    }
+                }).build();
+        final SingleCommand<Strings> cmd = SingleCommand.singleCommand(Strings.class, config).compile();
+        stress(new Parser() {
+            @Override
+            public ParseResult<Strings> parse(String... args) {
+                String[] actual = new String[args.length - 1];
+                System.arraycopy(args, 1, actual, 0, actual.length);
+                return cmd.parseWithResult(actual);
+            }
+        });
+    }
+
+    @Test
+    public void error_handler_factory_creates_fresh_handlers() {
+        ParserMetadata<Strings> config = new ParserBuilder<Strings>().withErrorHandlerClass(CollectAll.class).build();
+        ParserErrorHandler first = config.createErrorHandler();
+        ParserErrorHandler second = config.createErrorHandler();
+        Assert.assertTrue(first instanceof CollectAll);
+        Assert.assertTrue(second instanceof CollectAll);
+        Assert.assertNotSame(first, second);
+    }
+
+    @Test
+    public void error_handler_instance_is_shared() {
+        CollectAll handler = new CollectAll();
+        ParserMetadata<Strings> config = new ParserBuilder<Strings>().withErrorHandler(handler).build();
+        Assert.assertSame(config.createErrorHandler(), handler);
+        Assert.assertNull(config.getErrorHandlerFactory());
+    }
+}
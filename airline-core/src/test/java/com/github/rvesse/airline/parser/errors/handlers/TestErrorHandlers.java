@@ -15,6 +15,12 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -24,6 +30,7 @@ import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseTooManyArgumentsException;
 import com.github.rvesse.airline.restrictions.Strings;
 
 public class TestErrorHandlers {
@@ -82,4 +89,62 @@ public class TestErrorHandlers {
         Strings cmd = result.getCommand();
         Assert.assertFalse(cmd.helpOption.showHelpIfErrors(result));
     }
+
+    @Test
+    public void errorHandlerCollectAllStackless() {
+        ParseResult<Strings> result = SingleCommand.<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new CollectAll()))
+                .parseWithResult("--not-empty", "", "--not-blank", "  ");
+        Assert.assertEquals(result.getErrors().size(), 2);
+        for (ParseException e : result.getErrors()) {
+            Assert.assertEquals(e.getStackTrace().length, 0);
+            Assert.assertNotNull(e.getMessage());
+        }
+
+        // Stack traces are only suppressed for the duration of the parse
+        Assert.assertFalse(ParseException.suppressStackTraces(false));
+        Assert.assertTrue(new ParseException("test").getStackTrace().length > 0);
+    }
+
+    @Test
+    public void errorHandlerFailFastKeepsStackTrace() {
+        try {
+            SingleCommand.<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new FailFast()))
+                    .parse("--not-empty", "");
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            Assert.assertTrue(e.getStackTrace().length > 0);
+        }
+    }
+
+    @Test
+    public void errorMessagesSerialized() throws IOException, ClassNotFoundException {
+        // Format arguments are frequently meta-data which isn't serializable
+        ParseException e = new ParseException("Option %s is invalid", new Object() {
+            @Override
+            public String toString() {
+                return "--foo";
+            }
+        });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(output)) {
+            objects.writeObject(e);
+        }
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ParseException copy = (ParseException) objects.readObject();
+            Assert.assertEquals(copy.getMessage(), "Option --foo is invalid");
+        }
+    }
+
+    @Test
+    public void errorMessagesFormattedLazily() {
+        ParseException e = new ParseException("Option %s requires %d values", "--foo", 2);
+        Assert.assertEquals(e.getMessage(), "Option --foo requires 2 values");
+        Assert.assertEquals(e.getMessage(), "Option --foo requires 2 values");
+
+        IllegalStateException cause = new IllegalStateException();
+        e = new ParseTooManyArgumentsException(cause, "Too many arguments: %s", "foo");
+        Assert.assertSame(e.getCause(), cause);
+        Assert.assertEquals(e.getMessage(), "Too many arguments: foo");
+    }
 }
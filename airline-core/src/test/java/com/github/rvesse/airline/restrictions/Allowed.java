@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.AllowedValues;
+
+@Command(name = "allowed")
+public class Allowed {
+
+    public static enum Colour {
+        RED, GREEN, BLUE
+    }
+
+    @Option(name = "--raw")
+    @AllowedRawValues(allowedValues = { "foo", "bar" })
+    public String raw;
+
+    @Option(name = "--raw-ci")
+    @AllowedRawValues(allowedValues = { "Foo", "Bar" }, ignoreCase = true)
+    public String rawIgnoreCase;
+
+    @Option(name = "--int")
+    @AllowedValues(allowedValues = { "1", "2", "3" })
+    public int integer;
+
+    @Option(name = "--colour")
+    @AllowedValues(allowedValues = { "RED", "BLUE" })
+    public Colour colour;
+}
@@ -15,6 +15,118 @@
  */
 package com.github.rvesse.airline.restrictions;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.common.AllowedRawValuesRestriction;
+import com.github.rvesse.airline.restrictions.common.AllowedValuesRestriction;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.TypeConverter;
+
 public class TestAllowedValues {
 
+    private static class ExposedAllowedValues extends AllowedValuesRestriction {
+        public ExposedAllowedValues(String... rawValues) {
+            super(rawValues);
+        }
+
+        public Set<Object> values(Class<?> type, TypeConverter converter) {
+            return createAllowedValues(ParseState.newInstance(), "test", type, converter);
+        }
+    }
+
+    private Allowed parse(String... args) {
+        return SingleCommand.singleCommand(Allowed.class).parse(args);
+    }
+
+    @Test
+    public void allowed_raw_values_01() {
+        Assert.assertEquals(parse("--raw", "foo").raw, "foo");
+        Assert.assertEquals(parse("--raw", "bar").raw, "bar");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void allowed_raw_values_02() {
+        parse("--raw", "FOO");
+    }
+
+    @Test
+    public void allowed_raw_values_ignore_case_01() {
+        Assert.assertEquals(parse("--raw-ci", "foo").rawIgnoreCase, "foo");
+        Assert.assertEquals(parse("--raw-ci", "BAR").rawIgnoreCase, "BAR");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void allowed_raw_values_ignore_case_02() {
+        parse("--raw-ci", "baz");
+    }
+
+    @Test
+    public void allowed_raw_values_message() {
+        try {
+            parse("--raw", "baz");
+            Assert.fail("Expected a restriction violation");
+        } catch (ParseOptionIllegalValueException e) {
+            Assert.assertEquals(e.getAllowedValues(), new LinkedHashSet<Object>(Arrays.<Object> asList("foo", "bar")));
+        }
+    }
+
+    @Test
+    public void allowed_values_01() {
+        Assert.assertEquals(parse("--int", "2").integer, 2);
+        Assert.assertEquals(parse("--colour", "BLUE").colour, Allowed.Colour.BLUE);
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void allowed_values_02() {
+        parse("--int", "4");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void allowed_values_03() {
+        parse("--colour", "GREEN");
+    }
+
+    @Test
+    public void allowed_values_converted_once() {
+        final int[] conversions = new int[1];
+        DefaultTypeConverter converter = new DefaultTypeConverter() {
+            @Override
+            public Object convert(String name, Class<?> type, String value) {
+                conversions[0]++;
+                return super.convert(name, type, value);
+            }
+        };
+        ExposedAllowedValues restriction = new ExposedAllowedValues("RED", "BLUE");
+
+        // Values are converted once and re-used by subsequent parses
+        Set<Object> first = restriction.values(Allowed.Colour.class, converter);
+        Set<Object> second = restriction.values(Allowed.Colour.class, converter);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(conversions[0], 2);
+
+        // A different converter requires conversion again
+        Set<Object> third = restriction.values(Allowed.Colour.class, new DefaultTypeConverter());
+        Assert.assertNotSame(third, first);
+        Assert.assertEquals(third, first);
+    }
+
+    @Test
+    public void allowed_raw_values_shared_across_parses() {
+        AllowedRawValuesRestriction restriction = new AllowedRawValuesRestriction(true, Locale.ENGLISH, "Foo");
+        Assert.assertEquals(restriction.getAllowedValues(), new LinkedHashSet<String>(Arrays.asList("foo")));
+        for (String value : new String[] { "foo", "FOO", "fOo" }) {
+            restriction.preValidate(ParseState.newInstance(), (OptionMetadata) null, value);
+        }
+    }
 }
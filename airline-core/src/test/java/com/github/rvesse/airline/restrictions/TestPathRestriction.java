@@ -20,13 +20,29 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.github.rvesse.airline.Cli;
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.PathStatCache;
+import com.github.rvesse.airline.parser.PathStatCache.PathStat;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.restrictions.common.PathRestriction;
 
 public class TestPathRestriction {
 
@@ -286,4 +302,184 @@ public class TestPathRestriction {
         Assert.assertTrue(usage.contains("must be executable"));
         Assert.assertTrue(usage.contains("must exist"));
     }
+
+    @Test
+    public void path_stat_cache_01() {
+        PathStatCache cache = new PathStatCache();
+        PathStat stat = cache.stat("target");
+        Assert.assertTrue(stat.exists());
+        Assert.assertTrue(stat.isDirectory());
+        Assert.assertFalse(stat.isFile());
+        Assert.assertTrue(stat.isReadable());
+
+        // Repeated queries are answered from the cache
+        Assert.assertSame(cache.stat("target"), stat);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void path_stat_cache_02() {
+        PathStatCache cache = new PathStatCache();
+        PathStat stat = cache.stat("target/no-such-file.txt");
+        Assert.assertFalse(stat.exists());
+        Assert.assertFalse(stat.isFile());
+        Assert.assertFalse(stat.isDirectory());
+        Assert.assertFalse(stat.isReadable());
+        Assert.assertFalse(stat.isWritable());
+        Assert.assertFalse(stat.isExecutable());
+    }
+
+    private List<File> createFiles(int count) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File f = new File("target/parallel-paths-" + i + ".txt");
+            try (FileWriter writer = new FileWriter(f)) {
+                writer.append("test");
+            }
+            files.add(f);
+        }
+        return files;
+    }
+
+    private void deleteFiles(List<File> files) {
+        for (File f : files) {
+            if (f.exists())
+                f.delete();
+        }
+    }
+
+    @Test
+    public void path_restriction_parallel_01() throws IOException {
+        List<File> files = createFiles(50);
+        try {
+            List<String> args = new ArrayList<>();
+            for (File f : files) {
+                args.add(f.getPath());
+            }
+
+            ParallelPaths cmd = SingleCommand.<ParallelPaths> singleCommand(ParallelPaths.class).parse(args);
+            Assert.assertEquals(cmd.files, args);
+        } finally {
+            deleteFiles(files);
+        }
+    }
+
+    @Test
+    public void path_restriction_parallel_02() throws IOException {
+        List<File> files = createFiles(10);
+        try {
+            List<String> args = new ArrayList<>();
+            for (File f : files) {
+                args.add(f.getPath());
+            }
+            args.add(3, "target/no-such-file.txt");
+            args.add("target");
+
+            ParseResult<ParallelPaths> result = SingleCommand
+                    .<ParallelPaths> singleCommand(ParallelPaths.class,
+                            new ParserBuilder<ParallelPaths>().withErrorHandler(new CollectAll()).build())
+                    .parseWithResult(args);
+            Assert.assertFalse(result.wasSuccessful());
+            Assert.assertEquals(result.getErrors().size(), 2);
+
+            // Errors are reported in the order values were given
+            List<ParseException> errors = new ArrayList<>(result.getErrors());
+            Assert.assertTrue(errors.get(0).getMessage().contains("no-such-file.txt"));
+            Assert.assertTrue(errors.get(1).getMessage().contains("not a path to a file"));
+        } finally {
+            deleteFiles(files);
+        }
+    }
+
+    @Test
+    public void path_restriction_parallel_no_command() throws IOException {
+        List<File> files = createFiles(2);
+        try {
+            // Deferred values are validated even when no command is given
+            Cli<ParallelPaths> cli = parallelPathsCli();
+            ParseResult<ParallelPaths> result = cli.parseWithResult("--config", files.get(0).getPath(), "--config",
+                    "target/no-such-file.txt", "--config", files.get(1).getPath());
+            Assert.assertFalse(result.wasSuccessful());
+            Assert.assertEquals(countErrors(result, "no-such-file.txt"), 1);
+        } finally {
+            deleteFiles(files);
+        }
+    }
+
+    private Cli<ParallelPaths> parallelPathsCli() {
+        CliBuilder<ParallelPaths> builder = Cli.<ParallelPaths> builder("test").withCommand(ParallelPaths.class);
+        builder.withParser().withErrorHandler(new CollectAll());
+        return builder.build();
+    }
+
+    private int countErrors(ParseResult<?> result, String text) {
+        int count = 0;
+        for (ParseException e : result.getErrors()) {
+            if (e.getMessage().contains(text))
+                count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void path_restriction_parallel_no_command_other_restrictions() {
+        // Only deferred validation happens without a command, other final
+        // restrictions on the options given only apply with a command
+        Cli<ParallelPaths> cli = parallelPathsCli();
+        ParseResult<ParallelPaths> result = cli.parseWithResult("--once", "a", "--once", "b");
+        Assert.assertEquals(countErrors(result, "maximum of 1 times"), 0);
+
+        result = cli.parseWithResult("--once", "a", "--once", "b", "parallel-paths");
+        Assert.assertEquals(countErrors(result, "maximum of 1 times"), 1);
+    }
+
+    @Test
+    public void path_restriction_parallel_discarded_state() {
+        // Deferred validation belongs to the state that kept the value
+        CommandMetadata command = MetadataLoader.loadCommand(ParallelPaths.class);
+        OptionMetadata config = null;
+        for (OptionMetadata option : command.getAllOptions()) {
+            if (option.getOptions().contains("--config"))
+                config = option;
+        }
+        Assert.assertNotNull(config);
+
+        ParseState<ParallelPaths> state = ParseState.<ParallelPaths> newInstance();
+        ParseState<ParallelPaths> kept = state.withOptionValue(config, "target/kept.txt");
+        ParseState<ParallelPaths> discarded = state.withOptionValue(config, "target/discarded.txt");
+        Assert.assertNotSame(kept, discarded);
+
+        for (OptionRestriction restriction : config.getRestrictions()) {
+            if (restriction instanceof PathRestriction) {
+                Assert.assertTrue(state.getDeferredValues(restriction).isEmpty());
+                Assert.assertEquals(kept.getDeferredValues(restriction), Arrays.asList("target/kept.txt"));
+                Assert.assertEquals(discarded.getDeferredValues(restriction), Arrays.asList("target/discarded.txt"));
+                return;
+            }
+        }
+        Assert.fail("No path restriction");
+    }
+
+    @Test
+    public void path_restriction_parallel_stackless() throws IOException {
+        List<File> files = createFiles(4);
+        try {
+            List<String> args = new ArrayList<>();
+            for (File f : files) {
+                args.add(f.getPath());
+            }
+            args.add("target/no-such-file.txt");
+
+            // Errors created by the validation threads follow the error
+            // handler of the parse
+            ParseResult<ParallelPaths> result = SingleCommand
+                    .<ParallelPaths> singleCommand(ParallelPaths.class,
+                            new ParserBuilder<ParallelPaths>().withErrorHandler(new CollectAll()).build())
+                    .parseWithResult(args);
+            Assert.assertEquals(result.getErrors().size(), 1);
+            Assert.assertEquals(result.getErrors().iterator().next().getStackTrace().length, 0);
+        } finally {
+            deleteFiles(files);
+        }
+    }
 }
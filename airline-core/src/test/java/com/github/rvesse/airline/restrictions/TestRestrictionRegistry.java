@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.common.IsRequiredRestriction;
+import com.github.rvesse.airline.restrictions.common.NotBlankRestriction;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+public class TestRestrictionRegistry {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public static @interface Dynamic {
+    }
+
+    @Command(name = "ordered")
+    public static class Ordered {
+        @Option(name = "--a")
+        @NotBlank
+        @Required
+        public String a;
+
+        @Option(name = "--b")
+        @Required
+        @NotBlank
+        public String b;
+    }
+
+    private static OptionRestrictionFactory dynamicFactory() {
+        return new OptionRestrictionFactory() {
+            @Override
+            public OptionRestriction createOptionRestriction(Annotation annotation) {
+                return new None();
+            }
+
+            @Override
+            public List<Class<? extends Annotation>> supportedOptionAnnotations() {
+                List<Class<? extends Annotation>> supported = new ArrayList<>();
+                supported.add(Dynamic.class);
+                return supported;
+            }
+        };
+    }
+
+    @Test
+    public void restrictions_in_declaration_order() {
+        List<OptionMetadata> options = MetadataLoader.loadCommand(Ordered.class).getCommandOptions();
+        Assert.assertEquals(options.size(), 2);
+        Assert.assertTrue(options.get(0).getRestrictions().get(0) instanceof NotBlankRestriction);
+        Assert.assertTrue(options.get(0).getRestrictions().get(1) instanceof IsRequiredRestriction);
+        Assert.assertTrue(options.get(1).getRestrictions().get(0) instanceof IsRequiredRestriction);
+        Assert.assertTrue(options.get(1).getRestrictions().get(1) instanceof NotBlankRestriction);
+    }
+
+    @Test
+    public void registry_concurrent_registration() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int found = 0;
+                        for (int i = 0; i < 2000; i++) {
+                            for (Class<? extends Annotation> cls : RestrictionRegistry
+                                    .getOptionRestrictionAnnotationClasses()) {
+                                if (cls != null)
+                                    found++;
+                            }
+                        }
+                        return found;
+                    }
+                }));
+            }
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    for (int i = 0; i < 200; i++) {
+                        RestrictionRegistry.addOptionRestriction(Dynamic.class, dynamicFactory());
+                    }
+                    return 0;
+                }
+            }));
+            for (Future<Integer> future : futures) {
+                // Would fail with a ConcurrentModificationException if
+                // iteration raced with registration
+                future.get();
+            }
+            Assert.assertTrue(RestrictionRegistry.getOptionRestrictionAnnotationClasses().contains(Dynamic.class));
+        } finally {
+            executor.shutdownNow();
+            RestrictionRegistry.reset();
+        }
+        Assert.assertFalse(RestrictionRegistry.getOptionRestrictionAnnotationClasses().contains(Dynamic.class));
+    }
+}
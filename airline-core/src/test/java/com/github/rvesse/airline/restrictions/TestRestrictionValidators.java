@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Pattern;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+
+public class TestRestrictionValidators {
+
+    @Command(name = "validated")
+    public static class Validated {
+        @Option(name = "--pattern", arity = 1)
+        @Pattern(pattern = "[a-z]+")
+        @NotBlank
+        private String pattern;
+
+        @Option(name = "--exclusive")
+        @MutuallyExclusiveWith(tag = "x")
+        private boolean exclusive;
+
+        @Option(name = "--range", arity = 1)
+        @IntegerRange(min = 0, max = 5)
+        @Required
+        private int range;
+
+        @Arguments
+        @NotBlank
+        private List<String> args;
+    }
+
+    /**
+     * A restriction that records the values it validates
+     */
+    public static class Recording extends AbstractCommonRestriction {
+        private final List<Object> values = new ArrayList<>();
+
+        @Override
+        public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
+            values.add(value);
+        }
+    }
+
+    private static OptionMetadata option(CommandMetadata command, String name) {
+        for (OptionMetadata option : command.getAllOptions()) {
+            if (option.getOptions().contains(name))
+                return option;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @Test
+    public void validator_phases() {
+        CommandMetadata command = MetadataLoader.loadCommand(Validated.class);
+
+        OptionValidator pattern = option(command, "--pattern").getValidator();
+        Assert.assertTrue(pattern.hasPreValidation());
+        Assert.assertFalse(pattern.hasPostValidation());
+        Assert.assertFalse(pattern.hasFinalValidation());
+
+        OptionValidator exclusive = option(command, "--exclusive").getValidator();
+        Assert.assertFalse(exclusive.hasPreValidation());
+        Assert.assertFalse(exclusive.hasPostValidation());
+        Assert.assertTrue(exclusive.hasFinalValidation());
+
+        OptionValidator range = option(command, "--range").getValidator();
+        Assert.assertFalse(range.hasPreValidation());
+        Assert.assertTrue(range.hasPostValidation());
+        Assert.assertTrue(range.hasFinalValidation());
+
+        ArgumentsValidator args = command.getArguments().getValidator();
+        Assert.assertTrue(args.hasPreValidation());
+        Assert.assertFalse(args.hasPostValidation());
+        Assert.assertFalse(args.hasFinalValidation());
+    }
+
+    @Test
+    public void validator_compiled_once() {
+        OptionMetadata option = option(MetadataLoader.loadCommand(Validated.class), "--pattern");
+        Assert.assertSame(option.getValidator(), option.getValidator());
+        ArgumentsMetadata arguments = MetadataLoader.loadCommand(Validated.class).getArguments();
+        Assert.assertSame(arguments.getValidator(), arguments.getValidator());
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class, expectedExceptionsMessageRegExp = ".*non-blank.*")
+    public void validator_cheap_checks_first() {
+        // Both restrictions are violated but the cheaper is checked first
+        // regardless of declaration order
+        SingleCommand.singleCommand(Validated.class).parse("--range", "1", "--pattern", " ");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void validator_post_validation() {
+        SingleCommand.singleCommand(Validated.class).parse("--range", "6");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void validator_arguments() {
+        SingleCommand.singleCommand(Validated.class).parse("--range", "1", " ");
+    }
+
+    @Test
+    public void validator_valid() {
+        Validated cmd = SingleCommand.singleCommand(Validated.class).parse("--range", "1", "--pattern", "abc", "a");
+        Assert.assertEquals(cmd.pattern, "abc");
+        Assert.assertEquals(cmd.range, 1);
+    }
+
+    @Test
+    public void validator_custom_restriction() {
+        CommandMetadata command = MetadataLoader.loadCommand(Validated.class);
+        OptionMetadata range = option(command, "--range");
+        Recording recording = new Recording();
+        List<OptionRestriction> restrictions = new ArrayList<>(range.getRestrictions());
+        restrictions.add(recording);
+        OptionMetadata option = new OptionMetadata(range.getOptionType(), range.getOptions(), range.getTitle(),
+                range.getDescription(), range.getArity(), range.isHidden(), range.isOverride(), range.isSealed(),
+                restrictions, range.getTypeConverterProvider(), range.getAccessors().iterator().next());
+
+        OptionValidator validator = option.getValidator();
+        Assert.assertFalse(validator.hasPreValidation());
+        Assert.assertTrue(validator.hasPostValidation());
+        validator.postValidate(ParseState.newInstance(), 3);
+        Assert.assertEquals(recording.values.size(), 1);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+
+public class TestDefaultTypeConverter {
+
+    public static enum Mixed {
+        alpha, Beta, GAMMA, delta, DELTA
+    }
+
+    public static class FromString {
+        private final String value;
+
+        private FromString(String value) {
+            this.value = value;
+        }
+
+        public FromString(String value, boolean ignored) {
+            this("ctor:" + value);
+        }
+
+        public static FromString fromString(String value) {
+            return new FromString("fromString:" + value);
+        }
+
+        public static FromString valueOf(String value) {
+            return new FromString("valueOf:" + value);
+        }
+    }
+
+    public static class ValueOf {
+        private final String value;
+
+        public ValueOf(String value) {
+            this.value = "ctor:" + value;
+        }
+
+        private ValueOf(String value, boolean ignored) {
+            this.value = value;
+        }
+
+        public static ValueOf valueOf(String value) {
+            if (value.isEmpty())
+                throw new IllegalArgumentException();
+            return new ValueOf("valueOf:" + value, true);
+        }
+    }
+
+    public static class Constructor {
+        private final String value;
+
+        public Constructor(String value) {
+            this.value = value;
+        }
+    }
+
+    public static abstract class Abstract {
+        public Abstract(String value) {
+        }
+    }
+
+    static enum Hidden {
+        A
+    }
+
+    private final TypeConverter converter = new DefaultTypeConverter();
+
+    @Test
+    public void convert_enum() {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(converter.convert("test", TimeUnit.class, "SECONDS"), TimeUnit.SECONDS);
+            Assert.assertEquals(converter.convert("test", Mixed.class, "Beta"), Mixed.Beta);
+            Assert.assertEquals(converter.convert("test", Mixed.class, "DELTA"), Mixed.DELTA);
+        }
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void convert_enum_case_sensitive() {
+        converter.convert("test", Mixed.class, "beta");
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void convert_enum_inaccessible() {
+        // Behaves as before caching was introduced, valueOf() cannot be
+        // invoked on an enum that is not public
+        converter.convert("test", Hidden.class, "A");
+    }
+
+    @Test
+    public void convert_strategy_order() {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(((FromString) converter.convert("test", FromString.class, "a")).value,
+                    "fromString:a");
+            Assert.assertEquals(((ValueOf) converter.convert("test", ValueOf.class, "a")).value, "valueOf:a");
+            Assert.assertEquals(((Constructor) converter.convert("test", Constructor.class, "a")).value, "a");
+        }
+    }
+
+    @Test
+    public void convert_strategy_failure_falls_through() {
+        // valueOf() throws so the constructor is used
+        Assert.assertEquals(((ValueOf) converter.convert("test", ValueOf.class, "")).value, "ctor:");
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void convert_abstract() {
+        converter.convert("test", Abstract.class, "a");
+    }
+
+    @Test
+    public void convert_results() {
+        DefaultTypeConverter defaultConverter = new DefaultTypeConverter();
+        Assert.assertFalse(defaultConverter.tryConvertFromString("test", ValueOf.class, "a").wasSuccessfull());
+        Assert.assertFalse(defaultConverter.tryConvertFromValueOf("test", Constructor.class, "a").wasSuccessfull());
+        Assert.assertFalse(defaultConverter.tryConvertStringConstructor("test", Mixed.class, "a").wasSuccessfull());
+        Assert.assertTrue(defaultConverter.tryConvertFromValueOf("test", Mixed.class, "GAMMA").wasSuccessfull());
+        Assert.assertFalse(defaultConverter.tryConvertFromValueOf("test", Mixed.class, "gamma").wasSuccessfull());
+        Assert.assertTrue(
+                defaultConverter.tryConvertStringMethod("test", ValueOf.class, "a", "valueOf").wasSuccessfull());
+        Assert.assertTrue(
+                defaultConverter.tryConvertStringMethod("test", Integer.class, "12", "decode").wasSuccessfull());
+    }
+}
@@ -21,6 +21,8 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
@@ -370,6 +372,18 @@ public class TestTypeConverters {
         checkAlternateRadix(converter, 2);
     }
 
+    @Test
+    public void numeric_provider_stable_converter() {
+        // Allowed values are cached against the converter so providers should
+        // not create a new converter each time
+        for (DefaultNumericConverter provider : new DefaultNumericConverter[] { new Hexadecimal(), new Octal(),
+                new Binary(), new KiloAs1000() }) {
+            TypeConverter converter = provider.getTypeConverter((OptionMetadata) null, null);
+            Assert.assertSame(provider.getTypeConverter((OptionMetadata) null, null), converter);
+            Assert.assertSame(provider.getTypeConverter((ArgumentsMetadata) null, null), converter);
+        }
+    }
+
     @Test
     public void command_mixed_converters_01() {
         SingleCommand<ArgsRadix> cmd = SingleCommand.singleCommand(ArgsRadix.class);
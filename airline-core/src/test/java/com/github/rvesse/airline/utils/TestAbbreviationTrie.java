@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestAbbreviationTrie {
+
+    private AbbreviationTrie<String> create(String... names) {
+        Map<String, String> items = new LinkedHashMap<String, String>();
+        for (String name : names) {
+            // Items are identified by the portion of the name before any #
+            items.put(name.replace("#", ""), name.contains("#") ? name.substring(0, name.indexOf('#')) : name);
+        }
+        return new AbbreviationTrie<String>(items);
+    }
+
+    @Test
+    public void abbreviation_trie_unique() {
+        AbbreviationTrie<String> trie = create("remove", "rename", "add");
+        Assert.assertEquals(trie.find("a"), "add");
+        Assert.assertEquals(trie.find("add"), "add");
+        Assert.assertEquals(trie.find("rem"), "remove");
+        Assert.assertEquals(trie.find("ren"), "rename");
+        Assert.assertFalse(trie.isAmbiguous("rem"));
+    }
+
+    @Test
+    public void abbreviation_trie_ambiguous() {
+        AbbreviationTrie<String> trie = create("remove", "rename", "add");
+        Assert.assertNull(trie.find("re"));
+        Assert.assertTrue(trie.isAmbiguous("re"));
+        Assert.assertNull(trie.find(""));
+        Assert.assertTrue(trie.isAmbiguous(""));
+    }
+
+    @Test
+    public void abbreviation_trie_no_match() {
+        AbbreviationTrie<String> trie = create("remove", "rename", "add");
+        Assert.assertNull(trie.find("x"));
+        Assert.assertNull(trie.find("removed"));
+        Assert.assertFalse(trie.isAmbiguous("x"));
+        Assert.assertNull(trie.find(null));
+    }
+
+    @Test
+    public void abbreviation_trie_multiple_names_same_item() {
+        // --verbose and --verbosity both identify the same item so are not
+        // ambiguous with respect to each other
+        AbbreviationTrie<String> trie = create("--verbose", "--verbose#ity", "--version");
+        Assert.assertEquals(trie.find("--verbos"), "--verbose");
+        Assert.assertNull(trie.find("--ver"));
+        Assert.assertEquals(trie.find("--vers"), "--version");
+    }
+
+    @Test
+    public void abbreviation_trie_empty() {
+        AbbreviationTrie<String> trie = create();
+        Assert.assertNull(trie.find(""));
+        Assert.assertNull(trie.find("a"));
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestBkTree {
+
+    private static final List<String> NAMES = Arrays.asList("commit", "checkout", "clone", "config", "status",
+            "stash", "push", "pull", "commit", null);
+
+    @Test
+    public void bk_tree_distance() {
+        Assert.assertEquals(BkTree.distance("", ""), 0);
+        Assert.assertEquals(BkTree.distance("abc", ""), 3);
+        Assert.assertEquals(BkTree.distance("commit", "comit"), 1);
+        Assert.assertEquals(BkTree.distance("kitten", "sitting"), 3);
+        Assert.assertEquals(BkTree.distance("sitting", "kitten"), 3);
+    }
+
+    @Test
+    public void bk_tree_unique() {
+        Assert.assertEquals(new BkTree(NAMES).size(), 8);
+        Assert.assertEquals(new BkTree(Collections.<String> emptyList()).size(), 0);
+    }
+
+    @Test
+    public void bk_tree_find() {
+        BkTree tree = new BkTree(NAMES);
+        Assert.assertEquals(tree.find("comit", 1), Arrays.asList("commit"));
+        Assert.assertEquals(tree.find("pusj", 1), Arrays.asList("push"));
+        Assert.assertEquals(tree.find("pusj", 2), Arrays.asList("push", "pull"));
+        Assert.assertEquals(tree.find("status", 0), Arrays.asList("status"));
+        Assert.assertTrue(tree.find("xyzzy", 2).isEmpty());
+        Assert.assertTrue(tree.find(null, 2).isEmpty());
+        Assert.assertTrue(new BkTree(Collections.<String> emptyList()).find("commit", 2).isEmpty());
+    }
+
+    @Test
+    public void bk_tree_matches_linear_scan() {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < 500; i++) {
+            names.add("--option-" + Integer.toString(i * 7919, 36));
+        }
+        BkTree tree = new BkTree(names);
+        for (String query : Arrays.asList("--option-", "--optoin-a", "--option-1z", "-option-5k")) {
+            for (int max = 0; max <= 3; max++) {
+                List<String> expected = new ArrayList<String>();
+                for (String name : names) {
+                    if (BkTree.distance(query, name) <= max)
+                        expected.add(name);
+                }
+                List<String> actual = new ArrayList<String>(tree.find(query, max));
+                Collections.sort(expected);
+                Collections.sort(actual);
+                Assert.assertEquals(actual, expected, query + " within " + max);
+            }
+        }
+    }
+}
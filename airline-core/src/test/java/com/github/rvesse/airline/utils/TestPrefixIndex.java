@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestPrefixIndex {
+
+    private static final List<String> NAMES = Arrays.asList("remove", "rename", "add", "added", "rename", null);
+
+    @Test
+    public void prefix_index_sorted_unique() {
+        PrefixIndex index = new PrefixIndex(NAMES);
+        Assert.assertEquals(index.size(), 4);
+        Assert.assertEquals(index.getValues(), Arrays.asList("add", "added", "remove", "rename"));
+    }
+
+    @Test
+    public void prefix_index_find() {
+        PrefixIndex index = new PrefixIndex(NAMES);
+        Assert.assertEquals(index.find("re"), Arrays.asList("remove", "rename"));
+        Assert.assertEquals(index.find("ren"), Arrays.asList("rename"));
+        Assert.assertEquals(index.find("add"), Arrays.asList("add", "added"));
+        Assert.assertEquals(index.find("added"), Arrays.asList("added"));
+    }
+
+    @Test
+    public void prefix_index_find_all() {
+        PrefixIndex index = new PrefixIndex(NAMES);
+        Assert.assertEquals(index.find(""), index.getValues());
+        Assert.assertEquals(index.find(null), index.getValues());
+    }
+
+    @Test
+    public void prefix_index_no_match() {
+        PrefixIndex index = new PrefixIndex(NAMES);
+        Assert.assertTrue(index.find("x").isEmpty());
+        Assert.assertTrue(index.find("removed").isEmpty());
+        Assert.assertTrue(new PrefixIndex(Collections.<String> emptyList()).find("").isEmpty());
+    }
+}
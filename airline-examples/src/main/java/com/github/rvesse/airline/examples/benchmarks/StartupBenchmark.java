@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.examples.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.examples.inheritance.Child;
+import com.github.rvesse.airline.examples.inheritance.GoodGrandchild;
+import com.github.rvesse.airline.examples.inheritance.Parent;
+import com.github.rvesse.airline.examples.modules.ModuleReuse;
+import com.github.rvesse.airline.examples.modules.Modules;
+import com.github.rvesse.airline.examples.shipit.CheckAddress;
+import com.github.rvesse.airline.examples.shipit.Price;
+import com.github.rvesse.airline.examples.shipit.Send;
+import com.github.rvesse.airline.examples.simple.Paths;
+import com.github.rvesse.airline.examples.simple.Required;
+import com.github.rvesse.airline.examples.simple.RequiredArguments;
+import com.github.rvesse.airline.examples.simple.Simple;
+import com.github.rvesse.airline.examples.userguide.GettingStarted;
+import com.github.rvesse.airline.examples.userguide.Tool;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.injection.InjectionAnnotationRegistry;
+
+/**
+ * A simple benchmark of the start up cost of loading command meta-data
+ * <p>
+ * Compares the cost of recognising injection marker annotations via the
+ * {@link InjectionAnnotationRegistry}, which resolves the marker annotations
+ * once per class loader, against the previous approach of attempting to load
+ * the optional Guice annotation class for every field scanned. It also reports
+ * the overall cost of loading the meta-data for the example commands from
+ * scratch.
+ * </p>
+ * <p>
+ * Run with no arguments for the default number of iterations or pass the
+ * number of iterations as the only argument.
+ * </p>
+ */
+public class StartupBenchmark {
+
+    private static final String GUICE_INJECT = "com.google.inject.Inject";
+
+    //@formatter:off
+    private static final Class<?>[] COMMANDS = {
+        Simple.class, Required.class, RequiredArguments.class, Paths.class,
+        Send.class, Price.class, CheckAddress.class,
+        Parent.class, Child.class, GoodGrandchild.class,
+        Modules.class, ModuleReuse.class,
+        GettingStarted.class, Tool.class
+    };
+    //@formatter:on
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        // Gather all the classes that scanning the commands visits
+        List<Class<?>> classes = new ArrayList<>();
+        for (Class<?> command : COMMANDS) {
+            gather(command, classes);
+        }
+        int fields = 0;
+        for (Class<?> cls : classes) {
+            fields += cls.getDeclaredFields().length;
+        }
+        System.out.println(String.format("Benchmarking %,d commands, %,d classes and %,d fields for %,d iterations",
+                COMMANDS.length, classes.size(), fields, iterations));
+
+        long perField = 0, registry = 0, load = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            perField = perFieldLookup(classes, iterations);
+            registry = registryLookup(classes, iterations);
+            load = loadMetadata(iterations);
+        }
+
+        System.out.println(String.format("Per field Class.forName() lookup: %,d ns/iteration", perField / iterations));
+        System.out.println(String.format("Injection annotation registry:    %,d ns/iteration", registry / iterations));
+        System.out.println(String.format("Saving:                           %,d ns/iteration (%.1fx)",
+                (perField - registry) / iterations, (double) perField / Math.max(1, registry)));
+        System.out.println(String.format("Loading all command meta-data:    %,d ns/iteration", load / iterations));
+    }
+
+    private static void gather(Class<?> type, List<Class<?>> classes) {
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            if (classes.contains(cls))
+                continue;
+            classes.add(cls);
+            for (Field field : cls.getDeclaredFields()) {
+                if (field.getAnnotations().length > 0 && !field.getType().isPrimitive()
+                        && !field.getType().getName().startsWith("java."))
+                    gather(field.getType(), classes);
+            }
+        }
+    }
+
+    /**
+     * Emulates the previous approach of attempting to load the Guice
+     * annotation class for every annotated field
+     */
+    private static long perFieldLookup(List<Class<?>> classes, int iterations) {
+        int injections = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (Class<?> cls : classes) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (field.getAnnotations().length == 0)
+                        continue;
+                    try {
+                        @SuppressWarnings("unchecked")
+                        Class<? extends Annotation> guice = (Class<? extends Annotation>) Class.forName(GUICE_INJECT);
+                        if (field.getAnnotation(guice) != null)
+                            injections++;
+                    } catch (ClassNotFoundException e) {
+                        // Guice not present
+                    }
+                    if (field.getAnnotation(javax.inject.Inject.class) != null)
+                        injections++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(injections);
+        return elapsed;
+    }
+
+    /**
+     * Uses the registry as the meta-data loader now does
+     */
+    private static long registryLookup(List<Class<?>> classes, int iterations) {
+        int injections = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (Class<?> cls : classes) {
+                for (Field field : cls.getDeclaredFields()) {
+                    Annotation[] annotations = field.getAnnotations();
+                    for (Annotation annotation : annotations) {
+                        if (InjectionAnnotationRegistry.isInjectionAnnotation(annotation.annotationType()))
+                            injections++;
+                    }
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(injections);
+        return elapsed;
+    }
+
+    private static long loadMetadata(int iterations) {
+        int options = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MetadataLoader.clearCache();
+            for (Class<?> command : COMMANDS) {
+                options += MetadataLoader.loadCommandByReflection(command).getAllOptions().size();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(options);
+        return elapsed;
+    }
+
+    private static volatile int sink;
+
+    private static void consume(int value) {
+        sink += value;
+    }
+}
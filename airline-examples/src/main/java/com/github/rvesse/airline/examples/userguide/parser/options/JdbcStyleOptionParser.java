@@ -78,7 +78,7 @@ public class JdbcStyleOptionParser<T> extends AbstractOptionParser<T> {
                     return null;
 
                 // Otherwise treat as an invalid option
-                state.getParserConfiguration().getErrorHandler()
+                state.getErrorHandler()
                         .handleError(new ParseOptionMissingValueException(pair));
             }
 
@@ -91,7 +91,7 @@ public class JdbcStyleOptionParser<T> extends AbstractOptionParser<T> {
                 if (first)
                     return null;
 
-                state.getParserConfiguration().getErrorHandler().handleError(new ParseOptionUnexpectedException(
+                state.getErrorHandler().handleError(new ParseOptionUnexpectedException(
                         "JDBC style option '%s' refers to option '%s' which does not refer to a known option", pair, nameValue[0]));
             }
 
@@ -113,7 +113,7 @@ public class JdbcStyleOptionParser<T> extends AbstractOptionParser<T> {
                 if (first)
                     return null;
 
-                state.getParserConfiguration().getErrorHandler().handleError(new ParseOptionUnexpectedException(
+                state.getErrorHandler().handleError(new ParseOptionUnexpectedException(
                         "JDBC style option '%s' refers to option  '%s' which has arity %d, only arity 1 options are supported",
                         pair, nameValue[0], option.getArity()));
             }
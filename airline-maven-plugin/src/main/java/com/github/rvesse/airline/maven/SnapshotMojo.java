@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.maven;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import com.github.rvesse.airline.model.MetadataSnapshot;
+import com.github.rvesse.airline.maven.sources.PreparedSource;
+
+//@formatter:off
+@Mojo(name = "snapshot", 
+    defaultPhase = LifecyclePhase.PROCESS_CLASSES, 
+    requiresOnline = false, 
+    requiresDependencyResolution = ResolutionScope.RUNTIME,
+    threadSafe = true,
+    requiresProject = true
+)
+//@formatter:on
+public class SnapshotMojo extends AbstractAirlineMojo {
+
+    /**
+     * Directory to which snapshots are written, snapshots are written as
+     * resources so that they may be found via
+     * {@link MetadataSnapshot#load(Class)} at runtime
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File outputDirectory;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (project == null)
+            throw new MojoFailureException("Maven project was not injected into Mojo");
+        if (pluginDescriptor == null)
+            throw new MojoFailureException("Plugin Descriptor was not injected into Mojo");
+
+        Log log = getLog();
+
+        // Prepare the class realm
+        prepareClassRealm();
+
+        // Discover classes and get their meta-data as appropriate
+        List<PreparedSource> sources = prepareSources(false);
+        if (sources.size() == 0) {
+            log.info("No sources specified so nothing to do");
+            return;
+        }
+
+        for (PreparedSource source : sources) {
+            if (!source.isGlobal()) {
+                log.info(String.format("Skipping %s as snapshots can only be created for classes with @Cli",
+                        source.getSourceClass()));
+                continue;
+            }
+
+            File snapshotFile = new File(outputDirectory, MetadataSnapshot.getResourceName(source.getSourceClass()));
+            File parent = snapshotFile.getParentFile();
+            if (!parent.exists() && !parent.mkdirs())
+                throw new MojoFailureException(String.format("Failed to create directory %s", parent));
+
+            try (OutputStream output = new FileOutputStream(snapshotFile)) {
+                MetadataSnapshot.create(source.getSourceClass()).write(output);
+            } catch (IOException e) {
+                throw new MojoFailureException(
+                        String.format("Failed to write Airline metadata snapshot %s", snapshotFile), e);
+            }
+            log.info(String.format("Wrote Airline metadata snapshot for %s to %s", source.getSourceClass(),
+                    snapshotFile));
+        }
+    }
+}
@@ -0,0 +1,507 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.DefaultOption;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Partial;
+import com.github.rvesse.airline.annotations.restrictions.Partials;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GeneratedCommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.injection.InjectionAnnotationRegistry;
+
+/**
+ * Generates the source of a {@link GeneratedCommandMetadata} implementation for
+ * a single command class
+ * <p>
+ * Fields are visited in the same order, and with the same rules, as
+ * {@link com.github.rvesse.airline.model.MetadataLoader} uses when scanning a
+ * command via reflection so the generated meta-data is equivalent.
+ * </p>
+ */
+class CommandMetadataGenerator {
+
+    //@formatter:off
+    private static final Set<String> STRUCTURAL_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            Option.class.getCanonicalName(),
+            Arguments.class.getCanonicalName(),
+            DefaultOption.class.getCanonicalName(),
+            Partial.class.getCanonicalName(),
+            Partials.class.getCanonicalName()));
+    private static final Set<String> METADATA_TYPES = new HashSet<>(Arrays.asList(
+            GlobalMetadata.class.getCanonicalName(),
+            CommandGroupMetadata.class.getCanonicalName(),
+            CommandMetadata.class.getCanonicalName()));
+    //@formatter:on
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement command;
+    private final PackageElement commandPackage;
+    private final StringBuilder body = new StringBuilder();
+    private final Map<String, String> fieldVariables = new HashMap<>();
+
+    CommandMetadataGenerator(ProcessingEnvironment env, TypeElement command) {
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.command = command;
+        this.commandPackage = this.elements.getPackageOf(command);
+    }
+
+    /**
+     * Gets the qualified name of the generated class
+     * 
+     * @return Generated class name
+     */
+    String getGeneratedClassName() {
+        return this.elements.getBinaryName(this.command).toString() + GeneratedCommandMetadata.CLASS_SUFFIX;
+    }
+
+    private String getGeneratedSimpleName() {
+        String name = getGeneratedClassName();
+        return this.commandPackage.isUnnamed() ? name
+                : name.substring(this.commandPackage.getQualifiedName().length() + 1);
+    }
+
+    /**
+     * Generates the source
+     * 
+     * @return Source code
+     * @throws UnsupportedCommandException
+     *             Thrown if the command uses constructs that can't be
+     *             generated
+     */
+    String generate() throws UnsupportedCommandException {
+        if (!isAccessible(this.command))
+            throw new UnsupportedCommandException("command class is not accessible from its package");
+        if (!this.command.getTypeParameters().isEmpty())
+            throw new UnsupportedCommandException("command class is generic");
+
+        scan(this.command, new ArrayList<VariableElement>());
+
+        StringBuilder source = new StringBuilder();
+        source.append("// Generated by the Airline annotation processor, do not edit\n");
+        if (!this.commandPackage.isUnnamed()) {
+            source.append("package ").append(this.commandPackage.getQualifiedName()).append(";\n\n");
+        }
+        source.append("import java.lang.reflect.Field;\n");
+        source.append("import java.util.Arrays;\n");
+        source.append("import java.util.List;\n\n");
+        source.append("import com.github.rvesse.airline.Accessor;\n");
+        source.append("import com.github.rvesse.airline.annotations.OptionType;\n");
+        source.append("import com.github.rvesse.airline.model.ArgumentsMetadata;\n");
+        source.append("import com.github.rvesse.airline.model.CommandMetadata;\n");
+        source.append("import com.github.rvesse.airline.model.GeneratedCommandLoader;\n");
+        source.append("import com.github.rvesse.airline.model.GeneratedCommandMetadata;\n");
+        source.append("import com.github.rvesse.airline.model.OptionMetadata;\n");
+        source.append("import com.github.rvesse.airline.parser.ParserUtil;\n");
+        source.append("import com.github.rvesse.airline.parser.PrimitiveOptionValue;\n");
+        source.append("import com.github.rvesse.airline.utils.AirlineUtils;\n\n");
+        source.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        source.append("public final class ").append(getGeneratedSimpleName())
+                .append(" implements GeneratedCommandMetadata {\n\n");
+        source.append("    @Override\n");
+        source.append("    public CommandMetadata loadCommand() {\n");
+        source.append("        GeneratedCommandLoader loader = new GeneratedCommandLoader(")
+                .append(classLiteral(this.command)).append(");\n");
+        source.append(this.body);
+        source.append("        return loader.build();\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void scan(TypeElement type, List<VariableElement> path) throws UnsupportedCommandException {
+        if (type.getKind().isInterface())
+            return;
+
+        for (TypeElement cls = type; cls != null
+                && !cls.getQualifiedName().contentEquals(Object.class.getName()); cls = getSuperclass(cls)) {
+            for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+                List<VariableElement> fieldPath = new ArrayList<>(path);
+                fieldPath.add(field);
+
+                for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+                    if (isInjectionAnnotation(
+                            ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString()))
+                        inject(field, fieldPath);
+                }
+
+                Option option = field.getAnnotation(Option.class);
+                boolean defaultOption = field.getAnnotation(DefaultOption.class) != null;
+                if (option != null) {
+                    option(field, fieldPath, option, defaultOption);
+                } else if (defaultOption) {
+                    throw new UnsupportedCommandException("field %s has @DefaultOption without @Option",
+                            field.getSimpleName());
+                }
+
+                Arguments arguments = field.getAnnotation(Arguments.class);
+                if (arguments != null) {
+                    arguments(field, fieldPath, arguments);
+                }
+            }
+        }
+    }
+
+    private void inject(VariableElement field, List<VariableElement> path) throws UnsupportedCommandException {
+        TypeElement fieldType = getTypeElement(field);
+        if (fieldType == null)
+            throw new UnsupportedCommandException("injected field %s is not of a class type", field.getSimpleName());
+
+        if (METADATA_TYPES.contains(fieldType.getQualifiedName().toString())) {
+            String accessor = accessor(path);
+            this.body.append("        loader.addMetadataInjection(").append(accessor).append(");\n");
+        } else {
+            scan(fieldType, path);
+        }
+    }
+
+    private void option(VariableElement field, List<VariableElement> path, Option option, boolean defaultOption)
+            throws UnsupportedCommandException {
+        String title = option.title().isEmpty() ? field.getSimpleName().toString() : option.title();
+
+        int arity = option.arity();
+        if (arity < 0 && arity != Integer.MIN_VALUE)
+            throw new UnsupportedCommandException("invalid arity for option %s", title);
+        if (arity < 0) {
+            arity = isBoolean(field.asType()) ? 0 : 1;
+        }
+
+        TypeElement provider;
+        try {
+            option.typeConverterProvider();
+            throw new UnsupportedCommandException("unable to determine type converter provider for option %s",
+                    title);
+        } catch (MirroredTypeException e) {
+            provider = asAccessibleType(e.getTypeMirror());
+        }
+
+        String accessor = accessor(path);
+        String fieldVar = fieldVariable(field);
+        String restrictions = restrictionCandidates(field);
+
+        //@formatter:off
+        this.body.append("        loader.addOption(").append(fieldVar).append(", new OptionMetadata(")
+                 .append("OptionType.").append(option.type().name()).append(",\n");
+        this.body.append("                Arrays.<String> asList(").append(stringList(option.name())).append("),\n");
+        this.body.append("                ").append(constant(title)).append(",\n");
+        this.body.append("                ").append(constant(option.description())).append(",\n");
+        this.body.append("                ").append(arity).append(", ")
+                 .append(option.hidden()).append(", ")
+                 .append(option.override()).append(", ")
+                 .append(option.sealed()).append(",\n");
+        this.body.append("                loader.optionRestrictions(").append(fieldVar).append(restrictions).append("),\n");
+        this.body.append("                ParserUtil.createInstance(").append(classLiteral(provider)).append("),\n");
+        this.body.append("                ").append(accessor).append("), ").append(defaultOption).append(");\n");
+        //@formatter:on
+    }
+
+    private void arguments(VariableElement field, List<VariableElement> path, Arguments arguments)
+            throws UnsupportedCommandException {
+        String[] titles = arguments.title();
+        if (titles.length == 1 && titles[0].equals("")) {
+            titles = new String[] { field.getSimpleName().toString() };
+        }
+
+        TypeElement provider;
+        try {
+            arguments.typeConverterProvider();
+            throw new UnsupportedCommandException("unable to determine type converter provider for arguments %s",
+                    field.getSimpleName());
+        } catch (MirroredTypeException e) {
+            provider = asAccessibleType(e.getTypeMirror());
+        }
+
+        String accessor = accessor(path);
+        String fieldVar = fieldVariable(field);
+        String restrictions = restrictionCandidates(field);
+
+        //@formatter:off
+        this.body.append("        loader.addArguments(").append(fieldVar).append(", new ArgumentsMetadata(")
+                 .append("Arrays.<String> asList(").append(stringList(titles)).append("),\n");
+        this.body.append("                ").append(constant(arguments.description())).append(",\n");
+        this.body.append("                loader.argumentsRestrictions(").append(fieldVar).append(restrictions).append("),\n");
+        this.body.append("                ParserUtil.createInstance(").append(classLiteral(provider)).append("),\n");
+        this.body.append("                ").append(accessor).append("));\n");
+        //@formatter:on
+    }
+
+    /**
+     * Builds the list of annotation classes on a field that might declare
+     * restrictions, which restrictions they actually declare is determined by
+     * the restriction registry at runtime
+     */
+    private String restrictionCandidates(VariableElement field) throws UnsupportedCommandException {
+        StringBuilder candidates = new StringBuilder();
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            String annotationName = annotationType.getQualifiedName().toString();
+            if (STRUCTURAL_ANNOTATIONS.contains(annotationName) || isInjectionAnnotation(annotationName))
+                continue;
+            Retention retention = annotationType.getAnnotation(Retention.class);
+            if (retention == null || retention.value() != RetentionPolicy.RUNTIME)
+                continue;
+            if (!isAccessible(annotationType))
+                throw new UnsupportedCommandException("annotation %s on field %s is not accessible",
+                        annotationType.getQualifiedName(), field.getSimpleName());
+            candidates.append(", ").append(classLiteral(annotationType));
+        }
+        return candidates.toString();
+    }
+
+    /**
+     * Builds an accessor expression for a field path, where possible this
+     * generates an accessor that assigns values directly
+     */
+    private String accessor(List<VariableElement> path) throws UnsupportedCommandException {
+        StringBuilder fields = new StringBuilder();
+        for (VariableElement field : path) {
+            if (fields.length() > 0)
+                fields.append(", ");
+            fields.append(fieldVariable(field));
+        }
+
+        String directType = path.size() == 1 ? getDirectAssignmentType(path.get(0)) : null;
+        if (directType == null)
+            return "new Accessor(" + fields + ")";
+
+        VariableElement field = path.get(0);
+        TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+        String target = "((" + declaringType.getQualifiedName() + ") commandInstance)." + field.getSimpleName();
+        TypeKind kind = field.asType().getKind();
+        StringBuilder accessor = new StringBuilder();
+        //@formatter:off
+        accessor.append("new Accessor(").append(fields).append(") {\n")
+                .append("                    @Override\n")
+                .append("                    public void addValues(Object commandInstance, Iterable<?> values) {\n")
+                .append("                        if (!values.iterator().hasNext()) {\n")
+                .append("                            return;\n")
+                .append("                        }\n")
+                .append("                        try {\n");
+        if (kind.isPrimitive()) {
+            // Unboxing null would fail so leave the field at its default
+            accessor.append("                            Object value = AirlineUtils.last(values);\n")
+                    .append("                            if (value != null) {\n")
+                    .append("                                ").append(target).append(" = (").append(directType).append(") value;\n")
+                    .append("                            }\n");
+        } else {
+            accessor.append("                            ").append(target).append(" = (").append(directType).append(") AirlineUtils.last(values);\n");
+        }
+        accessor.append("                        } catch (ClassCastException e) {\n")
+                .append("                            // Leave any conversions to the reflective implementation\n")
+                .append("                            super.addValues(commandInstance, values);\n")
+                .append("                        }\n")
+                .append("                    }\n");
+        String getter = getPrimitiveGetter(kind);
+        if (getter != null) {
+            accessor.append("\n")
+                    .append("                    @Override\n")
+                    .append("                    public boolean addPrimitiveValues(Object commandInstance, List<PrimitiveOptionValue> values) {\n")
+                    .append("                        if (values.isEmpty() || values.get(0).getType() != ").append(kind.toString().toLowerCase(Locale.ROOT)).append(".class) {\n")
+                    .append("                            return super.addPrimitiveValues(commandInstance, values);\n")
+                    .append("                        }\n")
+                    .append("                        ").append(target).append(" = values.get(values.size() - 1).").append(getter).append("();\n")
+                    .append("                        return true;\n")
+                    .append("                    }\n");
+        }
+        accessor.append("                }");
+        //@formatter:on
+        return accessor.toString();
+    }
+
+    /**
+     * Gets the {@code PrimitiveOptionValue} getter for a primitive field type
+     * 
+     * @return Getter name, or {@code null} if values of the type are never
+     *         held as primitive values
+     */
+    private static String getPrimitiveGetter(TypeKind kind) {
+        switch (kind) {
+        case INT:
+            return "getInt";
+        case LONG:
+            return "getLong";
+        case DOUBLE:
+            return "getDouble";
+        case BOOLEAN:
+            return "getBoolean";
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Gets whether an annotation is an injection marker, including those
+     * declared by providers on the processor path
+     */
+    private static boolean isInjectionAnnotation(String annotationName) {
+        return InjectionAnnotationRegistry.isInjectionAnnotation(annotationName,
+                CommandMetadataGenerator.class.getClassLoader());
+    }
+
+    /**
+     * Determines whether a field can be assigned directly from generated code
+     * 
+     * @return Type to cast values to when assigning, or {@code null} if the
+     *         field can't be assigned directly
+     */
+    private String getDirectAssignmentType(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                || modifiers.contains(Modifier.STATIC))
+            return null;
+        TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+        if (!this.elements.getPackageOf(declaringType).equals(this.commandPackage)
+                && !modifiers.contains(Modifier.PUBLIC))
+            return null;
+        if (!isAccessible(declaringType) || !declaringType.getTypeParameters().isEmpty())
+            return null;
+
+        TypeMirror type = field.asType();
+        if (type.getKind().isPrimitive())
+            return this.types.boxedClass(this.types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        if (type.getKind() != TypeKind.DECLARED)
+            return null;
+
+        TypeElement typeElement = (TypeElement) this.types.asElement(type);
+        if (!typeElement.getTypeParameters().isEmpty() || !isAccessible(typeElement))
+            return null;
+        // Collections need to be created and added to so leave them to the
+        // reflective implementation
+        TypeElement collection = this.elements.getTypeElement("java.util.Collection");
+        if (this.types.isAssignable(this.types.erasure(type), this.types.erasure(collection.asType())))
+            return null;
+        return typeElement.getQualifiedName().toString();
+    }
+
+    /**
+     * Gets the variable holding a field, declaring it on first use
+     */
+    private String fieldVariable(VariableElement field) throws UnsupportedCommandException {
+        TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+        String key = this.elements.getBinaryName(declaringType) + "#" + field.getSimpleName();
+        String var = this.fieldVariables.get(key);
+        if (var == null) {
+            if (!isAccessible(declaringType))
+                throw new UnsupportedCommandException("class %s declaring field %s is not accessible",
+                        declaringType.getQualifiedName(), field.getSimpleName());
+            var = "f" + this.fieldVariables.size();
+            this.fieldVariables.put(key, var);
+            this.body.append("        Field ").append(var).append(" = GeneratedCommandLoader.field(")
+                    .append(classLiteral(declaringType)).append(", ").append(constant(field.getSimpleName().toString()))
+                    .append(");\n");
+        }
+        return var;
+    }
+
+    private TypeElement asAccessibleType(TypeMirror type) throws UnsupportedCommandException {
+        TypeElement element = type.getKind() == TypeKind.DECLARED ? (TypeElement) this.types.asElement(type) : null;
+        if (element == null || !isAccessible(element))
+            throw new UnsupportedCommandException("type %s is not accessible", type);
+        return element;
+    }
+
+    private TypeElement getSuperclass(TypeElement cls) {
+        TypeMirror superclass = cls.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED)
+            return null;
+        return (TypeElement) this.types.asElement(superclass);
+    }
+
+    private TypeElement getTypeElement(VariableElement field) {
+        TypeMirror type = this.types.erasure(field.asType());
+        if (type.getKind() != TypeKind.DECLARED)
+            return null;
+        return (TypeElement) this.types.asElement(type);
+    }
+
+    private boolean isBoolean(TypeMirror type) {
+        if (type.getKind() == TypeKind.BOOLEAN)
+            return true;
+        if (type.getKind() != TypeKind.DECLARED)
+            return false;
+        return ((TypeElement) this.types.asElement(type)).getQualifiedName().contentEquals(Boolean.class.getName());
+    }
+
+    /**
+     * Determines whether a type can be referred to from the generated class
+     */
+    private boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            TypeElement currentType = (TypeElement) current;
+            if (currentType.getNestingKind() == NestingKind.LOCAL
+                    || currentType.getNestingKind() == NestingKind.ANONYMOUS)
+                return false;
+            Set<Modifier> modifiers = currentType.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE))
+                return false;
+            if (!modifiers.contains(Modifier.PUBLIC)
+                    && !this.elements.getPackageOf(currentType).equals(this.commandPackage))
+                return false;
+            current = currentType.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static String classLiteral(TypeElement type) {
+        return type.getQualifiedName() + ".class";
+    }
+
+    private String constant(String value) {
+        return this.elements.getConstantExpression(value);
+    }
+
+    private String stringList(String[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append(constant(value));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import com.github.rvesse.airline.model.GeneratedCommandMetadata;
+
+/**
+ * Annotation processor that generates command meta-data at compile time
+ * <p>
+ * For each class annotated with
+ * {@link com.github.rvesse.airline.annotations.Command} a
+ * {@link com.github.rvesse.airline.model.GeneratedCommandMetadata}
+ * implementation is generated which builds the command meta-data without
+ * having to scan the class hierarchy and its annotations via reflection.
+ * Where possible it also generates accessors that inject option values by
+ * direct field assignment. The generated code is picked up automatically by
+ * {@link com.github.rvesse.airline.model.MetadataLoader} at runtime.
+ * </p>
+ * <p>
+ * Commands that use constructs the processor cannot express, e.g. fields
+ * declared on classes that are not accessible from the command package, are
+ * skipped with a note and continue to be loaded via reflection.
+ * </p>
+ * <p>
+ * The commands with generated meta-data are listed in the
+ * {@link GeneratedCommandMetadata#INDEX_RESOURCE} which is written once
+ * processing is over, only commands listed there are looked up at runtime.
+ * </p>
+ */
+@SupportedAnnotationTypes("com.github.rvesse.airline.annotations.Command")
+public class CommandMetadataProcessor extends AbstractProcessor {
+
+    private final Set<String> indexed = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS)
+                    continue;
+                generate((TypeElement) element);
+            }
+        }
+        if (roundEnv.processingOver() && !this.indexed.isEmpty())
+            writeIndex();
+        // Never claim the annotations so other processors may also see them
+        return false;
+    }
+
+    private void generate(TypeElement command) {
+        CommandMetadataGenerator generator = new CommandMetadataGenerator(this.processingEnv, command);
+        String source;
+        try {
+            source = generator.generate();
+        } catch (UnsupportedCommandException e) {
+            this.processingEnv.getMessager().printMessage(Kind.NOTE,
+                    String.format("Not generating meta-data for %s, it will be loaded via reflection: %s",
+                            command.getQualifiedName(), e.getMessage()),
+                    command);
+            return;
+        }
+
+        if (this.processingEnv.getElementUtils().getTypeElement(generator.getGeneratedClassName()) != null) {
+            // Previously generated source is part of this compilation, as
+            // happens with some incremental builds, so we can't regenerate it
+            this.processingEnv.getMessager().printMessage(Kind.WARNING,
+                    String.format(
+                            "Generated meta-data for %s already exists and was not regenerated, perform a clean build if the command has changed",
+                            command.getQualifiedName()),
+                    command);
+            this.indexed.add(this.processingEnv.getElementUtils().getBinaryName(command).toString());
+            return;
+        }
+
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(generator.getGeneratedClassName(),
+                    command);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+            this.indexed.add(this.processingEnv.getElementUtils().getBinaryName(command).toString());
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Kind.ERROR,
+                    String.format("Failed to write generated meta-data for %s: %s", command.getQualifiedName(),
+                            e.getMessage()),
+                    command);
+        }
+    }
+
+    private void writeIndex() {
+        // Keep entries from a previous incremental compilation of the same
+        // output, stale entries are harmless as the lookup then just fails
+        try {
+            FileObject existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    GeneratedCommandMetadata.INDEX_RESOURCE);
+            Reader reader = existing.openReader(true);
+            try {
+                BufferedReader lines = new BufferedReader(reader);
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#"))
+                        this.indexed.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index
+        }
+
+        try {
+            FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    GeneratedCommandMetadata.INDEX_RESOURCE);
+            Writer writer = file.openWriter();
+            try {
+                for (String command : this.indexed) {
+                    writer.write(command);
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Kind.ERROR,
+                    String.format("Failed to write generated meta-data index %s: %s",
+                            GeneratedCommandMetadata.INDEX_RESOURCE, e.getMessage()));
+        }
+    }
+}
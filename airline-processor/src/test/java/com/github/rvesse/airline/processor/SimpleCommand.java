@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.HelpOption;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Partial;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.model.CommandMetadata;
+
+@Command(name = "simple", description = "A \"simple\" command")
+public class SimpleCommand {
+
+    public enum Kind {
+        A, B
+    }
+
+    @Inject
+    public HelpOption<SimpleCommand> help = new HelpOption<SimpleCommand>();
+
+    @Inject
+    CommandMetadata metadata;
+
+    @Option(name = { "-v", "--verbose" }, description = "Verbose output")
+    public boolean verbose;
+
+    @Option(name = "--count", arity = 1)
+    int count;
+
+    @Option(name = "--big")
+    long big;
+
+    @Option(name = "--name", title = "Name")
+    @NotBlank
+    String name;
+
+    @Option(name = "--kind")
+    Kind kind;
+
+    @Option(name = "--secret", hidden = true)
+    private String secret;
+
+    @Option(name = "--pair", arity = 2)
+    @Partial(appliesTo = { 0 }, restriction = AllowedRawValues.class)
+    @AllowedRawValues(allowedValues = { "a", "b" })
+    List<String> pair = new ArrayList<String>();
+
+    @Option(name = "--global", type = OptionType.GLOBAL)
+    boolean global;
+
+    @Arguments(title = "files", description = "Files to process")
+    @Required
+    List<String> files;
+
+    public String getSecret() {
+        return secret;
+    }
+}
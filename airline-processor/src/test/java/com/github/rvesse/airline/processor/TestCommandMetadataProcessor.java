@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GeneratedCommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+
+public class TestCommandMetadataProcessor {
+
+    private static OptionMetadata findOption(List<OptionMetadata> options, String name) {
+        for (OptionMetadata option : options) {
+            if (option.getOptions().contains(name))
+                return option;
+        }
+        Assert.fail("No option " + name);
+        return null;
+    }
+
+    private static void assertEquivalent(List<OptionMetadata> actual, List<OptionMetadata> expected) {
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(actual.toString(), expected.toString());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).getAccessors(), expected.get(i).getAccessors());
+            Assert.assertEquals(actual.get(i).getJavaType(), expected.get(i).getJavaType());
+            Assert.assertEquals(actual.get(i).getTypeConverterProvider().getClass(),
+                    expected.get(i).getTypeConverterProvider().getClass());
+            List<OptionRestriction> actualRestrictions = actual.get(i).getRestrictions();
+            List<OptionRestriction> expectedRestrictions = expected.get(i).getRestrictions();
+            Assert.assertEquals(actualRestrictions.size(), expectedRestrictions.size());
+            for (int j = 0; j < expectedRestrictions.size(); j++) {
+                Assert.assertEquals(actualRestrictions.get(j).getClass(), expectedRestrictions.get(j).getClass());
+            }
+        }
+    }
+
+    private static void assertEquivalent(Class<?> commandType) {
+        CommandMetadata generated = MetadataLoader.loadCommand(commandType);
+        CommandMetadata reflected = MetadataLoader.loadCommandByReflection(commandType);
+
+        Assert.assertEquals(generated, reflected);
+        Assert.assertEquals(generated.getName(), reflected.getName());
+        Assert.assertEquals(generated.getDescription(), reflected.getDescription());
+        Assert.assertEquals(generated.isHidden(), reflected.isHidden());
+        Assert.assertEquals(generated.getType(), reflected.getType());
+        assertEquivalent(generated.getGlobalOptions(), reflected.getGlobalOptions());
+        assertEquivalent(generated.getGroupOptions(), reflected.getGroupOptions());
+        assertEquivalent(generated.getCommandOptions(), reflected.getCommandOptions());
+        Assert.assertEquals(generated.getDefaultOption(), reflected.getDefaultOption());
+        Assert.assertEquals(String.valueOf(generated.getArguments()), String.valueOf(reflected.getArguments()));
+        if (reflected.getArguments() != null) {
+            ArgumentsMetadata generatedArgs = generated.getArguments();
+            ArgumentsMetadata reflectedArgs = reflected.getArguments();
+            Assert.assertEquals(generatedArgs.getRestrictions().size(), reflectedArgs.getRestrictions().size());
+            Assert.assertEquals(generatedArgs.getAccessors(), reflectedArgs.getAccessors());
+        }
+        Assert.assertEquals(generated.getMetadataInjections(), reflected.getMetadataInjections());
+    }
+
+    @Test
+    public void generated_classes_present() throws ClassNotFoundException {
+        for (Class<?> cls : Arrays.<Class<?>> asList(SimpleCommand.class, ChildCommand.class)) {
+            Class<?> generated = Class.forName(cls.getName() + GeneratedCommandMetadata.CLASS_SUFFIX);
+            Assert.assertTrue(GeneratedCommandMetadata.class.isAssignableFrom(generated));
+        }
+    }
+
+    @Test(expectedExceptions = ClassNotFoundException.class)
+    public void generated_classes_absent_for_non_commands() throws ClassNotFoundException {
+        Class.forName(BaseCommand.class.getName() + GeneratedCommandMetadata.CLASS_SUFFIX);
+    }
+
+    @Test
+    public void generated_index() throws IOException {
+        InputStream input = getClass().getClassLoader().getResourceAsStream(GeneratedCommandMetadata.INDEX_RESOURCE);
+        Assert.assertNotNull(input);
+        List<String> lines;
+        try (Scanner scanner = new Scanner(input, "UTF-8")) {
+            lines = Arrays.asList(scanner.useDelimiter("\\A").next().split("\n"));
+        }
+        Assert.assertTrue(lines.contains(SimpleCommand.class.getName()));
+        Assert.assertTrue(lines.contains(ChildCommand.class.getName()));
+        Assert.assertFalse(lines.contains(BaseCommand.class.getName()));
+    }
+
+    @Test
+    public void generated_metadata_simple() {
+        assertEquivalent(SimpleCommand.class);
+    }
+
+    @Test
+    public void generated_metadata_inheritance() {
+        assertEquivalent(ChildCommand.class);
+    }
+
+    @Test
+    public void generated_direct_accessors() {
+        CommandMetadata metadata = MetadataLoader.loadCommand(SimpleCommand.class);
+
+        // Non-private single valued fields are assigned directly
+        for (String name : new String[] { "--verbose", "--count", "--big", "--name", "--kind" }) {
+            Accessor accessor = findOption(metadata.getCommandOptions(), name).getAccessors().iterator().next();
+            Assert.assertNotEquals(accessor.getClass(), Accessor.class, name);
+        }
+        // Private fields, collections and fields of injected objects use the
+        // standard accessor
+        for (String name : new String[] { "--secret", "--pair", "--help" }) {
+            Accessor accessor = findOption(metadata.getCommandOptions(), name).getAccessors().iterator().next();
+            Assert.assertEquals(accessor.getClass(), Accessor.class, name);
+        }
+    }
+
+    @Test
+    public void generated_direct_accessors_null_primitive() {
+        CommandMetadata metadata = MetadataLoader.loadCommand(SimpleCommand.class);
+        SimpleCommand cmd = new SimpleCommand();
+        cmd.count = 7;
+
+        // Null can't be unboxed so the field keeps its current value
+        Accessor accessor = findOption(metadata.getCommandOptions(), "--count").getAccessors().iterator().next();
+        accessor.addValues(cmd, Arrays.asList((Object) null));
+        Assert.assertEquals(cmd.count, 7);
+    }
+
+    @Test
+    public void generated_parsing() {
+        SingleCommand<SimpleCommand> parser = SingleCommand.singleCommand(SimpleCommand.class);
+        //@formatter:off
+        SimpleCommand cmd = parser.parse("-v", "--count", "3", "--big", "12345678901", "--name", "test",
+                                         "--kind", "B", "--secret", "shh", "--pair", "a", "x", "foo", "bar");
+        //@formatter:on
+        Assert.assertTrue(cmd.verbose);
+        Assert.assertEquals(cmd.count, 3);
+        Assert.assertEquals(cmd.big, 12345678901l);
+        Assert.assertEquals(cmd.name, "test");
+        Assert.assertEquals(cmd.kind, SimpleCommand.Kind.B);
+        Assert.assertEquals(cmd.getSecret(), "shh");
+        Assert.assertEquals(cmd.pair, Arrays.asList("a", "x"));
+        Assert.assertEquals(cmd.files, Arrays.asList("foo", "bar"));
+        Assert.assertNotNull(cmd.metadata);
+        Assert.assertFalse(cmd.help.showHelpIfRequested());
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void generated_restrictions() {
+        SingleCommand.singleCommand(SimpleCommand.class).parse("--name", " ", "foo");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void generated_partial_restrictions() {
+        SingleCommand.singleCommand(SimpleCommand.class).parse("--pair", "c", "x", "foo");
+    }
+
+    @Test
+    public void generated_parsing_cli() {
+        Cli<BaseCommand> cli = Cli.<BaseCommand> builder("test").withCommand(ChildCommand.class).build();
+        ChildCommand cmd = (ChildCommand) cli.parse("child", "--base", "b", "--quiet", "v");
+        Assert.assertEquals(cmd.base, "b");
+        Assert.assertEquals(cmd.childBase, "b");
+        Assert.assertTrue(cmd.quiet);
+        Assert.assertEquals(cmd.value, "v");
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A thin client that runs commands on a {@link CommandServer}
+ * <p>
+ * The client forwards its arguments to the server, copies the output and
+ * error output of the command to its own, supplies input to the command as
+ * the command requests it and returns the exit code of the command. The
+ * protocol is deliberately simple so that clients may also be written in
+ * other languages, e.g. to avoid starting a JVM at all.
+ * </p>
+ */
+public class CommandClient {
+
+    /**
+     * Exit code used when the client cannot talk to the server
+     */
+    public static final int EXIT_CONNECTION_FAILED = 255;
+
+    private final int port;
+    private final String secret;
+
+    /**
+     * Creates a new client
+     * 
+     * @param port
+     *            Port the server listens on
+     * @param secret
+     *            Secret of the server
+     */
+    public CommandClient(int port, String secret) {
+        if (secret == null)
+            throw new NullPointerException("secret cannot be null");
+        this.port = port;
+        this.secret = secret;
+    }
+
+    /**
+     * Creates a client from a connection file written by
+     * {@link CommandServer#writeConnectionFile(File)}
+     * 
+     * @param file
+     *            Connection file
+     * @return Client
+     * @throws IOException
+     *             Thrown if the file cannot be read or is invalid
+     */
+    public static CommandClient fromConnectionFile(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), Protocol.UTF8));
+        try {
+            String port = reader.readLine();
+            String secret = reader.readLine();
+            if (port == null || secret == null)
+                throw new IOException("Connection file " + file + " is incomplete");
+            try {
+                return new CommandClient(Integer.parseInt(port.trim()), secret.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Connection file " + file + " has an invalid port", e);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Runs a command on the server
+     * 
+     * @param args
+     *            Arguments
+     * @param in
+     *            Input supplied to the command
+     * @param out
+     *            Output of the command
+     * @param err
+     *            Error output of the command
+     * @return Exit code of the command
+     * @throws IOException
+     *             Thrown if communication with the server fails
+     */
+    public int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.port);
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            output.writeInt(Protocol.MAGIC);
+            Protocol.writeString(output, this.secret);
+            output.writeInt(args.size());
+            for (String arg : args) {
+                Protocol.writeString(output, arg);
+            }
+            output.flush();
+
+            byte[] buffer = new byte[8192];
+            while (true) {
+                byte type = Protocol.readType(input);
+                byte[] payload = Protocol.readPayload(input, input.readInt());
+                switch (type) {
+                case Protocol.STDOUT:
+                    out.write(payload);
+                    out.flush();
+                    break;
+                case Protocol.STDERR:
+                    err.write(payload);
+                    err.flush();
+                    break;
+                case Protocol.READ:
+                    int read = in.read(buffer);
+                    if (read < 0) {
+                        Protocol.writeFrame(output, Protocol.STDIN_CLOSED, buffer, 0, 0);
+                    } else {
+                        Protocol.writeFrame(output, Protocol.STDIN, buffer, 0, read);
+                    }
+                    output.flush();
+                    break;
+                case Protocol.EXIT:
+                    return new DataInputStream(new ByteArrayInputStream(payload)).readInt();
+                default:
+                    throw new IOException("Unexpected frame type " + (char) type);
+                }
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Runs a command on a server, the first argument is the path to the
+     * connection file for the server and the remaining arguments are passed
+     * to the command, exits with the exit code of the command
+     * 
+     * @param args
+     *            Arguments
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: CommandClient <connection-file> [args...]");
+            System.exit(EXIT_CONNECTION_FAILED);
+        }
+        int exitCode;
+        try {
+            CommandClient client = fromConnectionFile(new File(args[0]));
+            exitCode = client.run(Arrays.asList(args).subList(1, args.length), System.in, System.out, System.err);
+        } catch (IOException e) {
+            System.err.println("Unable to run command on server: " + e.getMessage());
+            exitCode = EXIT_CONNECTION_FAILED;
+        }
+        System.exit(exitCode);
+    }
+}
@@ -0,0 +1,386 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.CommandRunner;
+
+/**
+ * A long lived server that hosts a CLI and runs its commands on behalf of
+ * {@link CommandClient}s
+ * <p>
+ * Starting a JVM and loading the meta-data for a CLI typically costs far more
+ * than parsing and running a command. A server pays those costs once, compiles
+ * a parse plan for the CLI and then runs each command it receives on a warm
+ * JVM with the output, error output, input and exit code of the command
+ * streamed back to the client. Commands use the standard streams as normal,
+ * see below, and are expected to implement either {@link Runnable} or
+ * {@link Callable}, the exit code of a {@link Callable} is the value it
+ * returns if that is a number. Commands are parsed and run by a
+ * {@link CommandRunner}, supply a derived runner to support other command
+ * types or exit code conventions.
+ * </p>
+ * <p>
+ * The server only listens on the loopback interface and clients must present
+ * the secret of the server, which is randomly generated unless one is
+ * provided. Use {@link #writeConnectionFile(File)} to make the port and secret
+ * available to clients via a file that only the current user can read.
+ * </p>
+ * <h3>Limitations</h3>
+ * <p>
+ * Commands share a single JVM so they must not call {@link System#exit(int)}
+ * and should not rely upon mutable static state. The standard streams are
+ * redirected per thread, output written by threads that a command did not
+ * start, e.g. threads of a shared pool, goes to the server's own streams.
+ * Commands run in the working directory and environment of the server rather
+ * than those of the client.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class CommandServer<T> implements Closeable {
+
+    private static final int HANDSHAKE_TIMEOUT = 10000;
+    private static final int ACCEPT_BACKOFF = 100;
+
+    private final CommandRunner<T> runner;
+    private final int requestedPort;
+    private final String secret;
+    private volatile ServerSocket socket;
+    private ExecutorService executor;
+
+    /**
+     * Creates a new server that listens on a free port with a randomly
+     * generated secret
+     * 
+     * @param cli
+     *            CLI
+     */
+    public CommandServer(Cli<T> cli) {
+        this(cli, 0, null);
+    }
+
+    /**
+     * Creates a new server
+     * 
+     * @param cli
+     *            CLI
+     * @param port
+     *            Port to listen on, {@code 0} to listen on a free port
+     * @param secret
+     *            Secret clients must present, {@code null} to generate a
+     *            random secret
+     */
+    public CommandServer(Cli<T> cli, int port, String secret) {
+        this(new CommandRunner<T>(cli), port, secret);
+    }
+
+    /**
+     * Creates a new server
+     * 
+     * @param runner
+     *            Runner used to parse and run commands
+     * @param port
+     *            Port to listen on, {@code 0} to listen on a free port
+     * @param secret
+     *            Secret clients must present, {@code null} to generate a
+     *            random secret
+     */
+    public CommandServer(CommandRunner<T> runner, int port, String secret) {
+        if (runner == null)
+            throw new NullPointerException("runner cannot be null");
+        if (port < 0 || port > 65535)
+            throw new IllegalArgumentException("port must be in the range 0-65535");
+        this.runner = runner;
+        this.requestedPort = port;
+        this.secret = secret != null ? secret : generateSecret();
+    }
+
+    private static String generateSecret() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b & 0xff));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Starts the server, connections are accepted on a background thread
+     * which keeps the JVM alive until the server is closed
+     * 
+     * @throws IOException
+     *             Thrown if the server cannot listen on the requested port
+     */
+    public synchronized void start() throws IOException {
+        if (this.socket != null)
+            throw new IllegalStateException("Server is already started");
+        ServerSocket socket = createServerSocket();
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.requestedPort));
+        this.socket = socket;
+
+        // The standard streams are redirected until the last command has
+        // finished after the server is closed
+        ThreadLocalStreams.install();
+        this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "airline-server-command-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }) {
+            @Override
+            protected void terminated() {
+                ThreadLocalStreams.uninstall();
+            }
+        };
+
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "airline-server-" + socket.getLocalPort());
+        acceptor.start();
+    }
+
+    /**
+     * Creates the unbound server socket the server listens on
+     * 
+     * @return Server socket
+     * @throws IOException
+     *             Thrown if the socket cannot be created
+     */
+    protected ServerSocket createServerSocket() throws IOException {
+        return new ServerSocket();
+    }
+
+    /**
+     * Gets whether the server is running
+     * 
+     * @return True if running, false otherwise
+     */
+    public boolean isRunning() {
+        ServerSocket socket = this.socket;
+        return socket != null && !socket.isClosed();
+    }
+
+    /**
+     * Gets the port the server is listening on
+     * 
+     * @return Port
+     */
+    public int getPort() {
+        ServerSocket socket = this.socket;
+        if (socket == null)
+            throw new IllegalStateException("Server is not started");
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Gets the secret clients must present
+     * 
+     * @return Secret
+     */
+    public String getSecret() {
+        return this.secret;
+    }
+
+    /**
+     * Writes a connection file that clients can use to connect to this server
+     * <p>
+     * The file contains the port on the first line and the secret on the
+     * second. The file must not already exist, it is created atomically and
+     * where the file system supports POSIX permissions it is created readable
+     * and writable only by its owner. An existing file or symbolic link is
+     * never overwritten so the secret can't be written somewhere others can
+     * read it.
+     * </p>
+     * 
+     * @param file
+     *            File to write
+     * @throws java.nio.file.FileAlreadyExistsException
+     *             Thrown if the file, or a symbolic link of that name, already
+     *             exists
+     * @throws IOException
+     *             Thrown if the file cannot be written
+     */
+    public void writeConnectionFile(File file) throws IOException {
+        Path path = file.toPath();
+        Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        FileAttribute<?>[] attributes = new FileAttribute<?>[0];
+        if (path.getFileSystem().supportedFileAttributeViews().contains("posix"))
+            attributes = new FileAttribute<?>[] {
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")) };
+
+        SeekableByteChannel channel = Files.newByteChannel(path, options, attributes);
+        OutputStream output = Channels.newOutputStream(channel);
+        try {
+            Writer writer = new OutputStreamWriter(output, Protocol.UTF8);
+            writer.write(getPort() + "\n" + this.secret + "\n");
+            writer.flush();
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Stops the server, commands that are already running are allowed to
+     * finish
+     * <p>
+     * Once they have the standard streams are restored, unless other servers
+     * in the JVM are still running.
+     * </p>
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        ServerSocket socket = this.socket;
+        if (socket == null)
+            return;
+        socket.close();
+        this.executor.shutdown();
+    }
+
+    private void accept() {
+        ServerSocket socket = this.socket;
+        while (!socket.isClosed()) {
+            final Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (IOException e) {
+                if (socket.isClosed())
+                    return;
+                // Failures such as running out of file descriptors are
+                // usually transient so back off briefly rather than spinning
+                // or giving up on the server
+                System.err.println("Failed to accept connection: " + e.getMessage());
+                try {
+                    Thread.sleep(ACCEPT_BACKOFF);
+                } catch (InterruptedException ie) {
+                    // Asked to stop accepting so stop the server
+                    Thread.currentThread().interrupt();
+                    try {
+                        close();
+                    } catch (IOException closeError) {
+                        // Ignore
+                    }
+                    return;
+                }
+                continue;
+            }
+            this.executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    serve(connection);
+                }
+            });
+        }
+    }
+
+    private void serve(Socket connection) {
+        try {
+            connection.setTcpNoDelay(true);
+            connection.setSoTimeout(HANDSHAKE_TIMEOUT);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+
+            if (input.readInt() != Protocol.MAGIC)
+                return;
+            byte[] presented = Protocol.readString(input).getBytes(Protocol.UTF8);
+            if (!MessageDigest.isEqual(presented, this.secret.getBytes(Protocol.UTF8)))
+                return;
+            int argc = input.readInt();
+            if (argc < 0 || argc > Protocol.MAX_ARGUMENTS)
+                return;
+            List<String> args = new ArrayList<String>(argc);
+            for (int i = 0; i < argc; i++) {
+                args.add(Protocol.readString(input));
+            }
+            connection.setSoTimeout(0);
+
+            PrintStream out = new PrintStream(new FrameOutputStream(output, Protocol.STDOUT), true, "UTF-8");
+            PrintStream err = new PrintStream(new FrameOutputStream(output, Protocol.STDERR), true, "UTF-8");
+            FrameInputStream in = new FrameInputStream(input, output, out, err);
+
+            int exitCode;
+            ThreadLocalStreams.set(in, out, err);
+            try {
+                exitCode = this.runner.run(args, err);
+            } finally {
+                ThreadLocalStreams.clear();
+                out.flush();
+                err.flush();
+            }
+
+            synchronized (output) {
+                output.writeByte(Protocol.EXIT);
+                output.writeInt(4);
+                output.writeInt(exitCode);
+                output.flush();
+            }
+        } catch (IOException e) {
+            // Client went away, nothing more we can do
+        } finally {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that requests input from the client on demand
+ * <p>
+ * Whenever the stream has no buffered input it flushes any pending output, so
+ * that prompts are visible to the user, sends a {@link Protocol#READ} frame
+ * and waits for the client to answer.
+ * </p>
+ */
+class FrameInputStream extends InputStream {
+
+    private final DataInputStream input;
+    private final DataOutputStream connection;
+    private final Flushable[] outputs;
+    private byte[] buffer = new byte[0];
+    private int position = 0;
+    private boolean closed = false;
+
+    FrameInputStream(DataInputStream input, DataOutputStream connection, Flushable... outputs) {
+        this.input = input;
+        this.connection = connection;
+        this.outputs = outputs;
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+        if (!fill())
+            return -1;
+        return this.buffer[this.position++] & 0xff;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (!fill())
+            return -1;
+        int count = Math.min(len, this.buffer.length - this.position);
+        System.arraycopy(this.buffer, this.position, b, off, count);
+        this.position += count;
+        return count;
+    }
+
+    @Override
+    public synchronized int available() {
+        return this.buffer.length - this.position;
+    }
+
+    private boolean fill() throws IOException {
+        while (this.position == this.buffer.length) {
+            if (this.closed)
+                return false;
+            for (Flushable output : this.outputs) {
+                output.flush();
+            }
+            synchronized (this.connection) {
+                Protocol.writeFrame(this.connection, Protocol.READ, this.buffer, 0, 0);
+                this.connection.flush();
+            }
+
+            byte type = Protocol.readType(this.input);
+            byte[] payload = Protocol.readPayload(this.input, this.input.readInt());
+            if (type == Protocol.STDIN_CLOSED) {
+                this.closed = true;
+            } else if (type != Protocol.STDIN) {
+                throw new IOException("Unexpected frame type " + (char) type);
+            }
+            this.buffer = payload;
+            this.position = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that sends everything written to it as frames of a given
+ * type
+ * <p>
+ * Output is buffered until the buffer fills or the stream is flushed. Several
+ * frame streams may share the same underlying connection, writes of whole
+ * frames are synchronized on the connection.
+ * </p>
+ */
+class FrameOutputStream extends OutputStream {
+
+    private final DataOutputStream connection;
+    private final byte type;
+    private final byte[] buffer = new byte[8192];
+    private int count = 0;
+
+    FrameOutputStream(DataOutputStream connection, byte type) {
+        this.connection = connection;
+        this.type = type;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (this.count == this.buffer.length)
+            flushBuffer();
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (len >= this.buffer.length) {
+            // Large writes bypass the buffer
+            flushBuffer();
+            while (len > 0) {
+                int chunk = Math.min(len, Protocol.MAX_FRAME);
+                send(b, off, chunk);
+                off += chunk;
+                len -= chunk;
+            }
+            return;
+        }
+        if (len > this.buffer.length - this.count)
+            flushBuffer();
+        System.arraycopy(b, off, this.buffer, this.count, len);
+        this.count += len;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        flushBuffer();
+        synchronized (this.connection) {
+            this.connection.flush();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            send(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+
+    private void send(byte[] data, int offset, int length) throws IOException {
+        synchronized (this.connection) {
+            Protocol.writeFrame(this.connection, this.type, data, offset, length);
+        }
+    }
+}
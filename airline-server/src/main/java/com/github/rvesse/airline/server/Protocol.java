@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Constants and helpers for the wire protocol spoken between a
+ * {@link CommandClient} and a {@link CommandServer}
+ * <p>
+ * All integers are 4 byte big endian values and all strings are an integer
+ * byte length followed by that many bytes of UTF-8. A client opens a
+ * connection and sends the {@link #MAGIC} number, the server secret, the
+ * number of arguments and then each argument. Thereafter both sides exchange
+ * frames consisting of a single type byte, an integer payload length and the
+ * payload.
+ * </p>
+ * <p>
+ * The server sends {@link #STDOUT} and {@link #STDERR} frames carrying output
+ * and a {@link #READ} frame, with an empty payload, whenever the command needs
+ * more input. The client answers each {@link #READ} with a single
+ * {@link #STDIN} frame carrying whatever input it has available, or an empty
+ * {@link #STDIN_CLOSED} frame once its input is exhausted. Finally the server
+ * sends an {@link #EXIT} frame whose payload is the integer exit code and
+ * closes the connection.
+ * </p>
+ */
+public final class Protocol {
+
+    /**
+     * Magic number sent at the start of each connection
+     */
+    public static final int MAGIC = 0x41495231;
+
+    /**
+     * Frame carrying input for the command, sent by the client
+     */
+    public static final byte STDIN = 'i';
+
+    /**
+     * Frame indicating the client has no more input, sent by the client
+     */
+    public static final byte STDIN_CLOSED = 'c';
+
+    /**
+     * Frame requesting more input, sent by the server
+     */
+    public static final byte READ = 'r';
+
+    /**
+     * Frame carrying output of the command, sent by the server
+     */
+    public static final byte STDOUT = 'o';
+
+    /**
+     * Frame carrying error output of the command, sent by the server
+     */
+    public static final byte STDERR = 'e';
+
+    /**
+     * Frame carrying the exit code of the command, sent by the server
+     */
+    public static final byte EXIT = 'x';
+
+    /**
+     * Maximum payload size of a frame
+     */
+    public static final int MAX_FRAME = 64 * 1024;
+
+    /**
+     * Maximum number of arguments accepted from a client
+     */
+    public static final int MAX_ARGUMENTS = 64 * 1024;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private Protocol() {
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(DataInputStream input) throws IOException {
+        return new String(readPayload(input, input.readInt()), UTF8);
+    }
+
+    static void writeFrame(DataOutputStream output, byte type, byte[] data, int offset, int length)
+            throws IOException {
+        output.writeByte(type);
+        output.writeInt(length);
+        output.write(data, offset, length);
+    }
+
+    static byte[] readPayload(DataInputStream input, int length) throws IOException {
+        if (length < 0 || length > MAX_FRAME)
+            throw new IOException("Invalid frame length " + length);
+        byte[] payload = new byte[length];
+        input.readFully(payload);
+        return payload;
+    }
+
+    static byte readType(DataInputStream input) throws IOException {
+        int type = input.read();
+        if (type < 0)
+            throw new EOFException("Connection closed unexpectedly");
+        return (byte) type;
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Redirects the standard streams on a per thread basis
+ * <p>
+ * Commands hosted by a {@link CommandServer} write to {@link System#out} and
+ * {@link System#err} and read from {@link System#in} as they would in a
+ * standalone process. Once {@link #install()} has been called the standard
+ * streams delegate to the streams of the connection the current thread is
+ * serving, threads started by a command inherit its streams, and all other
+ * threads continue to use the original streams.
+ * </p>
+ * <p>
+ * Installation is reference counted so several servers may share the
+ * redirection, the original streams are restored once every
+ * {@link #install()} has been matched by an {@link #uninstall()}.
+ * </p>
+ */
+final class ThreadLocalStreams {
+
+    private static final InheritableThreadLocal<PrintStream> OUT = new InheritableThreadLocal<PrintStream>();
+    private static final InheritableThreadLocal<PrintStream> ERR = new InheritableThreadLocal<PrintStream>();
+    private static final InheritableThreadLocal<InputStream> IN = new InheritableThreadLocal<InputStream>();
+
+    private static int installs = 0;
+    private static PrintStream originalOut, originalErr, installedOut, installedErr;
+    private static InputStream originalIn, installedIn;
+
+    private ThreadLocalStreams() {
+    }
+
+    /**
+     * Replaces the standard streams with ones that delegate to the current
+     * thread's streams, if already installed this just counts the additional
+     * installation
+     */
+    static synchronized void install() {
+        if (installs++ > 0)
+            return;
+        originalOut = System.out;
+        originalErr = System.err;
+        originalIn = System.in;
+        installedOut = new DelegatingPrintStream(OUT, originalOut);
+        installedErr = new DelegatingPrintStream(ERR, originalErr);
+        installedIn = new DelegatingInputStream(originalIn);
+        System.setOut(installedOut);
+        System.setErr(installedErr);
+        System.setIn(installedIn);
+    }
+
+    /**
+     * Undoes an installation, once all installations have been undone the
+     * original standard streams are restored
+     * <p>
+     * Streams that something else has replaced since they were installed are
+     * left alone.
+     * </p>
+     */
+    static synchronized void uninstall() {
+        if (installs == 0 || --installs > 0)
+            return;
+        if (System.out == installedOut)
+            System.setOut(originalOut);
+        if (System.err == installedErr)
+            System.setErr(originalErr);
+        if (System.in == installedIn)
+            System.setIn(originalIn);
+        originalOut = originalErr = installedOut = installedErr = null;
+        originalIn = installedIn = null;
+    }
+
+    /**
+     * Sets the streams for the current thread
+     * 
+     * @param in
+     *            Input
+     * @param out
+     *            Output
+     * @param err
+     *            Error output
+     */
+    static void set(InputStream in, PrintStream out, PrintStream err) {
+        IN.set(in);
+        OUT.set(out);
+        ERR.set(err);
+    }
+
+    /**
+     * Clears the streams for the current thread so it uses the original
+     * streams again
+     */
+    static void clear() {
+        IN.remove();
+        OUT.remove();
+        ERR.remove();
+    }
+
+    /**
+     * A print stream that delegates every call, rather than just the final
+     * writes, so that threads writing to different connections never contend
+     * on a shared lock
+     */
+    private static final class DelegatingPrintStream extends PrintStream {
+        private final ThreadLocal<PrintStream> local;
+        private final PrintStream fallback;
+
+        private DelegatingPrintStream(ThreadLocal<PrintStream> local, PrintStream fallback) {
+            super(fallback, true);
+            this.local = local;
+            this.fallback = fallback;
+        }
+
+        private PrintStream get() {
+            PrintStream stream = this.local.get();
+            return stream != null ? stream : this.fallback;
+        }
+
+        @Override
+        public void write(int b) {
+            get().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            get().write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            get().flush();
+        }
+
+        @Override
+        public void close() {
+            // The standard streams are never closed by commands
+            get().flush();
+        }
+
+        @Override
+        public boolean checkError() {
+            return get().checkError();
+        }
+
+        @Override
+        public void print(boolean b) {
+            get().print(b);
+        }
+
+        @Override
+        public void print(char c) {
+            get().print(c);
+        }
+
+        @Override
+        public void print(int i) {
+            get().print(i);
+        }
+
+        @Override
+        public void print(long l) {
+            get().print(l);
+        }
+
+        @Override
+        public void print(float f) {
+            get().print(f);
+        }
+
+        @Override
+        public void print(double d) {
+            get().print(d);
+        }
+
+        @Override
+        public void print(char[] s) {
+            get().print(s);
+        }
+
+        @Override
+        public void print(String s) {
+            get().print(s);
+        }
+
+        @Override
+        public void print(Object obj) {
+            get().print(obj);
+        }
+
+        @Override
+        public void println() {
+            get().println();
+        }
+
+        @Override
+        public void println(boolean b) {
+            get().println(b);
+        }
+
+        @Override
+        public void println(char c) {
+            get().println(c);
+        }
+
+        @Override
+        public void println(int i) {
+            get().println(i);
+        }
+
+        @Override
+        public void println(long l) {
+            get().println(l);
+        }
+
+        @Override
+        public void println(float f) {
+            get().println(f);
+        }
+
+        @Override
+        public void println(double d) {
+            get().println(d);
+        }
+
+        @Override
+        public void println(char[] s) {
+            get().println(s);
+        }
+
+        @Override
+        public void println(String s) {
+            get().println(s);
+        }
+
+        @Override
+        public void println(Object obj) {
+            get().println(obj);
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            get().printf(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream printf(Locale l, String format, Object... args) {
+            get().printf(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            get().format(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(Locale l, String format, Object... args) {
+            get().format(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq) {
+            get().append(csq);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq, int start, int end) {
+            get().append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(char c) {
+            get().append(c);
+            return this;
+        }
+    }
+
+    private static final class DelegatingInputStream extends InputStream {
+        private final InputStream fallback;
+
+        private DelegatingInputStream(InputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        private InputStream get() {
+            InputStream stream = IN.get();
+            return stream != null ? stream : this.fallback;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return get().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return get().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return get().available();
+        }
+    }
+}
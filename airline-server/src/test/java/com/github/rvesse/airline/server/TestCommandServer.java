@@ -0,0 +1,306 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.CommandRunner;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+
+public class TestCommandServer {
+
+    @Command(name = "echo")
+    public static class Echo implements Runnable {
+        @Arguments
+        public List<String> args = new ArrayList<String>();
+
+        @Override
+        public void run() {
+            StringBuilder builder = new StringBuilder();
+            for (String arg : args) {
+                if (builder.length() > 0)
+                    builder.append(' ');
+                builder.append(arg);
+            }
+            System.out.println(builder);
+        }
+    }
+
+    @Command(name = "upper")
+    public static class Upper implements Runnable {
+        @Override
+        public void run() {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, "UTF-8"));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    System.out.println(line.toUpperCase());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Command(name = "exit")
+    public static class Exit implements Callable<Integer> {
+        @Arguments
+        public int code;
+
+        @Override
+        public Integer call() {
+            System.err.println("exiting");
+            return code;
+        }
+    }
+
+    @Command(name = "fail")
+    public static class Fail implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    private CommandServer<Object> server;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        //@formatter:off
+        Cli<Object> cli = Cli.<Object>builder("test")
+                             .withCommands(Echo.class, Upper.class, Exit.class, Fail.class)
+                             .build();
+        //@formatter:on
+        this.server = new CommandServer<Object>(cli);
+        this.server.start();
+    }
+
+    @AfterClass
+    public void teardown() throws IOException {
+        this.server.close();
+        Assert.assertFalse(this.server.isRunning());
+    }
+
+    private static class Result {
+        private final int exitCode;
+        private final String out, err;
+
+        private Result(int exitCode, String out, String err) {
+            this.exitCode = exitCode;
+            this.out = out;
+            this.err = err;
+        }
+    }
+
+    private Result run(CommandClient client, String input, String... args) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = client.run(Arrays.asList(args), new ByteArrayInputStream(input.getBytes("UTF-8")), out, err);
+        return new Result(exitCode, out.toString("UTF-8"), err.toString("UTF-8"));
+    }
+
+    private Result run(String input, String... args) throws IOException {
+        return run(new CommandClient(this.server.getPort(), this.server.getSecret()), input, args);
+    }
+
+    @Test
+    public void server_runnable() throws IOException {
+        Result result = run("", "echo", "hello", "wörld");
+        Assert.assertEquals(result.exitCode, 0);
+        Assert.assertEquals(result.out, "hello wörld" + System.lineSeparator());
+        Assert.assertEquals(result.err, "");
+    }
+
+    @Test
+    public void server_callable_exit_code() throws IOException {
+        Result result = run("", "exit", "3");
+        Assert.assertEquals(result.exitCode, 3);
+        Assert.assertEquals(result.err, "exiting" + System.lineSeparator());
+    }
+
+    @Test
+    public void server_input() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            input.append("line ").append(i).append('\n');
+            expected.append("LINE ").append(i).append(System.lineSeparator());
+        }
+        Result result = run(input.toString(), "upper");
+        Assert.assertEquals(result.exitCode, 0);
+        Assert.assertEquals(result.out, expected.toString());
+    }
+
+    @Test
+    public void server_parse_error() throws IOException {
+        Result result = run("", "nosuch");
+        Assert.assertEquals(result.exitCode, CommandRunner.EXIT_PARSE_ERROR);
+        Assert.assertTrue(result.err.startsWith("Parser error: "), result.err);
+    }
+
+    @Test
+    public void server_command_error() throws IOException {
+        Result result = run("", "fail");
+        Assert.assertEquals(result.exitCode, CommandRunner.EXIT_ERROR);
+        Assert.assertTrue(result.err.contains("IllegalStateException: failed"), result.err);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void server_wrong_secret() throws IOException {
+        run(new CommandClient(this.server.getPort(), "wrong"), "", "echo", "hello");
+    }
+
+    @Test
+    public void server_connection_file() throws IOException {
+        File dir = Files.createTempDirectory("airline").toFile();
+        File file = new File(dir, "connection.server");
+        try {
+            this.server.writeConnectionFile(file);
+            Result result = run(CommandClient.fromConnectionFile(file), "", "echo", "file");
+            Assert.assertEquals(result.out, "file" + System.lineSeparator());
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void server_connection_file_permissions() throws IOException {
+        File dir = Files.createTempDirectory("airline").toFile();
+        File file = new File(dir, "connection.server");
+        try {
+            this.server.writeConnectionFile(file);
+            if (!file.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"))
+                throw new SkipException("File system does not support POSIX permissions");
+            Assert.assertEquals(Files.getPosixFilePermissions(file.toPath()),
+                    EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test(expectedExceptions = FileAlreadyExistsException.class)
+    public void server_connection_file_existing() throws IOException {
+        File file = File.createTempFile("airline", ".server");
+        try {
+            this.server.writeConnectionFile(file);
+        } finally {
+            Assert.assertEquals(file.length(), 0);
+            file.delete();
+        }
+    }
+
+    @Test(expectedExceptions = FileAlreadyExistsException.class)
+    public void server_connection_file_symlink() throws IOException {
+        File dir = Files.createTempDirectory("airline").toFile();
+        File target = new File(dir, "target");
+        File link = new File(dir, "connection.server");
+        try {
+            try {
+                Files.createSymbolicLink(link.toPath(), target.toPath());
+            } catch (UnsupportedOperationException e) {
+                throw new SkipException("File system does not support symbolic links");
+            }
+            this.server.writeConnectionFile(link);
+        } finally {
+            Assert.assertFalse(target.exists());
+            link.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void server_survives_accept_failures() throws IOException {
+        Cli<Object> cli = Cli.<Object> builder("test").withCommands(Echo.class).build();
+        final AtomicInteger failures = new AtomicInteger(3);
+        CommandServer<Object> server = new CommandServer<Object>(cli) {
+            @Override
+            protected ServerSocket createServerSocket() throws IOException {
+                return new ServerSocket() {
+                    @Override
+                    public Socket accept() throws IOException {
+                        // Fail while the socket is still open
+                        if (failures.getAndDecrement() > 0)
+                            throw new SocketException("Too many open files");
+                        return super.accept();
+                    }
+                };
+            }
+        };
+        server.start();
+        try {
+            Result result = run(new CommandClient(server.getPort(), server.getSecret()), "", "echo", "recovered");
+            Assert.assertEquals(result.out, "recovered" + System.lineSeparator());
+            Assert.assertTrue(failures.get() < 0);
+            Assert.assertTrue(server.isRunning());
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void server_concurrent_clients() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Result>> futures = new ArrayList<Future<Result>>();
+            for (int i = 0; i < 32; i++) {
+                final String word = "client" + i;
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        return run("", "echo", word, word);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Result result = futures.get(i).get();
+                Assert.assertEquals(result.exitCode, 0);
+                Assert.assertEquals(result.out, "client" + i + " client" + i + System.lineSeparator());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
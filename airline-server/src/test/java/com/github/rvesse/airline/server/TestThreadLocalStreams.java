@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+
+public class TestThreadLocalStreams {
+
+    @Test
+    public void streams_install_reference_counted() {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        InputStream in = System.in;
+
+        ThreadLocalStreams.install();
+        ThreadLocalStreams.install();
+        Assert.assertNotSame(System.out, out);
+        Assert.assertNotSame(System.err, err);
+        Assert.assertNotSame(System.in, in);
+
+        ThreadLocalStreams.uninstall();
+        Assert.assertNotSame(System.out, out);
+
+        ThreadLocalStreams.uninstall();
+        Assert.assertSame(System.out, out);
+        Assert.assertSame(System.err, err);
+        Assert.assertSame(System.in, in);
+
+        // Unmatched uninstalls are ignored
+        ThreadLocalStreams.uninstall();
+        Assert.assertSame(System.out, out);
+    }
+
+    @Test
+    public void streams_restored_when_server_closed() throws IOException, InterruptedException {
+        PrintStream out = System.out;
+        Cli<Object> cli = Cli.<Object> builder("test").withCommands(TestCommandServer.Echo.class).build();
+        CommandServer<Object> server = new CommandServer<Object>(cli);
+        server.start();
+        try {
+            Assert.assertNotSame(System.out, out);
+        } finally {
+            server.close();
+        }
+
+        // Streams are restored once the server's command threads finish
+        for (int i = 0; i < 100 && System.out != out; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertSame(System.out, out);
+    }
+}